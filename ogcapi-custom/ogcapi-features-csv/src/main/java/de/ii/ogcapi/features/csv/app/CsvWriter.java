@@ -0,0 +1,164 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.csv.app;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Writes CSV records as UTF-8 directly into a reusable buffer, which is passed to the sink in
+ * chunks of a fixed size.
+ *
+ * <p>A value that contains a comma, a double quote or a single quote is enclosed in double quotes
+ * and double quotes are escaped by doubling them. In all other values, line breaks are replaced by
+ * a space.
+ */
+class CsvWriter {
+
+  static final int CHUNK_SIZE = 64 * 1024;
+
+  private final Consumer<byte[]> sink;
+  private final byte[] buffer;
+  private int position;
+  private long bytesWritten;
+
+  CsvWriter(Consumer<byte[]> sink) {
+    this(sink, CHUNK_SIZE);
+  }
+
+  CsvWriter(Consumer<byte[]> sink, int chunkSize) {
+    this.sink = sink;
+    this.buffer = new byte[Math.max(chunkSize, 4)];
+  }
+
+  void writeRecord(String[] values) {
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        writeByte((byte) ',');
+      }
+      writeValue(values[i]);
+    }
+    writeByte((byte) '\n');
+  }
+
+  void writeRecord(String[] columns, Map<String, Object> values) {
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        writeByte((byte) ',');
+      }
+      Object value = values.get(columns[i]);
+      if (Objects.nonNull(value)) {
+        writeValue(value.toString());
+      }
+    }
+    writeByte((byte) '\n');
+  }
+
+  /** Passes all buffered bytes to the sink. */
+  void flush() {
+    if (position > 0) {
+      sink.accept(Arrays.copyOf(buffer, position));
+      bytesWritten += position;
+      position = 0;
+    }
+  }
+
+  /**
+   * @return the number of bytes passed to the sink so far
+   */
+  long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  private void writeValue(String value) {
+    if (needsQuotes(value)) {
+      writeByte((byte) '"');
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"') {
+          writeByte((byte) '"');
+          writeByte((byte) '"');
+        } else {
+          i = writeChar(value, i);
+        }
+      }
+      writeByte((byte) '"');
+    } else {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (isLineBreak(c)) {
+          // \r\n is a single line break
+          if (c == '\r' && i + 1 < value.length() && value.charAt(i + 1) == '\n') {
+            i++;
+          }
+          writeByte((byte) ' ');
+        } else {
+          i = writeChar(value, i);
+        }
+      }
+    }
+  }
+
+  private static boolean needsQuotes(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\'') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // the same characters as \R in regular expressions
+  private static boolean isLineBreak(char c) {
+    return (c >= '\n' && c <= '\r') || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  // writes the character at the index as UTF-8 and returns the index of the last char consumed
+  private int writeChar(String value, int index) {
+    if (buffer.length - position < 4) {
+      flush();
+    }
+
+    char c = value.charAt(index);
+    if (c < 0x80) {
+      buffer[position++] = (byte) c;
+    } else if (c < 0x800) {
+      buffer[position++] = (byte) (0xC0 | (c >> 6));
+      buffer[position++] = (byte) (0x80 | (c & 0x3F));
+    } else if (Character.isSurrogate(c)) {
+      if (Character.isHighSurrogate(c)
+          && index + 1 < value.length()
+          && Character.isLowSurrogate(value.charAt(index + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++index));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else {
+        // same replacement as String.getBytes() for malformed input
+        buffer[position++] = (byte) '?';
+      }
+    } else {
+      buffer[position++] = (byte) (0xE0 | (c >> 12));
+      buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+      buffer[position++] = (byte) (0x80 | (c & 0x3F));
+    }
+
+    return index;
+  }
+
+  private void writeByte(byte b) {
+    if (position == buffer.length) {
+      flush();
+    }
+    buffer[position++] = b;
+  }
+}
@@ -12,9 +12,6 @@ import de.ii.xtraplatform.features.domain.FeatureSchema;
 import de.ii.xtraplatform.features.domain.SchemaBase;
 import de.ii.xtraplatform.features.domain.transform.FeatureEncoderSfFlat;
 import de.ii.xtraplatform.features.domain.transform.FeatureSfFlat;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.SortedMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,13 +21,15 @@ public class FeatureEncoderCsv extends FeatureEncoderSfFlat {
 
   private final String collectionId;
   private final FeatureSchema featureSchema;
+  private final CsvWriter csvWriter;
 
-  private List<String> headers;
+  private String[] headers;
 
   public FeatureEncoderCsv(EncodingContextCsv encodingContext) {
     super(encodingContext);
     this.featureSchema = encodingContext.getSchema();
     this.collectionId = encodingContext.getCollectionId();
+    this.csvWriter = new CsvWriter(this::push);
   }
 
   @Override
@@ -42,22 +41,13 @@ public class FeatureEncoderCsv extends FeatureEncoderSfFlat {
 
     headers = getHeaders();
     try {
-      writeRecord(headers);
+      csvWriter.writeRecord(headers);
     } catch (Exception e) {
       throw new IllegalStateException("Could not write to CSV output stream: " + e.getMessage(), e);
     }
   }
 
-  private String processValue(String value) {
-    String escapedValue = value.replaceAll("\\R", " ");
-    if (value.contains(",") || value.contains("\"") || value.contains("'")) {
-      value = value.replace("\"", "\"\"");
-      escapedValue = "\"" + value + "\"";
-    }
-    return escapedValue;
-  }
-
-  private List<String> getHeaders() {
+  private String[] getHeaders() {
     ImmutableList.Builder<String> columns = ImmutableList.builder();
     for (FeatureSchema schema : featureSchema.getProperties()) {
       if (schema.getType() != SchemaBase.Type.GEOMETRY
@@ -65,38 +55,23 @@ public class FeatureEncoderCsv extends FeatureEncoderSfFlat {
         columns.add(schema.getName());
       }
     }
-    return columns.build();
+    return columns.build().toArray(new String[0]);
   }
 
   @Override
   public void onFeature(FeatureSfFlat feature) {
     long startFeature = System.nanoTime();
 
-    writeRecord(feature.getPropertiesAsMap());
+    csvWriter.writeRecord(headers, feature.getPropertiesAsMap());
     written++;
 
     featureDuration += System.nanoTime() - startFeature;
   }
 
-  private void writeRecord(SortedMap<String, Object> properties) {
-    ImmutableList.Builder<String> values = ImmutableList.builder();
-    for (String column : headers) {
-      if (properties.containsKey(column)) {
-        values.add(processValue(properties.get(column).toString()));
-      } else {
-        values.add(processValue(""));
-      }
-    }
-    writeRecord(values.build());
-  }
-
-  private void writeRecord(List<String> record) {
-    push(String.join(",", record).getBytes(StandardCharsets.UTF_8));
-    push("\n".getBytes(StandardCharsets.UTF_8));
-  }
-
   @Override
   public void onEnd(ModifiableContext context) {
+    csvWriter.flush();
+
     if (LOGGER.isTraceEnabled()) {
       long transformerDuration = (System.nanoTime() - transformerStart) / 1_000_000;
       long processingDuration = (System.nanoTime() - processingStart) / 1_000_000;
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.csv.app
+
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class CsvWriterSpec extends Specification {
+
+    static String write(int chunkSize, Closure<?> records) {
+        def out = new ByteArrayOutputStream()
+        def writer = new CsvWriter({ byte[] chunk -> out.write(chunk) }, chunkSize)
+        records(writer)
+        writer.flush()
+        new String(out.toByteArray(), StandardCharsets.UTF_8)
+    }
+
+    def 'Values with separators or quotes are quoted'() {
+        expect:
+        write(CsvWriter.CHUNK_SIZE, { it.writeRecord([value] as String[]) }) == csv + "\n"
+
+        where:
+        value               || csv
+        'plain'             || 'plain'
+        'a,b'               || '"a,b"'
+        'say "hi"'          || '"say ""hi"""'
+        "it's"              || "\"it's\""
+        'line\r\nbreak\nx'  || 'line break x'
+        'a,\nb'             || '"a,\nb"'
+        ''                  || ''
+        'Straße 😀'         || 'Straße 😀'
+    }
+
+    def 'Headers are escaped like values'() {
+        given:
+        String[] headers = ['id', 'name, official', 'a"b']
+
+        expect:
+        write(CsvWriter.CHUNK_SIZE, { it.writeRecord(headers) }) == 'id,"name, official","a""b"\n'
+    }
+
+    def 'Missing values are written as empty cells in the order of the columns'() {
+        given:
+        String[] columns = ['id', 'name', 'height']
+
+        expect:
+        write(CsvWriter.CHUNK_SIZE, {
+            it.writeRecord(columns, [height: 2.5, id: 1])
+            it.writeRecord(columns, [name: 'x,y'])
+        }) == '1,,2.5\n,"x,y",\n'
+    }
+
+    def 'Records are passed to the sink in chunks'() {
+        given:
+        def chunks = []
+        def writer = new CsvWriter({ byte[] chunk -> chunks << chunk }, 8)
+        String[] record = ['abcdefghij', 'äöü€😀', 'k,l']
+
+        when: 'a record smaller than a chunk is written'
+        new CsvWriter({ byte[] chunk -> chunks << chunk }).writeRecord(['a'] as String[])
+
+        then: 'nothing is passed to the sink before the flush'
+        chunks.isEmpty()
+
+        when: 'the records are larger than a chunk'
+        3.times { writer.writeRecord(record) }
+
+        then: 'full chunks are passed to the sink before the flush'
+        chunks.size() > 1
+        chunks.every { it.length <= 8 }
+
+        when:
+        writer.flush()
+        writer.flush()
+        def bytes = chunks.collectMany { it as List } as byte[]
+
+        then: 'multi-byte characters are never split and all bytes are counted'
+        new String(bytes, StandardCharsets.UTF_8) == 'abcdefghij,äöü€😀,"k,l"\n' * 3
+        writer.getBytesWritten() == bytes.length
+        chunks.every { new String(it, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8) == it }
+    }
+}
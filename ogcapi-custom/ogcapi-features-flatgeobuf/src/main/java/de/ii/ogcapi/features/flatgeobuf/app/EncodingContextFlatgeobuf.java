@@ -24,4 +24,6 @@ public interface EncodingContextFlatgeobuf extends EncodingContextSfFlat {
   Optional<CrsTransformer> getCrsTransformer();
 
   boolean getIs3d();
+
+  boolean getSpatialIndex();
 }
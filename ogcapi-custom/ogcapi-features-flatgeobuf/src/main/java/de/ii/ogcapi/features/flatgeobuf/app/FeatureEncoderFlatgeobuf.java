@@ -46,7 +46,7 @@ import org.wololo.flatgeobuf.generated.ColumnType;
 import org.wololo.flatgeobuf.generated.Feature;
 import org.wololo.flatgeobuf.generated.GeometryType;
 
-public class FeatureEncoderFlatgeobuf extends FeatureEncoderSfFlat {
+public class FeatureEncoderFlatgeobuf extends FeatureEncoderSfFlat implements AutoCloseable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FeatureEncoderFlatgeobuf.class);
 
@@ -56,6 +56,7 @@ public class FeatureEncoderFlatgeobuf extends FeatureEncoderSfFlat {
   private final int srid;
   private final boolean is3d;
   private final FlatBufferBuilder builder;
+  private final IndexedFeatureBuffer indexedFeatures;
   private HeaderMeta headerMeta;
 
   public FeatureEncoderFlatgeobuf(EncodingContextFlatgeobuf encodingContext) {
@@ -71,6 +72,7 @@ public class FeatureEncoderFlatgeobuf extends FeatureEncoderSfFlat {
     this.collectionId = encodingContext.getCollectionId();
     this.geometryFactory = new GeometryFactory();
     this.builder = new FlatBufferBuilder(16 * 1024); // 16kB
+    this.indexedFeatures = encodingContext.getSpatialIndex() ? new IndexedFeatureBuffer() : null;
   }
 
   @Override
@@ -80,17 +82,12 @@ public class FeatureEncoderFlatgeobuf extends FeatureEncoderSfFlat {
     }
     this.processingStart = System.nanoTime();
 
-    try {
-      push(Constants.MAGIC_BYTES);
-      headerMeta =
-          getHeader(collectionId, context.metadata().getNumberReturned().orElse(0)); // 0 = unknown
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      HeaderMeta.write(headerMeta, baos, builder);
-      push(baos.toByteArray());
-      builder.clear();
-    } catch (IOException e) {
-      throw new IllegalStateException(
-          "Could not write to Flatgeobuf output stream: " + e.getMessage(), e);
+    headerMeta =
+        getHeader(collectionId, context.metadata().getNumberReturned().orElse(0)); // 0 = unknown
+
+    // with a spatial index, the header is written at the end, when all features are known
+    if (Objects.isNull(indexedFeatures)) {
+      writeHeader();
     }
   }
 
@@ -133,7 +130,13 @@ public class FeatureEncoderFlatgeobuf extends FeatureEncoderSfFlat {
               : 0;
       final int featureOffset = Feature.createFeature(builder, geometryOffset, propertiesOffset, 0);
       builder.finishSizePrefixed(featureOffset);
-      push(builder.sizedByteArray());
+      if (Objects.nonNull(indexedFeatures)) {
+        indexedFeatures.add(
+            builder.sizedByteArray(),
+            Objects.nonNull(currentGeometry) ? currentGeometry.getEnvelopeInternal() : null);
+      } else {
+        push(builder.sizedByteArray());
+      }
       builder.clear();
       written++;
 
@@ -153,6 +156,12 @@ public class FeatureEncoderFlatgeobuf extends FeatureEncoderSfFlat {
 
   @Override
   public void onEnd(ModifiableContext context) {
+    if (Objects.nonNull(indexedFeatures)) {
+      try (indexedFeatures) {
+        writeIndexedFeatures();
+      }
+    }
+
     if (LOGGER.isTraceEnabled()) {
       long transformerDuration = (System.nanoTime() - transformerStart) / 1_000_000;
       long processingDuration = (System.nanoTime() - processingStart) / 1_000_000;
@@ -168,6 +177,49 @@ public class FeatureEncoderFlatgeobuf extends FeatureEncoderSfFlat {
     }
   }
 
+  // called when the feature stream ends, releases the buffered features if the stream was aborted
+  @Override
+  public void close() {
+    if (Objects.nonNull(indexedFeatures)) {
+      indexedFeatures.close();
+    }
+  }
+
+  private void writeHeader() {
+    try {
+      push(Constants.MAGIC_BYTES);
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      HeaderMeta.write(headerMeta, baos, builder);
+      push(baos.toByteArray());
+      builder.clear();
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          "Could not write to Flatgeobuf output stream: " + e.getMessage(), e);
+    }
+  }
+
+  private void writeIndexedFeatures() {
+    long start = System.nanoTime();
+
+    // the feature count must be exact, if there is an index
+    headerMeta.featuresCount = indexedFeatures.size();
+    headerMeta.indexNodeSize =
+        indexedFeatures.isIndexable() ? IndexedFeatureBuffer.NODE_SIZE : 0;
+    writeHeader();
+    indexedFeatures.writeTo(this::push);
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "Flatgeobuf file for collection {}: {} features, {} bytes{}, spatial index: {}, written in {}ms.",
+          collectionId,
+          indexedFeatures.size(),
+          indexedFeatures.getLength(),
+          indexedFeatures.isSpilled() ? " (buffered in a temporary file)" : "",
+          indexedFeatures.isIndexable() ? "yes" : "no, not all features have a geometry",
+          (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+
   private HeaderMeta getHeader(String name, long featureCount) {
     List<ColumnMeta> columns = new ArrayList<>();
 
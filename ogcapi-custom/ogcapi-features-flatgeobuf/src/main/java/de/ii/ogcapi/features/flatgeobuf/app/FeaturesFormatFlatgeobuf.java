@@ -152,6 +152,7 @@ public class FeaturesFormatFlatgeobuf extends FeatureFormatExtension implements
                 .schema(schema)
                 .crsTransformer(transformationContext.getCrsTransformer())
                 .is3d(crsInfo.is3d(crs))
+                .spatialIndex(configuration.isSpatialIndex())
                 .build()));
   }
 
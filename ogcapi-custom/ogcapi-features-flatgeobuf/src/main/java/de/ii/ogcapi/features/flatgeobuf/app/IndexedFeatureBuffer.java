@@ -0,0 +1,438 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.flatgeobuf.app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Buffers the encoded features of a FlatGeobuf file together with their envelopes, so that the
+ * features can be written in Hilbert order after a packed Hilbert R-tree. Feature bodies are kept
+ * in memory up to a threshold and then spilled to a temporary file.
+ *
+ * <p>The layout of the index follows the FlatGeobuf specification: all nodes are written from the
+ * root level down to the leaf level, each node as the four doubles of its bounding box followed by
+ * an unsigned 64-bit offset, in little endian byte order. The offset of a leaf node is the byte
+ * offset of the feature in the feature section, the offset of any other node is the index of its
+ * first child node.
+ */
+class IndexedFeatureBuffer implements AutoCloseable {
+
+  static final int NODE_SIZE = 16;
+  static final int MEMORY_THRESHOLD = 64 * 1024 * 1024;
+  private static final int NODE_ITEM_BYTES = 40;
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final int HILBERT_MAX = (1 << 16) - 1;
+
+  private final int memoryThreshold;
+  private byte[] memory;
+  private int memoryLength;
+  private Path spillFile;
+  private FileChannel spillChannel;
+  private long length;
+
+  private double[] envelopes;
+  private long[] offsets;
+  private int[] sizes;
+  private int count;
+  private boolean indexable;
+  private final Envelope extent;
+
+  IndexedFeatureBuffer() {
+    this(MEMORY_THRESHOLD);
+  }
+
+  IndexedFeatureBuffer(int memoryThreshold) {
+    this.memoryThreshold = memoryThreshold;
+    this.memory = new byte[Math.min(CHUNK_SIZE, memoryThreshold)];
+    this.envelopes = new double[4 * 1024];
+    this.offsets = new long[1024];
+    this.sizes = new int[1024];
+    this.indexable = true;
+    this.extent = new Envelope();
+  }
+
+  /**
+   * @param feature the size prefixed feature
+   * @param envelope the envelope of the feature geometry, {@code null} if there is no geometry
+   */
+  void add(byte[] feature, Envelope envelope) {
+    if (count == sizes.length) {
+      int capacity = count * 2;
+      envelopes = Arrays.copyOf(envelopes, capacity * 4);
+      offsets = Arrays.copyOf(offsets, capacity);
+      sizes = Arrays.copyOf(sizes, capacity);
+    }
+
+    if (Objects.isNull(envelope) || envelope.isNull()) {
+      indexable = false;
+    } else {
+      envelopes[count * 4] = envelope.getMinX();
+      envelopes[count * 4 + 1] = envelope.getMinY();
+      envelopes[count * 4 + 2] = envelope.getMaxX();
+      envelopes[count * 4 + 3] = envelope.getMaxY();
+      extent.expandToInclude(envelope);
+    }
+    offsets[count] = length;
+    sizes[count] = feature.length;
+    count++;
+
+    append(feature);
+  }
+
+  int size() {
+    return count;
+  }
+
+  /**
+   * @return {@code true}, if all features have a geometry and an index can be built
+   */
+  boolean isIndexable() {
+    return indexable && count > 0;
+  }
+
+  boolean isSpilled() {
+    return Objects.nonNull(spillChannel);
+  }
+
+  /**
+   * @return the number of bytes of all buffered features
+   */
+  long getLength() {
+    return length;
+  }
+
+  /**
+   * Passes the index and the features in Hilbert order to the sink. If the features are not
+   * indexable, only the features are passed in the order in which they were added.
+   */
+  void writeTo(Consumer<byte[]> sink) {
+    if (!isIndexable()) {
+      int[] order = new int[count];
+      Arrays.setAll(order, i -> i);
+      writeFeatures(order, sink);
+      return;
+    }
+
+    int[] order = hilbertSort();
+    writeIndex(order, sink);
+    writeFeatures(order, sink);
+  }
+
+  /** Releases the memory and deletes the temporary file, can be called more than once. */
+  @Override
+  public void close() {
+    memory = null;
+    if (Objects.nonNull(spillChannel)) {
+      try {
+        spillChannel.close();
+      } catch (IOException e) {
+        // ignore, the file is deleted on close
+      }
+      spillChannel = null;
+    }
+    deleteSpillFile();
+  }
+
+  private void deleteSpillFile() {
+    if (Objects.nonNull(spillFile)) {
+      try {
+        Files.deleteIfExists(spillFile);
+      } catch (IOException e) {
+        // ignore
+      }
+      spillFile = null;
+    }
+  }
+
+  private void append(byte[] feature) {
+    if (Objects.isNull(spillChannel) && memoryLength + (long) feature.length > memoryThreshold) {
+      spill();
+    }
+
+    if (Objects.nonNull(spillChannel)) {
+      try {
+        ByteBuffer buffer = ByteBuffer.wrap(feature);
+        while (buffer.hasRemaining()) {
+          spillChannel.write(buffer);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(
+            "Could not write to temporary Flatgeobuf file: " + e.getMessage(), e);
+      }
+    } else {
+      if (memoryLength + feature.length > memory.length) {
+        memory =
+            Arrays.copyOf(
+                memory,
+                (int)
+                    Math.min(
+                        Math.max((long) memory.length * 2, memoryLength + (long) feature.length),
+                        memoryThreshold));
+      }
+      System.arraycopy(feature, 0, memory, memoryLength, feature.length);
+      memoryLength += feature.length;
+    }
+
+    length += feature.length;
+  }
+
+  private void spill() {
+    try {
+      spillFile = Files.createTempFile("ogcapi-", ".fgb");
+      spillChannel =
+          FileChannel.open(
+              spillFile,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.DELETE_ON_CLOSE);
+      ByteBuffer buffer = ByteBuffer.wrap(memory, 0, memoryLength);
+      while (buffer.hasRemaining()) {
+        spillChannel.write(buffer);
+      }
+      memory = null;
+      memoryLength = 0;
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(
+          "Could not create temporary Flatgeobuf file: " + e.getMessage(), e);
+    }
+  }
+
+  // sorts descending by the Hilbert value of the envelope center, like the reference
+  // implementation; the value and the index are packed into a long to sort primitives
+  private int[] hilbertSort() {
+    double width = extent.getWidth();
+    double height = extent.getHeight();
+    long[] keys = new long[count];
+    for (int i = 0; i < count; i++) {
+      int x =
+          width > 0
+              ? (int)
+                  Math.floor(
+                      HILBERT_MAX
+                          * ((envelopes[i * 4] + envelopes[i * 4 + 2]) / 2 - extent.getMinX())
+                          / width)
+              : 0;
+      int y =
+          height > 0
+              ? (int)
+                  Math.floor(
+                      HILBERT_MAX
+                          * ((envelopes[i * 4 + 1] + envelopes[i * 4 + 3]) / 2 - extent.getMinY())
+                          / height)
+              : 0;
+      keys[i] = (hilbert(x, y) << 31) | i;
+    }
+    Arrays.sort(keys);
+
+    int[] order = new int[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = (int) (keys[count - 1 - i] & Integer.MAX_VALUE);
+    }
+    return order;
+  }
+
+  private void writeIndex(int[] order, Consumer<byte[]> sink) {
+    long[] levelBounds = levelBounds(count);
+    int numNodes = (int) levelBounds[1];
+    double[] nodes = new double[numNodes * 4];
+    long[] nodeOffsets = new long[numNodes];
+
+    // leaves are the last nodes, the offsets are the byte offsets in the feature section
+    int leafStart = numNodes - count;
+    long featureOffset = 0;
+    for (int i = 0; i < count; i++) {
+      int feature = order[i];
+      System.arraycopy(envelopes, feature * 4, nodes, (leafStart + i) * 4, 4);
+      nodeOffsets[leafStart + i] = featureOffset;
+      featureOffset += sizes[feature];
+    }
+
+    // each level is built from the level below, the root is the first node
+    for (int level = 0; level < levelBounds.length / 2 - 1; level++) {
+      int pos = (int) levelBounds[level * 2];
+      int end = (int) levelBounds[level * 2 + 1];
+      int parent = (int) levelBounds[level * 2 + 2];
+      while (pos < end) {
+        nodeOffsets[parent] = pos;
+        nodes[parent * 4] = Double.POSITIVE_INFINITY;
+        nodes[parent * 4 + 1] = Double.POSITIVE_INFINITY;
+        nodes[parent * 4 + 2] = Double.NEGATIVE_INFINITY;
+        nodes[parent * 4 + 3] = Double.NEGATIVE_INFINITY;
+        for (int j = 0; j < NODE_SIZE && pos < end; j++, pos++) {
+          nodes[parent * 4] = Math.min(nodes[parent * 4], nodes[pos * 4]);
+          nodes[parent * 4 + 1] = Math.min(nodes[parent * 4 + 1], nodes[pos * 4 + 1]);
+          nodes[parent * 4 + 2] = Math.max(nodes[parent * 4 + 2], nodes[pos * 4 + 2]);
+          nodes[parent * 4 + 3] = Math.max(nodes[parent * 4 + 3], nodes[pos * 4 + 3]);
+        }
+        parent++;
+      }
+    }
+
+    ByteBuffer buffer =
+        ByteBuffer.allocate(CHUNK_SIZE / NODE_ITEM_BYTES * NODE_ITEM_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < numNodes; i++) {
+      if (!buffer.hasRemaining()) {
+        // the sink may keep the chunk, the array of the buffer is reused
+        sink.accept(Arrays.copyOf(buffer.array(), buffer.position()));
+        buffer.clear();
+      }
+      buffer.putDouble(nodes[i * 4]);
+      buffer.putDouble(nodes[i * 4 + 1]);
+      buffer.putDouble(nodes[i * 4 + 2]);
+      buffer.putDouble(nodes[i * 4 + 3]);
+      buffer.putLong(nodeOffsets[i]);
+    }
+    if (buffer.position() > 0) {
+      sink.accept(Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+  }
+
+  private void writeFeatures(int[] order, Consumer<byte[]> sink) {
+    byte[] chunk = new byte[CHUNK_SIZE];
+    int position = 0;
+
+    for (int feature : order) {
+      int size = sizes[feature];
+      if (position + size > chunk.length && position > 0) {
+        sink.accept(Arrays.copyOf(chunk, position));
+        position = 0;
+      }
+      if (size > chunk.length) {
+        byte[] large = new byte[size];
+        read(offsets[feature], large, 0, size);
+        sink.accept(large);
+      } else {
+        read(offsets[feature], chunk, position, size);
+        position += size;
+      }
+    }
+
+    if (position > 0) {
+      sink.accept(Arrays.copyOf(chunk, position));
+    }
+  }
+
+  private void read(long offset, byte[] target, int targetOffset, int size) {
+    if (Objects.isNull(spillChannel)) {
+      System.arraycopy(memory, (int) offset, target, targetOffset, size);
+      return;
+    }
+
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(target, targetOffset, size);
+      long position = offset;
+      while (buffer.hasRemaining()) {
+        int read = spillChannel.read(buffer, position);
+        if (read < 0) {
+          throw new IOException("Unexpected end of file");
+        }
+        position += read;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          "Could not read from temporary Flatgeobuf file: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @return the start and end node index of each level, starting with the leaf level; the end of
+   *     the leaf level is the total number of nodes
+   */
+  static long[] levelBounds(long numItems) {
+    long n = numItems;
+    long numNodes = n;
+    long[] levelNumNodes = new long[64];
+    int levels = 0;
+    levelNumNodes[levels++] = n;
+    do {
+      n = (n + NODE_SIZE - 1) / NODE_SIZE;
+      numNodes += n;
+      levelNumNodes[levels++] = n;
+    } while (n != 1);
+
+    long[] bounds = new long[levels * 2];
+    n = numNodes;
+    for (int i = 0; i < levels; i++) {
+      bounds[i * 2] = n - levelNumNodes[i];
+      bounds[i * 2 + 1] = n;
+      n -= levelNumNodes[i];
+    }
+    return bounds;
+  }
+
+  /**
+   * @return the Hilbert value of a position in a 2^16 x 2^16 grid, as an unsigned 32-bit value
+   */
+  static long hilbert(int x, int y) {
+    int a = x ^ y;
+    int b = 0xFFFF ^ a;
+    int c = 0xFFFF ^ (x | y);
+    int d = x & (y ^ 0xFFFF);
+
+    int aa = a | (b >> 1);
+    int bb = (a >> 1) ^ a;
+    int cc = ((c >> 1) ^ (b & (d >> 1))) ^ c;
+    int dd = ((a & (c >> 1)) ^ (d >> 1)) ^ d;
+
+    a = aa;
+    b = bb;
+    c = cc;
+    d = dd;
+    aa = ((a & (a >> 2)) ^ (b & (b >> 2)));
+    bb = ((a & (b >> 2)) ^ (b & ((a ^ b) >> 2)));
+    cc ^= ((a & (c >> 2)) ^ (b & (d >> 2)));
+    dd ^= ((b & (c >> 2)) ^ ((a ^ b) & (d >> 2)));
+
+    a = aa;
+    b = bb;
+    c = cc;
+    d = dd;
+    aa = ((a & (a >> 4)) ^ (b & (b >> 4)));
+    bb = ((a & (b >> 4)) ^ (b & ((a ^ b) >> 4)));
+    cc ^= ((a & (c >> 4)) ^ (b & (d >> 4)));
+    dd ^= ((b & (c >> 4)) ^ ((a ^ b) & (d >> 4)));
+
+    a = aa;
+    b = bb;
+    c = cc;
+    d = dd;
+    cc ^= ((a & (c >> 8)) ^ (b & (d >> 8)));
+    dd ^= ((b & (c >> 8)) ^ ((a ^ b) & (d >> 8)));
+
+    a = cc ^ (cc >> 1);
+    b = dd ^ (dd >> 1);
+
+    int i0 = x ^ y;
+    int i1 = b | (0xFFFF ^ (i0 | a));
+
+    i0 = (i0 | (i0 << 8)) & 0x00FF00FF;
+    i0 = (i0 | (i0 << 4)) & 0x0F0F0F0F;
+    i0 = (i0 | (i0 << 2)) & 0x33333333;
+    i0 = (i0 | (i0 << 1)) & 0x55555555;
+
+    i1 = (i1 | (i1 << 8)) & 0x00FF00FF;
+    i1 = (i1 | (i1 << 4)) & 0x0F0F0F0F;
+    i1 = (i1 | (i1 << 2)) & 0x33333333;
+    i1 = (i1 | (i1 << 1)) & 0x55555555;
+
+    return ((i1 << 1) | i0) & 0xFFFFFFFFL;
+  }
+}
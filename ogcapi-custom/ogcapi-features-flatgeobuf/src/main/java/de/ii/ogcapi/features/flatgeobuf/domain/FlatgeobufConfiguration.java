@@ -12,9 +12,11 @@ import de.ii.ogcapi.features.core.domain.SfFlatConfiguration;
 import de.ii.ogcapi.foundation.domain.AliasConfiguration;
 import de.ii.ogcapi.foundation.domain.ExtensionConfiguration;
 import de.ii.ogcapi.foundation.domain.ProfilesConfiguration;
+import de.ii.xtraplatform.docs.DocIgnore;
 import de.ii.xtraplatform.docs.JsonDynamicSubType;
 import de.ii.xtraplatform.features.domain.transform.PropertyTransformations;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.immutables.value.Value;
 
 /**
@@ -49,6 +51,31 @@ public interface FlatgeobufConfiguration extends SfFlatConfiguration {
   @Override
   Map<String, String> getDefaultProfiles();
 
+  /**
+   * @langEn Set this to `true` to include a packed Hilbert R-tree spatial index in FlatGeobuf
+   *     responses. Clients can then read features in a bounding box with HTTP range requests. To
+   *     build the index, all features of a response are buffered before the first byte is sent;
+   *     large responses are buffered in a temporary file. The features are written in the order of
+   *     the index. If a feature has no geometry, the response is written without index.
+   * @langDe Setzen Sie dies auf `true`, um FlatGeobuf-Antworten mit einem gepackten Hilbert-R-Baum
+   *     als räumlichen Index zu erzeugen. Clients können dann Features in einer Bounding Box mit
+   *     HTTP-Range-Requests lesen. Für den Aufbau des Index werden alle Features einer Antwort
+   *     gepuffert, bevor das erste Byte gesendet wird; große Antworten werden in einer temporären
+   *     Datei gepuffert. Die Features werden in der Reihenfolge des Index geschrieben. Hat ein
+   *     Feature keine Geometrie, wird die Antwort ohne Index geschrieben.
+   * @default false
+   * @since v4.9
+   */
+  @Nullable
+  Boolean getSpatialIndex();
+
+  @Value.Derived
+  @Value.Auxiliary
+  @DocIgnore
+  default boolean isSpatialIndex() {
+    return getSpatialIndex() != null && getSpatialIndex();
+  }
+
   abstract class Builder extends ExtensionConfiguration.Builder {}
 
   @Override
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.flatgeobuf.app
+
+import org.locationtech.jts.geom.Envelope
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+class IndexedFeatureBufferSpec extends Specification {
+
+    def 'level bounds start with the leaf level and end with the root'() {
+        expect:
+        IndexedFeatureBuffer.levelBounds(numItems) as List == bounds
+
+        where:
+        numItems || bounds
+        1        || [1, 2, 0, 1]
+        16       || [1, 17, 0, 1]
+        17       || [3, 20, 1, 3, 0, 1]
+        257      || [20, 277, 3, 20, 1, 3, 0, 1]
+    }
+
+    def 'hilbert values follow the curve from the lower left to the lower right corner'() {
+        expect:
+        IndexedFeatureBuffer.hilbert(x, y) == value
+
+        where:
+        x      | y      || value
+        0      | 0      || 0
+        1      | 0      || 1
+        1      | 1      || 2
+        0      | 1      || 3
+        0      | 0xFFFF || 1431655765
+        0xFFFF | 0xFFFF || 2863311530
+        0xFFFF | 0      || 4294967295
+    }
+
+    def 'features are written in descending hilbert order after the index'() {
+        given: "four points in the corners of the extent"
+
+        def buffer = new IndexedFeatureBuffer(memoryThreshold)
+        def corners = [[0, 0], [10, 10], [0, 10], [10, 0]]
+        corners.eachWithIndex { corner, i ->
+            buffer.add([i, i, i] as byte[], new Envelope(corner[0], corner[0], corner[1], corner[1]))
+        }
+
+        when:
+
+        def out = new ByteArrayOutputStream()
+        buffer.writeTo { out.write(it, 0, it.length) }
+        def bytes = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN)
+
+        then: "the root, then the leaves with the byte offsets of the features"
+
+        buffer.isSpilled() == spilled
+        bytes.limit() == 5 * 40 + 4 * 3
+        (0..<5).collect { bytes.getLong(it * 40 + 32) } == [1, 0, 3, 6, 9]
+        (0..<4).collect { bytes.getDouble(it * 40 + 40) } == [10d, 10d, 0d, 0d]
+        (0..<4).collect { bytes.get(5 * 40 + it * 3) } == [3, 1, 2, 0]
+
+        cleanup:
+
+        buffer.close()
+
+        where:
+        memoryThreshold || spilled
+        1024            || false
+        4               || true
+    }
+
+    def 'an index that is larger than a chunk is written completely'() {
+        given: "more nodes than fit into a single chunk of 64 KiB"
+
+        def buffer = new IndexedFeatureBuffer()
+        (0..<2000).each { i ->
+            buffer.add([i % 128] as byte[], new Envelope(i % 50, i % 50, i.intdiv(50), i.intdiv(50)))
+        }
+        def bounds = IndexedFeatureBuffer.levelBounds(2000)
+        def numNodes = (int) bounds[1]
+
+        when: "the chunks are kept by the sink"
+
+        def chunks = []
+        buffer.writeTo { chunks << it }
+        def out = new ByteArrayOutputStream()
+        chunks.each { out.write(it, 0, it.length) }
+        def bytes = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN)
+
+        then: "the root covers the extent and the leaves point to consecutive features"
+
+        numNodes > 64 * 1024 / 40
+        chunks.size() > 1
+        bytes.limit() == numNodes * 40 + 2000
+        (0..<4).collect { bytes.getDouble(it * 8) } == [0d, 0d, 49d, 39d]
+        bytes.getLong(32) == 1
+        (0..<2000).every { bytes.getLong((int) (bounds[0] + it) * 40 + 32) == it }
+
+        cleanup:
+
+        buffer.close()
+    }
+
+    def 'features without a geometry are written in the original order without an index'() {
+        given:
+
+        def buffer = new IndexedFeatureBuffer()
+        buffer.add([0] as byte[], new Envelope(0, 0, 0, 0))
+        buffer.add([1] as byte[], null)
+
+        when:
+
+        def out = new ByteArrayOutputStream()
+        buffer.writeTo { out.write(it, 0, it.length) }
+
+        then:
+
+        !buffer.isIndexable()
+        out.toByteArray() == [0, 1] as byte[]
+    }
+}
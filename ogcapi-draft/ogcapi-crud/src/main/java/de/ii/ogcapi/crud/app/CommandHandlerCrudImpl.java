@@ -16,6 +16,7 @@ import de.ii.ogcapi.features.core.domain.DecoderContext;
 import de.ii.ogcapi.features.core.domain.FeatureFormatExtension;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreProviders;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler;
+import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler.FeatureMetadata;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler.Query;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler.QueryInputFeature;
 import de.ii.ogcapi.features.core.domain.ImmutableDecoderContext;
@@ -54,20 +55,15 @@ import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -121,15 +117,7 @@ public class CommandHandlerCrudImpl extends AbstractVolatileComposed implements
       FeatureFormatExtension format = resolveFormat(queryInput.getContentType());
       ValidatorContext vctx = buildValidatorContext(queryInput, requestContext);
 
-      final String body;
-      try {
-        body = new String(contentStream.readAllBytes(), StandardCharsets.UTF_8);
-      } catch (IOException e) {
-        throw new IllegalStateException(
-            "Could not read content stream. Reasons: " + e.getMessage(), e);
-      }
-      format.validate(body, vctx);
-      contentStream = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+      contentStream = format.validate(contentStream, vctx);
     }
 
     EpsgCrs crs = queryInput.getCrs();
@@ -190,41 +178,42 @@ public class CommandHandlerCrudImpl extends AbstractVolatileComposed implements
   @Override
   public Response putItemResponse(
       QueryInputFeatureReplace queryInput, ApiRequestContext requestContext) {
-    FeatureTokenSource featureTokenSource = getFeatureTokenSource(queryInput, requestContext);
-    Response previousFeature = null;
+    FeatureMetadata previousFeature = null;
 
     try {
-      previousFeature = getCurrentFeature(queryInput, requestContext);
+      previousFeature = getCurrentFeatureMetadata(queryInput, requestContext);
     } catch (NotFoundException e) {
       if (!queryInput.isAllowCreate()) {
         throw e;
       }
     }
 
+    // the request body is only validated, which may buffer it in a temporary file, after the
+    // preconditions have passed
     if (Objects.isNull(previousFeature) && queryInput.isAllowCreate()) {
       return createFeature(
           queryInput,
-          featureTokenSource,
+          getFeatureTokenSource(queryInput, requestContext),
           requestContext,
           Optional.ofNullable(queryInput.getFeatureId()));
     }
 
-    Date lastModified = previousFeature.getLastModified();
-
     Response.ResponseBuilder response =
-        queriesHandler.evaluatePreconditions(requestContext, lastModified, null);
+        queriesHandler.evaluatePreconditions(
+            requestContext, previousFeature.getLastModified().orElse(null), null);
 
     if (Objects.nonNull(response)) {
       return response.build();
     }
 
-    return updateFeature(queryInput, featureTokenSource, previousFeature);
+    return updateFeature(
+        queryInput, getFeatureTokenSource(queryInput, requestContext), previousFeature);
   }
 
   private Response updateFeature(
       QueryInputFeatureReplace queryInput,
       FeatureTokenSource featureTokenSource,
-      Response previousFeature) {
+      FeatureMetadata previousFeature) {
     FeatureTransactions.MutationResult result =
         queryInput
             .getFeatureProvider()
@@ -239,16 +228,13 @@ public class CommandHandlerCrudImpl extends AbstractVolatileComposed implements
 
     result.getError().ifPresent(FeatureStream::processStreamError);
 
-    Optional<BoundingBox> currentBbox = parseBboxHeader(previousFeature);
-    Optional<Tuple<Long, Long>> currentTime = parseTimeHeader(previousFeature);
-
     handleChange(
         queryInput.getFeatureProvider(),
         queryInput.getCollectionId(),
         result.getIds(),
-        currentBbox,
+        previousFeature.getSpatialExtent(),
         result.getSpatialExtent(),
-        convertTemporalExtentSecond(currentTime),
+        convertTemporalExtent(previousFeature.getTemporalExtent()),
         convertTemporalExtentMillisecond(result.getTemporalExtent()),
         Action.UPDATE);
 
@@ -262,20 +248,28 @@ public class CommandHandlerCrudImpl extends AbstractVolatileComposed implements
     EpsgCrs crs = queryInput.getCrs();
     Axes axes = crsInfo.is3d(crs) ? Axes.XYZ : Axes.XY;
 
-    Response feature = getCurrentFeature(queryInput, requestContext);
-    Date lastModified = feature.getLastModified();
+    FeatureMetadata previousFeature = getCurrentFeatureMetadata(queryInput, requestContext);
 
     Response.ResponseBuilder response =
-        queriesHandler.evaluatePreconditions(requestContext, lastModified, null);
+        queriesHandler.evaluatePreconditions(
+            requestContext, previousFeature.getLastModified().orElse(null), null);
     if (Objects.nonNull(response)) return response.build();
 
-    byte[] prev = (byte[]) feature.getEntity();
     final ObjectMapper mapper = new ObjectMapper();
+    final JsonMergePatch patch;
+
+    try {
+      patch = mapper.readValue(queryInput.getRequestBody(), JsonMergePatch.class);
+    } catch (Throwable e) {
+      throw new IllegalArgumentException(
+          "Could not parse request body as JSON Merge Patch: " + e.getMessage(), e);
+    }
+
+    // the complete feature is only needed for the merge, i.e. after the preconditions are met
+    byte[] prev = (byte[]) getCurrentFeature(queryInput, requestContext).getEntity();
     InputStream merged;
 
     try {
-      final JsonMergePatch patch =
-          mapper.readValue(queryInput.getRequestBody(), JsonMergePatch.class);
       JsonNode orig = mapper.readTree(prev);
       JsonNode mergedNode = patch.apply(orig);
       merged = new ByteArrayInputStream(mapper.writeValueAsBytes(mergedNode));
@@ -296,16 +290,13 @@ public class CommandHandlerCrudImpl extends AbstractVolatileComposed implements
 
     result.getError().ifPresent(FeatureStream::processStreamError);
 
-    Optional<BoundingBox> currentBbox = parseBboxHeader(feature);
-    Optional<Tuple<Long, Long>> currentTime = parseTimeHeader(feature);
-
     handleChange(
         queryInput.getFeatureProvider(),
         queryInput.getCollectionId(),
         result.getIds(),
-        currentBbox,
+        previousFeature.getSpatialExtent(),
         result.getSpatialExtent(),
-        convertTemporalExtentSecond(currentTime),
+        convertTemporalExtent(previousFeature.getTemporalExtent()),
         convertTemporalExtentMillisecond(result.getTemporalExtent()),
         Action.UPDATE);
 
@@ -316,12 +307,11 @@ public class CommandHandlerCrudImpl extends AbstractVolatileComposed implements
   public Response deleteItemResponse(
       QueryInputFeatureDelete queryInput, ApiRequestContext requestContext) {
 
-    Response feature = getCurrentFeature(queryInput, requestContext);
-
-    Date lastModified = feature.getLastModified();
+    FeatureMetadata feature = getCurrentFeatureMetadata(queryInput, requestContext);
 
     Response.ResponseBuilder response =
-        queriesHandler.evaluatePreconditions(requestContext, lastModified, null);
+        queriesHandler.evaluatePreconditions(
+            requestContext, feature.getLastModified().orElse(null), null);
     if (Objects.nonNull(response)) {
       return response.build();
     }
@@ -335,22 +325,28 @@ public class CommandHandlerCrudImpl extends AbstractVolatileComposed implements
 
     result.getError().ifPresent(FeatureStream::processStreamError);
 
-    Optional<BoundingBox> currentBbox = parseBboxHeader(feature);
-    Optional<Tuple<Long, Long>> currentTime = parseTimeHeader(feature);
-
     handleChange(
         queryInput.getFeatureProvider(),
         queryInput.getCollectionId(),
         result.getIds(),
-        currentBbox,
+        feature.getSpatialExtent(),
         result.getSpatialExtent(),
-        convertTemporalExtentSecond(currentTime),
+        convertTemporalExtent(feature.getTemporalExtent()),
         convertTemporalExtentMillisecond(result.getTemporalExtent()),
         Action.DELETE);
 
     return Response.noContent().build();
   }
 
+  private FeatureMetadata getCurrentFeatureMetadata(
+      QueryInputFeatureCrud queryInput, ApiRequestContext requestContext) {
+    // internal request, suppress audit logging of feature properties
+    QueryInputFeature queryInputFeature =
+        new ImmutableQueryInputFeature.Builder().from(queryInput).shouldAuditLog(false).build();
+
+    return queriesHandler.getFeatureMetadata(queryInputFeature, requestContext);
+  }
+
   private @NotNull Response getCurrentFeature(
       QueryInputFeatureCrud queryInput, ApiRequestContext requestContext) {
     try {
@@ -425,54 +421,19 @@ public class CommandHandlerCrudImpl extends AbstractVolatileComposed implements
     featureProvider.changes().handle(change);
   }
 
-  private static Optional<BoundingBox> parseBboxHeader(Response response) {
-    // TODO this should use a structured fields parser (RFC 8941), but there are only experimental
-    //      Java implementations
-    String crsHeader = response.getHeaderString("Content-Crs");
-    String bboxHeader = response.getHeaderString(FeaturesCoreQueriesHandler.BOUNDING_BOX_HEADER);
-    return Objects.nonNull(crsHeader) && Objects.nonNull(bboxHeader)
-        ? Optional.of(
-            BoundingBox.of(
-                bboxHeader, EpsgCrs.fromString(crsHeader.substring(1, crsHeader.length() - 1))))
-        : Optional.empty();
-  }
-
-  private static Optional<Tuple<Long, Long>> parseTimeHeader(Response response) {
-    // TODO this should use a structured fields parser (RFC 8941), but there are only experimental
-    //      Java implementations
-    String timeHeader = response.getHeaderString(FeaturesCoreQueriesHandler.TEMPORAL_EXTENT_HEADER);
-    Optional<Tuple<Long, Long>> currentTime = Optional.empty();
-    if (Objects.nonNull(timeHeader)) {
-      Matcher startMatcher = Pattern.compile("^.*start\\s*=\\s*(\\d+).*$").matcher(timeHeader);
-      boolean startIsSet = startMatcher.find();
-      Matcher endMatcher = Pattern.compile("^.*end\\s*=\\s*(\\d+).*$").matcher(timeHeader);
-      boolean endIsSet = endMatcher.find();
-      if (startIsSet && endIsSet) {
-        currentTime =
-            Optional.of(
-                Tuple.of(
-                    Long.parseLong(startMatcher.group(1)), Long.parseLong(endMatcher.group(1))));
-      } else if (startIsSet) {
-        currentTime = Optional.of(Tuple.of(Long.parseLong(startMatcher.group(1)), null));
-      } else if (endIsSet) {
-        currentTime = Optional.of(Tuple.of(null, Long.parseLong(endMatcher.group(1))));
-      }
-    }
-    return currentTime;
-  }
-
-  private Optional<Interval> convertTemporalExtentSecond(Optional<Tuple<Long, Long>> interval) {
+  private Optional<Interval> convertTemporalExtent(
+      Optional<Tuple<Instant, Instant>> interval) {
     if (interval.isEmpty()) {
       return Optional.empty();
     }
 
-    Long begin = interval.get().first();
-    Long end = interval.get().second();
-
-    Instant beginInstant = Objects.nonNull(begin) ? Instant.ofEpochSecond(begin) : Instant.MIN;
-    Instant endInstant = Objects.nonNull(end) ? Instant.ofEpochSecond(end) : Instant.MAX;
+    Instant begin = interval.get().first();
+    Instant end = interval.get().second();
 
-    return Optional.of(Interval.of(beginInstant, endInstant));
+    return Optional.of(
+        Interval.of(
+            Objects.requireNonNullElse(begin, Instant.MIN),
+            Objects.requireNonNullElse(end, Instant.MAX)));
   }
 
   private Optional<Interval> convertTemporalExtentMillisecond(
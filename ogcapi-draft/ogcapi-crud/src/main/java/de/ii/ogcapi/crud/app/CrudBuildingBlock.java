@@ -71,7 +71,8 @@ import org.slf4j.LoggerFactory;
  *     <p>To validate a new or updated feature submitted in a POST or PUT request against the schema
  *     of the collection (GeoJSON/JSON-GF) or the referenced XML Schemas (GML), a header `Prefer`
  *     with the value "handling=strict" can be added to the request. If the validation fails, an
- *     error is returned.
+ *     error is returned and no feature is written. The features of a GeoJSON feature collection
+ *     are validated one by one, the error states the index of the invalid feature.
  *     <p>If the feature in a POST or PUT request is GeoJSON without the JSON-FG extensions, include
  *     a header `Link` with the value "<http://www.opengis.net/def/profile/OGC/0/rfc7946>;
  *     rel=profile" in the request. For a feature with the JSON-FG extensions, use the value
@@ -124,7 +125,9 @@ import org.slf4j.LoggerFactory;
  *     <p>Um ein in einer POST- oder PUT-Anfrage übermitteltes neues oder aktualisiertes Feature
  *     gegen das Schema der Collection (GeoJSON/JSON-FG) oder die konfigurierten XML Schemas (GML)
  *     zu validieren, kann der Anfrage ein Header `Prefer` mit dem Wert "handling=strict"
- *     hinzugefügt werden. Wenn die Validierung fehlschlägt, wird ein Fehler zurückgegeben.
+ *     hinzugefügt werden. Wenn die Validierung fehlschlägt, wird ein Fehler zurückgegeben und kein
+ *     Feature geschrieben. Die Features einer GeoJSON-FeatureCollection werden einzeln validiert,
+ *     der Fehler nennt den Index des ungültigen Features.
  *     <p>Wenn das Feature in einer POST- oder PUT-Anfrage GeoJSON ohne die JSON-FG-Erweiterungen
  *     ist, fügen Sie der Anfrage einen Header `Link` mit dem Wert
  *     "<http://www.opengis.net/def/profile/OGC/0/rfc7946>; rel=profile" hinzu. Für ein Feature mit
@@ -10,6 +10,7 @@ package de.ii.ogcapi.features.gltf.app;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.ImmutableMap;
+import de.ii.ogcapi.features.gltf.domain.DoubleArrayBuffer;
 import de.ii.ogcapi.features.gltf.domain.FeatureTransformationContextGltf;
 import de.ii.ogcapi.features.gltf.domain.GltfAsset;
 import de.ii.ogcapi.features.gltf.domain.GltfConfiguration;
@@ -23,6 +24,7 @@ import de.ii.ogcapi.features.gltf.domain.ImmutableNode;
 import de.ii.ogcapi.features.gltf.domain.ImmutablePbrMetallicRoughness;
 import de.ii.ogcapi.features.gltf.domain.ImmutablePrimitive;
 import de.ii.ogcapi.features.gltf.domain.ImmutableScene;
+import de.ii.ogcapi.features.gltf.domain.IntArrayBuffer;
 import de.ii.ogcapi.features.gltf.domain.SchemaEnum;
 import de.ii.ogcapi.features.gltf.domain.SchemaProperty;
 import de.ii.ogcapi.features.gltf.domain.SchemaProperty.ComponentType;
@@ -41,6 +43,8 @@ import de.ii.xtraplatform.tiles3d.domain.spec.PropertyTable;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -52,7 +56,6 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -195,7 +198,7 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
             addMultiPolygons(
                 builder, transformationContext, state, feature, fid, surfaces, withSurfaceType);
         if (added) {
-          if (state.getIndices().size() > Integer.MAX_VALUE * 0.9) {
+          if (state.getMesh().getIndices().size() > Integer.MAX_VALUE * 0.9) {
             // flush node, if the indices count is close to the maximum value
             flushNode(builder, transformationContext, state);
             int nextNodeId = state.getNextNodeId();
@@ -222,7 +225,7 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
   public void onEnd(ModifiableContext context) {
     long writingStart = System.nanoTime();
 
-    if (!state.getIndices().isEmpty()) {
+    if (!state.getMesh().isEmpty()) {
       try {
         flushNode(builder, transformationContext, state);
         int nextNodeId = state.getNextNodeId();
@@ -683,12 +686,9 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
 
     double[][] minMax = surfaces.getMinMax();
 
-    List<Double> vertices = new ArrayList<>();
-    List<Double> normals = new ArrayList<>();
-    List<Integer> indices = new ArrayList<>();
-    List<Integer> featureIds = new ArrayList<>();
-    List<Integer> outline = new ArrayList<>();
-    int indexCount = state.getIndexCount();
+    TriangleMesh mesh = state.getMesh();
+    IntArrayBuffer featureIds = state.getFeatureIds();
+    int indicesStart = mesh.getIndices().size();
     int surfaceCount = state.getSurfaceCount();
 
     Map<String, ByteArrayOutputStream> buffers = state.getBuffers();
@@ -699,31 +699,24 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
         continue;
       }
 
-      TriangleMesh triangleMesh =
-          TriangleMesh.of(
+      int vertexCountSurface =
+          mesh.add(
               surface.getGeometry(),
               minMax[0][2],
               context.getClampToEllipsoid(),
               context.getGltfConfiguration().writeNormals(),
               context.getGltfConfiguration().writeOutline(),
-              indexCount,
               Optional.of(context.getCrsTransformerCrs84hToEcef()),
               featureName);
 
-      int vertexCountSurface = triangleMesh.getVertices().size() / 3;
       if (vertexCountSurface < 3) {
         continue;
       }
 
-      indices.addAll(triangleMesh.getIndices());
-      indexCount += vertexCountSurface;
-
-      vertices.addAll(triangleMesh.getVertices());
-      normals.addAll(triangleMesh.getNormals());
-      outline.addAll(triangleMesh.getOutlineIndices());
-
       final int nextFeatureId = state.getNextFeatureId() + 1;
-      IntStream.range(0, vertexCountSurface).forEach(i -> featureIds.add(nextFeatureId - 1));
+      for (int i = 0; i < vertexCountSurface; i++) {
+        featureIds.add(nextFeatureId - 1);
+      }
       state.setNextFeatureId(nextFeatureId);
 
       if (withSurfaceType && context.getProperties().containsKey(SURFACE_TYPE)) {
@@ -758,51 +751,44 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
     }
 
     // glTF output
-    if (indices.isEmpty()) {
+    IntArrayBuffer indices = mesh.getIndices();
+    if (indices.size() == indicesStart) {
       return false;
-    } else {
-      if (LOGGER.isTraceEnabled()) {
-        for (int i = 0; i < indices.size() / 3; i++) {
-          Integer p0 = indices.get(i * 3);
-          Integer p1 = indices.get(i * 3 + 1);
-          Integer p2 = indices.get(i * 3 + 2);
-          boolean withNormals = context.getGltfConfiguration().writeNormals();
-
-          LOGGER.trace("Indices: {},{},{}", p0, p1, p2);
-          LOGGER.trace(
-              "Triangle: ({},{},{}) ({},{},{}) ({},{},{}) - ({},{},{})",
-              vertices.get(p0 * 3),
-              vertices.get(p0 * 3 + 1),
-              vertices.get(p0 * 3 + 2),
-              vertices.get(p1 * 3),
-              vertices.get(p1 * 3 + 1),
-              vertices.get(p1 * 3 + 2),
-              vertices.get(p2 * 3),
-              vertices.get(p2 * 3 + 1),
-              vertices.get(p2 * 3 + 2),
-              withNormals ? normals.get(p0 * 3) : "-",
-              withNormals ? normals.get(p0 * 3 + 1) : "-",
-              withNormals ? normals.get(p0 * 3 + 2) : "-");
-        }
-      }
+    }
 
-      state.addAllVertices(vertices);
-      state.addAllNormals(normals);
-      state.addAllIndices(indices);
-      state.addAllFeatureIds(featureIds);
-      state.addAllOutline(outline);
-      state.setIndexCount(indexCount);
-      state.setSurfaceCount(surfaceCount);
+    if (LOGGER.isTraceEnabled()) {
+      DoubleArrayBuffer vertices = mesh.getVertices();
+      DoubleArrayBuffer normals = mesh.getNormals();
+      boolean withNormals = context.getGltfConfiguration().writeNormals();
+      for (int i = indicesStart / 3; i < indices.size() / 3; i++) {
+        int p0 = indices.get(i * 3);
+        int p1 = indices.get(i * 3 + 1);
+        int p2 = indices.get(i * 3 + 2);
 
-      if (LOGGER.isTraceEnabled()) {
+        LOGGER.trace("Indices: {},{},{}", p0, p1, p2);
         LOGGER.trace(
-            "Geometry processing of feature '{}' is complete. Vertices: {}, Indices: {}",
-            featureName,
-            vertices.size(),
-            indices.size());
+            "Triangle: ({},{},{}) ({},{},{}) ({},{},{}) - ({},{},{})",
+            vertices.get(p0 * 3),
+            vertices.get(p0 * 3 + 1),
+            vertices.get(p0 * 3 + 2),
+            vertices.get(p1 * 3),
+            vertices.get(p1 * 3 + 1),
+            vertices.get(p1 * 3 + 2),
+            vertices.get(p2 * 3),
+            vertices.get(p2 * 3 + 1),
+            vertices.get(p2 * 3 + 2),
+            withNormals ? normals.get(p0 * 3) : "-",
+            withNormals ? normals.get(p0 * 3 + 1) : "-",
+            withNormals ? normals.get(p0 * 3 + 2) : "-");
       }
+      LOGGER.trace(
+          "Geometry processing of feature '{}' is complete. Indices: {}",
+          featureName,
+          indices.size() - indicesStart);
     }
 
+    state.setSurfaceCount(surfaceCount);
+
     return true;
   }
 
@@ -814,12 +800,14 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
 
     Map<String, ByteArrayOutputStream> buffers = state.getBuffers();
     Map<String, Integer> currentBufferViewOffsets = state.getCurrentBufferViewOffsets();
-    List<Double> vertices = state.getVertices();
-    List<Double> normals = state.getNormals();
-    List<Integer> indices = state.getIndices();
-    List<Integer> featureIds = state.getFeatureIds();
-    List<Integer> outline = state.getOutline();
+    TriangleMesh mesh = state.getMesh();
+    DoubleArrayBuffer vertices = mesh.getVertices();
+    DoubleArrayBuffer normals = mesh.getNormals();
+    IntArrayBuffer indices = mesh.getIndices();
+    IntArrayBuffer featureIds = state.getFeatureIds();
+    IntArrayBuffer outline = mesh.getOutlineIndices();
     int surfaceCount = state.getSurfaceCount();
+    int vertexCount = mesh.getVertexCount();
 
     if (indices.isEmpty()) {
       return;
@@ -836,26 +824,7 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
 
     // write indices and add accessor
     ByteArrayOutputStream buffer = buffers.get(INDICES);
-    switch (componentType) {
-      case UNSIGNED_BYTE:
-        for (int v : indices) {
-          buffer.write(GltfAsset.intToLittleEndianByte(v));
-        }
-        break;
-
-      case UNSIGNED_SHORT:
-        for (int v : indices) {
-          buffer.write(GltfAsset.intToLittleEndianShort(v));
-        }
-        break;
-
-      case UNSIGNED_INT:
-      default:
-        for (int v : indices) {
-          buffer.write(GltfAsset.intToLittleEndianInt(v));
-        }
-        break;
-    }
+    writeIndices(buffer, indices, componentType, 0);
 
     ImmutableAttributes.Builder attributesBuilder = ImmutableAttributes.builder();
     builder.addAccessors(
@@ -863,8 +832,8 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
             .bufferView(BUFFER_VIEW_INDICES)
             .byteOffset(currentBufferViewOffsets.get(INDICES))
             .componentType(componentType)
-            .addMax(indices.stream().max(Comparator.naturalOrder()).orElseThrow())
-            .addMin(indices.stream().min(Comparator.naturalOrder()).orElseThrow())
+            .addMax(indices.max())
+            .addMin(indices.min())
             .count(indices.size())
             .type("SCALAR")
             .build());
@@ -885,25 +854,20 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
     // vertices are ECEF coordinates, compute center and translate the center as the origin
     double[] min = new double[] {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
     double[] max = new double[] {Double.MIN_VALUE, Double.MIN_VALUE, Double.MIN_VALUE};
-    for (int n = 0; n < vertices.size() / 3; n++) {
-      min[0] = Math.min(min[0], vertices.get(n * 3));
-      min[1] = Math.min(min[1], vertices.get(n * 3 + 1));
-      min[2] = Math.min(min[2], vertices.get(n * 3 + 2));
-      max[0] = Math.max(max[0], vertices.get(n * 3));
-      max[1] = Math.max(max[1], vertices.get(n * 3 + 1));
-      max[2] = Math.max(max[2], vertices.get(n * 3 + 2));
+    for (int n = 0; n < vertices.size(); n++) {
+      min[n % 3] = Math.min(min[n % 3], vertices.get(n));
+      max[n % 3] = Math.max(max[n % 3], vertices.get(n));
     }
     double[] origin =
         new double[] {(min[0] + max[0]) / 2.0, (min[1] + max[1]) / 2.0, (min[2] + max[2]) / 2.0};
 
-    for (int n = 0; n < vertices.size() / 3; n++) {
-      vertices.set(n * 3, vertices.get(n * 3) - origin[0]);
-      vertices.set(n * 3 + 1, vertices.get(n * 3 + 1) - origin[1]);
-      vertices.set(n * 3 + 2, vertices.get(n * 3 + 2) - origin[2]);
+    for (int n = 0; n < vertices.size(); n++) {
+      vertices.set(n, vertices.get(n) - origin[n % 3]);
     }
 
     final double[] scale;
     final boolean quantizeMesh = context.getGltfConfiguration().useMeshQuantization();
+    ByteBuffer bytes;
     if (quantizeMesh) {
       // scale vertices to SHORT
       double[] maxAbs = {0d, 0d, 0d};
@@ -912,30 +876,34 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
           maxAbs[n % 3] = Math.abs(vertices.get(n));
         }
       }
-      scale = IntStream.range(0, 3).mapToDouble(n -> maxAbs[n] / GltfAsset.MAX_SHORT).toArray();
+      scale =
+          new double[] {
+            maxAbs[0] / GltfAsset.MAX_SHORT,
+            maxAbs[1] / GltfAsset.MAX_SHORT,
+            maxAbs[2] / GltfAsset.MAX_SHORT
+          };
 
-      for (int n = 0; n < vertices.size() / 3; n++) {
-        vertices.set(n * 3, vertices.get(n * 3) / scale[0]);
-        vertices.set(n * 3 + 1, vertices.get(n * 3 + 1) / scale[1]);
-        vertices.set(n * 3 + 2, vertices.get(n * 3 + 2) / scale[2]);
+      for (int n = 0; n < vertices.size(); n++) {
+        vertices.set(n, vertices.get(n) / scale[n % 3]);
       }
 
-      buffer = buffers.get(VERTICES);
-      for (int n = 0; n < vertices.size() / 3; n++) {
-        buffer.write(GltfAsset.doubleToLittleEndianShort(vertices.get(n * 3)));
-        buffer.write(GltfAsset.doubleToLittleEndianShort(vertices.get(n * 3 + 1)));
-        buffer.write(GltfAsset.doubleToLittleEndianShort(vertices.get(n * 3 + 2)));
-        // 3 shorts are 6 bytes, add 2 bytes to be aligned with 4-byte boundaries
-        buffer.write(GltfAsset.BIN_PADDING);
-        buffer.write(GltfAsset.BIN_PADDING);
+      // 3 shorts are 6 bytes, add 2 bytes to be aligned with 4-byte boundaries
+      bytes = allocate(vertexCount * 8);
+      for (int n = 0; n < vertices.size(); n++) {
+        bytes.putShort(toShort(vertices.get(n)));
+        if (n % 3 == 2) {
+          bytes.putShort((short) 0);
+        }
       }
     } else {
       scale = new double[] {1d, 1d, 1d};
 
-      for (Double v : vertices) {
-        buffers.get(VERTICES).write(GltfAsset.doubleToLittleEndianFloat(v));
+      bytes = allocate(vertices.size() * 4);
+      for (int n = 0; n < vertices.size(); n++) {
+        bytes.putFloat((float) vertices.get(n));
       }
     }
+    buffers.get(VERTICES).write(bytes.array(), 0, bytes.position());
 
     final List<Double> verticesMin = getMin(vertices);
     final List<Double> verticesMax = getMax(vertices);
@@ -959,7 +927,7 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
                         Math.round(verticesMin.get(1)),
                         Math.round(verticesMin.get(2)))
                     : verticesMin)
-            .count(vertices.size() / 3)
+            .count(vertexCount)
             .type("VEC3")
             .build());
     attributesBuilder.position(nextAccessorId++);
@@ -969,27 +937,27 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
     int nextBufferView = BUFFER_VIEW_NORMALS;
     if (context.getGltfConfiguration().writeNormals()) {
       // write normals and add accessor
-      buffer = buffers.get(NORMALS);
       if (quantizeMesh) {
         // scale normals to BYTE
-        for (int n = 0; n < normals.size() / 3; n++) {
-          normals.set(n * 3, normals.get(n * 3) * GltfAsset.MAX_BYTE);
-          normals.set(n * 3 + 1, normals.get(n * 3 + 1) * GltfAsset.MAX_BYTE);
-          normals.set(n * 3 + 2, normals.get(n * 3 + 2) * GltfAsset.MAX_BYTE);
+        for (int n = 0; n < normals.size(); n++) {
+          normals.set(n, normals.get(n) * GltfAsset.MAX_BYTE);
         }
 
-        for (int n = 0; n < normals.size() / 3; n++) {
-          buffer.write(GltfAsset.doubleToLittleEndianByte(normals.get(n * 3)));
-          buffer.write(GltfAsset.doubleToLittleEndianByte(normals.get(n * 3 + 1)));
-          buffer.write(GltfAsset.doubleToLittleEndianByte(normals.get(n * 3 + 2)));
-          // 3 bytes, add 1 byte to be aligned with 4-byte boundaries
-          buffer.write(GltfAsset.BIN_PADDING);
+        // 3 bytes, add 1 byte to be aligned with 4-byte boundaries
+        bytes = allocate(normals.size() / 3 * 4);
+        for (int n = 0; n < normals.size(); n++) {
+          bytes.put(toByte(normals.get(n)));
+          if (n % 3 == 2) {
+            bytes.put((byte) 0);
+          }
         }
       } else {
-        for (Double v : normals) {
-          buffer.write(GltfAsset.doubleToLittleEndianFloat(v));
+        bytes = allocate(normals.size() * 4);
+        for (int n = 0; n < normals.size(); n++) {
+          bytes.putFloat((float) normals.get(n));
         }
       }
+      buffers.get(NORMALS).write(bytes.array(), 0, bytes.position());
 
       final List<Double> normalsMin = getMin(normals);
       final List<Double> normalsMax = getMax(normals);
@@ -1034,32 +1002,12 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
         componentType = UNSIGNED_INT;
       }
 
-      // write indices and add accessor
-      switch (componentType) {
-        case UNSIGNED_BYTE:
-          for (int i = 0; i < vertices.size() / 3; i++) {
-            buffer.write(GltfAsset.intToLittleEndianByte(featureIds.get(i)));
-            buffer.write(GltfAsset.BIN_PADDING);
-            buffer.write(GltfAsset.BIN_PADDING);
-            buffer.write(GltfAsset.BIN_PADDING);
-          }
-          break;
-
-        case UNSIGNED_SHORT:
-          for (int i = 0; i < vertices.size() / 3; i++) {
-            buffer.write(GltfAsset.intToLittleEndianShort(featureIds.get(i)));
-            buffer.write(GltfAsset.BIN_PADDING);
-            buffer.write(GltfAsset.BIN_PADDING);
-          }
-          break;
-
-        case UNSIGNED_INT:
-        default:
-          for (int i = 0; i < vertices.size() / 3; i++) {
-            buffer.write(GltfAsset.intToLittleEndianInt(featureIds.get(i)));
-          }
-          break;
-      }
+      // each feature id is aligned with 4-byte boundaries
+      writeIndices(
+          buffer,
+          featureIds,
+          componentType,
+          componentType == UNSIGNED_BYTE ? 3 : componentType == UNSIGNED_SHORT ? 2 : 0);
 
       builder.addAccessors(
           ImmutableAccessor.builder()
@@ -1085,28 +1033,15 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
 
       // write indices and add accessor
       buffer = buffers.get(OUTLINE);
-      switch (componentType) {
-        case UNSIGNED_SHORT:
-          for (int v : outline) {
-            buffer.write(GltfAsset.intToLittleEndianShort(v));
-          }
-          break;
-
-        case UNSIGNED_INT:
-        default:
-          for (int v : outline) {
-            buffer.write(GltfAsset.intToLittleEndianInt(v));
-          }
-          break;
-      }
+      writeIndices(buffer, outline, componentType, 0);
 
       builder.addAccessors(
           ImmutableAccessor.builder()
               .bufferView(nextBufferView++)
               .byteOffset(currentBufferViewOffsets.get(OUTLINE))
               .componentType(componentType)
-              .addMax(outline.stream().max(Comparator.naturalOrder()).orElseThrow())
-              .addMin(outline.stream().min(Comparator.naturalOrder()).orElseThrow())
+              .addMax(outline.max())
+              .addMin(outline.min())
               .count(outline.size())
               .type("SCALAR")
               .build());
@@ -1160,53 +1095,67 @@ public class FeatureEncoderGltf extends FeatureObjectEncoder<PropertyGltf, Featu
             .build());
     state.setNextMeshId(nextMeshId);
 
-    state.setVertices(new ArrayList<>());
-    state.setNormals(new ArrayList<>());
-    state.setIndices(new ArrayList<>());
-    state.setFeatureIds(new ArrayList<>());
-    state.setOutline(new ArrayList<>());
-    state.setVertices(new ArrayList<>());
-    state.setIndexCount(0);
+    // the buffers are reused for the next node
+    mesh.clear();
+    featureIds.clear();
     state.setSurfaceCount(0);
   }
 
-  private static List<Double> getMin(List<Double> vertices) {
-    ImmutableList.Builder<Double> builder = ImmutableList.builder();
-    IntStream.range(0, 3)
-        .forEach(
-            axis ->
-                IntStream.range(0, vertices.size())
-                    .filter(n -> n % 3 == axis)
-                    .mapToObj(vertices::get)
-                    .min(Comparator.naturalOrder())
-                    .ifPresentOrElse(
-                        builder::add,
-                        () -> {
-                          throw new IllegalStateException(
-                              String.format(
-                                  "glTF generation: Cannot compute minimum for axis %d for vertices: %s",
-                                  axis, vertices));
-                        }));
-    return builder.build();
+  private static ByteBuffer allocate(int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
   }
 
-  private static List<Double> getMax(List<Double> vertices) {
-    ImmutableList.Builder<Double> builder = ImmutableList.builder();
-    IntStream.range(0, 3)
-        .forEach(
-            axis ->
-                IntStream.range(0, vertices.size())
-                    .filter(n -> n % 3 == axis)
-                    .mapToObj(vertices::get)
-                    .max(Comparator.naturalOrder())
-                    .ifPresentOrElse(
-                        builder::add,
-                        () -> {
-                          throw new IllegalStateException(
-                              String.format(
-                                  "glTF generation: Cannot compute maximum for axis %d for vertices: %s",
-                                  axis, vertices));
-                        }));
-    return builder.build();
+  private static void writeIndices(
+      ByteArrayOutputStream buffer, IntArrayBuffer values, int componentType, int padding) {
+    int size = componentType == UNSIGNED_BYTE ? 1 : componentType == UNSIGNED_SHORT ? 2 : 4;
+    ByteBuffer bytes = allocate(values.size() * (size + padding));
+    for (int i = 0; i < values.size(); i++) {
+      switch (componentType) {
+        case UNSIGNED_BYTE:
+          bytes.put((byte) values.get(i));
+          break;
+        case UNSIGNED_SHORT:
+          bytes.putShort((short) values.get(i));
+          break;
+        case UNSIGNED_INT:
+        default:
+          bytes.putInt(values.get(i));
+          break;
+      }
+      bytes.position(bytes.position() + padding);
+    }
+    buffer.write(bytes.array(), 0, bytes.position());
+  }
+
+  private static short toShort(double value) {
+    return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value)));
+  }
+
+  private static byte toByte(double value) {
+    return (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, Math.round(value)));
+  }
+
+  private static List<Double> getMin(DoubleArrayBuffer values) {
+    if (values.size() < 3) {
+      throw new IllegalStateException(
+          String.format("glTF generation: Cannot compute minimum for vertices: %s", values));
+    }
+    double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+    for (int n = 0; n < values.size(); n++) {
+      min[n % 3] = Math.min(min[n % 3], values.get(n));
+    }
+    return ImmutableList.of(min[0], min[1], min[2]);
+  }
+
+  private static List<Double> getMax(DoubleArrayBuffer values) {
+    if (values.size() < 3) {
+      throw new IllegalStateException(
+          String.format("glTF generation: Cannot compute maximum for vertices: %s", values));
+    }
+    double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+    for (int n = 0; n < values.size(); n++) {
+      max[n % 3] = Math.max(max[n % 3], values.get(n));
+    }
+    return ImmutableList.of(max[0], max[1], max[2]);
   }
 }
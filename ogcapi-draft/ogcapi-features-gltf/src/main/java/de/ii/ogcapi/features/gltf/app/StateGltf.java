@@ -7,10 +7,10 @@
  */
 package de.ii.ogcapi.features.gltf.app;
 
+import de.ii.ogcapi.features.gltf.domain.IntArrayBuffer;
+import de.ii.ogcapi.features.gltf.domain.TriangleMesh;
 import java.io.ByteArrayOutputStream;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import org.immutables.value.Value;
 
@@ -28,33 +28,13 @@ public class StateGltf {
   }
 
   @Value.Default
-  List<Double> getVertices() {
-    return new ArrayList<>();
+  TriangleMesh getMesh() {
+    return new TriangleMesh();
   }
 
   @Value.Default
-  List<Double> getNormals() {
-    return new ArrayList<>();
-  }
-
-  @Value.Default
-  List<Integer> getIndices() {
-    return new ArrayList<>();
-  }
-
-  @Value.Default
-  List<Integer> getFeatureIds() {
-    return new ArrayList<>();
-  }
-
-  @Value.Default
-  List<Integer> getOutline() {
-    return new ArrayList<>();
-  }
-
-  @Value.Default
-  int getIndexCount() {
-    return 0;
+  IntArrayBuffer getFeatureIds() {
+    return new IntArrayBuffer();
   }
 
   @Value.Default
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.gltf.domain;
+
+import java.util.Arrays;
+
+/** A growable array of primitive doubles that can be cleared and reused. */
+public final class DoubleArrayBuffer {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private double[] values;
+  private int size;
+
+  public DoubleArrayBuffer() {
+    this.values = new double[INITIAL_CAPACITY];
+    this.size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public double get(int index) {
+    return values[index];
+  }
+
+  public void set(int index, double value) {
+    values[index] = value;
+  }
+
+  public void add(double value) {
+    ensureCapacity(size + 1);
+    values[size++] = value;
+  }
+
+  public void add(double x, double y, double z) {
+    ensureCapacity(size + 3);
+    values[size] = x;
+    values[size + 1] = y;
+    values[size + 2] = z;
+    size += 3;
+  }
+
+  public void addAll(double[] other, int length) {
+    ensureCapacity(size + length);
+    System.arraycopy(other, 0, values, size, length);
+    size += length;
+  }
+
+  public void addAll(DoubleArrayBuffer other) {
+    addAll(other.values, other.size);
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(values, size));
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > values.length) {
+      values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+    }
+  }
+}
@@ -196,27 +196,6 @@ public interface GltfAsset {
     return bb.array();
   }
 
-  static byte[] intToLittleEndianByte(int v) {
-    ByteBuffer bb = ByteBuffer.allocate(1);
-    bb.order(ByteOrder.LITTLE_ENDIAN);
-    bb.put((byte) v);
-    return bb.array();
-  }
-
-  static byte[] doubleToLittleEndianShort(double v) {
-    ByteBuffer bb = ByteBuffer.allocate(2);
-    bb.order(ByteOrder.LITTLE_ENDIAN);
-    bb.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(v))));
-    return bb.array();
-  }
-
-  static byte[] doubleToLittleEndianByte(double v) {
-    ByteBuffer bb = ByteBuffer.allocate(1);
-    bb.order(ByteOrder.LITTLE_ENDIAN);
-    bb.put((byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, Math.round(v))));
-    return bb.array();
-  }
-
   static byte[] doubleToLittleEndianFloat(double v) {
     ByteBuffer bb = ByteBuffer.allocate(4);
     bb.order(ByteOrder.LITTLE_ENDIAN);
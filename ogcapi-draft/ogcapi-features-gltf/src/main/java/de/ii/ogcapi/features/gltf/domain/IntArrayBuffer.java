@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.gltf.domain;
+
+import java.util.Arrays;
+
+/** A growable array of primitive ints that can be cleared and reused. */
+public final class IntArrayBuffer {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private int[] values;
+  private int size;
+
+  public IntArrayBuffer() {
+    this.values = new int[INITIAL_CAPACITY];
+    this.size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int get(int index) {
+    return values[index];
+  }
+
+  public void set(int index, int value) {
+    values[index] = value;
+  }
+
+  public void add(int value) {
+    ensureCapacity(size + 1);
+    values[size++] = value;
+  }
+
+  public void addAll(IntArrayBuffer other, int offset) {
+    ensureCapacity(size + other.size);
+    for (int i = 0; i < other.size; i++) {
+      values[size + i] = other.values[i] + offset;
+    }
+    size += other.size;
+  }
+
+  public int min() {
+    int min = Integer.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      min = Math.min(min, values[i]);
+    }
+    return min;
+  }
+
+  public int max() {
+    int max = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      max = Math.max(max, values[i]);
+    }
+    return max;
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > values.length) {
+      values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+    }
+  }
+}
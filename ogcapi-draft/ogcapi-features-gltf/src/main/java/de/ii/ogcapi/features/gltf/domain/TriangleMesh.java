@@ -7,8 +7,6 @@
  */
 package de.ii.ogcapi.features.gltf.domain;
 
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.google.common.collect.ImmutableList;
 import de.ii.xtraplatform.crs.domain.CrsTransformer;
 import de.ii.xtraplatform.geometries.domain.LineString;
 import de.ii.xtraplatform.geometries.domain.Polygon;
@@ -16,13 +14,11 @@ import de.ii.xtraplatform.geometries.domain.PolyhedralSurface;
 import de.ii.xtraplatform.geometries.domain.PositionList;
 import de.ii.xtraplatform.geometries.domain.transform.ClampToEllipsoid;
 import de.ii.xtraplatform.geometries.domain.transform.GeometryVisitor;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.IntStream;
-import org.immutables.value.Value;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LinearRing;
 import org.locationtech.jts.triangulate.polygon.ConstrainedDelaunayTriangulator;
@@ -30,70 +26,115 @@ import org.maplibre.earcut4j.Earcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-@Value.Immutable
-@Value.Style(deepImmutablesDetection = true)
-@JsonDeserialize(builder = ImmutableTriangleMesh.Builder.class)
+/**
+ * The triangle mesh of a glTF node. Surfaces are triangulated and appended to the mesh, the
+ * vertices, normals, indices and outline indices are stored in primitive buffers, the buffers for
+ * a single polygon are reused for all polygons. The indices are relative to the first vertex of
+ * the mesh. After the node has been written, the mesh is cleared and reused for the next node.
+ */
 @SuppressWarnings("PMD.TooManyMethods")
-public interface TriangleMesh {
+public final class TriangleMesh {
 
-  Logger LOGGER = LoggerFactory.getLogger(TriangleMesh.class);
+  private static final Logger LOGGER = LoggerFactory.getLogger(TriangleMesh.class);
 
-  GeometryFactory geometryFactory = new GeometryFactory();
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
 
-  double EPSILON = 1.0e-7;
+  private static final double EPSILON = 1.0e-7;
 
-  enum AXES {
+  private enum AXES {
     XYZ,
     YZX,
     ZXY
   }
 
-  List<Integer> getIndices();
+  private final DoubleArrayBuffer vertices;
+  private final DoubleArrayBuffer normals;
+  private final IntArrayBuffer indices;
+  private final IntArrayBuffer outlineIndices;
+
+  // the current polygon
+  private final DoubleArrayBuffer polygonVertices;
+  private final IntArrayBuffer polygonOutline;
+  private final IntArrayBuffer holeIndices;
+  private final IntArrayBuffer triangles;
+
+  public TriangleMesh() {
+    this.vertices = new DoubleArrayBuffer();
+    this.normals = new DoubleArrayBuffer();
+    this.indices = new IntArrayBuffer();
+    this.outlineIndices = new IntArrayBuffer();
+    this.polygonVertices = new DoubleArrayBuffer();
+    this.polygonOutline = new IntArrayBuffer();
+    this.holeIndices = new IntArrayBuffer();
+    this.triangles = new IntArrayBuffer();
+  }
+
+  public DoubleArrayBuffer getVertices() {
+    return vertices;
+  }
+
+  public DoubleArrayBuffer getNormals() {
+    return normals;
+  }
+
+  public IntArrayBuffer getIndices() {
+    return indices;
+  }
+
+  public IntArrayBuffer getOutlineIndices() {
+    return outlineIndices;
+  }
 
-  List<Double> getVertices();
+  public int getVertexCount() {
+    return vertices.size() / 3;
+  }
 
-  List<Double> getNormals();
+  public boolean isEmpty() {
+    return indices.isEmpty();
+  }
 
-  List<Integer> getOutlineIndices();
+  public void clear() {
+    vertices.clear();
+    normals.clear();
+    indices.clear();
+    outlineIndices.clear();
+  }
 
+  /**
+   * Triangulates the polygons of a surface and appends the triangles to the mesh.
+   *
+   * @return the number of vertices that have been added
+   */
   @SuppressWarnings({
     "PMD.ExcessiveMethodLength",
     "PMD.NcssCount",
     "PMD.AvoidInstantiatingObjectsInLoops",
-    "PMD.UnusedLocalVariable"
+    "PMD.CognitiveComplexity"
   })
-  static TriangleMesh of(
+  public int add(
       PolyhedralSurface polyhedralSurface,
       double minZ,
       boolean clampToEllipsoid,
       boolean withNormals,
       boolean withOutline,
-      int startIndex,
       Optional<CrsTransformer> crsTransformer,
       String featureName) {
 
     Optional<GeometryVisitor<?>> clampToEllipsoidVisitor =
         clampToEllipsoid ? Optional.of(new ClampToEllipsoid(minZ)) : Optional.empty();
 
-    ImmutableTriangleMesh.Builder builder = ImmutableTriangleMesh.builder();
-
     // triangulate the polygons, translate relative to origin
     int vertexCountSurface = 0;
     int numRing;
     AXES axes = AXES.XYZ;
     boolean ccw = true;
-    List<Double> data = new ArrayList<>();
-    List<Integer> holeIndices = new ArrayList<>();
-    List<Double> normals = new ArrayList<>();
-    List<Integer> outlineIndices = new ArrayList<>();
     double area;
     double[] normal = null;
     for (Polygon polygon : polyhedralSurface.getValue()) {
       numRing = 0;
-      data.clear();
-      normals.clear();
+      polygonVertices.clear();
+      polygonOutline.clear();
       holeIndices.clear();
-      outlineIndices.clear();
 
       // change axis order, if we have a vertical polygon; ensure we still have a right-handed CRS
       for (LineString ring : polygon.getValue()) {
@@ -199,54 +240,47 @@ public interface TriangleMesh {
           ccw = area > 0;
           if (withNormals) {
             normal = computeNormal(coords);
+            if (Objects.isNull(normal)) {
+              // skip polygon
+              if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(
+                    "Skipping polygon of feature '{}', could not compute normal for exterior ring: {}",
+                    featureName,
+                    posList.getCoordinates());
+              }
+              break;
+            }
           }
         } else {
           // inner ring
-          holeIndices.add(data.size() / 3);
+          holeIndices.add(polygonVertices.size() / 3);
         }
 
-        data.addAll(Arrays.stream(coords).boxed().toList());
-
-        if (withNormals) {
-          if (Objects.isNull(normal)) {
-            // skip polygon
-            if (LOGGER.isDebugEnabled()) {
-              LOGGER.debug(
-                  "Skipping polygon of feature '{}', could not compute normal for exterior ring: {}",
-                  featureName,
-                  posList.getCoordinates());
-            }
-            break;
-          }
-          for (int i = 0; i < coords.length / 3; i++) {
-            normals.add(normal[0]);
-            normals.add(normal[1]);
-            normals.add(normal[2]);
-          }
-        }
+        int ringStart = polygonVertices.size() / 3;
+        polygonVertices.addAll(coords, coords.length);
 
         if (withOutline && coords.length > 6) {
-          int l = coords.length;
-          for (int i = 0; i < l / 3; i++) {
+          int l = coords.length / 3;
+          for (int i = 0; i < l; i++) {
             // also include closing edge
-            outlineIndices.add(i);
-            outlineIndices.add(i < l / 3 - 1 ? i + 1 : 0);
+            polygonOutline.add(ringStart + i);
+            polygonOutline.add(ringStart + (i < l - 1 ? i + 1 : 0));
           }
         }
 
         numRing++;
       }
 
-      if (data.size() < 9) {
+      if (polygonVertices.size() < 9) {
         continue;
       }
 
       // try JTS triangulation first; it is a bit slower, but produces better results while earcut
       // sometimes creates incorrect triangles; on the other hand, JTS is not always able to
       // triangulate, so we fall back to earcut in that case
-      List<Integer> triangles;
+      triangles.clear();
       try {
-        triangles = triangulateWithJts(data, holeIndices, axes);
+        triangulateWithJts(polygonVertices, holeIndices, axes, triangles);
       } catch (Exception e) {
         if (LOGGER.isTraceEnabled()) {
           LOGGER.trace(
@@ -254,7 +288,8 @@ public interface TriangleMesh {
               featureName,
               e.getMessage());
         }
-        triangles = triangulateWithEarcut(data, holeIndices, axes);
+        triangles.clear();
+        triangulateWithEarcut(polygonVertices, holeIndices, axes, triangles);
       }
 
       if (triangles.isEmpty()) {
@@ -262,86 +297,66 @@ public interface TriangleMesh {
           LOGGER.debug(
               "Cannot triangulate a polygon of feature '{}', the polygon is ignored: {}",
               featureName,
-              data);
+              polygonVertices);
         }
         continue;
       }
 
-      ensureTriangleOrientation(triangles, data, holeIndices, axes, ccw);
+      ensureTriangleOrientation(triangles, polygonVertices, axes, ccw);
 
       // we have a triangle mesh for the polygon
-      for (int ringIndex : triangles) {
-        builder.addIndices(startIndex + vertexCountSurface + ringIndex);
+      int offset = getVertexCount();
+      indices.addAll(triangles, offset);
+      vertices.addAll(polygonVertices);
+      if (withNormals) {
+        for (int i = 0; i < polygonVertices.size() / 3; i++) {
+          normals.add(normal[0], normal[1], normal[2]);
+        }
       }
-      builder.addAllVertices(data);
-      builder.addAllNormals(normals);
       if (withOutline) {
-        for (int outlineIndex : outlineIndices) {
-          builder.addOutlineIndices(startIndex + vertexCountSurface + outlineIndex);
-        }
+        outlineIndices.addAll(polygonOutline, offset);
       }
 
-      vertexCountSurface += data.size() / 3;
+      vertexCountSurface += polygonVertices.size() / 3;
     }
 
-    return builder.build();
+    return vertexCountSurface;
   }
 
-  private static List<Integer> triangulateWithJts(
-      List<Double> data, List<Integer> holeIndices, AXES axes) {
-    org.locationtech.jts.geom.Coordinate[] coords2dForTriangulation =
-        IntStream.range(0, data.size() / 3)
-            .mapToObj(
-                n ->
-                    new org.locationtech.jts.geom.Coordinate(
-                        axes == AXES.XYZ
-                            ? data.get(n * 3)
-                            : (axes == AXES.YZX ? data.get(n * 3 + 1) : data.get(n * 3 + 2)),
-                        axes == AXES.XYZ
-                            ? data.get(n * 3 + 1)
-                            : (axes == AXES.YZX ? data.get(n * 3 + 2) : data.get(n * 3))))
-            .toArray(org.locationtech.jts.geom.Coordinate[]::new);
+  private static void triangulateWithJts(
+      DoubleArrayBuffer data, IntArrayBuffer holeIndices, AXES axes, IntArrayBuffer triangles) {
+    int numVertices = data.size() / 3;
+    int xOffset = axes == AXES.XYZ ? 0 : (axes == AXES.YZX ? 1 : 2);
+    int yOffset = axes == AXES.XYZ ? 1 : (axes == AXES.YZX ? 2 : 0);
+    Coordinate[] coords2dForTriangulation = new Coordinate[numVertices];
+    for (int n = 0; n < numVertices; n++) {
+      coords2dForTriangulation[n] =
+          new Coordinate(data.get(n * 3 + xOffset), data.get(n * 3 + yOffset));
+    }
 
     org.locationtech.jts.geom.Polygon polygon;
     if (holeIndices.isEmpty()) {
       polygon =
-          geometryFactory.createPolygon(
-              geometryFactory.createLinearRing(
-                  IntStream.range(0, data.size() / 3 + 1)
-                      .mapToObj(n -> coords2dForTriangulation[n == data.size() / 3 ? 0 : n])
-                      .toArray(org.locationtech.jts.geom.Coordinate[]::new)));
+          GEOMETRY_FACTORY.createPolygon(
+              createRing(coords2dForTriangulation, 0, numVertices));
     } else {
-      LinearRing shell =
-          geometryFactory.createLinearRing(
-              IntStream.range(0, holeIndices.get(0) + 1)
-                  .mapToObj(n -> coords2dForTriangulation[n == data.size() / 3 ? 0 : n])
-                  .toArray(org.locationtech.jts.geom.Coordinate[]::new));
-      LinearRing[] holes =
-          IntStream.range(1, holeIndices.size() + 1)
-              .mapToObj(
-                  r -> {
-                    int n0 = holeIndices.get(r - 1);
-                    int n1 = r < holeIndices.size() ? holeIndices.get(r) : data.size() / 3;
-                    return geometryFactory.createLinearRing(
-                        IntStream.range(n0, n1 + 1)
-                            .mapToObj(
-                                n -> {
-                                  return coords2dForTriangulation[n == n1 ? n0 : n];
-                                })
-                            .toArray(org.locationtech.jts.geom.Coordinate[]::new));
-                  })
-              .toArray(org.locationtech.jts.geom.LinearRing[]::new);
-      polygon = geometryFactory.createPolygon(shell, holes);
+      LinearRing shell = createRing(coords2dForTriangulation, 0, holeIndices.get(0));
+      LinearRing[] holes = new LinearRing[holeIndices.size()];
+      for (int r = 0; r < holeIndices.size(); r++) {
+        int n0 = holeIndices.get(r);
+        int n1 = r < holeIndices.size() - 1 ? holeIndices.get(r + 1) : numVertices;
+        holes[r] = createRing(coords2dForTriangulation, n0, n1);
+      }
+      polygon = GEOMETRY_FACTORY.createPolygon(shell, holes);
     }
 
     ConstrainedDelaunayTriangulator triangulator = new ConstrainedDelaunayTriangulator(polygon);
     org.locationtech.jts.geom.Geometry triangulation = triangulator.getResult();
 
-    List<Integer> triangles = new ArrayList<>();
     for (int i = 0; i < triangulation.getNumGeometries(); i++) {
       org.locationtech.jts.geom.Polygon tri =
           (org.locationtech.jts.geom.Polygon) triangulation.getGeometryN(i);
-      org.locationtech.jts.geom.Coordinate[] triCoords = tri.getExteriorRing().getCoordinates();
+      Coordinate[] triCoords = tri.getExteriorRing().getCoordinates();
 
       for (int j = 0; j < 3; j++) {
         for (int k = 0; k < coords2dForTriangulation.length; k++) {
@@ -352,31 +367,28 @@ public interface TriangleMesh {
         }
       }
     }
-    return triangles;
+  }
+
+  // the closed ring of the vertices from start (inclusive) to end (exclusive)
+  private static LinearRing createRing(Coordinate[] coordinates, int start, int end) {
+    Coordinate[] ring = new Coordinate[end - start + 1];
+    System.arraycopy(coordinates, start, ring, 0, end - start);
+    ring[end - start] = coordinates[start];
+    return GEOMETRY_FACTORY.createLinearRing(ring);
   }
 
   private static void ensureTriangleOrientation(
-      List<Integer> triangles,
-      List<Double> data,
-      List<Integer> holeIndices,
-      AXES axes,
-      boolean ccw) {
+      IntArrayBuffer triangles, DoubleArrayBuffer data, AXES axes, boolean ccw) {
+    double[] triangle = new double[9];
     for (int i = 0; i < triangles.size() / 3; i++) {
-      Integer p0 = triangles.get(i * 3);
-      Integer p1 = triangles.get(i * 3 + 1);
-      Integer p2 = triangles.get(i * 3 + 2);
-      double[] triangle =
-          new double[] {
-            data.get(p0 * 3),
-            data.get(p0 * 3 + 1),
-            data.get(p0 * 3 + 2),
-            data.get(p1 * 3),
-            data.get(p1 * 3 + 1),
-            data.get(p1 * 3 + 2),
-            data.get(p2 * 3),
-            data.get(p2 * 3 + 1),
-            data.get(p2 * 3 + 2)
-          };
+      int p0 = triangles.get(i * 3);
+      int p1 = triangles.get(i * 3 + 1);
+      int p2 = triangles.get(i * 3 + 2);
+      for (int j = 0; j < 3; j++) {
+        triangle[j] = data.get(p0 * 3 + j);
+        triangle[3 + j] = data.get(p1 * 3 + j);
+        triangle[6 + j] = data.get(p2 * 3 + j);
+      }
       boolean ccwTriangle =
           axes == AXES.XYZ
               ? computeAreaTriangle(triangle, 0, 1) > 0
@@ -391,40 +403,40 @@ public interface TriangleMesh {
     }
   }
 
-  private static List<Integer> triangulateWithEarcut(
-      List<Double> data, List<Integer> holeIndices, AXES axes) {
-    double[] coords2dForTriangulation = new double[data.size() / 3 * 2];
-    IntStream.range(0, data.size() / 3)
-        .forEach(
-            n -> {
-              int xIndex = axes == AXES.XYZ ? n * 3 : (axes == AXES.YZX ? n * 3 + 1 : n * 3 + 2);
-              int yIndex = axes == AXES.XYZ ? n * 3 + 1 : (axes == AXES.YZX ? n * 3 + 2 : n * 3);
-              coords2dForTriangulation[n * 2] = data.get(xIndex);
-              coords2dForTriangulation[n * 2 + 1] = data.get(yIndex);
-            });
-
-    List<Integer> triangles =
-        coords2dForTriangulation.length > 6
-            ? Earcut.earcut(
-                coords2dForTriangulation,
-                holeIndices.isEmpty()
-                    ? null
-                    : holeIndices.stream().mapToInt(Integer::intValue).toArray(),
-                2)
-            : new ArrayList<>(ImmutableList.of(0, 1, 2));
-
-    return triangles;
+  private static void triangulateWithEarcut(
+      DoubleArrayBuffer data, IntArrayBuffer holeIndices, AXES axes, IntArrayBuffer triangles) {
+    int numVertices = data.size() / 3;
+    if (numVertices == 3) {
+      triangles.add(0);
+      triangles.add(1);
+      triangles.add(2);
+      return;
+    }
+
+    int xOffset = axes == AXES.XYZ ? 0 : (axes == AXES.YZX ? 1 : 2);
+    int yOffset = axes == AXES.XYZ ? 1 : (axes == AXES.YZX ? 2 : 0);
+    double[] coords2dForTriangulation = new double[numVertices * 2];
+    for (int n = 0; n < numVertices; n++) {
+      coords2dForTriangulation[n * 2] = data.get(n * 3 + xOffset);
+      coords2dForTriangulation[n * 2 + 1] = data.get(n * 3 + yOffset);
+    }
+
+    List<Integer> result =
+        Earcut.earcut(
+            coords2dForTriangulation, holeIndices.isEmpty() ? null : holeIndices.toArray(), 2);
+    for (int index : result) {
+      triangles.add(index);
+    }
   }
 
   private static double computeArea(double[] ring, int axis1, int axis2) {
     int len = ring.length / 3;
-    return (IntStream.range(0, len)
-                .mapToDouble(n -> ring[n * 3 + axis1] * ring[((n + 1) % len) * 3 + axis2])
-                .sum()
-            - IntStream.range(0, ring.length / 3)
-                .mapToDouble(n -> ring[((n + 1) % len) * 3 + axis1] * ring[n * 3 + axis2])
-                .sum())
-        / 2.0d;
+    double sum = 0.0;
+    for (int n = 0; n < len; n++) {
+      int next = ((n + 1) % len) * 3;
+      sum += ring[n * 3 + axis1] * ring[next + axis2] - ring[next + axis1] * ring[n * 3 + axis2];
+    }
+    return sum / 2.0d;
   }
 
   private static double computeAreaTriangle(double[] triangle, int axis1, int axis2) {
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.gltf.domain
+
+import de.ii.xtraplatform.geometries.domain.Axes
+import de.ii.xtraplatform.geometries.domain.LineString
+import de.ii.xtraplatform.geometries.domain.Polygon
+import de.ii.xtraplatform.geometries.domain.PolyhedralSurface
+import de.ii.xtraplatform.geometries.domain.PositionList
+import spock.lang.Specification
+
+class TriangleMeshSpec extends Specification {
+
+    // closed, counter-clockwise rings in the xy plane
+    static final List<List<Double>> SQUARE = [[0, 0], [4, 0], [4, 4], [0, 4], [0, 0]]
+    static final List<List<Double>> HOLE = [[1, 1], [1, 3], [3, 3], [3, 1], [1, 1]]
+    static final List<List<Double>> LINE = [[0, 0], [1, 0], [2, 0], [0, 0]]
+
+    static LineString ring(List<List<Double>> positions) {
+        LineString.of(PositionList.of(Axes.XYZ, positions.collectMany { [it[0], it[1], 0d] } as double[]), Optional.empty())
+    }
+
+    static PolyhedralSurface surface(List<List<List<Double>>>... polygons) {
+        PolyhedralSurface.of(polygons.collect { rings -> Polygon.of(rings.collect { ring(it) }) })
+    }
+
+    static int add(TriangleMesh mesh, PolyhedralSurface surface) {
+        mesh.add(surface, 0d, false, true, true, Optional.empty(), "test")
+    }
+
+    static List<Double> vertex(TriangleMesh mesh, int index) {
+        (0..<3).collect { mesh.getVertices().get(mesh.getIndices().get(index) * 3 + it) }
+    }
+
+    // signed areas of the triangles in the xy plane
+    static List<Double> triangleAreas(TriangleMesh mesh) {
+        (0..<mesh.getIndices().size().intdiv(3)).collect { i ->
+            def (a, b, c) = (0..<3).collect { vertex(mesh, i * 3 + it) }
+            ((b[0] - a[0]) * (c[1] - a[1]) - (c[0] - a[0]) * (b[1] - a[1])) / 2
+        }
+    }
+
+    def 'a polygon with a hole is triangulated without the hole'() {
+        given:
+
+        def mesh = new TriangleMesh()
+
+        when:
+
+        def vertexCount = add(mesh, surface([SQUARE, HOLE]))
+
+        then: "the triangles cover the square minus the hole and keep the orientation of the exterior ring"
+
+        vertexCount == 10
+        mesh.getVertexCount() == 10
+        mesh.getIndices().size() % 3 == 0
+        mesh.getIndices().min() >= 0
+        mesh.getIndices().max() < 10
+        Math.abs(triangleAreas(mesh).sum() - 12d) < 1e-9
+        triangleAreas(mesh).every { it >= 0 }
+
+        and: "each vertex has the normal of the exterior ring"
+
+        mesh.getNormals().size() == 30
+        (0..<10).every { i -> [0d, 0d, 1d].withIndex().every { n, axis -> Math.abs(mesh.getNormals().get(i * 3 + axis) - n) < 1e-9 } }
+    }
+
+    def 'the outline of each ring starts at the first vertex of the ring'() {
+        given:
+
+        def mesh = new TriangleMesh()
+
+        when:
+
+        add(mesh, surface([SQUARE, HOLE]))
+
+        then:
+
+        mesh.getOutlineIndices().toArray() as List == [
+                0, 1, 1, 2, 2, 3, 3, 4, 4, 0,
+                5, 6, 6, 7, 7, 8, 8, 9, 9, 5]
+    }
+
+    def 'a degenerate polygon is skipped'() {
+        given:
+
+        def mesh = new TriangleMesh()
+
+        when:
+
+        def vertexCount = add(mesh, surface([LINE], [SQUARE]))
+
+        then: "only the square is added, its indices start at the first vertex of the mesh"
+
+        vertexCount == 5
+        mesh.getVertexCount() == 5
+        mesh.getNormals().size() == 15
+        mesh.getIndices().min() >= 0
+        mesh.getIndices().max() < 5
+        Math.abs(triangleAreas(mesh).sum() - 16d) < 1e-9
+        mesh.getOutlineIndices().toArray() as List == [0, 1, 1, 2, 2, 3, 3, 4, 4, 0]
+    }
+
+    def 'the indices of later surfaces are offset by the vertices of the mesh'() {
+        given:
+
+        def mesh = new TriangleMesh()
+        add(mesh, surface([SQUARE]))
+        def indices = mesh.getIndices().size()
+
+        when:
+
+        add(mesh, surface([SQUARE]))
+
+        then:
+
+        mesh.getVertexCount() == 10
+        (indices..<mesh.getIndices().size()).every { mesh.getIndices().get(it) >= 5 }
+        mesh.getOutlineIndices().toArray() as List == [
+                0, 1, 1, 2, 2, 3, 3, 4, 4, 0,
+                5, 6, 6, 7, 7, 8, 8, 9, 9, 5]
+
+        when: "the mesh is cleared for the next node"
+
+        mesh.clear()
+
+        then:
+
+        mesh.isEmpty()
+        mesh.getVertexCount() == 0
+    }
+}
@@ -52,4 +52,18 @@ public interface Broker {
    * @langDe Optionales Passwort, wenn Anmeldedaten erforderlich sind.
    */
   Optional<String> getPassword();
+
+  /**
+   * @langEn The maximum number of messages waiting to be sent to the broker. If the limit is
+   *     reached, messages for further feature changes are dropped until messages have been sent.
+   * @langDe Die maximale Anzahl an Nachrichten, die darauf warten, an den Broker gesendet zu werden.
+   *     Ist die Grenze erreicht, werden Nachrichten zu weiteren Objektänderungen verworfen, bis
+   *     Nachrichten gesendet wurden.
+   * @default 10000
+   * @since v4.9
+   */
+  @Value.Default
+  default int getQueueSize() {
+    return 10_000;
+  }
 }
@@ -14,18 +14,21 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.azahnen.dagger.annotations.AutoBind;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.exceptions.ConnectionClosedException;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3AsyncClient;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3ClientBuilder;
-import com.hivemq.client.mqtt.mqtt3.message.connect.connack.Mqtt3ConnAck;
 import de.ii.ogcapi.features.core.domain.FeatureFormatExtension;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreConfiguration;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreProviders;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler.Query;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler.QueryInputFeature;
+import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler.QueryInputFeatures;
 import de.ii.ogcapi.features.core.domain.ImmutableQueryInputFeature;
+import de.ii.ogcapi.features.core.domain.ImmutableQueryInputFeatures;
 import de.ii.ogcapi.features.core.domain.WithChangeListeners;
 import de.ii.ogcapi.features.geojson.domain.GeoJsonConfiguration;
 import de.ii.ogcapi.foundation.domain.ApiBuildingBlock;
@@ -76,12 +79,10 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -193,6 +194,7 @@ public class PubSubBuildingBlock
     implements ApiBuildingBlock, ApiExtensionHealth, WithChangeListeners {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PubSubBuildingBlock.class);
+  private static final int MAX_FEATURES_PER_QUERY = 1_000;
 
   private final AppContext appContext;
   private final ExtensionRegistry extensionRegistry;
@@ -200,6 +202,10 @@ public class PubSubBuildingBlock
   private final FeaturesCoreQueriesHandler queriesHandler;
   private final Map<String, Map<String, List<PublicationContext>>> pubContextMap;
   private final Map<String, String> publisherMap;
+  private final Map<String, Map<String, PublicationQueue>> queues;
+  // "{apiId}/{collectionId}" of collections where the feature ids in GeoJSON differ from the ids in
+  // the provider, so the features cannot be matched in the result of a batch query
+  private final Set<String> unmatchableCollections;
   private List<? extends FormatExtension> formats;
   private final ObjectMapper mapper;
 
@@ -215,6 +221,8 @@ public class PubSubBuildingBlock
     this.queriesHandler = queriesHandler;
     this.pubContextMap = new HashMap<>();
     this.publisherMap = new HashMap<>();
+    this.queues = new ConcurrentHashMap<>();
+    this.unmatchableCollections = ConcurrentHashMap.newKeySet();
     this.mapper = new ObjectMapper();
   }
 
@@ -225,6 +233,7 @@ public class PubSubBuildingBlock
 
   @Override
   public ValidationResult onStartup(OgcApi api, MODE apiValidation) {
+    unmatchableCollections.removeIf(key -> key.startsWith(api.getId() + "/"));
 
     providers
         .getFeatureProvider(api.getData())
@@ -239,7 +248,7 @@ public class PubSubBuildingBlock
 
     Set<String> brokersInUse = PubSubConfiguration.getBrokersInUse(api.getData());
 
-    Map<String, Pair<Mqtt3AsyncClient, CompletableFuture<Mqtt3ConnAck>>> clientMap =
+    Map<String, PublicationQueue> queueMap =
         api
             .getData()
             .getExtension(PubSubConfiguration.class)
@@ -253,12 +262,19 @@ public class PubSubBuildingBlock
                   Mqtt3AsyncClient client = getClient(publisher, entry.getKey(), entry.getValue());
                   return new SimpleImmutableEntry<>(
                       entry.getKey(),
-                      Pair.of(client, client.connectWith().cleanSession(true).send()));
+                      new PublicationQueue(
+                          entry.getKey(),
+                          client,
+                          client.connectWith().cleanSession(true).send(),
+                          entry.getValue().getQueueSize()));
                 })
             .collect(
                 Collectors.toUnmodifiableMap(
                     SimpleImmutableEntry::getKey, SimpleImmutableEntry::getValue));
 
+    Optional.ofNullable(queues.put(api.getId(), queueMap))
+        .ifPresent(previous -> previous.values().forEach(PublicationQueue::stop));
+
     ImmutableMap.Builder<String, List<PublicationContext>> collectionBuilder =
         ImmutableMap.builder();
     api.getData()
@@ -280,8 +296,7 @@ public class PubSubBuildingBlock
                               Publication pub = entry.getValue();
 
                               return ImmutablePublicationContext.builder()
-                                  .client(clientMap.get(pub.getBroker()).getLeft())
-                                  .connAck(clientMap.get(pub.getBroker()).getRight())
+                                  .queue(queueMap.get(pub.getBroker()))
                                   .qos(pub.getMqttQos())
                                   .subPath(pubId)
                                   .parameters(pub.getParameters())
@@ -303,6 +318,9 @@ public class PubSubBuildingBlock
         .getFeatureProvider(api.getData())
         .ifPresent(provider -> removeChangeListeners(provider.changes(), api));
 
+    Optional.ofNullable(queues.remove(api.getId()))
+        .ifPresent(queueMap -> queueMap.values().forEach(PublicationQueue::stop));
+
     ApiBuildingBlock.super.onShutdown(api);
   }
 
@@ -368,119 +386,109 @@ public class PubSubBuildingBlock
     return change -> {
       String collectionId =
           FeaturesCoreConfiguration.getCollectionId(api.getData(), change.getFeatureType());
-      if (isEnabledForApi(api.getData(), collectionId)) {
-        pubContextMap
-            .get(api.getId())
-            .get(collectionId)
-            .forEach(
-                context ->
-                    change
-                        .getFeatureIds()
-                        .forEach(
-                            featureId -> {
-                              if (change.getAction() != Action.DELETE
-                                  || context.getProperty().isEmpty()) {
-                                context
-                                    .getConnAck()
-                                    .thenCompose(
-                                        connAck -> {
-                                          ObjectNode geojson;
-                                          ObjectNode properties;
-                                          switch (change.getAction()) {
-                                            case CREATE:
-                                            case UPDATE:
-                                              geojson =
-                                                  getCurrentFeature(
-                                                      api,
-                                                      providers.getFeatureProviderOrThrow(
-                                                          api.getData()),
-                                                      collectionId,
-                                                      featureId);
-                                              if (Objects.isNull(geojson)) {
-                                                geojson = initFeature(featureId);
-                                              } else if (Objects.isNull(
-                                                  geojson.get("properties"))) {
-                                                geojson.putObject("properties");
-                                              }
-                                              break;
-                                            default:
-                                            case DELETE:
-                                              geojson = initFeature(featureId);
-                                              break;
-                                          }
-                                          // add PubSub values
-                                          properties = (ObjectNode) geojson.get("properties");
-                                          properties.put("$id", UUID.randomUUID().toString());
-                                          properties.put(
-                                              "$pubtime",
-                                              Instant.now()
-                                                  .truncatedTo(ChronoUnit.MILLIS)
-                                                  .toString());
-                                          properties.put(
-                                              "$operation",
-                                              change.getAction().toString().toLowerCase());
-                                          try {
-                                            String topic =
-                                                String.format(
-                                                    "ogcapi/%s/%s/collections/%s/%s",
-                                                    publisherMap.get(api.getId()),
-                                                    api.getId(),
-                                                    collectionId,
-                                                    replaceParameters(
-                                                        context.getSubPath(),
-                                                        context.getParameters(),
-                                                        properties));
-
-                                            return context
-                                                .getClient()
-                                                .publishWith()
-                                                .topic(topic)
-                                                .qos(context.getQos())
-                                                .payload(
-                                                    mapper.writeValueAsBytes(
-                                                        context
-                                                            .getProperty()
-                                                            .map(properties::get)
-                                                            .orElse(geojson)))
-                                                .retain(context.getRetain())
-                                                .send();
-                                          } catch (JsonProcessingException e) {
-                                            throw new IllegalStateException(e);
-                                          }
-                                        })
-                                    .orTimeout(context.getTimeout(), TimeUnit.SECONDS)
-                                    .thenAccept(
-                                        publish -> {
-                                          if (LOGGER.isTraceEnabled()) {
-                                            LOGGER.trace(
-                                                "PubSub action '{}', collection '{}', feature '{}': Message sent.",
-                                                change.getAction(),
-                                                collectionId,
-                                                featureId);
-                                          }
-                                        })
-                                    .whenComplete(
-                                        (ignore, e) -> {
-                                          if (e != null) {
-                                            if (LOGGER.isWarnEnabled()) {
-                                              LOGGER.warn(
-                                                  "PubSub action '{}', collection '{}', feature '{}': Error during message publication. Reason: {}",
-                                                  change.getAction(),
-                                                  collectionId,
-                                                  featureId,
-                                                  e.getMessage());
-                                            }
-                                            if (LOGGER.isDebugEnabled(MARKER.STACKTRACE)) {
-                                              LOGGER.debug("Stacktrace: ", e);
-                                            }
-                                          }
-                                        });
-                              }
-                            }));
+      if (!isEnabledForApi(api.getData(), collectionId)) {
+        return;
+      }
+
+      List<PublicationContext> contexts = pubContextMap.get(api.getId()).get(collectionId);
+      if (Objects.isNull(contexts) || contexts.isEmpty()) {
+        return;
+      }
+
+      // the current features are queried once for all publications of the collection
+      Map<String, ObjectNode> features =
+          change.getAction() == Action.DELETE
+              ? ImmutableMap.of()
+              : getCurrentFeatures(
+                  api,
+                  providers.getFeatureProviderOrThrow(api.getData()),
+                  collectionId,
+                  ImmutableList.copyOf(change.getFeatureIds()));
+
+      for (String featureId : change.getFeatureIds()) {
+        if (change.getAction() != Action.DELETE
+            && !features.containsKey(featureId)
+            && LOGGER.isWarnEnabled()) {
+          LOGGER.warn(
+              "PubSub action '{}', collection '{}', feature '{}': The current feature was not found, only the id is published.",
+              change.getAction(),
+              collectionId,
+              featureId);
+        }
+
+        for (PublicationContext context : contexts) {
+          if (change.getAction() == Action.DELETE && context.getProperty().isPresent()) {
+            continue;
+          }
+
+          ObjectNode geojson = features.get(featureId);
+          if (Objects.isNull(geojson)) {
+            geojson = initFeature(featureId);
+          } else {
+            geojson = geojson.deepCopy();
+            if (Objects.isNull(geojson.get("properties"))) {
+              geojson.putObject("properties");
+            }
+          }
+
+          publish(api, collectionId, change.getAction(), featureId, context, geojson);
+        }
       }
     };
   }
 
+  private void publish(
+      OgcApi api,
+      String collectionId,
+      Action action,
+      String featureId,
+      PublicationContext context,
+      ObjectNode geojson) {
+    // add PubSub values
+    ObjectNode properties = (ObjectNode) geojson.get("properties");
+    properties.put("$id", UUID.randomUUID().toString());
+    properties.put("$pubtime", Instant.now().truncatedTo(ChronoUnit.MILLIS).toString());
+    properties.put("$operation", action.toString().toLowerCase());
+
+    String topic =
+        String.format(
+            "ogcapi/%s/%s/collections/%s/%s",
+            publisherMap.get(api.getId()),
+            api.getId(),
+            collectionId,
+            replaceParameters(context.getSubPath(), context.getParameters(), properties));
+
+    try {
+      context
+          .getQueue()
+          .add(
+              new PublicationQueue.Message(
+                  topic,
+                  featureId,
+                  mapper.writeValueAsBytes(
+                      context.getProperty().map(properties::get).orElse(geojson)),
+                  context.getQos(),
+                  context.getRetain(),
+                  context.getTimeout(),
+                  action == Action.UPDATE,
+                  String.format(
+                      "PubSub action '%s', collection '%s', feature '%s'",
+                      action, collectionId, featureId)));
+    } catch (JsonProcessingException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn(
+            "PubSub action '{}', collection '{}', feature '{}': Error during message publication. Reason: {}",
+            action,
+            collectionId,
+            featureId,
+            e.getMessage());
+      }
+      if (LOGGER.isDebugEnabled(MARKER.STACKTRACE)) {
+        LOGGER.debug("Stacktrace: ", e);
+      }
+    }
+  }
+
   public static String replaceParameters(
       String input, Map<String, String> parameters, ObjectNode properties) {
     Pattern pattern = Pattern.compile("\\{(\\w+)}");
@@ -520,52 +528,82 @@ public class PubSubBuildingBlock
     return geojson;
   }
 
+  // the features are matched by the ids in the provider; if the ids in the GeoJSON documents
+  // differ, e.g. due to transformations, the features are queried one by one
+  private Map<String, ObjectNode> getCurrentFeatures(
+      OgcApi api, FeatureProvider provider, String collectionId, List<String> featureIds) {
+    Map<String, ObjectNode> features = new HashMap<>();
+    String collectionKey = api.getId() + "/" + collectionId;
+
+    for (List<String> batch : Lists.partition(featureIds, MAX_FEATURES_PER_QUERY)) {
+      if (!unmatchableCollections.contains(collectionKey)) {
+        try {
+          Optional<Map<String, ObjectNode>> matched =
+              match(batch, getCurrentFeatures(api, provider, collectionId, batch));
+          if (matched.isPresent()) {
+            features.putAll(matched.get());
+            continue;
+          }
+          unmatchableCollections.add(collectionKey);
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(
+                "PubSub: The feature ids in collection '{}' differ from the ids in the feature provider, features are queried one by one.",
+                collectionId);
+          }
+        } catch (URISyntaxException | IOException e) {
+          if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn(
+                "PubSub: Could not retrieve {} features in collection '{}'. Reason: feature query failed with an exception: {}",
+                batch.size(),
+                collectionId,
+                e.getMessage());
+          }
+          if (LOGGER.isDebugEnabled(MARKER.STACKTRACE)) {
+            LOGGER.debug(LogContext.MARKER.STACKTRACE, "Stacktrace: ", e);
+          }
+          continue;
+        }
+      }
+
+      for (String featureId : batch) {
+        ObjectNode feature = getCurrentFeature(api, provider, collectionId, featureId);
+        if (Objects.nonNull(feature)) {
+          features.put(featureId, feature);
+        }
+      }
+    }
+
+    return features;
+  }
+
+  // empty, if a feature has an id that was not requested, i.e. it is not the id in the provider
+  private static Optional<Map<String, ObjectNode>> match(
+      List<String> featureIds, List<ObjectNode> features) {
+    Set<String> requested = ImmutableSet.copyOf(featureIds);
+    Map<String, ObjectNode> matched = new HashMap<>();
+
+    for (ObjectNode feature : features) {
+      JsonNode id = feature.get("id");
+      if (Objects.isNull(id)
+          || !requested.contains(id.asText())
+          || Objects.nonNull(matched.put(id.asText(), feature))) {
+        return Optional.empty();
+      }
+    }
+
+    return Optional.of(matched);
+  }
+
   private ObjectNode getCurrentFeature(
       OgcApi api, FeatureProvider provider, String collectionId, String featureId) {
     try {
-      if (formats == null) {
-        formats = extensionRegistry.getExtensionsForType(FeatureFormatExtension.class);
-      }
-
       URI uri =
           new URICustomizer(api.getUri())
               .ensureLastPathSegments("collections", collectionId, "items", featureId)
               .build();
-      List<OgcApiQueryParameter> parameterDefinitions =
-          extensionRegistry.getExtensionsForType(OgcApiQueryParameter.class).stream()
-              .filter(
-                  param ->
-                      param.isApplicable(
-                          api.getData(),
-                          "/collections/{collectionId}/items/{featureId}",
-                          collectionId,
-                          HttpMethods.GET))
-              .sorted(Comparator.comparing(ParameterExtension::getName))
-              .collect(ImmutableList.toImmutableList());
       ApiRequestContext requestContextGeoJson =
-          new ImmutableStaticRequestContext.Builder()
-              .webContext(appContext)
-              .api(api)
-              .requestUri(uri)
-              .mediaType(
-                  new ImmutableApiMediaType.Builder()
-                      .type(new MediaType("application", "geo+json"))
-                      .label("GeoJSON")
-                      .parameter("json")
-                      .build())
-              .alternateMediaTypes(
-                  formats.stream()
-                      .filter(f -> f.isEnabledForApi(api.getData(), collectionId))
-                      .filter(f -> !f.isInternal())
-                      .map(FormatExtension::getMediaType)
-                      .filter(
-                          mediaType -> !"geo+json".equalsIgnoreCase(mediaType.type().getSubtype()))
-                      .collect(Collectors.toUnmodifiableSet()))
-              .queryParameterSet(
-                  QueryParameterSet.of(
-                          parameterDefinitions, ImmutableMap.of("profile", "rel-as-key"))
-                      .evaluate(api, api.getData().getCollectionData(collectionId)))
-              .build();
+          getRequestContext(
+              api, collectionId, uri, "/collections/{collectionId}/items/{featureId}");
 
       @SuppressWarnings("OptionalGetWithoutIsPresent")
       FeaturesCoreConfiguration coreConfiguration =
@@ -628,6 +666,114 @@ public class PubSubBuildingBlock
     return null;
   }
 
+  private List<ObjectNode> getCurrentFeatures(
+      OgcApi api, FeatureProvider provider, String collectionId, List<String> featureIds)
+      throws URISyntaxException, IOException {
+    URI uri =
+        new URICustomizer(api.getUri())
+            .ensureLastPathSegments("collections", collectionId, "items")
+            .build();
+    ApiRequestContext requestContextGeoJson =
+        getRequestContext(api, collectionId, uri, "/collections/{collectionId}/items");
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent")
+    FeaturesCoreConfiguration coreConfiguration =
+        api.getData().getExtension(FeaturesCoreConfiguration.class, collectionId).get();
+    FeatureQuery query =
+        ImmutableFeatureQuery.builder()
+            .type(coreConfiguration.getFeatureType().orElse(collectionId))
+            .filter(In.of(featureIds.stream().map(ScalarLiteral::of).toArray(ScalarLiteral[]::new)))
+            .limit(featureIds.size())
+            .crs(coreConfiguration.getDefaultEpsgCrs())
+            .build();
+
+    QueryInputFeatures queryInput =
+        new ImmutableQueryInputFeatures.Builder()
+            .collectionId(collectionId)
+            .query(query)
+            .featureProvider(provider)
+            .defaultCrs(coreConfiguration.getDefaultEpsgCrs())
+            .defaultPageSize(Optional.of(featureIds.size()))
+            .sendResponseAsStream(false)
+            .includeBodyLinks(false)
+            .build();
+
+    try (Response response =
+        queriesHandler.handle(Query.FEATURES, queryInput, requestContextGeoJson)) {
+
+      if (response.getStatus() != 200) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn(
+              "PubSub: Could not retrieve {} features in collection '{}'. Reason: feature query failed, status: {}",
+              featureIds.size(),
+              collectionId,
+              response.getStatus());
+        }
+        return ImmutableList.of();
+      }
+
+      if (!(response.getEntity() instanceof byte[])) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn(
+              "PubSub: Could not retrieve {} features in collection '{}'. Reason: feature payload must be of type 'byte[]', found: {}",
+              featureIds.size(),
+              collectionId,
+              response.getEntity().getClass().getSimpleName());
+        }
+        return ImmutableList.of();
+      }
+
+      JsonNode features = mapper.readTree((byte[]) response.getEntity()).get("features");
+      if (Objects.isNull(features) || !features.isArray()) {
+        return ImmutableList.of();
+      }
+
+      ImmutableList.Builder<ObjectNode> result = ImmutableList.builder();
+      features.forEach(
+          feature -> {
+            if (feature instanceof ObjectNode) {
+              result.add((ObjectNode) feature);
+            }
+          });
+      return result.build();
+    }
+  }
+
+  private ApiRequestContext getRequestContext(
+      OgcApi api, String collectionId, URI uri, String path) {
+    if (formats == null) {
+      formats = extensionRegistry.getExtensionsForType(FeatureFormatExtension.class);
+    }
+
+    List<OgcApiQueryParameter> parameterDefinitions =
+        extensionRegistry.getExtensionsForType(OgcApiQueryParameter.class).stream()
+            .filter(
+                param -> param.isApplicable(api.getData(), path, collectionId, HttpMethods.GET))
+            .sorted(Comparator.comparing(ParameterExtension::getName))
+            .collect(ImmutableList.toImmutableList());
+    return new ImmutableStaticRequestContext.Builder()
+        .webContext(appContext)
+        .api(api)
+        .requestUri(uri)
+        .mediaType(
+            new ImmutableApiMediaType.Builder()
+                .type(new MediaType("application", "geo+json"))
+                .label("GeoJSON")
+                .parameter("json")
+                .build())
+        .alternateMediaTypes(
+            formats.stream()
+                .filter(f -> f.isEnabledForApi(api.getData(), collectionId))
+                .filter(f -> !f.isInternal())
+                .map(FormatExtension::getMediaType)
+                .filter(mediaType -> !"geo+json".equalsIgnoreCase(mediaType.type().getSubtype()))
+                .collect(Collectors.toUnmodifiableSet()))
+        .queryParameterSet(
+            QueryParameterSet.of(parameterDefinitions, ImmutableMap.of("profile", "rel-as-key"))
+                .evaluate(api, api.getData().getCollectionData(collectionId)))
+        .build();
+  }
+
   @Override
   public Set<Volatile2> getVolatiles(OgcApiDataV2 apiData) {
     return Set.of(queriesHandler, providers.getFeatureProviderOrThrow(apiData));
@@ -8,19 +8,14 @@
 package de.ii.ogcapi.pubsub.app;
 
 import com.hivemq.client.mqtt.datatypes.MqttQos;
-import com.hivemq.client.mqtt.mqtt3.Mqtt3AsyncClient;
-import com.hivemq.client.mqtt.mqtt3.message.connect.connack.Mqtt3ConnAck;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import org.immutables.value.Value;
 
 @Value.Immutable
 public interface PublicationContext {
 
-  Mqtt3AsyncClient getClient();
-
-  CompletableFuture<Mqtt3ConnAck> getConnAck();
+  PublicationQueue getQueue();
 
   MqttQos getQos();
 
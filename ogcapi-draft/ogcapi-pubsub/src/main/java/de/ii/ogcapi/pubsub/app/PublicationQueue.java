@@ -0,0 +1,316 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.pubsub.app;
+
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import com.hivemq.client.mqtt.mqtt3.Mqtt3AsyncClient;
+import com.hivemq.client.mqtt.mqtt3.message.connect.connack.Mqtt3ConnAck;
+import de.ii.xtraplatform.base.domain.LogContext.MARKER;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded queue of messages for a broker. Messages are sent in the order in which they were
+ * added, with a limited number of messages in flight. Adding a message never blocks: if the queue
+ * is full, the message is dropped. A pending update of a feature is replaced by a newer update of
+ * the same feature for the same topic. Messages that could not be sent before their timeout
+ * expired are dropped, too.
+ */
+public class PublicationQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PublicationQueue.class);
+  private static final int MAX_IN_FLIGHT = 64;
+  private static final long STATISTICS_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+  private final String brokerId;
+  private final Mqtt3AsyncClient client;
+  private final CompletableFuture<Mqtt3ConnAck> connAck;
+  private final int capacity;
+  private final Map<Long, Message> pending;
+  private final Map<String, Long> pendingUpdates;
+  private final Semaphore inFlight;
+  private final Thread sender;
+  private long nextSequence;
+  private volatile boolean stopped;
+
+  private final AtomicLong published;
+  private final AtomicLong failed;
+  private final AtomicLong coalesced;
+  private final AtomicLong dropped;
+  private final AtomicLong latencyTotal;
+  private final AtomicLong latencyMax;
+  private int depthMax;
+  private long lastStatistics;
+
+  static final class Message {
+    private final String topic;
+    private final String featureId;
+    private final byte[] payload;
+    private final MqttQos qos;
+    private final boolean retain;
+    private final int timeout;
+    private final boolean update;
+    private final String description;
+    private long enqueued;
+
+    Message(
+        String topic,
+        String featureId,
+        byte[] payload,
+        MqttQos qos,
+        boolean retain,
+        int timeout,
+        boolean update,
+        String description) {
+      this.topic = topic;
+      this.featureId = featureId;
+      this.payload = payload;
+      this.qos = qos;
+      this.retain = retain;
+      this.timeout = timeout;
+      this.update = update;
+      this.description = description;
+    }
+
+    private String getUpdateKey() {
+      return topic + '\n' + featureId;
+    }
+  }
+
+  PublicationQueue(
+      String brokerId,
+      Mqtt3AsyncClient client,
+      CompletableFuture<Mqtt3ConnAck> connAck,
+      int capacity) {
+    this(brokerId, client, connAck, capacity, MAX_IN_FLIGHT);
+  }
+
+  PublicationQueue(
+      String brokerId,
+      Mqtt3AsyncClient client,
+      CompletableFuture<Mqtt3ConnAck> connAck,
+      int capacity,
+      int maxInFlight) {
+    this.brokerId = brokerId;
+    this.client = client;
+    this.connAck = connAck;
+    this.capacity = capacity;
+    this.pending = new LinkedHashMap<>();
+    this.pendingUpdates = new HashMap<>();
+    this.inFlight = new Semaphore(maxInFlight);
+    this.published = new AtomicLong();
+    this.failed = new AtomicLong();
+    this.coalesced = new AtomicLong();
+    this.dropped = new AtomicLong();
+    this.latencyTotal = new AtomicLong();
+    this.latencyMax = new AtomicLong();
+    this.lastStatistics = System.currentTimeMillis();
+    this.sender = new Thread(this::send, "pubsub-" + brokerId);
+    sender.setDaemon(true);
+    sender.start();
+  }
+
+  /**
+   * Adds a message to the queue. If the queue is full or has been stopped, the message is dropped.
+   *
+   * @param message the message
+   * @return {@code false}, if the message was dropped
+   */
+  synchronized boolean add(Message message) {
+    message.enqueued = System.currentTimeMillis();
+
+    if (message.update) {
+      Long sequence = pendingUpdates.get(message.getUpdateKey());
+      if (Objects.nonNull(sequence)) {
+        pending.put(sequence, message);
+        coalesced.incrementAndGet();
+        return true;
+      }
+    } else {
+      // later updates must not be merged with updates before this message
+      pendingUpdates.remove(message.getUpdateKey());
+    }
+
+    if (stopped || pending.size() >= capacity) {
+      dropped.incrementAndGet();
+      if (!stopped && LOGGER.isWarnEnabled()) {
+        LOGGER.warn(
+            "PubSub: Queue for broker '{}' is full, message dropped: {}",
+            brokerId,
+            message.description);
+      }
+      return false;
+    }
+
+    long sequence = nextSequence++;
+    pending.put(sequence, message);
+    if (message.update) {
+      pendingUpdates.put(message.getUpdateKey(), sequence);
+    }
+    depthMax = Math.max(depthMax, pending.size());
+    notifyAll();
+
+    return true;
+  }
+
+  /**
+   * @return the number of messages that are waiting to be sent
+   */
+  synchronized int getDepth() {
+    return pending.size();
+  }
+
+  long getCoalesced() {
+    return coalesced.get();
+  }
+
+  long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Stops the sender. Messages that are still waiting to be sent are discarded and counted as
+   * dropped.
+   */
+  void stop() {
+    stopped = true;
+    sender.interrupt();
+    int discarded;
+    synchronized (this) {
+      discarded = pending.size();
+      pending.clear();
+      pendingUpdates.clear();
+      dropped.addAndGet(discarded);
+      notifyAll();
+    }
+    if (discarded > 0 && LOGGER.isWarnEnabled()) {
+      LOGGER.warn("PubSub: Broker '{}' stopped, {} pending messages dropped.", brokerId, discarded);
+    }
+    logStatistics();
+  }
+
+  private synchronized Message take() throws InterruptedException {
+    while (true) {
+      while (pending.isEmpty()) {
+        wait();
+      }
+
+      Iterator<Map.Entry<Long, Message>> iterator = pending.entrySet().iterator();
+      Map.Entry<Long, Message> next = iterator.next();
+      iterator.remove();
+
+      Message message = next.getValue();
+      if (message.update) {
+        pendingUpdates.remove(message.getUpdateKey(), next.getKey());
+      }
+
+      long age = System.currentTimeMillis() - message.enqueued;
+      if (age > TimeUnit.SECONDS.toMillis(message.timeout)) {
+        dropped.incrementAndGet();
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn(
+              "PubSub: Timeout of message expired in queue for broker '{}', message dropped: {}",
+              brokerId,
+              message.description);
+        }
+        continue;
+      }
+
+      return message;
+    }
+  }
+
+  private void send() {
+    while (!stopped) {
+      Message message;
+      try {
+        inFlight.acquire();
+        message = take();
+      } catch (InterruptedException e) {
+        return;
+      }
+
+      connAck
+          .thenCompose(
+              ignore ->
+                  client
+                      .publishWith()
+                      .topic(message.topic)
+                      .qos(message.qos)
+                      .payload(message.payload)
+                      .retain(message.retain)
+                      .send())
+          .orTimeout(message.timeout, TimeUnit.SECONDS)
+          .whenComplete(
+              (ignore, e) -> {
+                inFlight.release();
+                if (Objects.isNull(e)) {
+                  long latency = System.currentTimeMillis() - message.enqueued;
+                  published.incrementAndGet();
+                  latencyTotal.addAndGet(latency);
+                  latencyMax.accumulateAndGet(latency, Math::max);
+                  if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace("{}: Message sent.", message.description);
+                  }
+                } else {
+                  failed.incrementAndGet();
+                  if (LOGGER.isWarnEnabled()) {
+                    LOGGER.warn(
+                        "{}: Error during message publication. Reason: {}",
+                        message.description,
+                        e.getMessage());
+                  }
+                  if (LOGGER.isDebugEnabled(MARKER.STACKTRACE)) {
+                    LOGGER.debug(MARKER.STACKTRACE, "Stacktrace: ", e);
+                  }
+                }
+                if (LOGGER.isDebugEnabled()
+                    && System.currentTimeMillis() - lastStatistics > STATISTICS_INTERVAL) {
+                  logStatistics();
+                }
+              });
+    }
+  }
+
+  private void logStatistics() {
+    if (!LOGGER.isDebugEnabled()) {
+      return;
+    }
+
+    int depth;
+    int maxDepth;
+    synchronized (this) {
+      depth = pending.size();
+      maxDepth = depthMax;
+      depthMax = depth;
+      lastStatistics = System.currentTimeMillis();
+    }
+    long sent = published.get();
+
+    LOGGER.debug(
+        "PubSub: Broker '{}': {} messages published, {} failed, {} coalesced, {} dropped; queue depth {} (max {}); publish latency avg {}ms, max {}ms",
+        brokerId,
+        sent,
+        failed.get(),
+        coalesced.get(),
+        dropped.get(),
+        depth,
+        maxDepth,
+        sent > 0 ? latencyTotal.get() / sent : 0,
+        latencyMax.get());
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.pubsub.app
+
+import com.hivemq.client.mqtt.datatypes.MqttQos
+import com.hivemq.client.mqtt.mqtt3.Mqtt3AsyncClient
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CompletableFuture
+
+class PublicationQueueSpec extends Specification {
+
+    PublicationQueue queue
+
+    def setup() {
+        // no messages in flight, so nothing is taken from the queue
+        queue = new PublicationQueue("test", Mock(Mqtt3AsyncClient), new CompletableFuture(), 3, 0)
+    }
+
+    def cleanup() {
+        queue.stop()
+    }
+
+    static PublicationQueue.Message message(String featureId, boolean update) {
+        return new PublicationQueue.Message("topic", featureId, new byte[0], MqttQos.AT_MOST_ONCE, false, 60, update, featureId)
+    }
+
+    def 'updates of the same feature are coalesced'() {
+        when:
+        queue.add(message("1", true))
+        queue.add(message("1", true))
+        queue.add(message("2", true))
+
+        then:
+        queue.getDepth() == 2
+        queue.getCoalesced() == 1
+        queue.getDropped() == 0
+    }
+
+    def 'updates are not merged across other messages of the same feature'() {
+        when:
+        queue.add(message("1", true))
+        queue.add(message("1", false))
+        queue.add(message("1", true))
+
+        then:
+        queue.getDepth() == 3
+        queue.getCoalesced() == 0
+    }
+
+    @Timeout(5)
+    def 'a full queue drops messages without blocking'() {
+        when:
+        def results = (1..5).collect { queue.add(message(it.toString(), false)) }
+
+        then:
+        results == [true, true, true, false, false]
+        queue.getDepth() == 3
+        queue.getDropped() == 2
+    }
+
+    def 'an update of a pending feature is accepted by a full queue'() {
+        given:
+        (1..3).each { queue.add(message(it.toString(), true)) }
+
+        when:
+        def added = queue.add(message("2", true))
+
+        then:
+        added
+        queue.getDepth() == 3
+        queue.getCoalesced() == 1
+        queue.getDropped() == 0
+    }
+
+    def 'pending messages are counted as dropped on stop'() {
+        given:
+        queue.add(message("1", false))
+        queue.add(message("2", false))
+
+        when:
+        queue.stop()
+
+        then:
+        queue.getDepth() == 0
+        queue.getDropped() == 2
+
+        when:
+        def added = queue.add(message("3", false))
+
+        then:
+        !added
+        queue.getDropped() == 3
+    }
+}
@@ -205,7 +205,7 @@ public class QueriesHandlerStylesImpl extends AbstractVolatileComposed
                         : apiData.getExtension(HtmlConfiguration.class, collectionId.get()))
                     .map(HtmlConfiguration::getSendEtags)
                     .orElse(false)
-            ? ETag.from(stylesheetContent.getContent())
+            ? stylesheetContent.getETag()
             : null;
     Response.ResponseBuilder response = evaluatePreconditions(requestContext, lastModified, etag);
     if (Objects.nonNull(response)) return response.build();
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.styles.app;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The materialized style information of an API: style ids, existence and last modification of
+ * stylesheets, the stylesheet content and derived collection stylesheets. Entries are loaded from
+ * the store on first access. The catalogue is never updated, it is replaced as a whole when the
+ * styles of the API change.
+ */
+final class StyleCatalogue {
+
+  @FunctionalInterface
+  interface Loader<T> {
+    T load() throws IOException;
+  }
+
+  private final Map<String, Object> entries;
+
+  StyleCatalogue() {
+    this.entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * @param kind the kind of entry, e.g. "exists"
+   * @param collectionId the collection, if the entry is for a collection style
+   * @param styleId the style, if the entry is for a specific style
+   * @param qualifier any other information that identifies the entry, e.g. the file extension
+   * @param loader loads the entry, if it is not in the catalogue, must not return {@code null}
+   * @return the entry
+   * @throws IOException if the entry cannot be loaded
+   */
+  @SuppressWarnings("unchecked")
+  <T> T get(
+      String kind,
+      Optional<String> collectionId,
+      String styleId,
+      String qualifier,
+      Loader<T> loader)
+      throws IOException {
+    String key = String.join("\0", kind, collectionId.orElse(""), styleId, qualifier);
+    Object entry = entries.get(key);
+    if (Objects.isNull(entry)) {
+      // the store is accessed outside of the map, concurrent loads of the same entry are harmless
+      entry = Objects.requireNonNull(loader.load());
+      Object previous = entries.putIfAbsent(key, entry);
+      if (Objects.nonNull(previous)) {
+        entry = previous;
+      }
+    }
+    return (T) entry;
+  }
+}
@@ -8,6 +8,8 @@
 package de.ii.ogcapi.styles.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreProviders;
@@ -74,6 +76,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
@@ -85,6 +88,8 @@ public class StyleRepositoryFiles extends AbstractVolatile
     implements StyleRepository, AppLifeCycle {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(StyleRepositoryFiles.class);
+  // changes in the store that are not made via the API are picked up after this period
+  private static final long CATALOGUE_EXPIRY_MINUTES = 1;
 
   private final ExtensionRegistry extensionRegistry;
   private final ResourceStore stylesStore;
@@ -99,6 +104,8 @@ public class StyleRepositoryFiles extends AbstractVolatile
   private final VolatileRegistry volatileRegistry;
   private final TilesProviders tilesProviders;
   private final TileMatrixSetRepository tileMatrixSetRepository;
+  // weak keys, so the catalogue of an API is dropped, when the API is reloaded
+  private final Cache<OgcApiDataV2, StyleCatalogue> catalogues;
 
   @Inject
   public StyleRepositoryFiles(
@@ -125,6 +132,11 @@ public class StyleRepositoryFiles extends AbstractVolatile
     this.tilesProviders = tilesProviders;
     this.tileMatrixSetRepository = tileMatrixSetRepository;
     this.defaultLinkGenerator = new DefaultLinksGenerator();
+    this.catalogues =
+        CacheBuilder.newBuilder()
+            .weakKeys()
+            .expireAfterWrite(CATALOGUE_EXPIRY_MINUTES, TimeUnit.MINUTES)
+            .build();
   }
 
   @Override
@@ -203,6 +215,26 @@ public class StyleRepositoryFiles extends AbstractVolatile
       String styleId,
       StyleFormatExtension styleFormat,
       boolean includeDerived) {
+    return fromCatalogue(
+            apiData,
+            "lastModified",
+            collectionId,
+            styleId,
+            styleFormat.getFileExtension() + includeDerived,
+            () ->
+                Optional.ofNullable(
+                    loadStylesheetLastModified(
+                        apiData, collectionId, styleId, styleFormat, includeDerived)),
+            Optional.<Date>empty())
+        .orElse(null);
+  }
+
+  private Date loadStylesheetLastModified(
+      OgcApiDataV2 apiData,
+      Optional<String> collectionId,
+      String styleId,
+      StyleFormatExtension styleFormat,
+      boolean includeDerived) {
     // a stylesheet exists, if we have a stylesheet document or if we can derive one
     if (exists(apiData, collectionId, styleId, styleFormat)) {
       try {
@@ -315,19 +347,13 @@ public class StyleRepositoryFiles extends AbstractVolatile
                             requestContext.getLanguage()));
                   }
 
-                  final java.nio.file.Path resourcePath =
-                      Path.of(apiData.getId()).resolve(String.format("%s.png", styleId));
-                  try {
-                    if (legendsStore.has(resourcePath)) {
-                      builder.addLinks(
-                          stylesLinkGenerator.generateStyleLegendLink(
-                              requestContext.getUriCustomizer(),
-                              styleId,
-                              i18n,
-                              requestContext.getLanguage()));
-                    }
-                  } catch (IOException ignore) {
-                    // ignore, skip link
+                  if (hasLegend(apiData, styleId)) {
+                    builder.addLinks(
+                        stylesLinkGenerator.generateStyleLegendLink(
+                            requestContext.getUriCustomizer(),
+                            styleId,
+                            i18n,
+                            requestContext.getLanguage()));
                   }
                   return builder.build();
                 })
@@ -386,6 +412,21 @@ public class StyleRepositoryFiles extends AbstractVolatile
       Optional<String> collectionId,
       String styleId,
       StyleFormatExtension styleFormat) {
+    return fromCatalogue(
+        apiData,
+        "exists",
+        collectionId,
+        styleId,
+        styleFormat.getFileExtension(),
+        () -> existsInStore(apiData, collectionId, styleId, styleFormat),
+        false);
+  }
+
+  private boolean existsInStore(
+      OgcApiDataV2 apiData,
+      Optional<String> collectionId,
+      String styleId,
+      StyleFormatExtension styleFormat) {
     try {
       if (isMbStyle(styleFormat)) {
         return mbStylesStore.has(styleId, getPathArrayStyles(apiData, collectionId));
@@ -426,28 +467,39 @@ public class StyleRepositoryFiles extends AbstractVolatile
       StyleFormatExtension styleFormat) {
     // for specific style encodings, we derive a style for a single feature collection from a
     // multi-collection stylesheet, if this capability is not switched off for the collection
-    try {
-      return collectionId.isPresent()
-          && deriveCollectionStylesEnabled(apiData, collectionId.get())
-          && exists(apiData, Optional.empty(), styleId, styleFormat)
-          && styleFormat.canDeriveCollectionStyle()
-          && styleFormat
-              .deriveCollectionStyle(
-                  getStylesheetContent(apiData, Optional.empty(), styleId, styleFormat),
-                  apiData,
-                  servicesContext.getApiUri(apiData),
-                  collectionId.get(),
-                  styleId)
-              .isPresent();
-    } catch (IOException e) {
-      LOGGER.error(
-          "Could not derive stylesheet for style '{}' in collection '{}' in API '{}' for style encoding '{}'",
-          styleId,
-          collectionId,
-          apiData.getId(),
-          styleFormat.getMediaType().label());
-    }
-    return false;
+    return collectionId.isPresent()
+        && deriveCollectionStylesEnabled(apiData, collectionId.get())
+        && exists(apiData, Optional.empty(), styleId, styleFormat)
+        && styleFormat.canDeriveCollectionStyle()
+        && deriveStylesheet(
+                apiData,
+                collectionId.get(),
+                styleId,
+                styleFormat,
+                servicesContext.getApiUri(apiData))
+            .isPresent();
+  }
+
+  private Optional<StylesheetContent> deriveStylesheet(
+      OgcApiDataV2 apiData,
+      String collectionId,
+      String styleId,
+      StyleFormatExtension styleFormat,
+      String apiUri) {
+    return fromCatalogue(
+        apiData,
+        "derived",
+        Optional.of(collectionId),
+        styleId,
+        styleFormat.getMediaType().label() + "\0" + apiUri,
+        () ->
+            styleFormat.deriveCollectionStyle(
+                getStylesheetContent(apiData, Optional.empty(), styleId, styleFormat),
+                apiData,
+                apiUri,
+                collectionId,
+                styleId),
+        Optional.empty());
   }
 
   private StylesheetContent getStylesheetContent(
@@ -456,6 +508,22 @@ public class StyleRepositoryFiles extends AbstractVolatile
       String styleId,
       StyleFormatExtension styleFormat)
       throws IOException {
+    // the stylesheet is serialized only once
+    return getCatalogue(apiData)
+        .get(
+            "content",
+            collectionId,
+            styleId,
+            styleFormat.getFileExtension(),
+            () -> loadStylesheetContent(apiData, collectionId, styleId, styleFormat));
+  }
+
+  private StylesheetContent loadStylesheetContent(
+      OgcApiDataV2 apiData,
+      Optional<String> collectionId,
+      String styleId,
+      StyleFormatExtension styleFormat)
+      throws IOException {
     Path pathStyle = getPathStyle(apiData, collectionId, styleId, styleFormat);
 
     if (isMbStyle(styleFormat)) {
@@ -532,12 +600,8 @@ public class StyleRepositoryFiles extends AbstractVolatile
 
     if (stylesheetExists(apiData, collectionId, styleId, styleFormat, true)) {
       Optional<StylesheetContent> stylesheet =
-          styleFormat.deriveCollectionStyle(
-              getStylesheet(apiData, Optional.empty(), styleId, styleFormat, requestContext),
-              apiData,
-              requestContext.getApiUri(),
-              collectionId.get(),
-              styleId);
+          deriveStylesheet(
+              apiData, collectionId.get(), styleId, styleFormat, requestContext.getApiUri());
       if (stylesheet.isPresent()) return stylesheet.get();
     }
 
@@ -635,6 +699,17 @@ public class StyleRepositoryFiles extends AbstractVolatile
     }
   }
 
+  private boolean hasLegend(OgcApiDataV2 apiData, String styleId) {
+    return fromCatalogue(
+        apiData,
+        "legend",
+        Optional.empty(),
+        styleId,
+        "",
+        () -> legendsStore.has(getStyleLegendPath(apiData, styleId)),
+        false);
+  }
+
   private java.nio.file.Path getStyleLegendPath(OgcApiDataV2 apiData, String styleId) {
     return Path.of(apiData.getId()).resolve(String.format("%s.png", styleId));
   }
@@ -758,32 +833,36 @@ public class StyleRepositoryFiles extends AbstractVolatile
       StyleFormatExtension format,
       byte[] requestBody)
       throws IOException {
-    if (isMbStyle(format)) {
-      MbStyleStylesheet stylesheet = StyleFormatMbStyle.parse(requestBody, false);
-      try {
-        mbStylesStore.put(styleId, stylesheet, getPathArrayStyles(apiData, collectionId)).join();
-      } catch (CompletionException e) {
-        if (e.getCause() instanceof IOException) {
-          throw (IOException) e.getCause();
+    try {
+      if (isMbStyle(format)) {
+        MbStyleStylesheet stylesheet = StyleFormatMbStyle.parse(requestBody, false);
+        try {
+          mbStylesStore.put(styleId, stylesheet, getPathArrayStyles(apiData, collectionId)).join();
+        } catch (CompletionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+          }
+          throw e;
         }
-        throw e;
-      }
-    } else if (is3dTilesStyle(format)) {
-      Tiles3dStylesheet stylesheet = StyleFormat3dTiles.parse(requestBody, false);
-      try {
-        tiles3dStylesStore
-            .put(styleId, stylesheet, getPathArrayStyles(apiData, collectionId))
-            .join();
-      } catch (CompletionException e) {
-        if (e.getCause() instanceof IOException) {
-          throw (IOException) e.getCause();
+      } else if (is3dTilesStyle(format)) {
+        Tiles3dStylesheet stylesheet = StyleFormat3dTiles.parse(requestBody, false);
+        try {
+          tiles3dStylesStore
+              .put(styleId, stylesheet, getPathArrayStyles(apiData, collectionId))
+              .join();
+        } catch (CompletionException e) {
+          if (e.getCause() instanceof IOException) {
+            throw (IOException) e.getCause();
+          }
+          throw e;
         }
-        throw e;
+      } else {
+        stylesStore.put(
+            getStylesheetPath(apiData, collectionId, styleId, format),
+            new ByteArrayInputStream(requestBody));
       }
-    } else {
-      stylesStore.put(
-          getStylesheetPath(apiData, collectionId, styleId, format),
-          new ByteArrayInputStream(requestBody));
+    } finally {
+      invalidateCatalogue(apiData);
     }
   }
 
@@ -791,25 +870,59 @@ public class StyleRepositoryFiles extends AbstractVolatile
   public void writeStyleMetadataDocument(
       OgcApiDataV2 apiData, Optional<String> collectionId, String styleId, byte[] requestBody)
       throws IOException {
-    stylesStore.put(
-        getStyleMetadataPath(apiData, collectionId, styleId),
-        new ByteArrayInputStream(requestBody));
+    try {
+      stylesStore.put(
+          getStyleMetadataPath(apiData, collectionId, styleId),
+          new ByteArrayInputStream(requestBody));
+    } finally {
+      invalidateCatalogue(apiData);
+    }
   }
 
   @Override
   public void deleteStyle(OgcApiDataV2 apiData, Optional<String> collectionId, String styleId)
       throws IOException {
-    for (StyleFormatExtension format :
-        getStyleFormatStream(apiData, collectionId).collect(Collectors.toUnmodifiableList())) {
-      if (isMbStyle(format)) {
-        mbStylesStore.delete(styleId, getPathArrayStyles(apiData, collectionId));
-      }
-      if (is3dTilesStyle(format)) {
-        tiles3dStylesStore.delete(styleId, getPathArrayStyles(apiData, collectionId));
+    try {
+      for (StyleFormatExtension format :
+          getStyleFormatStream(apiData, collectionId).collect(Collectors.toUnmodifiableList())) {
+        if (isMbStyle(format)) {
+          mbStylesStore.delete(styleId, getPathArrayStyles(apiData, collectionId));
+        }
+        if (is3dTilesStyle(format)) {
+          tiles3dStylesStore.delete(styleId, getPathArrayStyles(apiData, collectionId));
+        }
+        stylesStore.delete(getStylesheetPath(apiData, collectionId, styleId, format));
       }
-      stylesStore.delete(getStylesheetPath(apiData, collectionId, styleId, format));
+      stylesStore.delete(getStyleMetadataPath(apiData, collectionId, styleId));
+    } finally {
+      invalidateCatalogue(apiData);
     }
-    stylesStore.delete(getStyleMetadataPath(apiData, collectionId, styleId));
+  }
+
+  private StyleCatalogue getCatalogue(OgcApiDataV2 apiData) {
+    return catalogues.asMap().computeIfAbsent(apiData, ignore -> new StyleCatalogue());
+  }
+
+  private <T> T fromCatalogue(
+      OgcApiDataV2 apiData,
+      String kind,
+      Optional<String> collectionId,
+      String styleId,
+      String qualifier,
+      StyleCatalogue.Loader<T> loader,
+      T fallback) {
+    try {
+      return getCatalogue(apiData).get(kind, collectionId, styleId, qualifier, loader);
+    } catch (IOException e) {
+      LogContext.error(LOGGER, e, "Could not read styles of API '{}'", apiData.getId());
+      return fallback;
+    }
+  }
+
+  // called after a write, so that a catalogue that is loaded during the write is dropped, too;
+  // also drops the catalogues of other instances of the same API, the store is shared
+  private void invalidateCatalogue(OgcApiDataV2 apiData) {
+    catalogues.asMap().keySet().removeIf(data -> Objects.equals(data.getId(), apiData.getId()));
   }
 
   private Path getStylesheetPath(
@@ -860,15 +973,9 @@ public class StyleRepositoryFiles extends AbstractVolatile
         .filter(format -> stylesheetExists(apiData, Optional.empty(), styleId, format))
         .forEach(
             format -> {
-              StylesheetContent stylesheetContent =
-                  getStylesheet(apiData, Optional.empty(), styleId, format, requestContext);
               Optional<StylesheetContent> derivedStylesheet =
-                  format.deriveCollectionStyle(
-                      stylesheetContent,
-                      apiData,
-                      requestContext.getApiUri(),
-                      collectionId,
-                      styleId);
+                  deriveStylesheet(
+                      apiData, collectionId, styleId, format, requestContext.getApiUri());
               if (derivedStylesheet.isEmpty()) return;
 
               builder.addAllLinks(
@@ -889,14 +996,10 @@ public class StyleRepositoryFiles extends AbstractVolatile
           stylesLinkGenerator.generateMapTilesLink(
               requestContext.getUriCustomizer(), styleId, i18n, requestContext.getLanguage()));
     }
-    try {
-      if (legendsStore.has(getStyleLegendPath(apiData, styleId))) {
-        builder.addLinks(
-            stylesLinkGenerator.generateStyleLegendLink(
-                requestContext.getUriCustomizer(), styleId, i18n, requestContext.getLanguage()));
-      }
-    } catch (IOException ignore) {
-      // ignore, skip link
+    if (hasLegend(apiData, styleId)) {
+      builder.addLinks(
+          stylesLinkGenerator.generateStyleLegendLink(
+              requestContext.getUriCustomizer(), styleId, i18n, requestContext.getLanguage()));
     }
 
     StyleEntry styleEntry =
@@ -984,6 +1087,17 @@ public class StyleRepositoryFiles extends AbstractVolatile
   }
 
   private Set<String> getStyleIds(OgcApiDataV2 apiData, Optional<String> collectionId) {
+    return fromCatalogue(
+        apiData,
+        "ids",
+        collectionId,
+        "",
+        "",
+        () -> loadStyleIds(apiData, collectionId),
+        ImmutableSet.of());
+  }
+
+  private Set<String> loadStyleIds(OgcApiDataV2 apiData, Optional<String> collectionId) {
     Set<String> formatExt =
         getStyleFormatStream(apiData, collectionId)
             .filter(format -> !format.getDerived())
@@ -7,6 +7,9 @@
  */
 package de.ii.ogcapi.styles.domain;
 
+import de.ii.xtraplatform.base.domain.ETag;
+import jakarta.ws.rs.core.EntityTag;
+import java.util.Objects;
 import java.util.Optional;
 
 public class StylesheetContent {
@@ -16,6 +19,7 @@ public class StylesheetContent {
   final boolean inStore;
   final Optional<MbStyleStylesheet> mbStyle;
   final Optional<Tiles3dStylesheet> tiles3dStyle;
+  private volatile EntityTag eTag;
 
   public StylesheetContent(byte[] content, String descriptor, boolean inStore) {
     this(content, descriptor, inStore, null, null);
@@ -48,6 +52,14 @@ public class StylesheetContent {
     return content;
   }
 
+  /** The strong entity tag of the content, it is computed only once. */
+  public EntityTag getETag() {
+    if (Objects.isNull(eTag)) {
+      eTag = ETag.from(content);
+    }
+    return eTag;
+  }
+
   public String getDescriptor() {
     return descriptor;
   }
@@ -23,9 +23,12 @@ import de.ii.ogcapi.foundation.domain.SchemaValidator;
 import de.ii.ogcapi.foundation.domain.SpecificationMaturity;
 import de.ii.ogcapi.foundation.domain.TypedQueryParameter;
 import de.ii.ogcapi.text.search.domain.TextSearchConfiguration;
+import de.ii.ogcapi.text.search.domain.TextSearchIndexes;
+import de.ii.xtraplatform.cql.domain.BooleanValue2;
 import de.ii.xtraplatform.cql.domain.Cql;
 import de.ii.xtraplatform.cql.domain.Cql2Expression;
 import de.ii.xtraplatform.cql.domain.Function;
+import de.ii.xtraplatform.cql.domain.In;
 import de.ii.xtraplatform.cql.domain.Like;
 import de.ii.xtraplatform.cql.domain.Or;
 import de.ii.xtraplatform.cql.domain.Property;
@@ -63,10 +66,13 @@ public class QueryParameterQ extends OgcApiQueryParameterBase
 
   private final Schema<?> baseSchema;
   private final SchemaValidator schemaValidator;
+  private final TextSearchIndexes textSearchIndexes;
 
   @Inject
-  public QueryParameterQ(SchemaValidator schemaValidator, Cql cql) {
+  public QueryParameterQ(
+      SchemaValidator schemaValidator, Cql cql, TextSearchIndexes textSearchIndexes) {
     this.schemaValidator = schemaValidator;
+    this.textSearchIndexes = textSearchIndexes;
     this.baseSchema = new ArraySchema().items(new StringSchema());
   }
 
@@ -94,7 +100,20 @@ public class QueryParameterQ extends OgcApiQueryParameterBase
             .map(Set::copyOf)
             .orElse(ImmutableSet.of());
 
-    return qToCql(textSearchProperties, Splitter.on(",").trimResults().splitToList(value));
+    List<String> qValues = Splitter.on(",").trimResults().splitToList(value);
+
+    if (!textSearchProperties.isEmpty() && optionalCollectionData.isPresent()) {
+      // if the collection has a full-text index, only the matching features are selected by id
+      Optional<Set<String>> ids =
+          textSearchIndexes.find(api, optionalCollectionData.get().getId(), qValues);
+      if (ids.isPresent()) {
+        return ids.get().isEmpty()
+            ? BooleanValue2.of(false)
+            : In.of(ids.get().stream().map(ScalarLiteral::of).toArray(ScalarLiteral[]::new));
+      }
+    }
+
+    return qToCql(textSearchProperties, qValues);
   }
 
   @Override
@@ -8,14 +8,55 @@
 package de.ii.ogcapi.text.search.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.ii.ogcapi.features.core.domain.FeaturesCoreConfiguration;
+import de.ii.ogcapi.features.core.domain.FeaturesCoreProviders;
+import de.ii.ogcapi.features.core.domain.PropertyValuesExtension;
+import de.ii.ogcapi.features.core.domain.WithChangeListeners;
 import de.ii.ogcapi.foundation.domain.ApiBuildingBlock;
 import de.ii.ogcapi.foundation.domain.ExtensionConfiguration;
 import de.ii.ogcapi.foundation.domain.ExternalDocumentation;
+import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.foundation.domain.SpecificationMaturity;
 import de.ii.ogcapi.text.search.domain.ImmutableTextSearchConfiguration;
+import de.ii.ogcapi.text.search.domain.TextSearchConfiguration;
+import de.ii.ogcapi.text.search.domain.TextSearchIndexes;
+import de.ii.xtraplatform.base.domain.LogContext;
+import de.ii.xtraplatform.cql.domain.Gt;
+import de.ii.xtraplatform.cql.domain.In;
+import de.ii.xtraplatform.cql.domain.ScalarLiteral;
+import de.ii.xtraplatform.entities.domain.ValidationResult;
+import de.ii.xtraplatform.entities.domain.ValidationResult.MODE;
+import de.ii.xtraplatform.features.domain.DatasetChangeListener;
+import de.ii.xtraplatform.features.domain.FeatureChange.Action;
+import de.ii.xtraplatform.features.domain.FeatureChangeListener;
+import de.ii.xtraplatform.features.domain.FeatureProvider;
+import de.ii.xtraplatform.features.domain.FeatureQuery;
+import de.ii.xtraplatform.features.domain.FeatureSchema;
+import de.ii.xtraplatform.features.domain.FeatureStream;
+import de.ii.xtraplatform.features.domain.ImmutableFeatureQuery;
+import de.ii.xtraplatform.features.domain.SchemaBase.Type;
+import de.ii.xtraplatform.features.domain.SortKey;
+import de.ii.xtraplatform.features.domain.SortKey.Direction;
+import de.ii.xtraplatform.features.domain.Tuple;
+import de.ii.xtraplatform.streams.domain.Reactive.Sink;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @title Text Search
@@ -31,7 +72,13 @@ import java.util.Optional;
  */
 @Singleton
 @AutoBind
-public class TextSearchBuildingBlock implements ApiBuildingBlock {
+public class TextSearchBuildingBlock
+    implements ApiBuildingBlock, WithChangeListeners, TextSearchIndexes {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TextSearchBuildingBlock.class);
+  private static final int BATCH_SIZE = 10_000;
+  // larger candidate sets are resolved by the feature provider, an id filter would be too large
+  private static final int MAX_IDS = 10_000;
 
   public static final Optional<SpecificationMaturity> MATURITY =
       Optional.of(SpecificationMaturity.DRAFT_OGC);
@@ -41,11 +88,295 @@ public class TextSearchBuildingBlock implements ApiBuildingBlock {
               "https://docs.ogc.org/DRAFTS/24-031.html",
               "OGC API - Features - Part 9: Text Search (DRAFT)"));
 
+  private final FeaturesCoreProviders providers;
+  private final Map<String, Map<String, TextSearchIndex>> indexes;
+  // builds and updates of the indexes are applied in order, without blocking the thread that
+  // notifies about a change
+  private final ExecutorService executor;
+
   @Inject
-  public TextSearchBuildingBlock() {}
+  public TextSearchBuildingBlock(FeaturesCoreProviders providers) {
+    this.providers = providers;
+    this.indexes = new ConcurrentHashMap<>();
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("text-search-%d").setDaemon(true).build());
+  }
 
   @Override
   public ExtensionConfiguration getDefaultConfiguration() {
     return new ImmutableTextSearchConfiguration.Builder().enabled(false).build();
   }
+
+  @Override
+  public ValidationResult onStartup(OgcApi api, MODE apiValidation) {
+    Map<String, TextSearchIndex> apiIndexes = new ConcurrentHashMap<>();
+    api.getData()
+        .getCollections()
+        .keySet()
+        .forEach(
+            collectionId -> {
+              if (isIndexed(api, collectionId)) {
+                apiIndexes.put(collectionId, new TextSearchIndex());
+              }
+            });
+    indexes.put(api.getId(), apiIndexes);
+
+    if (!apiIndexes.isEmpty()) {
+      providers
+          .getFeatureProvider(api.getData())
+          .ifPresent(
+              provider -> {
+                updateChangeListeners(provider.changes(), api);
+                apiIndexes.keySet().forEach(collectionId -> buildAsync(api, collectionId));
+              });
+    }
+
+    return ApiBuildingBlock.super.onStartup(api, apiValidation);
+  }
+
+  @Override
+  public void onShutdown(OgcApi api) {
+    if (!indexes.getOrDefault(api.getId(), Map.of()).isEmpty()) {
+      providers
+          .getFeatureProvider(api.getData())
+          .ifPresent(provider -> removeChangeListeners(provider.changes(), api));
+    }
+    indexes.remove(api.getId());
+
+    ApiBuildingBlock.super.onShutdown(api);
+  }
+
+  @Override
+  public Optional<Set<String>> find(OgcApi api, String collectionId, List<String> terms) {
+    return Optional.ofNullable(indexes.getOrDefault(api.getId(), Map.of()).get(collectionId))
+        .flatMap(index -> index.find(terms, MAX_IDS));
+  }
+
+  @Override
+  public DatasetChangeListener onDatasetChange(OgcApi api) {
+    return change -> {
+      for (String featureType : change.getFeatureTypes()) {
+        String collectionId = FeaturesCoreConfiguration.getCollectionId(api.getData(), featureType);
+        if (getIndex(api, collectionId).isPresent()) {
+          buildAsync(api, collectionId);
+        }
+      }
+    };
+  }
+
+  @Override
+  public FeatureChangeListener onFeatureChange(OgcApi api) {
+    return change -> {
+      String collectionId =
+          FeaturesCoreConfiguration.getCollectionId(api.getData(), change.getFeatureType());
+      Optional<TextSearchIndex> index = getIndex(api, collectionId);
+      if (index.isEmpty()) {
+        return;
+      }
+
+      List<String> featureIds = ImmutableList.copyOf(change.getFeatureIds());
+      if (featureIds.isEmpty()) {
+        return;
+      }
+      boolean deleted = change.getAction() == Action.DELETE;
+
+      executor.execute(
+          () -> {
+            try {
+              update(api, collectionId, index.get(), featureIds, deleted);
+            } catch (Throwable e) {
+              LogContext.error(
+                  LOGGER,
+                  e,
+                  "Text search index of collection '{}' in API '{}' could not be updated",
+                  collectionId,
+                  api.getId());
+            }
+          });
+    };
+  }
+
+  // the new entries are read before the old entries are replaced, if reading fails, the old
+  // entries are kept
+  private void update(
+      OgcApi api,
+      String collectionId,
+      TextSearchIndex index,
+      Collection<String> featureIds,
+      boolean deleted) {
+    Map<String, List<String>> texts = new HashMap<>();
+    if (!deleted) {
+      readTexts(
+          api,
+          getQueryBuilder(api, collectionId)
+              .filter(
+                  In.of(featureIds.stream().map(ScalarLiteral::of).toArray(ScalarLiteral[]::new)))
+              .limit(featureIds.size())
+              .build(),
+          texts::put);
+    }
+    index.replace(featureIds, texts);
+  }
+
+  private static boolean isIndexed(OgcApi api, String collectionId) {
+    return api.getData()
+        .getExtension(TextSearchConfiguration.class, collectionId)
+        .filter(ExtensionConfiguration::isEnabled)
+        .filter(cfg -> cfg.isIndex() && !cfg.getProperties().isEmpty())
+        .isPresent();
+  }
+
+  private Optional<TextSearchIndex> getIndex(OgcApi api, String collectionId) {
+    return Optional.ofNullable(collectionId)
+        .map(id -> indexes.getOrDefault(api.getId(), Map.of()).get(id));
+  }
+
+  // builds of an index are serialized, a dataset change during a build results in one more build
+  // after the running build instead of a concurrent build
+  private void buildAsync(OgcApi api, String collectionId) {
+    getIndex(api, collectionId)
+        .filter(TextSearchIndex::requestBuild)
+        .ifPresent(
+            index ->
+                executor.execute(
+                    () -> {
+                      do {
+                        // stop, if the API has been stopped or restarted in the meantime
+                        if (getIndex(api, collectionId).filter(i -> i == index).isEmpty()) {
+                          return;
+                        }
+                        try {
+                          build(api, collectionId, index);
+                        } catch (Throwable e) {
+                          LogContext.error(
+                              LOGGER,
+                              e,
+                              "Text search index of collection '{}' in API '{}' could not be built, text search is evaluated by the feature provider",
+                              collectionId,
+                              api.getId());
+                        }
+                      } while (index.completeBuild());
+                    }));
+  }
+
+  private void build(OgcApi api, String collectionId, TextSearchIndex index) {
+    long start = System.nanoTime();
+    FeatureSchema idProperty =
+        getIdProperty(api, collectionId)
+            .orElseThrow(() -> new IllegalStateException("The feature type has no id property."));
+    index.startBuild();
+
+    // the features are read in batches sorted by id, each batch starts after the last id of the
+    // previous batch, so the provider does not have to skip the features of the previous batches
+    long count = 0;
+    List<String> batch = List.of();
+    do {
+      ImmutableFeatureQuery.Builder query =
+          getQueryBuilder(api, collectionId)
+              .addSortKeys(SortKey.of(idProperty.getFullPathAsString(), Direction.ASCENDING))
+              .limit(BATCH_SIZE);
+      if (!batch.isEmpty()) {
+        query.filter(
+            Gt.of(
+                idProperty.getFullPathAsString(),
+                toLiteral(idProperty, batch.get(batch.size() - 1))));
+      }
+      batch = readTexts(api, query.build(), index::put);
+      count += batch.size();
+    } while (batch.size() == BATCH_SIZE);
+
+    Set<String> changed = index.finishBuild();
+    if (!changed.isEmpty()) {
+      update(api, collectionId, index, changed, false);
+    }
+
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info(
+          "Text search index of collection '{}' in API '{}' built with {} features in {}ms",
+          collectionId,
+          api.getId(),
+          count,
+          (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+
+  /**
+   * Passes the values of the text search properties of the selected features to the consumer,
+   * nothing is encoded.
+   *
+   * @return the ids of the features in the order of the stream
+   */
+  private List<String> readTexts(
+      OgcApi api, FeatureQuery query, BiConsumer<String, List<String>> texts) {
+    FeatureProvider provider = providers.getFeatureProviderOrThrow(api.getData());
+    List<String> ids = new ArrayList<>();
+    PropertyValuesExtension textValues =
+        new PropertyValuesExtension(
+            schema -> schema.isId() || schema.getType() == Type.STRING,
+            values ->
+                values.stream()
+                    .filter(value -> value.first().isId())
+                    .map(Tuple::second)
+                    .findFirst()
+                    .ifPresent(
+                        id -> {
+                          texts.accept(
+                              id,
+                              values.stream()
+                                  .filter(value -> !value.first().isId())
+                                  .map(Tuple::second)
+                                  .toList());
+                          ids.add(id);
+                        }));
+
+    FeatureStream.Result result =
+        provider
+            .queries()
+            .get()
+            .getFeatureStream(
+                ImmutableFeatureQuery.builder().from(query).addExtensions(textValues).build())
+            .runWith(Sink.ignore(), Map.of(), new CompletableFuture<>())
+            .toCompletableFuture()
+            .join();
+    result.getError().ifPresent(FeatureStream::processStreamError);
+
+    return ids;
+  }
+
+  private Optional<FeatureSchema> getIdProperty(OgcApi api, String collectionId) {
+    return providers
+        .getFeatureSchema(api.getData(), api.getData().getCollections().get(collectionId))
+        .flatMap(
+            schema ->
+                schema.getAllNestedProperties().stream().filter(FeatureSchema::isId).findFirst());
+  }
+
+  private static ScalarLiteral toLiteral(FeatureSchema idProperty, String id) {
+    if (idProperty.getType() == Type.INTEGER) {
+      long value = Long.parseLong(id);
+      return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE
+          ? ScalarLiteral.of((int) value)
+          : ScalarLiteral.of(value);
+    }
+    return ScalarLiteral.of(id);
+  }
+
+  // only the id and the text search properties are selected
+  private static ImmutableFeatureQuery.Builder getQueryBuilder(OgcApi api, String collectionId) {
+    String featureType =
+        api.getData()
+            .getExtension(FeaturesCoreConfiguration.class, collectionId)
+            .flatMap(FeaturesCoreConfiguration::getFeatureType)
+            .orElse(collectionId);
+    List<String> properties =
+        api.getData()
+            .getExtension(TextSearchConfiguration.class, collectionId)
+            .map(TextSearchConfiguration::getProperties)
+            .orElse(List.of());
+
+    return ImmutableFeatureQuery.builder()
+        .type(featureType)
+        .fields(properties);
+  }
 }
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.text.search.app;
+
+import com.google.common.base.Splitter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index of the text search properties of a collection. The text is split into tokens
+ * of letters and digits, which are folded to lower case. For each token the ids of the features
+ * that contain the token are stored.
+ *
+ * <p>A search term matches a feature, if the term is contained in one of the tokens of the feature.
+ * This is the same as the {@code LOWER(property) LIKE '%term%'} comparison that is used without the
+ * index, as long as the term only consists of letters and digits. Other terms cannot be resolved
+ * with the index. Diacritics are not removed, since the comparison without the index is not accent
+ * insensitive either, so the result does not depend on the availability of the index.
+ * To find the tokens that contain a term without scanning all tokens, the suffixes of all tokens
+ * are kept in a sorted map, the tokens that contain the term are those with a suffix that starts
+ * with the term.
+ *
+ * <p>At most one build of the index runs at a time, see {@link #requestBuild()}.
+ */
+final class TextSearchIndex {
+
+  private static final Splitter TOKENIZER =
+      Splitter.on(Pattern.compile("[^\\p{L}\\p{N}]+")).omitEmptyStrings();
+
+  private final Map<String, Set<String>> idsByToken;
+  private final Map<String, Set<String>> tokensById;
+  // suffix -> tokens that end with the suffix
+  private final NavigableMap<String, Set<String>> tokensBySuffix;
+  private final ReadWriteLock lock;
+  private volatile boolean ready;
+  private Set<String> changedWhileBuilding;
+  private boolean building;
+  private boolean buildRequested;
+
+  TextSearchIndex() {
+    this.idsByToken = new HashMap<>();
+    this.tokensById = new HashMap<>();
+    this.tokensBySuffix = new TreeMap<>();
+    this.lock = new ReentrantReadWriteLock();
+    this.ready = false;
+  }
+
+  static List<String> tokenize(String text) {
+    return TOKENIZER.splitToList(fold(text));
+  }
+
+  static String fold(String text) {
+    return text.toLowerCase(Locale.ROOT);
+  }
+
+  boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Requests a build of the index. If no build is running, the caller has to start the build. If a
+   * build is running, it is repeated once it has finished, see {@link #completeBuild()}, so any
+   * number of requests during a build result in a single additional build.
+   *
+   * @return true, if the caller has to start the build
+   */
+  synchronized boolean requestBuild() {
+    if (building) {
+      this.buildRequested = true;
+      return false;
+    }
+    this.building = true;
+    return true;
+  }
+
+  /**
+   * @return true, if another build has been requested while the build was running and the caller
+   *     has to build the index again
+   */
+  synchronized boolean completeBuild() {
+    if (buildRequested) {
+      this.buildRequested = false;
+      return true;
+    }
+    this.building = false;
+    return false;
+  }
+
+  /** Clears the index. Until {@link #finishBuild()} is called, searches are not supported. */
+  void startBuild() {
+    lock.writeLock().lock();
+    try {
+      this.ready = false;
+      idsByToken.clear();
+      tokensById.clear();
+      tokensBySuffix.clear();
+      this.changedWhileBuilding = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the ids of the features that have changed while the index was built, these have to be
+   *     indexed again
+   */
+  Set<String> finishBuild() {
+    lock.writeLock().lock();
+    try {
+      Set<String> changed = Objects.requireNonNullElse(changedWhileBuilding, Set.of());
+      this.changedWhileBuilding = null;
+      this.ready = true;
+      return changed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void put(String id, Collection<String> texts) {
+    Set<String> tokens = getTokens(texts);
+
+    lock.writeLock().lock();
+    try {
+      putUnlocked(id, tokens);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void remove(Collection<String> ids) {
+    replace(ids, Map.of());
+  }
+
+  /**
+   * Replaces the entries of changed features in a single step, so that searches never miss a
+   * feature that is being updated.
+   *
+   * @param ids the ids of the changed features, the entries of features without texts are removed
+   * @param texts the new texts per feature id
+   */
+  void replace(Collection<String> ids, Map<String, ? extends Collection<String>> texts) {
+    Map<String, Set<String>> tokens = new HashMap<>();
+    texts.forEach((id, featureTexts) -> tokens.put(id, getTokens(featureTexts)));
+
+    lock.writeLock().lock();
+    try {
+      if (Objects.nonNull(changedWhileBuilding)) {
+        changedWhileBuilding.addAll(ids);
+      }
+      ids.forEach(this::removeUnlocked);
+      tokens.forEach(this::putUnlocked);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static Set<String> getTokens(Collection<String> texts) {
+    Set<String> tokens = new HashSet<>();
+    texts.forEach(text -> tokens.addAll(tokenize(text)));
+    return tokens;
+  }
+
+  private void putUnlocked(String id, Set<String> tokens) {
+    removeUnlocked(id);
+    if (!tokens.isEmpty()) {
+      tokensById.put(id, tokens);
+      for (String token : tokens) {
+        idsByToken
+            .computeIfAbsent(
+                token,
+                t -> {
+                  addSuffixes(t);
+                  return new HashSet<>();
+                })
+            .add(id);
+      }
+    }
+  }
+
+  private void removeUnlocked(String id) {
+    Set<String> tokens = tokensById.remove(id);
+    if (Objects.isNull(tokens)) {
+      return;
+    }
+    for (String token : tokens) {
+      Set<String> ids = idsByToken.get(token);
+      if (Objects.nonNull(ids)) {
+        ids.remove(id);
+        if (ids.isEmpty()) {
+          idsByToken.remove(token);
+          removeSuffixes(token);
+        }
+      }
+    }
+  }
+
+  private void addSuffixes(String token) {
+    for (int i = 0; i < token.length(); i = token.offsetByCodePoints(i, 1)) {
+      tokensBySuffix.computeIfAbsent(token.substring(i), s -> new HashSet<>(1)).add(token);
+    }
+  }
+
+  private void removeSuffixes(String token) {
+    for (int i = 0; i < token.length(); i = token.offsetByCodePoints(i, 1)) {
+      String suffix = token.substring(i);
+      Set<String> tokens = tokensBySuffix.get(suffix);
+      if (Objects.nonNull(tokens)) {
+        tokens.remove(token);
+        if (tokens.isEmpty()) {
+          tokensBySuffix.remove(suffix);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param terms the search terms
+   * @param maxIds the maximum number of ids in the result
+   * @return the ids of the features that match at least one of the terms, if all terms can be
+   *     resolved with the index and there are not more than {@code maxIds} matches
+   */
+  Optional<Set<String>> find(List<String> terms, int maxIds) {
+    if (!ready || terms.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Set<String> tokens = new HashSet<>();
+    for (String term : terms) {
+      List<String> termTokens = tokenize(term);
+      if (termTokens.size() != 1 || !termTokens.get(0).equals(fold(term))) {
+        return Optional.empty();
+      }
+      tokens.add(termTokens.get(0));
+    }
+
+    Set<String> ids = new HashSet<>();
+    Set<String> matchingTokens = new HashSet<>();
+    lock.readLock().lock();
+    try {
+      for (String token : tokens) {
+        for (Map.Entry<String, Set<String>> entry :
+            tokensBySuffix.tailMap(token, true).entrySet()) {
+          if (!entry.getKey().startsWith(token)) {
+            break;
+          }
+          for (String matchingToken : entry.getValue()) {
+            if (matchingTokens.add(matchingToken)) {
+              ids.addAll(idsByToken.get(matchingToken));
+              if (ids.size() > maxIds) {
+                return Optional.empty();
+              }
+            }
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    return Optional.of(ids);
+  }
+}
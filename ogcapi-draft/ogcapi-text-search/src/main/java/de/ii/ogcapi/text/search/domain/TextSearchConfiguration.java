@@ -7,10 +7,13 @@
  */
 package de.ii.ogcapi.text.search.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import de.ii.ogcapi.foundation.domain.ExtensionConfiguration;
+import de.ii.xtraplatform.docs.DocIgnore;
 import de.ii.xtraplatform.docs.JsonDynamicSubType;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.immutables.value.Value;
 
 /**
@@ -23,6 +26,7 @@ import org.immutables.value.Value;
  *   - name
  *   - description
  *   - function
+ *   index: true
  * ```
  * </code>
  */
@@ -39,6 +43,33 @@ public interface TextSearchConfiguration extends ExtensionConfiguration {
    */
   List<String> getProperties();
 
+  /**
+   * @langEn Enables an in-memory full-text index of the text search properties. The index is built
+   *     when the API starts and is updated, when features are changed. While the index is being
+   *     built or if a search term contains characters other than letters and digits, the text
+   *     search is evaluated by the feature provider. In both cases, the comparison of the search
+   *     terms ignores case, but not diacritics, e.g. `müller` finds `Müller`, but `muller` does
+   *     not.
+   * @langDe Aktiviert einen Volltextindex der Properties für die Textsuche im Arbeitsspeicher. Der
+   *     Index wird beim Start der API aufgebaut und bei Änderungen an Features aktualisiert.
+   *     Während der Index aufgebaut wird oder wenn ein Suchbegriff andere Zeichen als Buchstaben
+   *     und Ziffern enthält, wird die Textsuche vom Feature-Provider ausgewertet. In beiden Fällen
+   *     wird beim Vergleich der Suchbegriffe die Groß-/Kleinschreibung ignoriert, diakritische
+   *     Zeichen aber nicht, z.B. findet `müller` auch `Müller`, `muller` aber nicht.
+   * @since v4.9
+   * @default false
+   */
+  @Nullable
+  Boolean getIndex();
+
+  @JsonIgnore
+  @Value.Derived
+  @Value.Auxiliary
+  @DocIgnore
+  default boolean isIndex() {
+    return Boolean.TRUE.equals(getIndex());
+  }
+
   abstract class Builder extends ExtensionConfiguration.Builder {}
 
   @Override
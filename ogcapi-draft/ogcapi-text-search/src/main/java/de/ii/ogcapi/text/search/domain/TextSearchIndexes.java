@@ -0,0 +1,28 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.text.search.domain;
+
+import de.ii.ogcapi.foundation.domain.OgcApi;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface TextSearchIndexes {
+
+  /**
+   * Resolves a text search with the full-text index of a collection, see {@link
+   * TextSearchConfiguration#getIndex()}.
+   *
+   * @param api the API
+   * @param collectionId the collection
+   * @param terms the search terms
+   * @return the ids of the features that match at least one of the terms, empty, if the search
+   *     cannot be resolved with the index
+   */
+  Optional<Set<String>> find(OgcApi api, String collectionId, List<String> terms);
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.text.search.app
+
+import spock.lang.Specification
+
+class TextSearchIndexSpec extends Specification {
+
+    static TextSearchIndex index(Map<String, List<String>> features) {
+        def index = new TextSearchIndex()
+        index.startBuild()
+        features.each { id, texts -> index.put(id, texts) }
+        index.finishBuild()
+        return index
+    }
+
+    def 'Text is folded to lower case, diacritics are kept like in the comparison without the index'() {
+
+        expect:
+
+        TextSearchIndex.fold(text) == folded
+
+        where:
+
+        text           || folded
+        "Crème Brûlée" || "crème brûlée"
+        "ÅNGSTRÖM"     || "ångström"
+        "Straße 12"    || "straße 12"
+    }
+
+    def 'Text is split into tokens of letters and digits'() {
+
+        expect:
+
+        TextSearchIndex.tokenize(text) == tokens
+
+        where:
+
+        text                   || tokens
+        "Hello, World!"        || ["hello", "world"]
+        "Äpfel-Birnen 2024"    || ["äpfel", "birnen", "2024"]
+        "  --  "               || []
+        ""                     || []
+    }
+
+    def 'A term matches the features with a token that contains the term'() {
+
+        given:
+
+        def index = index(["1": ["Berlin Mitte"], "2": ["Bernau", "bei Berlin"], "3": ["Köln"]])
+
+        expect:
+
+        index.find(terms, 10) == Optional.of(ids as Set)
+
+        where:
+
+        terms          || ids
+        ["ber"]        || ["1", "2"]
+        ["lin"]        || ["1", "2"]
+        ["NAU"]        || ["2"]
+        ["köln"]       || ["3"]
+        ["koln"]       || []
+        ["mitte", "l"] || ["1", "2", "3"]
+        ["xyz"]        || []
+    }
+
+    def 'Terms that are not a single token cannot be resolved with the index'() {
+
+        given:
+
+        def index = index(["1": ["Berlin Mitte"]])
+
+        expect:
+
+        index.find(terms, 10) == Optional.empty()
+
+        where:
+
+        terms << [[], ["berlin mitte"], ["a-b"], ["50%"]]
+    }
+
+    def 'Too many matches cannot be resolved with the index'() {
+
+        given:
+
+        def index = index(["1": ["Berlin"], "2": ["Bern"], "3": ["Bernau"]])
+
+        expect:
+
+        index.find(["ber"], 2) == Optional.empty()
+        index.find(["bern"], 2) == Optional.of(["2", "3"] as Set)
+    }
+
+    def 'An index that is being built cannot be searched'() {
+
+        given:
+
+        def index = new TextSearchIndex()
+        index.startBuild()
+        index.put("1", ["Berlin"])
+
+        expect:
+
+        index.find(["ber"], 10) == Optional.empty()
+    }
+
+    def 'Removed and replaced features are no longer found'() {
+
+        given:
+
+        def index = index(["1": ["Berlin"], "2": ["Bernau"]])
+
+        when:
+
+        index.remove(["1"])
+        index.put("2", ["Bonn"])
+
+        then:
+
+        index.find(["ber"], 10) == Optional.of([] as Set)
+        index.find(["onn"], 10) == Optional.of(["2"] as Set)
+    }
+
+    def 'Changed features are replaced in a single step'() {
+
+        given:
+
+        def index = index(["1": ["Berlin"], "2": ["Bernau"], "3": ["Bonn"]])
+
+        when: "feature 1 is updated, feature 2 is deleted"
+
+        index.replace(["1", "2"], ["1": ["Hamburg"]])
+
+        then:
+
+        index.find(["ber"], 10) == Optional.of([] as Set)
+        index.find(["burg"], 10) == Optional.of(["1"] as Set)
+        index.find(["onn"], 10) == Optional.of(["3"] as Set)
+    }
+
+    def 'Features that change during a build are reported when the build is finished'() {
+
+        given:
+
+        def index = new TextSearchIndex()
+        index.startBuild()
+        index.put("1", ["Berlin"])
+
+        when:
+
+        index.replace(["2"], ["2": ["Bonn"]])
+
+        then:
+
+        index.finishBuild() == ["2"] as Set
+    }
+
+    def 'Builds that are requested during a build are merged into a single build'() {
+
+        given:
+
+        def index = new TextSearchIndex()
+
+        expect:
+
+        index.requestBuild()
+        !index.requestBuild()
+        !index.requestBuild()
+        index.completeBuild()
+        !index.completeBuild()
+        index.requestBuild()
+    }
+}
@@ -15,8 +15,13 @@ import de.ii.ogcapi.foundation.domain.ExtensionConfiguration;
 import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.foundation.domain.OgcApiBackgroundTask;
 import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
+import de.ii.ogcapi.tilematrixsets.domain.DirtyTileTracker;
+import de.ii.ogcapi.tilematrixsets.domain.DirtyTileTrackers;
+import de.ii.ogcapi.tilematrixsets.domain.TileMatrixSetLimitsGenerator;
+import de.ii.ogcapi.tilematrixsets.domain.TileMatrixSetLimitsOgcApi;
 import de.ii.ogcapi.tiles3d.domain.Tile3dProviders;
 import de.ii.ogcapi.tiles3d.domain.Tiles3dConfiguration;
+import de.ii.xtraplatform.base.domain.AppContext;
 import de.ii.xtraplatform.base.domain.LogContext;
 import de.ii.xtraplatform.base.domain.resiliency.OptionalCapability;
 import de.ii.xtraplatform.base.domain.resiliency.VolatileRegistry;
@@ -29,6 +34,8 @@ import de.ii.xtraplatform.jobs.domain.JobQueue;
 import de.ii.xtraplatform.jobs.domain.JobSet;
 import de.ii.xtraplatform.services.domain.TaskContext;
 import de.ii.xtraplatform.tiles.domain.SeedingOptions;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSet;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSetRepository;
 import de.ii.xtraplatform.tiles.domain.TileSeedingJobSet;
 import de.ii.xtraplatform.tiles3d.domain.ImmutableTile3dGenerationParameters;
 import de.ii.xtraplatform.tiles3d.domain.Tile3dGenerationParameters;
@@ -37,6 +44,8 @@ import de.ii.xtraplatform.tiles3d.domain.Tile3dSeedingJobSet;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -44,6 +53,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,22 +68,37 @@ import org.slf4j.LoggerFactory;
 public class Seeding implements OgcApiBackgroundTask, WithChangeListeners {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Seeding.class);
+  private static final int DEFAULT_SEEDING_DEBOUNCE = 10;
+  private static final Path DIRTY_TILES_DIR = Path.of("cache", "seeding", "tiles3d");
+  // 3D tiles do not use a tile matrix set, the grid is only used to merge the changed areas
+  private static final String DIRTY_TILES_GRID = "WorldCRS84Quad";
 
   private final FeaturesCoreProviders providers;
   private final Tile3dProviders tile3dProviders;
   private final JobQueue jobQueue;
   private final VolatileRegistry volatileRegistry;
+  private final TileMatrixSetRepository tileMatrixSetRepository;
+  private final TileMatrixSetLimitsGenerator limitsGenerator;
+  // feature changes are collected per API and seeded together
+  private final DirtyTileTrackers dirtyTileTrackers;
 
   @Inject
   public Seeding(
+      AppContext appContext,
       FeaturesCoreProviders providers,
       Tile3dProviders tile3dProviders,
       JobQueue jobQueue,
-      VolatileRegistry volatileRegistry) {
+      VolatileRegistry volatileRegistry,
+      TileMatrixSetRepository tileMatrixSetRepository,
+      TileMatrixSetLimitsGenerator limitsGenerator) {
     this.providers = providers;
     this.tile3dProviders = tile3dProviders;
     this.jobQueue = jobQueue;
     this.volatileRegistry = volatileRegistry;
+    this.tileMatrixSetRepository = tileMatrixSetRepository;
+    this.limitsGenerator = limitsGenerator;
+    this.dirtyTileTrackers =
+        new DirtyTileTrackers(appContext.getDataDir().resolve(DIRTY_TILES_DIR));
   }
 
   @Override
@@ -118,6 +144,9 @@ public class Seeding implements OgcApiBackgroundTask, WithChangeListeners {
         .getFeatureProvider(api.getData())
         .ifPresent(provider -> removeChangeListeners(provider.changes(), api));
 
+    // pending dirty tiles are kept and seeded after the next start
+    dirtyTileTrackers.remove(api.getData().getId());
+
     OgcApiBackgroundTask.super.onShutdown(api);
   }
 
@@ -263,6 +292,21 @@ public class Seeding implements OgcApiBackgroundTask, WithChangeListeners {
       boolean reseed,
       Optional<String> collectionId,
       Optional<BoundingBox> bbox) {
+    return getJobSet(api, tileProvider, reseed, collectionId, tileset -> true, tileset -> bbox);
+  }
+
+  /**
+   * @param tilesetFilter the tilesets that should be seeded
+   * @param clipBoundingBox the bounding box to seed for a tileset, if empty the spatial extent is
+   *     used
+   */
+  private JobSet getJobSet(
+      OgcApi api,
+      Tile3dProvider tileProvider,
+      boolean reseed,
+      Optional<String> collectionId,
+      Predicate<String> tilesetFilter,
+      Function<String, Optional<BoundingBox>> clipBoundingBox) {
     OgcApiDataV2 apiData = api.getData();
     Map<String, Tile3dGenerationParameters> tilesets = new LinkedHashMap<>();
 
@@ -273,11 +317,13 @@ public class Seeding implements OgcApiBackgroundTask, WithChangeListeners {
       getTilesConfiguration(apiData, cid)
           .filter(cfg -> cfg.hasCollectionTiles(tile3dProviders, apiData, cid))
           .map(cfg -> cfg.getCollectionTileset(cid))
+          .filter(tilesetFilter)
           .ifPresent(
               tileset -> {
                 Tile3dGenerationParameters generationParameters =
                     new ImmutableTile3dGenerationParameters.Builder()
-                        .clipBoundingBox(bbox.or(() -> api.getSpatialExtent(cid)))
+                        .clipBoundingBox(
+                            clipBoundingBox.apply(tileset).or(() -> api.getSpatialExtent(cid)))
                         .apiId(apiData.getId())
                         .collectionId(cid)
                         .build();
@@ -339,6 +385,9 @@ public class Seeding implements OgcApiBackgroundTask, WithChangeListeners {
       return change -> {};
     }
 
+    DirtyTileTracker dirtyTileTracker = getDirtyTileTracker(api, tileProvider);
+    Optional<TileMatrixSet> grid = tileMatrixSetRepository.get(DIRTY_TILES_GRID);
+
     return change -> {
       Optional<SeedingOptions> seeding =
           tile3dProviders
@@ -387,12 +436,74 @@ public class Seeding implements OgcApiBackgroundTask, WithChangeListeners {
           break;
       }
 
-      for (BoundingBox bbox : bboxes) {
-        JobSet jobSet =
-            getJobSet(api, tileProvider, true, Optional.of(collectionId), Optional.of(bbox));
+      Optional<String> tileset =
+          getTilesConfiguration(apiData, collectionId)
+              .filter(cfg -> cfg.hasCollectionTiles(tile3dProviders, apiData, collectionId))
+              .map(cfg -> cfg.getCollectionTileset(collectionId));
 
-        jobQueue.push(jobSet);
+      for (BoundingBox bbox : bboxes) {
+        if (tileset.isPresent() && grid.isPresent()) {
+          dirtyTileTracker.add(
+              tileset.get(),
+              grid.get().getId(),
+              limitsGenerator.getTileMatrixSetLimits(
+                  bbox,
+                  grid.get(),
+                  Math.min(grid.get().getMaxLevel(), DirtyTileTracker.MAX_TRACKING_LEVEL)));
+        } else {
+          JobSet jobSet =
+              getJobSet(api, tileProvider, true, Optional.of(collectionId), Optional.of(bbox));
+
+          jobQueue.push(jobSet);
+        }
       }
     };
   }
+
+  private DirtyTileTracker getDirtyTileTracker(OgcApi api, Tile3dProvider tileProvider) {
+    int debounce =
+        api.getData()
+            .getExtension(Tiles3dConfiguration.class)
+            .map(Tiles3dConfiguration::getSeedingDebounce)
+            .orElse(DEFAULT_SEEDING_DEBOUNCE);
+
+    return dirtyTileTrackers.replace(
+        api.getData().getId(),
+        Duration.ofSeconds(debounce),
+        ranges -> seedDirtyTiles(api, tileProvider, ranges));
+  }
+
+  private void seedDirtyTiles(
+      OgcApi api,
+      Tile3dProvider tileProvider,
+      Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>> dirtyTiles) {
+    // the n-th tile range of each tileset is seeded by the n-th job set
+    List<Map<String, BoundingBox>> clipBoundingBoxes =
+        DirtyTileTrackers.getClipBoundingBoxes(
+            dirtyTiles, tileMatrixSetRepository, tileset -> true);
+
+    JobSet jobSet = null;
+    for (Map<String, BoundingBox> clip : clipBoundingBoxes) {
+      JobSet next =
+          getJobSet(
+              api,
+              tileProvider,
+              true,
+              Optional.empty(),
+              clip::containsKey,
+              tileset -> Optional.ofNullable(clip.get(tileset)));
+      jobSet = Objects.isNull(jobSet) ? next : jobSet.with(next);
+    }
+
+    if (Objects.nonNull(jobSet)) {
+      jobQueue.push(jobSet);
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug(
+            "Added seeding job set for changed features to the queue ({}, {} tile ranges)",
+            jobSet.getId(),
+            clipBoundingBoxes.stream().mapToInt(Map::size).sum());
+      }
+    }
+  }
 }
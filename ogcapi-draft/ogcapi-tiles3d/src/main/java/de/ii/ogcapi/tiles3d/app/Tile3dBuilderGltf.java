@@ -22,6 +22,7 @@ import de.ii.ogcapi.foundation.domain.ImmutableStaticRequestContext;
 import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.foundation.domain.OgcApiQueryParameter;
 import de.ii.ogcapi.foundation.domain.QueryParameterSet;
+import de.ii.ogcapi.tiles3d.domain.Tiles3dConfiguration;
 import de.ii.xtraplatform.cql.domain.And;
 import de.ii.xtraplatform.cql.domain.Bbox;
 import de.ii.xtraplatform.cql.domain.BooleanValue2;
@@ -48,13 +49,13 @@ import de.ii.xtraplatform.web.domain.URICustomizer;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.core.MediaType;
-import jakarta.ws.rs.core.Response;
 import java.net.URI;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,6 +77,9 @@ public class Tile3dBuilderGltf implements Tile3dBuilder {
   private final ServicesContext servicesContext;
   private final FeaturesCoreQueriesHandler queryHandlerFeatures;
   private final Cql cql;
+  // the parsed content filters by CQL2 text
+  private final Map<String, Cql2Expression> contentFilters;
+  private final Map<String, ApiState> apiStates;
 
   @Inject
   public Tile3dBuilderGltf(
@@ -89,6 +93,25 @@ public class Tile3dBuilderGltf implements Tile3dBuilder {
     this.servicesContext = servicesContext;
     this.queryHandlerFeatures = queryHandlerFeatures;
     this.cql = cql;
+    this.contentFilters = new ConcurrentHashMap<>();
+    this.apiStates = new ConcurrentHashMap<>();
+  }
+
+  // the state is discarded, when the API is reloaded
+  private static final class ApiState {
+    private final OgcApi api;
+    private final Optional<Semaphore> permits;
+    private final Map<String, QueryParameterSet> queryParameters;
+
+    private ApiState(OgcApi api) {
+      this.api = api;
+      this.permits =
+          api.getData()
+              .getExtension(Tiles3dConfiguration.class)
+              .map(Tiles3dConfiguration::getParallelism)
+              .map(Semaphore::new);
+      this.queryParameters = new ConcurrentHashMap<>();
+    }
   }
 
   @Override
@@ -106,64 +129,55 @@ public class Tile3dBuilderGltf implements Tile3dBuilder {
       String apiId,
       String collectionId) {
     OgcApi api = getOgcApi(apiId).orElseThrow();
+    ApiState apiState =
+        apiStates.compute(
+            apiId,
+            (id, state) -> Objects.nonNull(state) && state.api == api ? state : new ApiState(api));
 
-    String bboxString =
-        String.format(
-            Locale.US,
-            "%f,%f,%f,%f",
-            boundingBox.getXmin(),
-            boundingBox.getYmin(),
-            boundingBox.getXmax(),
-            boundingBox.getYmax());
-
-    FeatureQuery featureQuery =
+    FeatureQuery query =
         getQuery(
             featureProvider,
             tileset.getFeatureType().orElse(tileset.getId()),
             boundingBox,
             exclusionPolygon);
 
-    Response response =
-        getContent(
-            tileset,
-            api,
-            collectionId,
-            featureProvider,
-            queryHandlerFeatures,
-            tile3dCoordinates.getLevel(),
-            bboxString,
-            featureQuery);
-
-    return (byte[]) response.getEntity();
-  }
-
-  private Response getContent(
-      Tileset3dFeatures tileset,
-      OgcApi api,
-      String collectionId,
-      FeatureProvider provider,
-      FeaturesCoreQueriesHandler queriesHandlerFeatures,
-      int level,
-      String bboxString,
-      FeatureQuery featureQuery) {
-    String contentFilterString = "true";
-    FeatureQuery query =
-        tileset.getContentFilters().isEmpty()
-            ? featureQuery
-            : getFinalQuery(
-                tileset
-                    .getContentFilters()
-                    .get(level - Objects.requireNonNull(tileset.getContentLevels().getMin())),
-                featureQuery);
+    if (!tileset.getContentFilters().isEmpty()) {
+      query =
+          getFinalQuery(
+              tileset
+                  .getContentFilters()
+                  .get(
+                      tile3dCoordinates.getLevel()
+                          - Objects.requireNonNull(tileset.getContentLevels().getMin())),
+              query);
+    }
 
     FeaturesCoreQueriesHandler.QueryInputFeatures queryInput =
-        getQueryInputFeatures(query, provider, collectionId);
+        getQueryInputFeatures(query, featureProvider, collectionId);
 
     ApiRequestContext requestContextGltf =
         getFeaturesRequestContext(
-            api, collectionId, tileset.shouldClampToEllipsoid(), bboxString, contentFilterString);
+            api,
+            collectionId,
+            apiState.queryParameters.computeIfAbsent(
+                collectionId + "/" + tileset.shouldClampToEllipsoid(),
+                key ->
+                    getQueryParameterSet(api, collectionId, tileset.shouldClampToEllipsoid())));
 
-    return queriesHandlerFeatures.handle(Query.FEATURES, queryInput, requestContextGltf);
+    if (apiState.permits.isPresent()) {
+      try {
+        apiState.permits.get().acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting to generate a 3D tile.", e);
+      }
+    }
+    try {
+      return (byte[])
+          queryHandlerFeatures.handle(Query.FEATURES, queryInput, requestContextGltf).getEntity();
+    } finally {
+      apiState.permits.ifPresent(Semaphore::release);
+    }
   }
 
   private FeaturesCoreQueriesHandler.QueryInputFeatures getQueryInputFeatures(
@@ -215,12 +229,10 @@ public class Tile3dBuilderGltf implements Tile3dBuilder {
         .build();
   }
 
-  private ApiRequestContext getFeaturesRequestContext(
-      OgcApi api,
-      String collectionId,
-      boolean clampToEllipsoid,
-      String bboxString,
-      String contentFilterString) {
+  // the bbox and the filter are part of the query, so the query parameters only depend on the
+  // collection and are evaluated once
+  private QueryParameterSet getQueryParameterSet(
+      OgcApi api, String collectionId, boolean clampToEllipsoid) {
     List<OgcApiQueryParameter> knownParameters =
         extensionRegistry.getExtensionsForType(EndpointSubCollection.class).stream()
             .filter(endpoint -> endpoint.isEnabledForApi(api.getData(), collectionId))
@@ -240,16 +252,13 @@ public class Tile3dBuilderGltf implements Tile3dBuilder {
             .findFirst()
             .orElse(ImmutableList.of());
     Map<String, String> actualParameters =
-        ImmutableMap.of(
-            "bbox",
-            bboxString,
-            "filter",
-            contentFilterString,
-            "clampToEllipsoid",
-            String.valueOf(clampToEllipsoid));
-    QueryParameterSet queryParameterSet =
-        QueryParameterSet.of(knownParameters, actualParameters)
-            .evaluate(api, api.getData().getCollectionData(collectionId));
+        ImmutableMap.of("clampToEllipsoid", String.valueOf(clampToEllipsoid));
+    return QueryParameterSet.of(knownParameters, actualParameters)
+        .evaluate(api, api.getData().getCollectionData(collectionId));
+  }
+
+  private ApiRequestContext getFeaturesRequestContext(
+      OgcApi api, String collectionId, QueryParameterSet queryParameterSet) {
     return new ImmutableStaticRequestContext.Builder()
         .webContext(servicesContext)
         .api(api)
@@ -267,7 +276,10 @@ public class Tile3dBuilderGltf implements Tile3dBuilder {
   private FeatureQuery getFinalQuery(String filter, FeatureQuery query) {
     return ImmutableFeatureQuery.builder()
         .from(query)
-        .filter(And.of(query.getFilter().orElseThrow(), cql.read(filter, Format.TEXT)))
+        .filter(
+            And.of(
+                query.getFilter().orElseThrow(),
+                contentFilters.computeIfAbsent(filter, text -> cql.read(text, Format.TEXT))))
         .build();
   }
 
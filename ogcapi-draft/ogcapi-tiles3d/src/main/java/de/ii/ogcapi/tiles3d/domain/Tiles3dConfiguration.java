@@ -317,6 +317,34 @@ public interface Tiles3dConfiguration extends ExtensionConfiguration {
   @Nullable
   String getStyle();
 
+  /**
+   * @langEn The maximum number of 3D tiles of the API whose content is generated at the same time.
+   *     Each tile uses a connection to the feature provider while its features are fetched. By
+   *     default, the number is only limited by the seeding options of the 3D Tiles provider.
+   * @langDe Die maximale Anzahl von 3D-Kacheln der API, deren Inhalt gleichzeitig erzeugt wird.
+   *     Jede Kachel belegt eine Verbindung zum Feature-Provider, während ihre Features abgerufen
+   *     werden. Standardmäßig ist die Anzahl nur durch die Seeding-Optionen des 3D-Tiles-Providers
+   *     begrenzt.
+   * @default null
+   * @since v4.9
+   */
+  @Nullable
+  Integer getParallelism();
+
+  /**
+   * @langEn If the 3D tiles are seeded on feature changes, the changes are collected for the given
+   *     number of seconds and the affected tiles are then seeded in a single job. Pending changes
+   *     are kept in the data directory and are seeded after a restart.
+   * @langDe Wenn die 3D-Kacheln bei Feature-Änderungen neu erzeugt werden, werden die Änderungen
+   *     für die angegebene Anzahl von Sekunden gesammelt und die betroffenen Kacheln anschließend in
+   *     einem einzigen Job erzeugt. Ausstehende Änderungen werden im Datenverzeichnis vorgehalten
+   *     und nach einem Neustart verarbeitet.
+   * @default 10
+   * @since v4.9
+   */
+  @Nullable
+  Integer getSeedingDebounce();
+
   @Value.Auxiliary
   @Value.Derived
   @JsonIgnore
@@ -371,6 +399,10 @@ public interface Tiles3dConfiguration extends ExtensionConfiguration {
 
   @Value.Check
   default void check() {
+    Preconditions.checkState(
+        Objects.isNull(getParallelism()) || getParallelism() > 0,
+        "The value of 'parallelism' must be a positive integer. Found: %s.",
+        getParallelism());
     Preconditions.checkState(
         Objects.requireNonNullElse(getMaxLevel(), 0) <= 16,
         "The maximum level that is supported is 16. Found: %s.",
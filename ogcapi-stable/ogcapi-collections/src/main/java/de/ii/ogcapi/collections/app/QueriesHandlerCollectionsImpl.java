@@ -33,7 +33,6 @@ import de.ii.ogcapi.foundation.domain.QueryHandler;
 import de.ii.ogcapi.foundation.domain.QueryIdentifier;
 import de.ii.ogcapi.foundation.domain.QueryInput;
 import de.ii.ogcapi.html.domain.HtmlConfiguration;
-import de.ii.xtraplatform.base.domain.ETag;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.NotAcceptableException;
@@ -95,12 +94,31 @@ public class QueriesHandlerCollectionsImpl implements QueriesHandlerCollections
     return queryHandlers;
   }
 
+  @Override
+  public boolean canCacheResponse(Query query) {
+    return true;
+  }
+
   private Response getCollectionsResponse(
       QueryInputCollections queryInput, ApiRequestContext requestContext) {
 
     OgcApi api = requestContext.getApi();
     OgcApiDataV2 apiData = api.getData();
 
+    // the collections are determined by the API configuration and the changing data, so the
+    // preconditions can be evaluated before the collections are built
+    Date lastModified = getLastModified(queryInput);
+    EntityTag etag =
+        !MediaType.TEXT_HTML_TYPE.equals(requestContext.getMediaType().type())
+                || apiData
+                    .getExtension(HtmlConfiguration.class)
+                    .map(HtmlConfiguration::getSendEtags)
+                    .orElse(false)
+            ? getRevisionEntityTag(requestContext)
+            : null;
+    Response.ResponseBuilder response = evaluatePreconditions(requestContext, lastModified, etag);
+    if (Objects.nonNull(response)) return response.build();
+
     Optional<String> licenseUrl = apiData.getMetadata().flatMap(ApiMetadata::getLicenseUrl);
     Optional<String> licenseName = apiData.getMetadata().flatMap(ApiMetadata::getLicenseName);
     List<Link> links =
@@ -145,19 +163,6 @@ public class QueriesHandlerCollectionsImpl implements QueriesHandlerCollections
 
     Collections responseObject = collections.build();
 
-    Date lastModified = getLastModified(queryInput);
-    EntityTag etag =
-        !MediaType.TEXT_HTML_TYPE.equals(outputFormatExtension.getMediaType().type())
-                || api.getData()
-                    .getExtension(HtmlConfiguration.class)
-                    .map(HtmlConfiguration::getSendEtags)
-                    .orElse(false)
-            ? ETag.from(
-                responseObject, Collections.FUNNEL, outputFormatExtension.getMediaType().label())
-            : null;
-    Response.ResponseBuilder response = evaluatePreconditions(requestContext, lastModified, etag);
-    if (Objects.nonNull(response)) return response.build();
-
     return prepareSuccessResponse(
             requestContext,
             queryInput.getIncludeLinkHeader() ? responseObject.getLinks() : null,
@@ -180,6 +185,18 @@ public class QueriesHandlerCollectionsImpl implements QueriesHandlerCollections
     OgcApiDataV2 apiData = api.getData();
     String collectionId = queryInput.getCollectionId();
 
+    Date lastModified = getLastModified(queryInput);
+    EntityTag etag =
+        !MediaType.TEXT_HTML_TYPE.equals(requestContext.getMediaType().type())
+                || apiData
+                    .getExtension(HtmlConfiguration.class, collectionId)
+                    .map(HtmlConfiguration::getSendEtags)
+                    .orElse(false)
+            ? getRevisionEntityTag(requestContext)
+            : null;
+    Response.ResponseBuilder response = evaluatePreconditions(requestContext, lastModified, etag);
+    if (Objects.nonNull(response)) return response.build();
+
     Optional<String> licenseUrl = apiData.getMetadata().flatMap(ApiMetadata::getLicenseUrl);
     Optional<String> licenseName = apiData.getMetadata().flatMap(ApiMetadata::getLicenseName);
     List<Link> links =
@@ -228,21 +245,6 @@ public class QueriesHandlerCollectionsImpl implements QueriesHandlerCollections
 
     OgcApiCollection responseObject = ogcApiCollection.build();
 
-    Date lastModified = getLastModified(queryInput);
-    EntityTag etag =
-        !MediaType.TEXT_HTML_TYPE.equals(outputFormatExtension.getMediaType().type())
-                || api.getData()
-                    .getExtension(HtmlConfiguration.class, collectionId)
-                    .map(HtmlConfiguration::getSendEtags)
-                    .orElse(false)
-            ? ETag.from(
-                responseObject,
-                OgcApiCollection.FUNNEL,
-                outputFormatExtension.getMediaType().label())
-            : null;
-    Response.ResponseBuilder response = evaluatePreconditions(requestContext, lastModified, etag);
-    if (Objects.nonNull(response)) return response.build();
-
     return prepareSuccessResponse(
             requestContext,
             queryInput.getIncludeLinkHeader() ? responseObject.getLinks() : null,
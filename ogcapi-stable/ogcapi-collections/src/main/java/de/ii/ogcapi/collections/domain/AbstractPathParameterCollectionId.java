@@ -34,12 +34,14 @@ public abstract class AbstractPathParameterCollectionId extends ApiExtensionCach
 
   protected final ConcurrentMap<Integer, Boolean> apiExplodeMap;
   protected final ConcurrentMap<Integer, List<String>> apiCollectionMap;
+  protected final ConcurrentMap<Integer, Schema<?>> schemaMap;
   protected final SchemaValidator schemaValidator;
 
   public AbstractPathParameterCollectionId(SchemaValidator schemaValidator) {
     this.schemaValidator = schemaValidator;
     this.apiCollectionMap = new ConcurrentHashMap<>();
     this.apiExplodeMap = new ConcurrentHashMap<>();
+    this.schemaMap = new ConcurrentHashMap<>();
   }
 
   public abstract boolean matchesPath(String definitionPath);
@@ -79,7 +81,12 @@ public abstract class AbstractPathParameterCollectionId extends ApiExtensionCach
 
   @Override
   public Schema<?> getSchema(OgcApiDataV2 apiData) {
-    return new StringSchema()._enum(ImmutableList.copyOf(getValues(apiData)));
+    if (!schemaMap.containsKey(apiData.hashCode())) {
+      schemaMap.put(
+          apiData.hashCode(), new StringSchema()._enum(ImmutableList.copyOf(getValues(apiData))));
+    }
+
+    return schemaMap.get(apiData.hashCode());
   }
 
   @Override
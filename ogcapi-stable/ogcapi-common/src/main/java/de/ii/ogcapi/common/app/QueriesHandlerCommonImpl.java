@@ -29,7 +29,6 @@ import de.ii.ogcapi.foundation.domain.I18n;
 import de.ii.ogcapi.foundation.domain.Link;
 import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
-import de.ii.ogcapi.foundation.domain.PageRepresentation;
 import de.ii.ogcapi.foundation.domain.QueryHandler;
 import de.ii.ogcapi.foundation.domain.QueryIdentifier;
 import de.ii.ogcapi.foundation.domain.QueryInput;
@@ -100,12 +99,31 @@ public class QueriesHandlerCommonImpl implements QueriesHandlerCommon {
     return queryHandlers;
   }
 
+  @Override
+  public boolean canCacheResponse(Query query) {
+    return query == Query.LANDING_PAGE || query == Query.CONFORMANCE_DECLARATION;
+  }
+
   private Response getLandingPageResponse(
       QueryInputLandingPage queryInput, ApiRequestContext requestContext) {
     final LandingPageLinksGenerator linksGenerator = new LandingPageLinksGenerator();
     OgcApi api = requestContext.getApi();
     OgcApiDataV2 apiData = api.getData();
 
+    // the landing page is determined by the API configuration and the changing data, so the
+    // preconditions can be evaluated before the landing page is built
+    Date lastModified = getLastModified(queryInput);
+    EntityTag etag =
+        !MediaType.TEXT_HTML_TYPE.equals(requestContext.getMediaType().type())
+                || apiData
+                    .getExtension(HtmlConfiguration.class)
+                    .map(HtmlConfiguration::getSendEtags)
+                    .orElse(false)
+            ? getRevisionEntityTag(requestContext)
+            : null;
+    Response.ResponseBuilder response = evaluatePreconditions(requestContext, lastModified, etag);
+    if (Objects.nonNull(response)) return response.build();
+
     Optional<String> licenseSpdx = apiData.getMetadata().flatMap(ApiMetadata::getLicense);
     Optional<String> licenseUrl = apiData.getMetadata().flatMap(ApiMetadata::getLicenseUrl);
     Optional<String> licenseName = apiData.getMetadata().flatMap(ApiMetadata::getLicenseName);
@@ -155,21 +173,6 @@ public class QueriesHandlerCommonImpl implements QueriesHandlerCommon {
     Object entity =
         outputFormatExtension.getEntity(apiLandingPage, requestContext.getApi(), requestContext);
 
-    Date lastModified = getLastModified(queryInput);
-    EntityTag etag =
-        !MediaType.TEXT_HTML_TYPE.equals(outputFormatExtension.getMediaType().type())
-                || api.getData()
-                    .getExtension(HtmlConfiguration.class)
-                    .map(HtmlConfiguration::getSendEtags)
-                    .orElse(false)
-            ? ETag.from(
-                apiLandingPage,
-                PageRepresentation.FUNNEL,
-                outputFormatExtension.getMediaType().label())
-            : null;
-    Response.ResponseBuilder response = evaluatePreconditions(requestContext, lastModified, etag);
-    if (Objects.nonNull(response)) return response.build();
-
     return prepareSuccessResponse(
             requestContext,
             queryInput.getIncludeLinkHeader() ? apiLandingPage.getLinks() : null,
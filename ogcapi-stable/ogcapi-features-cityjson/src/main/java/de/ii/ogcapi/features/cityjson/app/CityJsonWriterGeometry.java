@@ -470,8 +470,9 @@ public class CityJsonWriterGeometry implements CityJsonWriter {
       context.encoding().getJson().writeFieldName(CityJsonWriter.VERTICES);
       context.encoding().getJson().writeStartArray();
       int size = vertices.getSize();
+      long[] vertex = new long[3];
       for (int i = 0; i < size; i++) {
-        context.encoding().getJson().writeArray(vertices.getVertex(i), 0, 3);
+        context.encoding().getJson().writeArray(vertices.getVertex(i, vertex), 0, 3);
       }
       context.encoding().getJson().writeEndArray();
 
@@ -9,11 +9,16 @@ package de.ii.ogcapi.features.cityjson.domain;
 
 import com.github.azahnen.dagger.annotations.AutoMultiBind;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import de.ii.ogcapi.features.core.domain.FeatureTransformationContext.Event;
 import de.ii.xtraplatform.geometries.domain.Axes;
 import de.ii.xtraplatform.geometries.domain.Geometry;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 
 @AutoMultiBind
@@ -87,6 +92,21 @@ public interface CityJsonWriter {
           WALL_SURFACE,
           WINDOW);
 
+  /** The handler methods per event, see {@link #onEvent}. */
+  Map<Event, Set<String>> METHODS =
+      new ImmutableMap.Builder<Event, Set<String>>()
+          .put(Event.START, ImmutableSet.of("onStart"))
+          .put(Event.END, ImmutableSet.of("onEnd"))
+          .put(Event.FEATURE_START, ImmutableSet.of("onFeatureStart"))
+          .put(Event.FEATURE_END, ImmutableSet.of("onFeatureEnd", "onFeatureEndEnd"))
+          .put(Event.PROPERTY, ImmutableSet.of("onValue"))
+          .put(Event.GEOMETRY, ImmutableSet.of("onGeometry"))
+          .put(Event.ARRAY_START, ImmutableSet.of("onArrayStart"))
+          .put(Event.OBJECT_START, ImmutableSet.of("onObjectStart"))
+          .put(Event.OBJECT_END, ImmutableSet.of("onObjectEnd"))
+          .put(Event.ARRAY_END, ImmutableSet.of("onArrayEnd"))
+          .build();
+
   CityJsonWriter create();
 
   int getSortPriority();
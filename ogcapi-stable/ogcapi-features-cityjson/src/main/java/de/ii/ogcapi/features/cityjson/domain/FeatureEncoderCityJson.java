@@ -7,19 +7,16 @@
  */
 package de.ii.ogcapi.features.cityjson.domain;
 
-import static de.ii.xtraplatform.base.domain.util.LambdaWithException.consumerMayThrow;
-
 import com.google.common.collect.ImmutableCollection;
 import de.ii.ogcapi.features.core.domain.FeatureTransformationContext.Event;
+import de.ii.ogcapi.features.core.domain.FeatureWriterPipeline;
 import de.ii.xtraplatform.base.domain.LogContext;
 import de.ii.xtraplatform.features.domain.FeatureTokenEncoderDefault;
 import de.ii.xtraplatform.streams.domain.OutputStreamToByteConsumer;
 import jakarta.validation.constraints.NotNull;
 import java.io.IOException;
-import java.util.Iterator;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,7 +25,7 @@ public class FeatureEncoderCityJson
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FeatureEncoderCityJson.class);
 
-  private final ImmutableCollection<CityJsonWriter> featureWriters;
+  private final FeatureWriterPipeline<EncodingAwareContextCityJson, CityJsonWriter> featureWriters;
   private final FeatureTransformationContextCityJson transformationContext;
   private final long transformerStart = System.nanoTime();
   private long processingStart;
@@ -41,19 +38,9 @@ public class FeatureEncoderCityJson
       ImmutableCollection<CityJsonWriter> featureWriters) {
     super();
     this.transformationContext = transformationContext;
-    this.featureWriters = featureWriters;
-  }
-
-  private Consumer<EncodingAwareContextCityJson> executePipeline(
-      final Iterator<CityJsonWriter> featureWriterIterator) {
-    return consumerMayThrow(
-        nextTransformationContext -> {
-          if (featureWriterIterator.hasNext()) {
-            featureWriterIterator
-                .next()
-                .onEvent(nextTransformationContext, this.executePipeline(featureWriterIterator));
-          }
-        });
+    this.featureWriters =
+        new FeatureWriterPipeline<>(
+            featureWriters, CityJsonWriter.class, CityJsonWriter.METHODS, CityJsonWriter::onEvent);
   }
 
   @Override
@@ -68,13 +55,13 @@ public class FeatureEncoderCityJson
     getState().setNumberReturned(context.metadata().getNumberReturned());
     getState().setNumberMatched(context.metadata().getNumberMatched());
     getState().setEvent(Event.START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.START, context);
   }
 
   @Override
   public void onEnd(EncodingAwareContextCityJson context) {
     getState().setEvent(Event.END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.END, context);
 
     try {
       transformationContext.getJson().close();
@@ -112,7 +99,7 @@ public class FeatureEncoderCityJson
     this.featureStart = System.nanoTime();
 
     getState().setEvent(Event.FEATURE_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.FEATURE_START, context);
 
     getState().setCurrentFeatureType(Optional.empty());
   }
@@ -121,10 +108,10 @@ public class FeatureEncoderCityJson
   public void onFeatureEnd(EncodingAwareContextCityJson context) {
     getState().setCurrentFeatureType(Optional.empty());
     getState().setEvent(Event.FEATURE_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.FEATURE_END, context);
 
     // write vertices in case of text sequences
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.FEATURE_END, context);
 
     this.featuresDuration += System.nanoTime() - featureStart;
     this.featureCount++;
@@ -133,37 +120,37 @@ public class FeatureEncoderCityJson
   @Override
   public void onObjectStart(EncodingAwareContextCityJson context) {
     getState().setEvent(Event.OBJECT_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.OBJECT_START, context);
   }
 
   @Override
   public void onObjectEnd(EncodingAwareContextCityJson context) {
     getState().setEvent(Event.OBJECT_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.OBJECT_END, context);
   }
 
   @Override
   public void onArrayStart(EncodingAwareContextCityJson context) {
     getState().setEvent(Event.ARRAY_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.ARRAY_START, context);
   }
 
   @Override
   public void onArrayEnd(EncodingAwareContextCityJson context) {
     getState().setEvent(Event.ARRAY_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.ARRAY_END, context);
   }
 
   @Override
   public void onGeometry(EncodingAwareContextCityJson context) {
     getState().setEvent(Event.GEOMETRY);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.GEOMETRY, context);
   }
 
   @Override
   public void onValue(EncodingAwareContextCityJson context) {
     getState().setEvent(Event.PROPERTY);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.PROPERTY, context);
   }
 
   @Override
@@ -9,34 +9,38 @@ package de.ii.ogcapi.features.cityjson.domain;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.LongStream;
-import java.util.stream.StreamSupport;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+/**
+ * The deduplicated vertices of a CityJSON document.
+ *
+ * <p>The coordinates are stored in chunks of flat {@code long} arrays, the chunks are never copied
+ * when more vertices are added. Vertices are deduplicated with an open-addressing hash table of
+ * {@code int} indexes, so no objects are allocated per vertex. The hash table is released, when
+ * the vertices are locked for writing.
+ */
 public class Vertices {
 
-  private static final Logger LOGGER = LoggerFactory.getLogger(Vertices.class);
-  private static final int SIZE = 1000;
-  List<long[][]> globalVertices;
-  int blockCount;
-  long[][] currentVertices;
-  int count;
-  Map<VertexKey, Integer> currentIndex;
-  boolean locked;
+  private static final int CHUNK_BITS = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int INITIAL_TABLE_SIZE = 1 << 12;
+  private static final int MAX_TABLE_SIZE = 1 << 30;
+  private static final int EMPTY = -1;
+
+  private final List<long[]> chunks;
+  private int size;
+  // vertex indexes by hash, the table is at most half full
+  private int[] table;
+  private int tableMask;
+  private boolean locked;
 
   public Vertices() {
-    globalVertices = new ArrayList<>();
-    blockCount = 0;
-    currentVertices = new long[SIZE][3];
-    count = 0;
-    currentIndex = new HashMap<>(SIZE);
+    chunks = new ArrayList<>();
+    size = 0;
+    table = newTable(INITIAL_TABLE_SIZE);
+    tableMask = INITIAL_TABLE_SIZE - 1;
     locked = false;
   }
 
@@ -45,103 +49,136 @@ public class Vertices {
   }
 
   public int getSize() {
-    return blockCount * SIZE + count;
+    return size;
   }
 
   public long[] getVertex(int idx) {
-    assert locked;
-    return globalVertices.get(idx / SIZE)[idx % SIZE];
-    /* for unlocked state, the code would be:
-    return (idx / SIZE < globalVertices.size())
-        ? globalVertices.get(idx / SIZE)[idx % SIZE]
-        : currentVertices[idx % SIZE];
-     */
+    return getVertex(idx, new long[3]);
+  }
+
+  /**
+   * Copies the coordinates of a vertex into the given array to avoid an allocation per vertex.
+   *
+   * @param idx the index of the vertex
+   * @param xyz the target array with at least three elements
+   * @return the target array
+   */
+  public long[] getVertex(int idx, long[] xyz) {
+    assert idx >= 0 && idx < size;
+    long[] chunk = chunks.get(idx >>> CHUNK_BITS);
+    int offset = (idx & CHUNK_MASK) * 3;
+    xyz[0] = chunk[offset];
+    xyz[1] = chunk[offset + 1];
+    xyz[2] = chunk[offset + 2];
+    return xyz;
   }
 
   public void lock() {
     locked = true;
-    globalVertices.add(currentVertices);
+    // the index is no longer needed
+    table = null;
   }
 
   public int addVertex(long... xyz) {
     assert !locked;
     assert xyz.length == 3;
-    VertexKey key = new VertexKey(xyz);
-    Integer idx = currentIndex.get(key);
-    if (Objects.isNull(idx)) {
-      if (count == SIZE) {
-        globalVertices.add(currentVertices);
-        blockCount++;
-        currentVertices = new long[SIZE][3];
-        count = 0;
-      }
-      currentVertices[count] = Arrays.copyOf(xyz, 3);
-      idx = blockCount * SIZE + count++;
-      currentIndex.put(key, idx);
-    } else {
-      long[] xyz2 =
-          idx / SIZE < globalVertices.size()
-              ? globalVertices.get(idx / SIZE)[idx % SIZE]
-              : currentVertices[idx % SIZE];
-      if (xyz[0] != xyz2[0] || xyz[1] != xyz2[1] || xyz[2] != xyz2[2]) {
-        LOGGER.error("Collision: {} vs {}.", xyz, xyz2);
+    return addVertex(xyz[0], xyz[1], xyz[2]);
+  }
+
+  private int addVertex(long x, long y, long z) {
+    int slot = slot(x, y, z);
+    while (table[slot] != EMPTY) {
+      int idx = table[slot];
+      long[] chunk = chunks.get(idx >>> CHUNK_BITS);
+      int offset = (idx & CHUNK_MASK) * 3;
+      if (chunk[offset] == x && chunk[offset + 1] == y && chunk[offset + 2] == z) {
+        return idx;
       }
+      slot = (slot + 1) & tableMask;
+    }
+
+    int idx = size++;
+    if ((idx & CHUNK_MASK) == 0) {
+      chunks.add(new long[CHUNK_SIZE * 3]);
+    }
+    long[] chunk = chunks.get(idx >>> CHUNK_BITS);
+    int offset = (idx & CHUNK_MASK) * 3;
+    chunk[offset] = x;
+    chunk[offset + 1] = y;
+    chunk[offset + 2] = z;
+    table[slot] = idx;
+
+    if (size > table.length / 2 && table.length < MAX_TABLE_SIZE) {
+      rehash(table.length * 2);
     }
+
     return idx;
   }
 
-  private static class VertexKey {
-    final long x;
-    final long y;
-    final long z;
-
-    VertexKey(long... vertex) {
-      assert vertex.length == 3;
-      x = vertex[0];
-      y = vertex[1];
-      z = vertex[2];
+  private void rehash(int tableSize) {
+    table = newTable(tableSize);
+    tableMask = tableSize - 1;
+    for (int idx = 0; idx < size; idx++) {
+      long[] chunk = chunks.get(idx >>> CHUNK_BITS);
+      int offset = (idx & CHUNK_MASK) * 3;
+      int slot = slot(chunk[offset], chunk[offset + 1], chunk[offset + 2]);
+      while (table[slot] != EMPTY) {
+        slot = (slot + 1) & tableMask;
+      }
+      table[slot] = idx;
     }
+  }
 
-    @Override
-    public int hashCode() {
-      return new HashCodeBuilder(17, 31).append(x).append(y).append(z).toHashCode();
-    }
+  private int slot(long x, long y, long z) {
+    return (int) (hash(x, y, z) >>> 32) & tableMask;
+  }
 
-    @Override
-    public boolean equals(Object obj) {
-      return obj instanceof VertexKey
-          && ((VertexKey) obj).x == x
-          && ((VertexKey) obj).y == y
-          && ((VertexKey) obj).z == z;
-    }
+  private static int[] newTable(int tableSize) {
+    int[] newTable = new int[tableSize];
+    Arrays.fill(newTable, EMPTY);
+    return newTable;
+  }
+
+  // combines the coordinates and applies the finalizer of MurmurHash3, so that neighbouring
+  // vertices on a regular grid are spread over the whole table
+  private static long hash(long x, long y, long z) {
+    long h = x * 0x9E3779B97F4A7C15L;
+    h = (h ^ y) * 0xC2B2AE3D27D4EB4FL;
+    h = (h ^ z) * 0x165667B19E3779F9L;
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
   }
 
   public Optional<long[]> getBoundingBox() {
     assert locked;
-    Optional<long[]> min =
-        StreamSupport.stream(new VerticesSpliterator(this), true)
-            .reduce(
-                (vertex1, vertex2) ->
-                    new long[] {
-                      Math.min(vertex1[0], vertex2[0]),
-                      Math.min(vertex1[1], vertex2[1]),
-                      Math.min(vertex1[2], vertex2[2])
-                    });
-    Optional<long[]> max =
-        StreamSupport.stream(new VerticesSpliterator(this), true)
-            .reduce(
-                (vertex1, vertex2) ->
-                    new long[] {
-                      Math.max(vertex1[0], vertex2[0]),
-                      Math.max(vertex1[1], vertex2[1]),
-                      Math.max(vertex1[2], vertex2[2])
-                    });
-
-    if (min.isEmpty() || max.isEmpty()) {
+    if (size == 0) {
       return Optional.empty();
     }
 
-    return Optional.of(
-        LongStream.concat(Arrays.stream(min.get()), Arrays.stream(max.get())).toArray());
+    long[] bbox =
+        new long[] {
+          Long.MAX_VALUE,
+          Long.MAX_VALUE,
+          Long.MAX_VALUE,
+          Long.MIN_VALUE,
+          Long.MIN_VALUE,
+          Long.MIN_VALUE
+        };
+    for (int i = 0; i < chunks.size(); i++) {
+      long[] chunk = chunks.get(i);
+      int end = i < chunks.size() - 1 ? CHUNK_SIZE * 3 : ((size - 1) & CHUNK_MASK) * 3 + 3;
+      for (int offset = 0; offset < end; offset += 3) {
+        for (int axis = 0; axis < 3; axis++) {
+          bbox[axis] = Math.min(bbox[axis], chunk[offset + axis]);
+          bbox[axis + 3] = Math.max(bbox[axis + 3], chunk[offset + axis]);
+        }
+      }
+    }
+
+    return Optional.of(bbox);
   }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.cityjson.domain
+
+import spock.lang.Specification
+
+class VerticesSpec extends Specification {
+
+    def 'vertices are returned in the order in which they were added'() {
+        given:
+
+        def vertices = new Vertices()
+
+        when:
+
+        def indexes = [
+                vertices.addVertex(1, 2, 3),
+                vertices.addVertex(3, 2, 1),
+                vertices.addVertex(-1, -2, -3),
+                vertices.addVertex(Long.MIN_VALUE, 0, Long.MAX_VALUE)]
+
+        then:
+
+        indexes == [0, 1, 2, 3]
+        vertices.getSize() == 4
+        vertices.getVertex(0) as List == [1, 2, 3]
+        vertices.getVertex(1) as List == [3, 2, 1]
+        vertices.getVertex(2) as List == [-1, -2, -3]
+        vertices.getVertex(3) as List == [Long.MIN_VALUE, 0, Long.MAX_VALUE]
+    }
+
+    def 'equal coordinates result in the same vertex'() {
+        given:
+
+        def vertices = new Vertices()
+        def first = vertices.addVertex(10, 20, 30)
+        vertices.addVertex(10, 20, 31)
+
+        expect:
+
+        vertices.addVertex(10, 20, 30) == first
+        vertices.getSize() == 2
+    }
+
+    def 'coordinates are quantized before they are added, so negative zero is the same vertex as zero'() {
+        given: "the quantization of the encoder with a scale of 0.001"
+
+        def quantize = { double value -> Math.round(value / 0.001d) }
+        def vertices = new Vertices()
+
+        expect:
+
+        vertices.addVertex(quantize(0.0d), quantize(-0.0d), quantize(0.0d)) ==
+                vertices.addVertex(quantize(-0.0d), quantize(0.0d), quantize(-0.0d))
+        vertices.getSize() == 1
+    }
+
+    def 'all vertices can be found after the table and the chunks have grown'() {
+        given: "more vertices than fit in the initial table and in a single chunk, on a regular grid"
+
+        def vertices = new Vertices()
+        def grid = (0..<30).collectMany { x -> (0..<30).collectMany { y -> (0..<30).collect { z -> [x, y, z] } } }
+
+        when:
+
+        def indexes = grid.collect { vertices.addVertex(it as long[]) }
+        def again = grid.collect { vertices.addVertex(it as long[]) }
+
+        then:
+
+        vertices.getSize() == 27000
+        indexes == (0..<27000).toList()
+        again == indexes
+        (0..<27000).every { vertices.getVertex(it) as List == grid[it] }
+    }
+
+    def 'the bounding box covers all vertices'() {
+        given:
+
+        def vertices = new Vertices()
+        (0..<5000).each { vertices.addVertex(it, -it, it % 7) }
+
+        when:
+
+        vertices.lock()
+
+        then:
+
+        vertices.isLocked()
+        vertices.getBoundingBox().get() as List == [0, -4999, 0, 4999, 0, 6]
+        new Vertices().tap { lock() }.getBoundingBox().isEmpty()
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.core.app;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import de.ii.xtraplatform.cql.domain.And;
+import de.ii.xtraplatform.cql.domain.Cql2Expression;
+import de.ii.xtraplatform.cql.domain.Eq;
+import de.ii.xtraplatform.cql.domain.Gt;
+import de.ii.xtraplatform.cql.domain.Lt;
+import de.ii.xtraplatform.cql.domain.Or;
+import de.ii.xtraplatform.cql.domain.ScalarLiteral;
+import de.ii.xtraplatform.features.domain.FeatureSchema;
+import de.ii.xtraplatform.features.domain.SchemaBase.Type;
+import de.ii.xtraplatform.features.domain.SchemaConstraints;
+import de.ii.xtraplatform.features.domain.SortKey;
+import de.ii.xtraplatform.features.domain.SortKey.Direction;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The position after the last feature of a page for keyset pagination. The cursor consists of the
+ * sort keys of the query, the last of which is the feature id as a tie breaker, the values of the
+ * last feature of a page for these keys and the number of features to skip after that feature.
+ * The values are only missing, if they could not be determined for a page, then the position is
+ * the number of features to skip after the previous cursor or from the start.
+ *
+ * <p>The cursor is passed to clients as an opaque token. The token is signed with a random key of
+ * the installation, so clients cannot construct or modify tokens and thus cannot inject filters.
+ *
+ * <p>A cursor only supports sort keys that are strings or numbers and that are required, i.e.
+ * cannot be null. Null values are sorted differently by the feature providers and are not matched
+ * by the comparison operators of the seek predicate, so features with a null value would be
+ * skipped.
+ */
+final class FeatureCursor {
+
+  /**
+   * Stands for the cursor of the next page in the links, while the page is encoded. The cursor
+   * depends on the last feature of the page, so it is only known after the page has been encoded
+   * and then replaces this value.
+   */
+  static final String PENDING = "__next_page_cursor__";
+
+  private static final byte VERSION = 1;
+  private static final int SIGNATURE_LENGTH = 16;
+  private static final byte TYPE_STRING = 's';
+  private static final byte TYPE_INTEGER = 'i';
+  private static final byte TYPE_FLOAT = 'f';
+
+  private final List<SortKey> sortKeys;
+  private final List<Object> values;
+  private final int offset;
+
+  FeatureCursor(List<SortKey> sortKeys, List<Object> values, int offset) {
+    if (sortKeys.isEmpty() || (!values.isEmpty() && sortKeys.size() != values.size())) {
+      throw new IllegalArgumentException("A cursor requires exactly one value per sort key.");
+    }
+    values.forEach(
+        value -> {
+          if (!(value instanceof String || value instanceof Long || value instanceof Double)) {
+            throw new IllegalArgumentException(
+                "Cursor values must be strings, integers or floating point numbers.");
+          }
+        });
+    if (offset < 0) {
+      throw new IllegalArgumentException("The offset of a cursor must not be negative.");
+    }
+    this.sortKeys = ImmutableList.copyOf(sortKeys);
+    this.values = ImmutableList.copyOf(values);
+    this.offset = offset;
+  }
+
+  List<SortKey> getSortKeys() {
+    return sortKeys;
+  }
+
+  List<Object> getValues() {
+    return values;
+  }
+
+  int getOffset() {
+    return offset;
+  }
+
+  /**
+   * The filter that selects the features after the values of the cursor. For sort keys k1, ..., kn
+   * with values v1, ..., vn this is {@code k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...}, where {@code
+   * <} is used instead of {@code >} for descending keys.
+   *
+   * @return the filter, empty if the cursor has no values
+   */
+  Optional<Cql2Expression> toSeekPredicate() {
+    if (values.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Cql2Expression predicate = null;
+    for (int i = sortKeys.size() - 1; i >= 0; i--) {
+      SortKey sortKey = sortKeys.get(i);
+      ScalarLiteral literal = toLiteral(values.get(i));
+      Cql2Expression after =
+          sortKey.getDirection() == Direction.DESCENDING
+              ? Lt.of(sortKey.getField(), literal)
+              : Gt.of(sortKey.getField(), literal);
+      predicate =
+          Objects.isNull(predicate)
+              ? after
+              : Or.of(after, And.of(Eq.of(sortKey.getField(), literal), predicate));
+    }
+    return Optional.of(predicate);
+  }
+
+  String encode(byte[] key) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      out.writeShort(sortKeys.size());
+      for (SortKey sortKey : sortKeys) {
+        out.writeUTF(sortKey.getField());
+        out.writeBoolean(sortKey.getDirection() == Direction.DESCENDING);
+      }
+      out.writeBoolean(!values.isEmpty());
+      for (Object value : values) {
+        if (value instanceof Long longValue) {
+          out.writeByte(TYPE_INTEGER);
+          out.writeLong(longValue);
+        } else if (value instanceof Double doubleValue) {
+          out.writeByte(TYPE_FLOAT);
+          out.writeDouble(doubleValue);
+        } else {
+          out.writeByte(TYPE_STRING);
+          out.writeUTF((String) value);
+        }
+      }
+      out.writeInt(offset);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not encode cursor: " + e.getMessage(), e);
+    }
+
+    byte[] payload = bytes.toByteArray();
+    byte[] token = Arrays.copyOf(payload, payload.length + SIGNATURE_LENGTH);
+    System.arraycopy(sign(payload, key), 0, token, payload.length, SIGNATURE_LENGTH);
+
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+  }
+
+  static FeatureCursor decode(String token, byte[] key) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token);
+    } catch (IllegalArgumentException e) {
+      throw invalid();
+    }
+
+    if (bytes.length <= SIGNATURE_LENGTH) {
+      throw invalid();
+    }
+
+    byte[] payload = Arrays.copyOf(bytes, bytes.length - SIGNATURE_LENGTH);
+    byte[] signature = Arrays.copyOfRange(bytes, payload.length, bytes.length);
+    if (!MessageDigest.isEqual(signature, sign(payload, key))) {
+      throw invalid();
+    }
+
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      if (in.readByte() != VERSION) {
+        throw invalid();
+      }
+      int size = in.readUnsignedShort();
+      ImmutableList.Builder<SortKey> sortKeys = ImmutableList.builder();
+      for (int i = 0; i < size; i++) {
+        String field = in.readUTF();
+        sortKeys.add(
+            SortKey.of(field, in.readBoolean() ? Direction.DESCENDING : Direction.ASCENDING));
+      }
+      ImmutableList.Builder<Object> values = ImmutableList.builder();
+      if (in.readBoolean()) {
+        for (int i = 0; i < size; i++) {
+          byte type = in.readByte();
+          if (type == TYPE_INTEGER) {
+            values.add(in.readLong());
+          } else if (type == TYPE_FLOAT) {
+            values.add(in.readDouble());
+          } else if (type == TYPE_STRING) {
+            values.add(in.readUTF());
+          } else {
+            throw invalid();
+          }
+        }
+      }
+      int offset = in.readInt();
+      if (in.available() > 0) {
+        throw invalid();
+      }
+      return new FeatureCursor(sortKeys.build(), values.build(), offset);
+    } catch (IOException | IllegalArgumentException e) {
+      throw invalid();
+    }
+  }
+
+  /**
+   * @param property the property of a sort key
+   * @return {@code true}, if the property can be used in a cursor, i.e. it is a string or a number
+   *     and it is the feature id or is required
+   */
+  static boolean isSupported(FeatureSchema property) {
+    return (property.getType() == Type.STRING
+            || property.getType() == Type.INTEGER
+            || property.getType() == Type.FLOAT)
+        && (property.isId()
+            || property
+                .getConstraints()
+                .flatMap(SchemaConstraints::getRequired)
+                .orElse(false));
+  }
+
+  /**
+   * @param property the property of a sort key
+   * @param value the value of the property as provided by the feature provider
+   * @return the value as a {@link String}, {@link Long} or {@link Double}, empty if the value
+   *     cannot be converted
+   */
+  static Optional<Object> toValue(FeatureSchema property, String value) {
+    try {
+      switch (property.getType()) {
+        case STRING:
+          return Optional.of(value);
+        case INTEGER:
+          return Optional.of(Long.parseLong(value));
+        case FLOAT:
+          return Optional.of(Double.parseDouble(value));
+        default:
+          return Optional.empty();
+      }
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static ScalarLiteral toLiteral(Object value) {
+    if (value instanceof Long longValue) {
+      return longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE
+          ? ScalarLiteral.of(longValue.intValue())
+          : ScalarLiteral.of(longValue);
+    } else if (value instanceof Double doubleValue) {
+      return ScalarLiteral.of(doubleValue);
+    }
+    return ScalarLiteral.of((String) value);
+  }
+
+  private static byte[] sign(byte[] payload, byte[] key) {
+    byte[] signature = Hashing.hmacSha256(key).hashBytes(payload).asBytes();
+    return Arrays.copyOf(signature, SIGNATURE_LENGTH);
+  }
+
+  private static IllegalArgumentException invalid() {
+    return new IllegalArgumentException(
+        String.format(
+            "Invalid value for query parameter '%s'. The cursor is not valid for this API, follow the links of the previous page.",
+            QueryParameterCursorFeatures.NAME));
+  }
+}
@@ -8,6 +8,7 @@
 package de.ii.ogcapi.features.core.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import de.ii.ogcapi.features.core.domain.DelayedOutputStream;
@@ -18,10 +19,12 @@ import de.ii.ogcapi.features.core.domain.FeaturesCoreConfiguration;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreProviders;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreQueriesHandler;
 import de.ii.ogcapi.features.core.domain.FeaturesLinksGenerator;
+import de.ii.ogcapi.features.core.domain.ImmutableFeatureMetadata;
 import de.ii.ogcapi.features.core.domain.ImmutableFeatureTransformationContextGeneric;
 import de.ii.ogcapi.features.core.domain.ProfileFeatureQuery;
 import de.ii.ogcapi.features.core.domain.ProfileResponseCrs;
 import de.ii.ogcapi.features.core.domain.PropertyLinkResolver;
+import de.ii.ogcapi.features.core.domain.PropertyValuesExtension;
 import de.ii.ogcapi.features.core.domain.SingleFeatureMissingHandler;
 import de.ii.ogcapi.foundation.domain.ApiMediaType;
 import de.ii.ogcapi.foundation.domain.ApiRequestContext;
@@ -29,6 +32,7 @@ import de.ii.ogcapi.foundation.domain.ExtensionRegistry;
 import de.ii.ogcapi.foundation.domain.HeaderCaching;
 import de.ii.ogcapi.foundation.domain.HeaderContentDisposition;
 import de.ii.ogcapi.foundation.domain.I18n;
+import de.ii.ogcapi.foundation.domain.ImmutableLink;
 import de.ii.ogcapi.foundation.domain.Link;
 import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
@@ -41,6 +45,8 @@ import de.ii.ogcapi.foundation.domain.QueryHandler;
 import de.ii.ogcapi.foundation.domain.QueryInput;
 import de.ii.ogcapi.foundation.domain.QueryParameterSet;
 import de.ii.ogcapi.html.domain.HtmlConfiguration;
+import de.ii.xtraplatform.base.domain.AppContext;
+import de.ii.xtraplatform.base.domain.LogContext;
 import de.ii.xtraplatform.base.domain.resiliency.AbstractVolatileComposed;
 import de.ii.xtraplatform.base.domain.resiliency.VolatileRegistry;
 import de.ii.xtraplatform.codelists.domain.Codelist;
@@ -62,6 +68,8 @@ import de.ii.xtraplatform.features.domain.FeatureStream.ResultReduced;
 import de.ii.xtraplatform.features.domain.FeatureTokenEncoder;
 import de.ii.xtraplatform.features.domain.ImmutableFeatureQuery;
 import de.ii.xtraplatform.features.domain.PropertyLink;
+import de.ii.xtraplatform.features.domain.SortKey;
+import de.ii.xtraplatform.features.domain.SortKey.Direction;
 import de.ii.xtraplatform.features.domain.Tuple;
 import de.ii.xtraplatform.features.domain.transform.PropertyTransformations;
 import de.ii.xtraplatform.geometries.domain.GeometryType;
@@ -83,10 +91,18 @@ import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
 import java.text.MessageFormat;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -96,6 +112,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -112,15 +129,22 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
   // which depends on this module
   private static final String CRS = "crs";
 
+  // the random key that is used to sign cursors, if the file is deleted, issued cursors become
+  // invalid
+  private static final Path CURSOR_KEY_FILE = Path.of("cache", "features", "cursor.key");
+  private static final int CURSOR_KEY_LENGTH = 32;
+
   private final I18n i18n;
   private final CrsTransformerFactory crsTransformerFactory;
   private final CrsInfo crsInfo;
   private final Map<Query, QueryHandler<? extends QueryInput>> queryHandlers;
   private final Values<Codelist> codelistStore;
   private final ExtensionRegistry extensionRegistry;
+  private final Supplier<byte[]> cursorKey;
 
   @Inject
   public FeaturesCoreQueriesHandlerImpl(
+      AppContext appContext,
       I18n i18n,
       CrsTransformerFactory crsTransformerFactory,
       CrsInfo crsInfo,
@@ -133,6 +157,8 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
     this.crsInfo = crsInfo;
     this.codelistStore = valueStore.forType(Codelist.class);
     this.extensionRegistry = extensionRegistry;
+    this.cursorKey =
+        Suppliers.memoize(() -> loadCursorKey(appContext.getDataDir().resolve(CURSOR_KEY_FILE)));
 
     this.queryHandlers =
         ImmutableMap.of(
@@ -152,6 +178,34 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
     return queryHandlers;
   }
 
+  private static byte[] loadCursorKey(Path file) {
+    try {
+      if (Files.isRegularFile(file)) {
+        byte[] key = Files.readAllBytes(file);
+        if (key.length == CURSOR_KEY_LENGTH) {
+          return key;
+        }
+      }
+
+      byte[] key = new byte[CURSOR_KEY_LENGTH];
+      new SecureRandom().nextBytes(key);
+      Files.createDirectories(file.getParent());
+      Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+      Files.write(tmp, key);
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return key;
+    } catch (IOException e) {
+      LogContext.error(
+          LOGGER,
+          e,
+          "Could not store the key for cursors in '{}', cursors are only valid until the next restart",
+          file);
+      byte[] key = new byte[CURSOR_KEY_LENGTH];
+      new SecureRandom().nextBytes(key);
+      return key;
+    }
+  }
+
   private static Optional<EpsgCrs> crsFromProfile(
       List<Profile> profiles, OgcApiDataV2 apiData, String collectionId) {
     return profiles.stream()
@@ -211,6 +265,85 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
               requestContext.getMediaType().type()));
     }
 
+    boolean isCursorPage = false;
+    Optional<Supplier<String>> nextCursor = Optional.empty();
+    // keyset pagination only applies to requests with a cursor, an empty cursor requests the first
+    // page, all other requests are paged with the offset and streamed
+    String token =
+        (String)
+            requestContext
+                .getQueryParameterSet()
+                .getTypedValues()
+                .get(QueryParameterCursorFeatures.NAME);
+    if (!query.hitsOnly()
+        && Objects.nonNull(token)
+        && api.getData()
+            .getExtension(FeaturesCoreConfiguration.class, collectionId)
+            .filter(FeaturesCoreConfiguration::isCursorPaging)
+            .isPresent()) {
+      FeatureProvider featureProvider = queryInput.getFeatureProvider();
+      QueriesHandler.ensureCollectionIdExists(api.getData(), collectionId);
+      QueriesHandler.ensureFeatureProviderSupportsQueries(featureProvider);
+
+      query = withIdSortKey(query, featureProvider, api.getData(), collectionId);
+      Optional<List<FeatureSchema>> sortProperties =
+          getCursorProperties(query, featureProvider, api.getData(), collectionId);
+
+      FeatureCursor cursor = null;
+      if (!token.isEmpty()) {
+        cursor = FeatureCursor.decode(token, cursorKey.get());
+        if (!cursor.getSortKeys().equals(query.getSortKeys()) || sortProperties.isEmpty()) {
+          throw new IllegalArgumentException(
+              String.format(
+                  "The value of query parameter '%s' does not match the sort order of the request, follow the links of the previous page.",
+                  QueryParameterCursorFeatures.NAME));
+        }
+        ImmutableFeatureQuery.Builder builder =
+            ImmutableFeatureQuery.builder()
+                .from(query)
+                .offset(cursor.getOffset() + query.getOffset());
+        cursor.toSeekPredicate().ifPresent(builder::addFilters);
+        query = builder.build();
+        isCursorPage = true;
+      }
+
+      // the cursor for the next page is determined from the last feature of the page, while the
+      // page is encoded
+      if (sortProperties.isPresent() && query.getLimit() > 0) {
+        List<SortKey> sortKeys = query.getSortKeys();
+        List<Object> previousValues = Objects.nonNull(cursor) ? cursor.getValues() : List.of();
+        int nextOffset = query.getOffset() + query.getLimit();
+        AtomicReference<Optional<List<Object>>> lastValues =
+            new AtomicReference<>(Optional.empty());
+
+        query =
+            ImmutableFeatureQuery.builder()
+                .from(query)
+                .addExtensions(
+                    new PropertyValuesExtension(
+                        property ->
+                            sortKeys.stream()
+                                .anyMatch(
+                                    sortKey ->
+                                        sortKey
+                                            .getField()
+                                            .equals(property.getFullPathAsString())),
+                        values -> lastValues.set(getSortValues(sortProperties.get(), values))))
+                .build();
+
+        // if a value of the last feature is missing, e.g. for pass-through streams that are not
+        // processed, the next page is identified by the offset after the previous cursor
+        nextCursor =
+            Optional.of(
+                () ->
+                    lastValues
+                        .get()
+                        .map(values -> new FeatureCursor(sortKeys, values, 0))
+                        .orElseGet(() -> new FeatureCursor(sortKeys, previousValues, nextOffset))
+                        .encode(cursorKey.get()));
+      }
+    }
+
     return getResponse(
         api,
         requestContext,
@@ -222,9 +355,12 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
         null,
         outputFormat,
         defaultPageSize,
+        isCursorPage,
+        nextCursor,
         queryInput.getIncludeLinkHeader(),
         queryInput.getDefaultCrs(),
-        queryInput.sendResponseAsStream(),
+        // the cursor for the next page is only known after the page has been encoded
+        queryInput.sendResponseAsStream() && nextCursor.isEmpty(),
         queryInput.shouldAuditLog());
   }
 
@@ -280,12 +416,218 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
         persistentUri,
         outputFormat,
         Optional.empty(),
+        false,
+        Optional.empty(),
         queryInput.getIncludeLinkHeader(),
         queryInput.getDefaultCrs(),
         sendResponseAsStream,
         queryInput.shouldAuditLog());
   }
 
+  @Override
+  public FeatureMetadata getFeatureMetadata(
+      QueryInputFeature queryInput, ApiRequestContext requestContext) {
+    OgcApi api = requestContext.getApi();
+    String collectionId = queryInput.getCollectionId();
+    FeatureProvider featureProvider = queryInput.getFeatureProvider();
+
+    QueriesHandler.ensureCollectionIdExists(api.getData(), collectionId);
+    QueriesHandler.ensureFeatureProviderSupportsQueries(featureProvider);
+
+    String featureTypeId =
+        api.getData()
+            .getCollections()
+            .get(collectionId)
+            .getExtension(FeaturesCoreConfiguration.class)
+            .flatMap(FeaturesCoreConfiguration::getFeatureType)
+            .orElse(collectionId);
+
+    FeatureSchema schema =
+        featureProvider
+            .info()
+            .getSchema(featureTypeId)
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        String.format(
+                            "Unknown feature type '%s' in feature provider '%s'",
+                            featureTypeId, featureProvider.getId())));
+
+    // only the properties that determine the metadata are selected
+    ImmutableList.Builder<String> fields = ImmutableList.builder();
+    schema.getIdProperty().map(FeatureSchema::getFullPathAsString).ifPresent(fields::add);
+    schema.getPrimaryGeometry().map(FeatureSchema::getFullPathAsString).ifPresent(fields::add);
+    schema.getPrimaryInstant().map(FeatureSchema::getFullPathAsString).ifPresent(fields::add);
+    schema
+        .getPrimaryInterval()
+        .ifPresent(
+            interval -> {
+              Optional.ofNullable(interval.first())
+                  .map(FeatureSchema::getFullPathAsString)
+                  .ifPresent(fields::add);
+              Optional.ofNullable(interval.second())
+                  .map(FeatureSchema::getFullPathAsString)
+                  .ifPresent(fields::add);
+            });
+
+    FeatureQuery query =
+        ImmutableFeatureQuery.builder().from(queryInput.getQuery()).fields(fields.build()).build();
+    EpsgCrs targetCrs = query.getCrs().orElse(queryInput.getDefaultCrs());
+
+    Result result =
+        run(
+            () ->
+                featureProvider
+                    .queries()
+                    .get()
+                    .getFeatureStream(query)
+                    .runWith(Sink.ignore(), Map.of(), new CompletableFuture<>())
+                    .toCompletableFuture()
+                    .join(),
+            false);
+
+    // the same responses as for GET, e.g. 410 Gone for a retired version of a feature
+    if (!result.hasFeatures()) {
+      throw handleMissingFeature(api, collectionId, queryInput.getFeatureId(), requestContext)
+          .map(WebApplicationException::new)
+          .orElseGet(() -> new NotFoundException("The requested feature does not exist."));
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "Feature metadata for '{}/{}': Last-Modified {}, spatial extent {}, temporal extent {}",
+          collectionId,
+          queryInput.getFeatureId(),
+          result.getLastModified().orElse(null),
+          result.getSpatialExtent().orElse(null),
+          result.getTemporalExtent().orElse(null));
+    }
+
+    return ImmutableFeatureMetadata.builder()
+        .lastModified(
+            Optional.ofNullable(getLastModified(queryInput))
+                .or(() -> result.getLastModified().map(Date::from)))
+        .spatialExtent(
+            result
+                .getSpatialExtent()
+                .map(
+                    bbox ->
+                        BoundingBox.of(
+                            bbox.getXmin(),
+                            bbox.getYmin(),
+                            bbox.getXmax(),
+                            bbox.getYmax(),
+                            targetCrs)))
+        .temporalExtent(result.getTemporalExtent())
+        .build();
+  }
+
+  // the feature id is the last sort key, so that the order is total and the cursor is unique
+  private static FeatureQuery withIdSortKey(
+      FeatureQuery query,
+      FeatureProvider featureProvider,
+      OgcApiDataV2 apiData,
+      String collectionId) {
+    String featureTypeId =
+        apiData
+            .getExtension(FeaturesCoreConfiguration.class, collectionId)
+            .flatMap(FeaturesCoreConfiguration::getFeatureType)
+            .orElse(collectionId);
+    Optional<String> idPath =
+        featureProvider
+            .info()
+            .getSchema(featureTypeId)
+            .flatMap(FeatureSchema::getIdProperty)
+            .map(FeatureSchema::getFullPathAsString);
+
+    if (idPath.isEmpty()
+        || query.getSortKeys().stream().anyMatch(key -> key.getField().equals(idPath.get()))) {
+      return query;
+    }
+
+    return ImmutableFeatureQuery.builder()
+        .from(query)
+        .addSortKeys(SortKey.of(idPath.get(), Direction.ASCENDING))
+        .build();
+  }
+
+  // the properties of the sort keys, if all of them can be used in a cursor
+  private static Optional<List<FeatureSchema>> getCursorProperties(
+      FeatureQuery query,
+      FeatureProvider featureProvider,
+      OgcApiDataV2 apiData,
+      String collectionId) {
+    String featureTypeId =
+        apiData
+            .getExtension(FeaturesCoreConfiguration.class, collectionId)
+            .flatMap(FeaturesCoreConfiguration::getFeatureType)
+            .orElse(collectionId);
+    List<FeatureSchema> properties =
+        featureProvider
+            .info()
+            .getSchema(featureTypeId)
+            .map(FeatureSchema::getAllNestedProperties)
+            .orElse(List.of());
+
+    ImmutableList.Builder<FeatureSchema> sortProperties = ImmutableList.builder();
+    for (SortKey sortKey : query.getSortKeys()) {
+      Optional<FeatureSchema> property =
+          properties.stream()
+              .filter(p -> sortKey.getField().equals(p.getFullPathAsString()))
+              .findFirst();
+      if (property.filter(FeatureCursor::isSupported).isEmpty()) {
+        return Optional.empty();
+      }
+      sortProperties.add(property.get());
+    }
+
+    return Optional.of(sortProperties.build());
+  }
+
+  private static Optional<List<Object>> getSortValues(
+      List<FeatureSchema> sortProperties, List<Tuple<FeatureSchema, String>> values) {
+    ImmutableList.Builder<Object> sortValues = ImmutableList.builder();
+    for (FeatureSchema sortProperty : sortProperties) {
+      Optional<Object> value =
+          values.stream()
+              .filter(
+                  v -> sortProperty.getFullPathAsString().equals(v.first().getFullPathAsString()))
+              .findFirst()
+              .flatMap(v -> FeatureCursor.toValue(sortProperty, v.second()));
+      if (value.isEmpty()) {
+        return Optional.empty();
+      }
+      sortValues.add(value.get());
+    }
+    return Optional.of(sortValues.build());
+  }
+
+  // the placeholder only consists of ASCII characters, so it can be replaced in the encoded bytes
+  private static byte[] replace(byte[] bytes, String placeholder, String value) {
+    byte[] target = placeholder.getBytes(StandardCharsets.US_ASCII);
+    byte[] replacement = value.getBytes(StandardCharsets.US_ASCII);
+    ByteArrayOutputStream replaced = null;
+    int start = 0;
+
+    for (int i = 0; i <= bytes.length - target.length; i++) {
+      if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length)) {
+        if (Objects.isNull(replaced)) {
+          replaced = new ByteArrayOutputStream(bytes.length);
+        }
+        replaced.write(bytes, start, i - start);
+        replaced.write(replacement, 0, replacement.length);
+        start = i + target.length;
+        i = start - 1;
+      }
+    }
+
+    if (Objects.isNull(replaced)) {
+      return bytes;
+    }
+    replaced.write(bytes, start, bytes.length - start);
+    return replaced.toByteArray();
+  }
+
   private Response getResponse(
       OgcApi api,
       ApiRequestContext requestContext,
@@ -297,6 +639,8 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
       String canonicalUri,
       FeatureFormatExtension outputFormat,
       Optional<Integer> defaultPageSize,
+      boolean isCursorPage,
+      Optional<Supplier<String>> nextCursor,
       boolean includeLinkHeader,
       EpsgCrs defaultCrs,
       boolean sendResponseAsStream,
@@ -357,6 +701,8 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
                     query.getOffset(),
                     query.getLimit(),
                     defaultPageSize.orElse(0),
+                    isCursorPage,
+                    nextCursor.map(ignore -> FeatureCursor.PENDING),
                     requestContext.getMediaType(),
                     alternateMediaTypes,
                     profiles,
@@ -563,14 +909,7 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
 
       if (Objects.nonNull(featureId) && !result.hasFeatures()) {
         Optional<Response> overridden =
-            extensionRegistry.getExtensionsForType(SingleFeatureMissingHandler.class).stream()
-                .filter(handler -> handler.isEnabledForApi(api.getData(), collectionId))
-                .flatMap(
-                    handler ->
-                        handler
-                            .handleMissing(api, collectionId, featureId, requestContext)
-                            .stream())
-                .findFirst();
+            handleMissingFeature(api, collectionId, featureId, requestContext);
         if (overridden.isPresent()) {
           return overridden.get();
         }
@@ -579,6 +918,22 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
 
       bytes = result.reduced();
 
+      if (nextCursor.isPresent()) {
+        String cursor = nextCursor.get().get();
+        bytes = replace(bytes, FeatureCursor.PENDING, cursor);
+        links =
+            links.stream()
+                .map(
+                    link ->
+                        link.getHref().contains(FeatureCursor.PENDING)
+                            ? new ImmutableLink.Builder()
+                                .from(link)
+                                .href(link.getHref().replace(FeatureCursor.PENDING, cursor))
+                                .build()
+                            : link)
+                .collect(ImmutableList.toImmutableList());
+      }
+
       if (result.getETag().isPresent()) {
         etag = result.getETag().get();
         LOGGER.debug("ETag {}", etag);
@@ -772,7 +1127,8 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
     CompletableFuture<Result> stream =
         featureTransformStream
             .runWith(featureSink, propertyTransformations, onCollectionMetadata, auditLogId)
-            .toCompletableFuture();
+            .toCompletableFuture()
+            .whenComplete((result, throwable) -> closeEncoder(encoder));
 
     // wait for collection metadata
     CollectionMetadata collectionMetadata = onCollectionMetadata.join();
@@ -803,7 +1159,8 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
     CompletableFuture<ResultReduced<byte[]>> stream =
         featureTransformStream
             .runWith(featureSink, propertyTransformations, onCollectionMetadata, auditLogId)
-            .toCompletableFuture();
+            .toCompletableFuture()
+            .whenComplete((result, throwable) -> closeEncoder(encoder));
 
     // wait for collection metadata
     CollectionMetadata collectionMetadata = onCollectionMetadata.join();
@@ -811,6 +1168,27 @@ public class FeaturesCoreQueriesHandlerImpl extends AbstractVolatileComposed
     return Tuple.of(run(stream::join, failIfNoFeatures), collectionMetadata);
   }
 
+  // encoders that hold resources, e.g. temporary files, release them when the stream ends, also if
+  // the stream is aborted before the encoder has processed the end of the features
+  private static void closeEncoder(FeatureTokenEncoder<?> encoder) {
+    if (encoder instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) encoder).close();
+      } catch (Exception e) {
+        LogContext.error(LOGGER, e, "Could not close feature encoder");
+      }
+    }
+  }
+
+  private Optional<Response> handleMissingFeature(
+      OgcApi api, String collectionId, String featureId, ApiRequestContext requestContext) {
+    return extensionRegistry.getExtensionsForType(SingleFeatureMissingHandler.class).stream()
+        .filter(handler -> handler.isEnabledForApi(api.getData(), collectionId))
+        .flatMap(
+            handler -> handler.handleMissing(api, collectionId, featureId, requestContext).stream())
+        .findFirst();
+  }
+
   private <U extends ResultBase> U run(Supplier<U> stream, boolean failIfNoFeatures) {
     try {
       U result = stream.get();
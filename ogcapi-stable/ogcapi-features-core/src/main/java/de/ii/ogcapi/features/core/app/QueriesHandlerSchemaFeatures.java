@@ -9,6 +9,7 @@ package de.ii.ogcapi.features.core.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreProviders;
 import de.ii.ogcapi.features.core.domain.JsonSchemaCache;
 import de.ii.ogcapi.features.core.domain.JsonSchemaExtension;
@@ -30,16 +31,19 @@ import de.ii.ogcapi.foundation.domain.ProfileExtension.ResourceType;
 import de.ii.ogcapi.foundation.domain.ProfileSet;
 import de.ii.ogcapi.foundation.domain.QueryHandler;
 import de.ii.ogcapi.foundation.domain.QueryInput;
+import de.ii.ogcapi.foundation.domain.ResponseCache;
 import de.ii.ogcapi.html.domain.HtmlConfiguration;
 import de.ii.xtraplatform.base.domain.ETag;
 import de.ii.xtraplatform.base.domain.resiliency.AbstractVolatileComposed;
 import de.ii.xtraplatform.base.domain.resiliency.VolatileRegistry;
+import de.ii.xtraplatform.codelists.domain.Codelist;
 import de.ii.xtraplatform.features.domain.FeatureSchema;
 import de.ii.xtraplatform.features.domain.ImmutableFeatureSchema;
 import de.ii.xtraplatform.features.domain.SchemaBase;
 import de.ii.xtraplatform.jsonschema.domain.JsonSchema;
 import de.ii.xtraplatform.jsonschema.domain.JsonSchemaDocument;
 import de.ii.xtraplatform.values.domain.ValueStore;
+import de.ii.xtraplatform.values.domain.Values;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.NotAcceptableException;
@@ -65,6 +69,7 @@ public class QueriesHandlerSchemaFeatures extends AbstractVolatileComposed
   private final I18n i18n;
   private final Map<Query, QueryHandler<? extends QueryInput>> queryHandlers;
   private final ExtensionRegistry extensionRegistry;
+  private final Values<Codelist> codelistStore;
 
   @Inject
   public QueriesHandlerSchemaFeatures(
@@ -77,6 +82,7 @@ public class QueriesHandlerSchemaFeatures extends AbstractVolatileComposed
     this.extensionRegistry = extensionRegistry;
     this.i18n = i18n;
     this.providers = providers;
+    this.codelistStore = valueStore.forType(Codelist.class);
     this.queryHandlers =
         ImmutableMap.of(
             Query.SCHEMA, QueryHandler.with(QueryInputSchema.class, this::getSchemaResponse));
@@ -93,6 +99,24 @@ public class QueriesHandlerSchemaFeatures extends AbstractVolatileComposed
     return queryHandlers;
   }
 
+  @Override
+  public boolean canCacheResponse(Query query) {
+    return true;
+  }
+
+  // the schema is derived from the provider schema of the collection and the codelists
+  @Override
+  public void putResponseCacheInputs(
+      Query query, QueryInput queryInput, ApiRequestContext requestContext, Hasher hasher) {
+    if (queryInput instanceof QueryInputSchema schemaInput) {
+      OgcApiDataV2 apiData = requestContext.getApi().getData();
+      Optional.ofNullable(apiData.getCollections().get(schemaInput.getCollectionId()))
+          .flatMap(collectionData -> providers.getFeatureSchema(apiData, collectionData))
+          .ifPresent(featureSchema -> hasher.putInt(featureSchema.hashCode()));
+    }
+    ResponseCache.putValues(hasher, codelistStore.asMap());
+  }
+
   private static ResourceType getResourceType(SchemaType type) {
     return switch (type) {
       case RETURNABLES_AND_RECEIVABLES -> ResourceType.SCHEMA_RETURNABLES_AND_RECEIVABLES;
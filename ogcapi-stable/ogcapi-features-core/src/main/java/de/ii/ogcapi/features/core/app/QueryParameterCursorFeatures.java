@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.core.app;
+
+import com.github.azahnen.dagger.annotations.AutoBind;
+import de.ii.ogcapi.features.core.domain.FeatureQueryParameter;
+import de.ii.ogcapi.features.core.domain.FeaturesCoreConfiguration;
+import de.ii.ogcapi.foundation.domain.ExtensionConfiguration;
+import de.ii.ogcapi.foundation.domain.FeatureTypeConfigurationOgcApi;
+import de.ii.ogcapi.foundation.domain.OgcApi;
+import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
+import de.ii.ogcapi.foundation.domain.OgcApiQueryParameterBase;
+import de.ii.ogcapi.foundation.domain.SchemaValidator;
+import de.ii.ogcapi.foundation.domain.SpecificationMaturity;
+import de.ii.ogcapi.foundation.domain.TypedQueryParameter;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * @title cursor
+ * @endpoints Features
+ * @langEn Only available, if `cursorPaging` is enabled. The position after the last feature of the
+ *     previous page. The value is an opaque token that is only provided in `next` links, it
+ *     cannot be constructed by clients. An empty value requests the first page with keyset
+ *     pagination.
+ * @langDe Nur verfügbar, wenn `cursorPaging` aktiviert ist. Die Position nach dem letzten Feature
+ *     der vorherigen Seite. Der Wert ist ein opakes Token, das nur in `next`-Links bereitgestellt
+ *     wird, es kann nicht von Clients gebildet werden. Ein leerer Wert fordert die erste Seite mit
+ *     Keyset-Paginierung an.
+ */
+@Singleton
+@AutoBind
+public class QueryParameterCursorFeatures extends OgcApiQueryParameterBase
+    implements TypedQueryParameter<String>, FeatureQueryParameter {
+
+  static final String NAME = "cursor";
+
+  private final Schema<?> schema = new StringSchema();
+  private final SchemaValidator schemaValidator;
+
+  @Inject
+  QueryParameterCursorFeatures(SchemaValidator schemaValidator) {
+    this.schemaValidator = schemaValidator;
+  }
+
+  @Override
+  public String getId() {
+    return "cursorFeatures";
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  // the cursor is verified and applied by the queries handler, which holds the key for cursors
+  @Override
+  public String parse(
+      String value,
+      Map<String, Object> typedValues,
+      OgcApi api,
+      Optional<FeatureTypeConfigurationOgcApi> optionalCollectionData) {
+    // no default value
+    return value;
+  }
+
+  @Override
+  public String getDescription() {
+    return "The optional cursor parameter identifies the position after the last feature of the previous "
+        + "page. The value is only provided in 'next' links. An empty value requests the first page.";
+  }
+
+  @Override
+  public boolean matchesPath(String definitionPath) {
+    return "/collections/{collectionId}/items".equals(definitionPath);
+  }
+
+  @Override
+  public Schema<?> getSchema(OgcApiDataV2 apiData) {
+    return schema;
+  }
+
+  @Override
+  public SchemaValidator getSchemaValidator() {
+    return schemaValidator;
+  }
+
+  @Override
+  public boolean isEnabledForApi(OgcApiDataV2 apiData) {
+    return super.isEnabledForApi(apiData)
+        && apiData.getCollections().keySet().stream()
+            .anyMatch(collectionId -> isCursorPaging(apiData, collectionId));
+  }
+
+  @Override
+  public boolean isEnabledForApi(OgcApiDataV2 apiData, String collectionId) {
+    return super.isEnabledForApi(apiData, collectionId) && isCursorPaging(apiData, collectionId);
+  }
+
+  private static boolean isCursorPaging(OgcApiDataV2 apiData, String collectionId) {
+    return apiData
+        .getExtension(FeaturesCoreConfiguration.class, collectionId)
+        .filter(FeaturesCoreConfiguration::isCursorPaging)
+        .isPresent();
+  }
+
+  @Override
+  public Class<? extends ExtensionConfiguration> getBuildingBlockConfigurationType() {
+    return FeaturesCoreConfiguration.class;
+  }
+
+  @Override
+  public Optional<SpecificationMaturity> getSpecificationMaturity() {
+    return Optional.of(SpecificationMaturity.DRAFT_LDPROXY);
+  }
+}
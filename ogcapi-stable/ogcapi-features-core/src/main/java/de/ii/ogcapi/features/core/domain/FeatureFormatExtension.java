@@ -29,6 +29,10 @@ import de.ii.xtraplatform.features.domain.profile.ProfileTransformations;
 import de.ii.xtraplatform.features.domain.transform.ImmutablePropertyTransformation;
 import de.ii.xtraplatform.features.domain.transform.PropertyTransformation;
 import de.ii.xtraplatform.features.domain.transform.PropertyTransformations;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -142,6 +146,31 @@ public abstract class FeatureFormatExtension implements FormatExtension {
 
   public void validate(String content, ValidatorContext ctx) {}
 
+  /**
+   * Validates content that is read from a stream. The returned stream has to be decoded instead of
+   * the given one. The content is validated completely before the method returns, so an invalid
+   * request body is rejected before any feature is written. By default the content is read into
+   * memory and validated with {@link #validate(String, ValidatorContext)}, formats may validate the
+   * content incrementally.
+   *
+   * @param content the content
+   * @param ctx the validator context
+   * @return the validated content
+   * @throws IllegalArgumentException if the content is invalid
+   */
+  public InputStream validate(InputStream content, ValidatorContext ctx) {
+    final byte[] body;
+    try {
+      body = content.readAllBytes();
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          "Could not read content stream. Reasons: " + e.getMessage(), e);
+    }
+    validate(new String(body, StandardCharsets.UTF_8), ctx);
+
+    return new ByteArrayInputStream(body);
+  }
+
   public Optional<PropertyTransformations> getPropertyTransformations(
       FeatureTypeConfigurationOgcApi collectionData) {
 
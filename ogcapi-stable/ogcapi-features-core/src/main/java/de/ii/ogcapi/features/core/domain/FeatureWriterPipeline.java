@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.core.domain;
+
+import static de.ii.xtraplatform.base.domain.util.LambdaWithException.consumerMayThrow;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import de.ii.ogcapi.features.core.domain.FeatureTransformationContext.Event;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches the token events of a feature encoder to a sorted chain of writers.
+ *
+ * <p>The chain is compiled once when the encoder is created: for every event, only the writers
+ * that override one of the handler methods of that event (or {@code onEvent} itself) are kept.
+ * Writers that inherit the pass-through default for an event are skipped for that event.
+ *
+ * <p>The {@code next} continuation handed to the writers is a single reusable consumer that
+ * advances a cursor over the writers of the current event. This preserves the semantics of the
+ * previous iterator-based chain exactly: writers may do work before and after calling {@code
+ * next}, a writer that does not call {@code next} ends the chain, and a continuation that is
+ * called after the chain is exhausted does nothing. No objects are allocated per event.
+ *
+ * <p>Instances are not thread-safe, one pipeline is created per encoder.
+ *
+ * @param <T> the encoding context
+ * @param <W> the writer type
+ */
+public class FeatureWriterPipeline<T, W> {
+
+  @FunctionalInterface
+  public interface Invoker<T, W> {
+    void onEvent(W writer, T context, Consumer<T> next) throws IOException;
+  }
+
+  /** The handler methods of {@link FeatureWriter} per event. */
+  public static final Map<Event, Set<String>> FEATURE_WRITER_METHODS =
+      new ImmutableMap.Builder<Event, Set<String>>()
+          .put(Event.START, ImmutableSet.of("onStart"))
+          .put(Event.END, ImmutableSet.of("onEnd"))
+          .put(Event.FEATURE_START, ImmutableSet.of("onFeatureStart"))
+          .put(Event.FEATURE_END, ImmutableSet.of("onPropertiesEnd", "onFeatureEnd"))
+          .put(Event.PROPERTY, ImmutableSet.of("onValue"))
+          .put(Event.ARRAY_START, ImmutableSet.of("onArrayStart"))
+          .put(Event.OBJECT_START, ImmutableSet.of("onObjectStart"))
+          .put(Event.OBJECT_END, ImmutableSet.of("onObjectEnd"))
+          .put(Event.ARRAY_END, ImmutableSet.of("onArrayEnd"))
+          .put(Event.GEOMETRY, ImmutableSet.of("onGeometry"))
+          .build();
+
+  private static final String ON_EVENT = "onEvent";
+
+  private final Map<Event, List<W>> writersByEvent;
+  private final Invoker<T, W> invoker;
+  private final Consumer<T> next;
+  private List<W> current;
+  private int cursor;
+
+  /**
+   * @param writers the writers, already sorted by priority
+   * @param base the type that declares the pass-through defaults of the handler methods
+   * @param methodsByEvent the names of the handler methods that are called for each event
+   * @param invoker calls the event dispatch method of a writer
+   */
+  public FeatureWriterPipeline(
+      Collection<W> writers,
+      Class<?> base,
+      Map<Event, Set<String>> methodsByEvent,
+      Invoker<T, W> invoker) {
+    this.invoker = invoker;
+    this.writersByEvent = new EnumMap<>(Event.class);
+    for (Event event : Event.values()) {
+      Set<String> methods = methodsByEvent.getOrDefault(event, ImmutableSet.of());
+      writersByEvent.put(
+          event,
+          writers.stream()
+              .filter(writer -> overridesAny(writer, base, methods))
+              .collect(ImmutableList.toImmutableList()));
+    }
+    this.current = ImmutableList.of();
+    this.next =
+        consumerMayThrow(
+            context -> {
+              if (cursor < current.size()) {
+                this.invoker.onEvent(current.get(cursor++), context, this.next);
+              }
+            });
+  }
+
+  public static <T extends EncodingAwareContext<?>, W extends FeatureWriter<T>>
+      FeatureWriterPipeline<T, W> of(Collection<W> writers) {
+    return new FeatureWriterPipeline<>(
+        writers, FeatureWriter.class, FEATURE_WRITER_METHODS, FeatureWriter::onEvent);
+  }
+
+  /**
+   * Runs the writers for an event. The call is reentrant, a writer may trigger another event
+   * while handling the current one.
+   *
+   * @param event the current event
+   * @param context the encoding context
+   */
+  public void execute(Event event, T context) {
+    List<W> previous = current;
+    int previousCursor = cursor;
+    this.current = writersByEvent.get(event);
+    this.cursor = 0;
+    try {
+      next.accept(context);
+    } finally {
+      this.current = previous;
+      this.cursor = previousCursor;
+    }
+  }
+
+  /**
+   * @param event the event
+   * @return the writers that are called for the event, in order
+   */
+  public List<W> getWriters(Event event) {
+    return writersByEvent.get(event);
+  }
+
+  private static boolean overridesAny(Object writer, Class<?> base, Set<String> methods) {
+    return Arrays.stream(writer.getClass().getMethods())
+        .filter(method -> methods.contains(method.getName()) || ON_EVENT.equals(method.getName()))
+        .map(Method::getDeclaringClass)
+        .anyMatch(
+            declaringClass ->
+                !declaringClass.equals(base) && !declaringClass.equals(FeatureWriter.class));
+  }
+}
@@ -19,6 +19,7 @@ import de.ii.ogcapi.foundation.domain.ProfilesConfiguration;
 import de.ii.xtraplatform.crs.domain.EpsgCrs;
 import de.ii.xtraplatform.crs.domain.ImmutableEpsgCrs;
 import de.ii.xtraplatform.crs.domain.OgcCrs;
+import de.ii.xtraplatform.docs.DocIgnore;
 import de.ii.xtraplatform.docs.JsonDynamicSubType;
 import de.ii.xtraplatform.features.domain.FeatureTypeConfiguration;
 import de.ii.xtraplatform.features.domain.transform.PropertyTransformations;
@@ -209,6 +210,43 @@ public interface FeaturesCoreConfiguration
   @Nullable
   Integer getMaximumPageSize();
 
+  /**
+   * @langEn Enables keyset pagination for requests with the parameter `cursor`. A client requests
+   *     the first page with an empty `cursor`. The `next` link of such a page uses the parameter
+   *     `cursor` with an opaque token for the position after the last feature of the page instead
+   *     of `offset`. The features are sorted by the `sortby` keys, if any, and by the feature id.
+   *     The response time for a page then does not depend on the position of the page in the
+   *     result set. Cursors are only supported, if all sort keys are strings or numbers and are
+   *     required properties, i.e. cannot be null; otherwise the `next` link uses `offset`. Pages
+   *     with a cursor are not streamed, since the cursor is only known after the last feature of
+   *     the page has been encoded. Requests without `cursor` are paged with `offset` as before.
+   *     The HTML pagination always uses `offset`.
+   * @langDe Aktiviert die Keyset-Paginierung für Anfragen mit dem Parameter `cursor`. Ein Client
+   *     fordert die erste Seite mit einem leeren `cursor` an. Der `next`-Link einer solchen Seite
+   *     verwendet statt `offset` den Parameter `cursor` mit einem opaken Token für die Position
+   *     nach dem letzten Feature der Seite. Die Features werden nach den `sortby`-Schlüsseln,
+   *     sofern vorhanden, und nach der Feature-ID sortiert. Die Antwortzeit für eine Seite hängt
+   *     dann nicht von der Position der Seite in der Ergebnismenge ab. Cursor werden nur
+   *     unterstützt, wenn alle Sortierschlüssel Zeichenketten oder Zahlen und
+   *     Pflichteigenschaften sind, also nicht null sein können; andernfalls wird im `next`-Link
+   *     weiterhin `offset` verwendet. Seiten mit einem Cursor werden nicht gestreamt, da der
+   *     Cursor erst bekannt ist, wenn das letzte Feature der Seite kodiert wurde. Anfragen ohne
+   *     `cursor` werden wie bisher mit `offset` paginiert. Die HTML-Paginierung verwendet immer
+   *     `offset`.
+   * @since v4.9
+   * @default false
+   */
+  @Nullable
+  Boolean getCursorPaging();
+
+  @JsonIgnore
+  @Value.Derived
+  @Value.Auxiliary
+  @DocIgnore
+  default boolean isCursorPaging() {
+    return Boolean.TRUE.equals(getCursorPaging());
+  }
+
   /**
    * @langEn Controls which links should be specified for each feature in the Features resource, if
    *     these exist. The values are the link relation types to be included. By default, links such
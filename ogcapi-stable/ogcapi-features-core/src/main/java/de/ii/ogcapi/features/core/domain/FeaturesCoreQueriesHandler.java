@@ -7,6 +7,7 @@
  */
 package de.ii.ogcapi.features.core.domain;
 
+import de.ii.ogcapi.foundation.domain.ApiRequestContext;
 import de.ii.ogcapi.foundation.domain.PermissionGroup;
 import de.ii.ogcapi.foundation.domain.PermissionGroup.Base;
 import de.ii.ogcapi.foundation.domain.QueriesHandler;
@@ -15,9 +16,13 @@ import de.ii.ogcapi.foundation.domain.QueryIdentifier;
 import de.ii.ogcapi.foundation.domain.QueryInput;
 import de.ii.ogcapi.foundation.domain.WithProfiles;
 import de.ii.xtraplatform.base.domain.resiliency.Volatile2;
+import de.ii.xtraplatform.crs.domain.BoundingBox;
 import de.ii.xtraplatform.crs.domain.EpsgCrs;
 import de.ii.xtraplatform.features.domain.FeatureProvider;
 import de.ii.xtraplatform.features.domain.FeatureQuery;
+import de.ii.xtraplatform.features.domain.Tuple;
+import java.time.Instant;
+import java.util.Date;
 import java.util.Map;
 import java.util.Optional;
 import org.immutables.value.Value;
@@ -35,6 +40,21 @@ public interface FeaturesCoreQueriesHandler
   @Override
   Map<Query, QueryHandler<? extends QueryInput>> getQueryHandlers();
 
+  /**
+   * Determines the metadata of a single feature that is needed to evaluate preconditions and to
+   * report changes of a feature. Only the id, the primary geometry and the primary temporal
+   * properties are selected and the feature is not encoded.
+   *
+   * @param queryInput the query for the feature
+   * @param requestContext the request
+   * @return the metadata of the feature
+   * @throws jakarta.ws.rs.WebApplicationException with the response of the first {@link
+   *     SingleFeatureMissingHandler} that handles the missing feature, like for {@code GET}
+   * @throws jakarta.ws.rs.NotFoundException if the feature does not exist otherwise
+   */
+  FeatureMetadata getFeatureMetadata(
+      QueryInputFeature queryInput, ApiRequestContext requestContext);
+
   enum Query implements QueryIdentifier {
     FEATURES,
     FEATURE
@@ -78,6 +98,15 @@ public interface FeaturesCoreQueriesHandler
     }
   }
 
+  @Value.Immutable
+  interface FeatureMetadata {
+    Optional<Date> getLastModified();
+
+    Optional<BoundingBox> getSpatialExtent();
+
+    Optional<Tuple<Instant, Instant>> getTemporalExtent();
+  }
+
   @Value.Immutable
   interface QueryInputFeature extends QueryInputFeaturesBase {
     String getFeatureId();
@@ -22,6 +22,8 @@ import java.util.Optional;
 
 public class FeaturesLinksGenerator extends DefaultLinksGenerator {
 
+  private static final String CURSOR = "cursor";
+
   public List<Link> generateLinks(
       URICustomizer uriBuilder,
       int offset,
@@ -33,6 +35,39 @@ public class FeaturesLinksGenerator extends DefaultLinksGenerator {
       Map<ApiMediaType, List<Profile>> alternateProfiles,
       I18n i18n,
       Optional<Locale> language) {
+    return generateLinks(
+        uriBuilder,
+        offset,
+        limit,
+        defaultLimit,
+        false,
+        Optional.empty(),
+        mediaType,
+        alternateMediaTypes,
+        profiles,
+        alternateProfiles,
+        i18n,
+        language);
+  }
+
+  /**
+   * @param isCursorPage {@code true}, if the page was requested with a non-empty cursor
+   * @param nextCursor the cursor for the next page; if empty, the next page is identified by the
+   *     offset
+   */
+  public List<Link> generateLinks(
+      URICustomizer uriBuilder,
+      int offset,
+      int limit,
+      int defaultLimit,
+      boolean isCursorPage,
+      Optional<String> nextCursor,
+      ApiMediaType mediaType,
+      List<ApiMediaType> alternateMediaTypes,
+      List<Profile> profiles,
+      Map<ApiMediaType, List<Profile>> alternateProfiles,
+      I18n i18n,
+      Optional<Locale> language) {
     final ImmutableList.Builder<Link> builder =
         new ImmutableList.Builder<Link>()
             .addAll(
@@ -54,13 +89,26 @@ public class FeaturesLinksGenerator extends DefaultLinksGenerator {
     // be removed again in the feature transformer, if we are on the last page
     builder.add(
         new ImmutableLink.Builder()
-            .href(getUrlWithPageAndCount(uriBuilder.copy(), offset + limit, limit, defaultLimit))
+            .href(
+                nextCursor
+                    .map(
+                        cursor ->
+                            getUrlWithPageAndCount(
+                                uriBuilder.copy().setParameter(CURSOR, cursor),
+                                0,
+                                limit,
+                                defaultLimit))
+                    .orElseGet(
+                        () ->
+                            getUrlWithPageAndCount(
+                                uriBuilder.copy(), offset + limit, limit, defaultLimit)))
             .rel("next")
             .mediaType(mediaType)
             .title(i18n.get("nextLink", language))
             .profiles(profilesToAddInLinks)
             .build());
-    if (offset > 0) {
+    // there is no cursor for the previous page, only for the next page
+    if (offset > 0 && !isCursorPage) {
       builder.add(
           new ImmutableLink.Builder()
               .href(getUrlWithPageAndCount(uriBuilder.copy(), offset - limit, limit, defaultLimit))
@@ -69,9 +117,19 @@ public class FeaturesLinksGenerator extends DefaultLinksGenerator {
               .title(i18n.get("prevLink", language))
               .profiles(profilesToAddInLinks)
               .build());
+    }
+    if (isCursorPage || offset > 0) {
+      // a request with a cursor stays in keyset pagination, the first page has an empty cursor
+      boolean hasCursor =
+          uriBuilder.getQueryParams().stream().anyMatch(param -> CURSOR.equals(param.getName()));
       builder.add(
           new ImmutableLink.Builder()
-              .href(getUrlWithPageAndCount(uriBuilder.copy(), 0, limit, defaultLimit))
+              .href(
+                  getUrlWithPageAndCount(
+                      hasCursor ? uriBuilder.copy().setParameter(CURSOR, "") : uriBuilder.copy(),
+                      0,
+                      limit,
+                      defaultLimit))
               .rel("first")
               .mediaType(mediaType)
               .title(i18n.get("firstLink", language))
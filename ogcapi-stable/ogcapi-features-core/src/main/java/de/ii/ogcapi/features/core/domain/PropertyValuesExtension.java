@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.core.domain;
+
+import com.google.common.collect.ImmutableList;
+import de.ii.xtraplatform.features.domain.FeatureEventHandler.ModifiableContext;
+import de.ii.xtraplatform.features.domain.FeatureSchema;
+import de.ii.xtraplatform.features.domain.FeatureTokenTransformer;
+import de.ii.xtraplatform.features.domain.FeatureTokenTransformerExtension;
+import de.ii.xtraplatform.features.domain.SchemaMapping;
+import de.ii.xtraplatform.features.domain.Tuple;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Query extension that collects the values of selected properties of each feature in a feature
+ * stream. The tokens are passed through unchanged, so the extension can be added to any query,
+ * regardless of how the features are encoded, or to a query that is run without an encoder. The
+ * values are taken from the feature provider before any property transformations are applied.
+ */
+public final class PropertyValuesExtension implements FeatureTokenTransformerExtension {
+
+  private final Predicate<FeatureSchema> properties;
+  private final Consumer<List<Tuple<FeatureSchema, String>>> onFeature;
+
+  /**
+   * @param properties selects the properties whose values are collected
+   * @param onFeature receives the selected properties and their values at the end of each feature,
+   *     in the order of the stream
+   */
+  public PropertyValuesExtension(
+      Predicate<FeatureSchema> properties,
+      Consumer<List<Tuple<FeatureSchema, String>>> onFeature) {
+    this.properties = properties;
+    this.onFeature = onFeature;
+  }
+
+  @Override
+  public FeatureTokenTransformer createTransformer() {
+    return new FeatureTokenTransformerPropertyValues(properties, onFeature);
+  }
+
+  static class FeatureTokenTransformerPropertyValues extends FeatureTokenTransformer {
+
+    private final Predicate<FeatureSchema> properties;
+    private final Consumer<List<Tuple<FeatureSchema, String>>> onFeature;
+    private final List<Tuple<FeatureSchema, String>> values;
+
+    FeatureTokenTransformerPropertyValues(
+        Predicate<FeatureSchema> properties,
+        Consumer<List<Tuple<FeatureSchema, String>>> onFeature) {
+      this.properties = properties;
+      this.onFeature = onFeature;
+      this.values = new ArrayList<>();
+    }
+
+    @Override
+    public void onFeatureStart(ModifiableContext<FeatureSchema, SchemaMapping> context) {
+      values.clear();
+      super.onFeatureStart(context);
+    }
+
+    @Override
+    public void onValue(ModifiableContext<FeatureSchema, SchemaMapping> context) {
+      if (context.schema().filter(properties).isPresent() && Objects.nonNull(context.value())) {
+        values.add(Tuple.of(context.schema().get(), context.value()));
+      }
+      super.onValue(context);
+    }
+
+    @Override
+    public void onFeatureEnd(ModifiableContext<FeatureSchema, SchemaMapping> context) {
+      onFeature.accept(ImmutableList.copyOf(values));
+      super.onFeatureEnd(context);
+    }
+  }
+}
@@ -20,6 +20,8 @@ import java.util.Optional;
  * handler asks every registered implementation for an alternative response (e.g. {@code 410 Gone}
  * for a feature whose only versions have all been retired). The first non-empty {@link Response}
  * wins; if every implementation declines, the default behaviour of {@code 404 Not Found} applies.
+ * The same applies to the lookup of the current feature for {@code PUT}, {@code PATCH} and {@code
+ * DELETE}.
  */
 @AutoMultiBind
 public interface SingleFeatureMissingHandler extends ApiExtension {
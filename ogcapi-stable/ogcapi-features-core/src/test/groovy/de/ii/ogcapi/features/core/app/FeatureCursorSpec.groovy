@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.core.app
+
+import de.ii.xtraplatform.cql.domain.And
+import de.ii.xtraplatform.cql.domain.Eq
+import de.ii.xtraplatform.cql.domain.Gt
+import de.ii.xtraplatform.cql.domain.Lt
+import de.ii.xtraplatform.cql.domain.Or
+import de.ii.xtraplatform.cql.domain.ScalarLiteral
+import de.ii.xtraplatform.features.domain.ImmutableFeatureSchema
+import de.ii.xtraplatform.features.domain.ImmutableSchemaConstraints
+import de.ii.xtraplatform.features.domain.SchemaBase
+import de.ii.xtraplatform.features.domain.SortKey
+import de.ii.xtraplatform.features.domain.SortKey.Direction
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class FeatureCursorSpec extends Specification {
+
+    static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII)
+
+    static def asc(String field) {
+        SortKey.of(field, Direction.ASCENDING)
+    }
+
+    static def desc(String field) {
+        SortKey.of(field, Direction.DESCENDING)
+    }
+
+    def 'A cursor survives encoding and decoding'() {
+
+        when:
+
+        def decoded = FeatureCursor.decode(new FeatureCursor(sortKeys, values, offset).encode(KEY), KEY)
+
+        then:
+
+        decoded.sortKeys == sortKeys
+        decoded.values == values
+        decoded.offset == offset
+
+        where:
+
+        sortKeys                                 | values                      | offset
+        [asc("id")]                              | ["a/b ü"]                   | 0
+        [desc("id")]                             | [42L]                       | 0
+        [asc("height"), desc("name"), asc("id")] | [1.5d, "x", 5_000_000_000L] | 0
+        [asc("name"), asc("id")]                 | []                          | 30
+    }
+
+    def 'A modified token is rejected'() {
+
+        given:
+
+        def bytes = Base64.getUrlDecoder().decode(new FeatureCursor([asc("id")], ["100"], 0).encode(KEY))
+        // the last 16 bytes are the signature, modify the payload
+        bytes[bytes.length - 20] = (byte) (bytes[bytes.length - 20] ^ 1)
+
+        when:
+
+        FeatureCursor.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), KEY)
+
+        then:
+
+        thrown(IllegalArgumentException)
+    }
+
+    def 'A token that was signed with another key is rejected'() {
+
+        given:
+
+        def token = new FeatureCursor([asc("id")], ["100"], 0).encode(KEY)
+        def otherKey = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII)
+
+        when:
+
+        FeatureCursor.decode(token, otherKey)
+
+        then:
+
+        thrown(IllegalArgumentException)
+    }
+
+    def 'A malformed token is rejected'() {
+
+        when:
+
+        FeatureCursor.decode(token, KEY)
+
+        then:
+
+        thrown(IllegalArgumentException)
+
+        where:
+
+        token << ["", "abc", "!!!"]
+    }
+
+    def 'The seek predicate selects the features after the cursor'() {
+
+        expect:
+
+        new FeatureCursor(sortKeys, values, 0).toSeekPredicate() == Optional.of(predicate)
+
+        where:
+
+        sortKeys                         | values                    || predicate
+        [asc("id")]                      | ["b"]                     || Gt.of("id", ScalarLiteral.of("b"))
+        [desc("id")]                     | [7L]                      || Lt.of("id", ScalarLiteral.of(7))
+        [desc("h"), asc("id")]           | [1.5d, "b"]               || Or.of(Lt.of("h", ScalarLiteral.of(1.5d)), And.of(Eq.of("h", ScalarLiteral.of(1.5d)), Gt.of("id", ScalarLiteral.of("b"))))
+        [asc("a"), asc("b"), desc("id")] | ["x", 5_000_000_000L, 3L] || Or.of(Gt.of("a", ScalarLiteral.of("x")), And.of(Eq.of("a", ScalarLiteral.of("x")), Or.of(Gt.of("b", ScalarLiteral.of(5_000_000_000L)), And.of(Eq.of("b", ScalarLiteral.of(5_000_000_000L)), Lt.of("id", ScalarLiteral.of(3))))))
+    }
+
+    def 'A cursor without values has no seek predicate'() {
+
+        expect:
+
+        new FeatureCursor([asc("id")], [], 20).toSeekPredicate() == Optional.empty()
+    }
+
+    def 'Only required strings and numbers can be sort keys of a cursor'() {
+
+        given:
+
+        def builder = new ImmutableFeatureSchema.Builder().name("p").type(type)
+        if (id) {
+            builder.role(SchemaBase.Role.ID)
+        }
+        if (required != null) {
+            builder.constraints(new ImmutableSchemaConstraints.Builder().required(required).build())
+        }
+
+        expect:
+
+        FeatureCursor.isSupported(builder.build()) == supported
+
+        where:
+
+        type                     | id    | required || supported
+        SchemaBase.Type.STRING   | true  | null     || true
+        SchemaBase.Type.INTEGER  | false | true     || true
+        SchemaBase.Type.FLOAT    | false | true     || true
+        SchemaBase.Type.STRING   | false | null     || false
+        SchemaBase.Type.INTEGER  | false | false    || false
+        SchemaBase.Type.DATETIME | false | true     || false
+    }
+
+    def 'Sort values are converted according to the type of the property'() {
+
+        given:
+
+        def property = new ImmutableFeatureSchema.Builder().name("p").type(type).build()
+
+        expect:
+
+        FeatureCursor.toValue(property, value) == expected
+
+        where:
+
+        type                    | value || expected
+        SchemaBase.Type.STRING  | "12"  || Optional.of("12")
+        SchemaBase.Type.INTEGER | "12"  || Optional.of(12L)
+        SchemaBase.Type.FLOAT   | "1.5" || Optional.of(1.5d)
+        SchemaBase.Type.INTEGER | "1.5" || Optional.empty()
+    }
+}
@@ -69,6 +69,7 @@ import jakarta.inject.Singleton;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.AbstractMap;
 import java.util.Collection;
@@ -435,6 +436,17 @@ public class FeaturesFormatGeoJson extends FeatureFormatExtension
     }
   }
 
+  @Override
+  public InputStream validate(InputStream content, ValidatorContext ctx) {
+    boolean jsonFg =
+        ctx.getDeclaredProfiles().stream().anyMatch(profile -> "jsonfg".equals(profile.getId()));
+
+    CompiledJsonSchema compiledSchema = getOrCompileSchema(ctx, jsonFg);
+
+    return ValidatingFeatureInputStream.validateAll(
+        content, MAPPER, feature -> schemaValidator.validate(compiledSchema, feature));
+  }
+
   private CompiledJsonSchema getOrCompileSchema(ValidatorContext ctx, boolean jsonFg) {
     int apiHashCode = ctx.getApiData().hashCode();
     String cacheKey = ctx.getCollectionId() + "\0" + ctx.getType() + "\0" + jsonFg;
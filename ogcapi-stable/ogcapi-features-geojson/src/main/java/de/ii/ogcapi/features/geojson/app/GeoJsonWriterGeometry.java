@@ -12,9 +12,7 @@ import de.ii.ogcapi.features.core.domain.FeatureTransformationContext;
 import de.ii.ogcapi.features.geojson.domain.EncodingAwareContextGeoJson;
 import de.ii.ogcapi.features.geojson.domain.FeatureTransformationContextGeoJson.GeometryState;
 import de.ii.ogcapi.features.geojson.domain.GeoJsonWriterGeometryBase;
-import de.ii.xtraplatform.crs.domain.OgcCrs;
 import de.ii.xtraplatform.features.domain.FeatureSchema;
-import de.ii.xtraplatform.features.domain.SchemaBase;
 import de.ii.xtraplatform.geometries.domain.Geometry;
 import de.ii.xtraplatform.geometries.domain.GeometryType;
 import de.ii.xtraplatform.geometries.domain.PolyhedralSurface;
@@ -23,7 +21,6 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Singleton
 @AutoBind
@@ -74,18 +71,11 @@ public class GeoJsonWriterGeometry extends GeoJsonWriterGeometryBase {
     if (writeJsonFgExtensions
         && ((geometry.getType() == GeometryType.POLYHEDRAL_SURFACE
                 && ((PolyhedralSurface) geometry).isClosed())
-            || !(OgcCrs.CRS84.equals(transformationContext.getTargetCrs())
-                || transformationContext.getTargetCrs().equals(OgcCrs.CRS84h)))) {
-      return writeSecondaryGeometry
-          ? schema.getAllNestedProperties().stream()
-              .filter(SchemaBase::isSecondaryGeometry)
-              .collect(Collectors.toSet())
-          : Set.of();
+            || !targetCrsIsCrs84)) {
+      return writeSecondaryGeometry ? getGeometryRoles(schema).secondary : Set.of();
     }
 
-    return schema.getAllNestedProperties().stream()
-        .filter(SchemaBase::isPrimaryGeometry)
-        .collect(Collectors.toSet());
+    return getGeometryRoles(schema).primary;
   }
 
   @Override
@@ -100,24 +90,12 @@ public class GeoJsonWriterGeometry extends GeoJsonWriterGeometryBase {
     if (writeJsonFgExtensions
         && ((geometry.getType() == GeometryType.POLYHEDRAL_SURFACE
                 && ((PolyhedralSurface) geometry).isClosed())
-            || !(OgcCrs.CRS84.equals(transformationContext.getTargetCrs())
-                || transformationContext.getTargetCrs().equals(OgcCrs.CRS84h)))) {
-      return schema.getAllNestedProperties().stream()
-          .filter(SchemaBase::isEmbeddedSecondaryGeometry)
-          .collect(Collectors.toSet());
+            || !targetCrsIsCrs84)) {
+      return getGeometryRoles(schema).embeddedSecondary;
     }
 
-    Set<FeatureSchema> set =
-        schema.getAllNestedProperties().stream()
-            .filter(SchemaBase::isEmbeddedPrimaryGeometry)
-            .collect(Collectors.toSet());
-    if (set.isEmpty()) {
-      set =
-          schema.getAllNestedProperties().stream()
-              .filter(SchemaBase::isEmbeddedSecondaryGeometry)
-              .collect(Collectors.toSet());
-    }
-    return set;
+    GeometryRoles roles = getGeometryRoles(schema);
+    return roles.embeddedPrimary.isEmpty() ? roles.embeddedSecondary : roles.embeddedPrimary;
   }
 
   @Override
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.geojson.app;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Validates a GeoJSON document while it is read. The members of a feature collection are validated
+ * one by one, any other document is validated as a whole. A document is a feature collection, if
+ * the root object has a member "features" with an array value and the type "FeatureCollection". Bytes are only passed on after the
+ * feature they belong to has been validated, so only a single feature is held in memory. Use
+ * {@link #validateAll(InputStream, ObjectMapper, Function)} to validate a request body completely
+ * before it is decoded.
+ *
+ * <p>Validation errors are thrown as {@link IllegalArgumentException} with the index of the
+ * feature in the collection and the JSON pointer of the feature.
+ */
+class ValidatingFeatureInputStream extends InputStream {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final String FEATURES = "features";
+  private static final String TYPE = "type";
+  private static final String FEATURE_COLLECTION = "FeatureCollection";
+  private static final int CHUNK_SIZE = 8192;
+
+  private final InputStream source;
+  private final ObjectMapper mapper;
+  private final Function<JsonNode, Optional<String>> validator;
+  private final JsonParser parser;
+  private final byte[] chunk;
+  private final byte[] single;
+
+  // the bytes that have been read from the source, but not yet from this stream; pending[0] is the
+  // byte at offset pendingOffset of the document
+  private byte[] pending;
+  private int pendingStart;
+  private int pendingEnd;
+  private long pendingOffset;
+  // the offset up to which the document has been validated
+  private long validatedOffset;
+  private boolean endOfInput;
+
+  private int depth;
+  private boolean featuresNext;
+  private boolean typeNext;
+  private boolean inFeatures;
+  private boolean collection;
+  private String rootType;
+  private int featureIndex;
+  private TokenBuffer document;
+  private TokenBuffer feature;
+
+  ValidatingFeatureInputStream(
+      InputStream source, ObjectMapper mapper, Function<JsonNode, Optional<String>> validator) {
+    this.source = source;
+    this.mapper = mapper;
+    this.validator = validator;
+    try {
+      this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    this.chunk = new byte[CHUNK_SIZE];
+    this.single = new byte[1];
+    this.pending = new byte[CHUNK_SIZE];
+  }
+
+  /**
+   * Validates the complete document before any byte is decoded. The document is copied to a
+   * temporary file while it is validated, so a mutation is never started with a body that turns
+   * out to be invalid after some features have already been written.
+   *
+   * @return the validated document, the temporary file is deleted when the stream is closed
+   * @throws IllegalArgumentException if the document is invalid
+   */
+  static InputStream validateAll(
+      InputStream source, ObjectMapper mapper, Function<JsonNode, Optional<String>> validator) {
+    Path spool;
+    try {
+      spool = Files.createTempFile("ogcapi-", ".json");
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          "Could not buffer content stream. Reasons: " + e.getMessage(), e);
+    }
+
+    try {
+      try (InputStream validating = new ValidatingFeatureInputStream(source, mapper, validator);
+          OutputStream out = Files.newOutputStream(spool)) {
+        validating.transferTo(out);
+      }
+      return Files.newInputStream(spool, StandardOpenOption.DELETE_ON_CLOSE);
+    } catch (IOException e) {
+      delete(spool);
+      throw new IllegalStateException(
+          "Could not read content stream. Reasons: " + e.getMessage(), e);
+    } catch (RuntimeException e) {
+      delete(spool);
+      throw e;
+    }
+  }
+
+  private static void delete(Path spool) {
+    try {
+      Files.deleteIfExists(spool);
+    } catch (IOException e) {
+      // ignore, the file is in the temporary directory
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    int n = read(single, 0, 1);
+    return n < 0 ? -1 : single[0] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    if (len == 0) {
+      return 0;
+    }
+
+    while (available() == 0) {
+      if (endOfInput) {
+        return -1;
+      }
+      fill();
+    }
+
+    int n = Math.min(len, available());
+    System.arraycopy(pending, pendingStart, b, off, n);
+    pendingStart += n;
+
+    return n;
+  }
+
+  @Override
+  public int available() {
+    long validated = validatedOffset - pendingOffset - pendingStart;
+    return (int) Math.min(pendingEnd - pendingStart, validated);
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+    source.close();
+  }
+
+  private void fill() throws IOException {
+    int n = source.read(chunk);
+    ByteArrayFeeder feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+
+    if (n < 0) {
+      feeder.endOfInput();
+      endOfInput = true;
+    } else if (n > 0) {
+      append(n);
+      feeder.feedInput(chunk, 0, n);
+    }
+
+    try {
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && Objects.nonNull(token)) {
+        next(token);
+      }
+    } catch (JsonProcessingException e) {
+      throw invalid(e.getOriginalMessage());
+    }
+
+    if (endOfInput) {
+      if (depth > 0 || Objects.nonNull(document)) {
+        throw invalid("Unexpected end of input");
+      }
+      validatedOffset = pendingOffset + pendingEnd;
+    }
+  }
+
+  private void append(int n) {
+    if (pendingStart > 0) {
+      System.arraycopy(pending, pendingStart, pending, 0, pendingEnd - pendingStart);
+      pendingOffset += pendingStart;
+      pendingEnd -= pendingStart;
+      pendingStart = 0;
+    }
+    if (pendingEnd + n > pending.length) {
+      pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingEnd + n));
+    }
+    System.arraycopy(chunk, 0, pending, pendingEnd, n);
+    pendingEnd += n;
+  }
+
+  private void next(JsonToken token) throws IOException {
+    if (depth == 0) {
+      document = new TokenBuffer(mapper, false);
+      collection = false;
+      rootType = null;
+    } else if (depth == 2 && inFeatures && token == JsonToken.START_OBJECT) {
+      feature = new TokenBuffer(mapper, false);
+    } else if (depth == 2 && inFeatures && token != JsonToken.END_ARRAY) {
+      throw invalid(
+          String.format(
+              "feature %d (/%s/%d) is not an object", featureIndex, FEATURES, featureIndex));
+    }
+    if (Objects.nonNull(document)) {
+      document.copyCurrentEvent(parser);
+    }
+    if (Objects.nonNull(feature)) {
+      feature.copyCurrentEvent(parser);
+    }
+
+    if (token.isStructStart()) {
+      // an array "features" of the root object is the list of features of a feature collection,
+      // the collection itself is not validated; if the root object has another type, it is
+      // validated as a whole
+      if (depth == 1
+          && featuresNext
+          && token == JsonToken.START_ARRAY
+          && (Objects.isNull(rootType) || FEATURE_COLLECTION.equals(rootType))) {
+        inFeatures = true;
+        collection = true;
+        document = null;
+      }
+      depth++;
+    } else if (token.isStructEnd()) {
+      depth--;
+      if (depth == 1) {
+        inFeatures = false;
+      }
+    } else if (depth == 1 && typeNext && token == JsonToken.VALUE_STRING) {
+      rootType = parser.getText();
+      checkCollectionType();
+    }
+    featuresNext =
+        depth == 1 && token == JsonToken.FIELD_NAME && FEATURES.equals(parser.currentName());
+    typeNext = depth == 1 && token == JsonToken.FIELD_NAME && TYPE.equals(parser.currentName());
+
+    if (depth == 2 && Objects.nonNull(feature) && token == JsonToken.END_OBJECT) {
+      validate(
+          feature, String.format("feature %d (/%s/%d)", featureIndex, FEATURES, featureIndex));
+      feature = null;
+      featureIndex++;
+    } else if (depth == 0 && Objects.nonNull(document)) {
+      validate(document, "feature");
+      document = null;
+    } else if (depth == 0 && collection) {
+      // the type of a feature collection may follow the features
+      if (Objects.isNull(rootType)) {
+        throw invalid("The type of the feature collection is missing");
+      }
+      collection = false;
+    }
+  }
+
+  // a document whose features have already been validated one by one must be a feature collection
+  private void checkCollectionType() {
+    if (collection && !FEATURE_COLLECTION.equals(rootType)) {
+      throw invalid(
+          String.format(
+              "A document with a list of features must have the type '%s', found '%s'",
+              FEATURE_COLLECTION, rootType));
+    }
+  }
+
+  private void validate(TokenBuffer buffer, String location) throws IOException {
+    JsonNode node;
+    try (JsonParser bufferParser = buffer.asParser(mapper)) {
+      node = mapper.readTree(bufferParser);
+    }
+
+    Optional<String> result = validator.apply(node);
+    if (result.isPresent()) {
+      throw invalid(String.format("Invalid %s: %s", location, result.get()));
+    }
+
+    validatedOffset = parser.currentLocation().getByteOffset();
+  }
+
+  private static IllegalArgumentException invalid(String message) {
+    return new IllegalArgumentException(
+        "Request body is invalid, feature mutation is rejected: " + message);
+  }
+}
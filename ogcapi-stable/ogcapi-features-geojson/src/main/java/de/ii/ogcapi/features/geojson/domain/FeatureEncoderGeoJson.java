@@ -7,18 +7,15 @@
  */
 package de.ii.ogcapi.features.geojson.domain;
 
-import static de.ii.xtraplatform.base.domain.util.LambdaWithException.consumerMayThrow;
-
 import com.google.common.collect.ImmutableCollection;
 import de.ii.ogcapi.features.core.domain.FeatureTransformationContext;
 import de.ii.ogcapi.features.core.domain.FeatureTransformationContext.Event;
+import de.ii.ogcapi.features.core.domain.FeatureWriterPipeline;
 import de.ii.xtraplatform.base.domain.LogContext;
 import de.ii.xtraplatform.features.domain.FeatureTokenEncoderDefault;
 import de.ii.xtraplatform.streams.domain.OutputStreamToByteConsumer;
 import java.io.IOException;
-import java.util.Iterator;
 import java.util.Optional;
-import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,26 +23,14 @@ public class FeatureEncoderGeoJson extends FeatureTokenEncoderDefault<EncodingAw
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FeatureEncoderGeoJson.class);
 
-  private final ImmutableCollection<GeoJsonWriter> featureWriters;
+  private final FeatureWriterPipeline<EncodingAwareContextGeoJson, GeoJsonWriter> featureWriters;
   private final FeatureTransformationContextGeoJson transformationContext;
 
   public FeatureEncoderGeoJson(
       FeatureTransformationContextGeoJson transformationContext,
       ImmutableCollection<GeoJsonWriter> featureWriters) {
     this.transformationContext = transformationContext;
-    this.featureWriters = featureWriters;
-  }
-
-  private Consumer<EncodingAwareContextGeoJson> executePipeline(
-      final Iterator<GeoJsonWriter> featureWriterIterator) {
-    return consumerMayThrow(
-        nextTransformationContext -> {
-          if (featureWriterIterator.hasNext()) {
-            featureWriterIterator
-                .next()
-                .onEvent(nextTransformationContext, this.executePipeline(featureWriterIterator));
-          }
-        });
+    this.featureWriters = FeatureWriterPipeline.of(featureWriters);
   }
 
   @Override
@@ -60,13 +45,13 @@ public class FeatureEncoderGeoJson extends FeatureTokenEncoderDefault<EncodingAw
     transformationContext.getState().setNumberMatched(context.metadata().getNumberMatched());
 
     transformationContext.getState().setEvent(FeatureTransformationContext.Event.START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(FeatureTransformationContext.Event.START, context);
   }
 
   @Override
   public void onEnd(EncodingAwareContextGeoJson context) {
     transformationContext.getState().setEvent(FeatureTransformationContext.Event.END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(FeatureTransformationContext.Event.END, context);
 
     try {
       transformationContext.getJson().close();
@@ -87,50 +72,50 @@ public class FeatureEncoderGeoJson extends FeatureTokenEncoderDefault<EncodingAw
             Optional.ofNullable(transformationContext.getCollectionIdForType(context.type())));
 
     transformationContext.getState().setEvent(FeatureTransformationContext.Event.FEATURE_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(FeatureTransformationContext.Event.FEATURE_START, context);
   }
 
   @Override
   public void onFeatureEnd(EncodingAwareContextGeoJson context) {
     transformationContext.getState().setEvent(FeatureTransformationContext.Event.FEATURE_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(FeatureTransformationContext.Event.FEATURE_END, context);
     transformationContext.getState().setCurrentCollectionId(Optional.empty());
   }
 
   @Override
   public void onObjectStart(EncodingAwareContextGeoJson context) {
     transformationContext.getState().setEvent(Event.OBJECT_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.OBJECT_START, context);
   }
 
   @Override
   public void onObjectEnd(EncodingAwareContextGeoJson context) {
     transformationContext.getState().setEvent(Event.OBJECT_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.OBJECT_END, context);
   }
 
   @Override
   public void onArrayStart(EncodingAwareContextGeoJson context) {
     transformationContext.getState().setEvent(Event.ARRAY_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.ARRAY_START, context);
   }
 
   @Override
   public void onArrayEnd(EncodingAwareContextGeoJson context) {
     transformationContext.getState().setEvent(Event.ARRAY_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.ARRAY_END, context);
   }
 
   @Override
   public void onGeometry(EncodingAwareContextGeoJson context) {
     transformationContext.getState().setEvent(Event.GEOMETRY);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.GEOMETRY, context);
   }
 
   @Override
   public void onValue(EncodingAwareContextGeoJson context) {
     transformationContext.getState().setEvent(Event.PROPERTY);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.PROPERTY, context);
   }
 
   @Override
@@ -25,13 +25,13 @@ import de.ii.xtraplatform.geometries.domain.transcode.json.GeoJsonGeometryType;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.immutables.value.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -144,60 +144,85 @@ public abstract class FeatureTransformationContextGeoJson implements FeatureTran
       currentIntervalEnd = null;
       typeTemplate = null;
       this.schema = schema;
+      SchemaRoles roles =
+          (embeddedFeature ? embeddedSchemaRoles : schemaRoles)
+              .computeIfAbsent(schema, s -> new SchemaRoles(s, embeddedFeature));
+      primaryGeometryProperty = roles.primaryGeometryProperty;
+      secondaryGeometryProperty = roles.secondaryGeometryProperty;
+      instantProperty = roles.instantProperty;
+      intervalStartProperty = roles.intervalStartProperty;
+      intervalEndProperty = roles.intervalEndProperty;
+    }
+
+    public boolean timeIsComplete() {
+      return (instantProperty.isEmpty() || currentInstant != null)
+          && (intervalStartProperty.isEmpty() || currentIntervalStart != null)
+          && (intervalEndProperty.isEmpty() || currentIntervalEnd != null);
+    }
+
+    public void setTimeValue(FeatureSchema schema, String value) {
+      if (instantProperty.stream().anyMatch(schema::equals)) {
+        currentInstant = value;
+      } else if (intervalStartProperty.stream().anyMatch(schema::equals)) {
+        currentIntervalStart = value;
+      } else if (intervalEndProperty.stream().anyMatch(schema::equals)) {
+        currentIntervalEnd = value;
+      }
+    }
+  }
+
+  /** The special properties of a feature or embedded feature schema. */
+  private static final class SchemaRoles {
+    private final Set<FeatureSchema> primaryGeometryProperty;
+    private final Set<FeatureSchema> secondaryGeometryProperty;
+    private final Set<FeatureSchema> instantProperty;
+    private final Set<FeatureSchema> intervalStartProperty;
+    private final Set<FeatureSchema> intervalEndProperty;
+
+    private SchemaRoles(FeatureSchema schema, boolean embeddedFeature) {
       if (embeddedFeature) {
         primaryGeometryProperty =
             schema.getAllNestedProperties().stream()
                 .filter(SchemaBase::isEmbeddedPrimaryGeometry)
-                .collect(Collectors.toSet());
+                .collect(ImmutableSet.toImmutableSet());
         secondaryGeometryProperty =
             schema.getAllNestedProperties().stream()
                 .filter(SchemaBase::isEmbeddedSecondaryGeometry)
-                .collect(Collectors.toSet());
+                .collect(ImmutableSet.toImmutableSet());
         instantProperty =
             schema.getAllNestedProperties().stream()
                 .filter(SchemaBase::isEmbeddedPrimaryInstant)
-                .collect(Collectors.toSet());
+                .collect(ImmutableSet.toImmutableSet());
         intervalStartProperty =
             schema.getAllNestedProperties().stream()
                 .filter(SchemaBase::isEmbeddedPrimaryIntervalStart)
-                .collect(Collectors.toSet());
+                .collect(ImmutableSet.toImmutableSet());
         intervalEndProperty =
             schema.getAllNestedProperties().stream()
                 .filter(SchemaBase::isEmbeddedPrimaryIntervalEnd)
-                .collect(Collectors.toSet());
+                .collect(ImmutableSet.toImmutableSet());
       } else {
-        primaryGeometryProperty = schema.getPrimaryGeometry().stream().collect(Collectors.toSet());
+        primaryGeometryProperty =
+            schema.getPrimaryGeometry().stream().collect(ImmutableSet.toImmutableSet());
         secondaryGeometryProperty =
-            schema.getSecondaryGeometry().stream().collect(Collectors.toSet());
-        instantProperty = schema.getPrimaryInstant().stream().collect(Collectors.toSet());
+            schema.getSecondaryGeometry().stream().collect(ImmutableSet.toImmutableSet());
+        instantProperty = schema.getPrimaryInstant().stream().collect(ImmutableSet.toImmutableSet());
         //noinspection ConstantValue
         intervalStartProperty =
             schema.getPrimaryInterval().map(Tuple::first).filter(Objects::nonNull).stream()
-                .collect(Collectors.toSet());
+                .collect(ImmutableSet.toImmutableSet());
         //noinspection ConstantValue
         intervalEndProperty =
             schema.getPrimaryInterval().map(Tuple::second).filter(Objects::nonNull).stream()
-                .collect(Collectors.toSet());
-      }
-    }
-
-    public boolean timeIsComplete() {
-      return (instantProperty.isEmpty() || currentInstant != null)
-          && (intervalStartProperty.isEmpty() || currentIntervalStart != null)
-          && (intervalEndProperty.isEmpty() || currentIntervalEnd != null);
-    }
-
-    public void setTimeValue(FeatureSchema schema, String value) {
-      if (instantProperty.stream().anyMatch(schema::equals)) {
-        currentInstant = value;
-      } else if (intervalStartProperty.stream().anyMatch(schema::equals)) {
-        currentIntervalStart = value;
-      } else if (intervalEndProperty.stream().anyMatch(schema::equals)) {
-        currentIntervalEnd = value;
+                .collect(ImmutableSet.toImmutableSet());
       }
     }
   }
 
+  // the special properties are derived once per schema and response, not per feature
+  private final Map<FeatureSchema, SchemaRoles> schemaRoles = new IdentityHashMap<>();
+  private final Map<FeatureSchema, SchemaRoles> embeddedSchemaRoles = new IdentityHashMap<>();
+
   // TODO: to state
   private final Deque<FeatureState> featuresStates = new ArrayDeque<>();
 
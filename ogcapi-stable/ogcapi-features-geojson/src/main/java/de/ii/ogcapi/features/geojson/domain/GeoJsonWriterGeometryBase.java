@@ -7,14 +7,20 @@
  */
 package de.ii.ogcapi.features.geojson.domain;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.github.azahnen.dagger.annotations.AutoMultiBind;
+import com.google.common.collect.ImmutableSet;
 import de.ii.ogcapi.features.core.domain.FeatureTransformationContext;
 import de.ii.ogcapi.features.geojson.domain.FeatureTransformationContextGeoJson.GeometryState;
+import de.ii.xtraplatform.crs.domain.OgcCrs;
 import de.ii.xtraplatform.features.domain.FeatureSchema;
 import de.ii.xtraplatform.features.domain.SchemaBase;
 import de.ii.xtraplatform.geometries.domain.Geometry;
 import de.ii.xtraplatform.geometries.domain.transcode.json.GeometryEncoderJson;
 import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -24,6 +30,44 @@ public abstract class GeoJsonWriterGeometryBase implements GeoJsonWriter {
 
   protected boolean writeJsonFgExtensions;
   protected boolean writeSecondaryGeometry;
+  protected boolean targetCrsIsCrs84;
+
+  // the geometry properties of each feature type schema, derived once per response
+  private final Map<FeatureSchema, GeometryRoles> geometryRoles = new IdentityHashMap<>();
+
+  // the encoder is reused for all geometries that are written to the same generator with the same
+  // precision, which is the case for all geometries of a response in the common case
+  private GeometryEncoderJson geometryEncoder;
+  private JsonGenerator geometryEncoderJson;
+  private List<Integer> geometryEncoderPrecision;
+
+  /** The geometry properties of a feature type schema, by role. */
+  protected static final class GeometryRoles {
+    public final Set<FeatureSchema> primary;
+    public final Set<FeatureSchema> secondary;
+    public final Set<FeatureSchema> embeddedPrimary;
+    public final Set<FeatureSchema> embeddedSecondary;
+
+    GeometryRoles(FeatureSchema schema) {
+      List<FeatureSchema> properties = schema.getAllNestedProperties();
+      this.primary =
+          properties.stream()
+              .filter(SchemaBase::isPrimaryGeometry)
+              .collect(ImmutableSet.toImmutableSet());
+      this.secondary =
+          properties.stream()
+              .filter(SchemaBase::isSecondaryGeometry)
+              .collect(ImmutableSet.toImmutableSet());
+      this.embeddedPrimary =
+          properties.stream()
+              .filter(SchemaBase::isEmbeddedPrimaryGeometry)
+              .collect(ImmutableSet.toImmutableSet());
+      this.embeddedSecondary =
+          properties.stream()
+              .filter(SchemaBase::isEmbeddedSecondaryGeometry)
+              .collect(ImmutableSet.toImmutableSet());
+    }
+  }
 
   @Override
   public abstract GeoJsonWriterGeometryBase create();
@@ -34,6 +78,10 @@ public abstract class GeoJsonWriterGeometryBase implements GeoJsonWriter {
       throws IOException {
     writeJsonFgExtensions = writeJsonFgExtensions(context.encoding());
     writeSecondaryGeometry = writeSecondaryGeometry(context.encoding());
+    targetCrsIsCrs84 =
+        OgcCrs.CRS84.equals(context.encoding().getTargetCrs())
+            || OgcCrs.CRS84h.equals(context.encoding().getTargetCrs());
+    geometryRoles.clear();
 
     next.accept(context);
   }
@@ -54,13 +102,11 @@ public abstract class GeoJsonWriterGeometryBase implements GeoJsonWriter {
             context.encoding().pauseBuffering();
             context.encoding().getJson().writeFieldName(geomPropertyName(context.schema()));
             geometry.accept(
-                new GeometryEncoderJson(
+                getGeometryEncoder(
                     context.encoding().getJson(),
-                    !writeJsonFgExtensions,
                     context.schema().get().isSecondaryGeometry()
                         ? context.encoding().getWgs84GeometryPrecision()
                         : context.encoding().getGeometryPrecision()));
-            context.encoding().getJson().flush();
             context.encoding().continueBuffering();
           }
         } else {
@@ -102,6 +148,25 @@ public abstract class GeoJsonWriterGeometryBase implements GeoJsonWriter {
     next.accept(context);
   }
 
+  /**
+   * @param schema the schema of a feature or embedded feature
+   * @return the geometry properties of the schema by role
+   */
+  protected GeometryRoles getGeometryRoles(FeatureSchema schema) {
+    return geometryRoles.computeIfAbsent(schema, GeometryRoles::new);
+  }
+
+  private GeometryEncoderJson getGeometryEncoder(JsonGenerator json, List<Integer> precision) {
+    if (geometryEncoder == null
+        || geometryEncoderJson != json
+        || !precision.equals(geometryEncoderPrecision)) {
+      this.geometryEncoder = new GeometryEncoderJson(json, !writeJsonFgExtensions, precision);
+      this.geometryEncoderJson = json;
+      this.geometryEncoderPrecision = precision;
+    }
+    return geometryEncoder;
+  }
+
   private boolean isGeomProperty(
       Optional<FeatureSchema> property,
       FeatureTransformationContextGeoJson transformationContext,
@@ -157,7 +222,6 @@ public abstract class GeoJsonWriterGeometryBase implements GeoJsonWriter {
       context.encoding().pauseBuffering();
       context.encoding().getJson().writeFieldName(geomPropertyName(context.schema()));
       context.encoding().getJson().writeNull();
-      context.encoding().getJson().flush();
       context.encoding().continueBuffering();
     }
   }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.geojson.app
+
+import com.google.common.collect.ImmutableList
+import de.ii.ogcapi.features.core.domain.FeatureTransformationContext.Event
+import de.ii.ogcapi.features.core.domain.FeatureWriterPipeline
+import de.ii.ogcapi.features.geojson.domain.EncodingAwareContextGeoJson
+import de.ii.ogcapi.features.geojson.domain.GeoJsonWriter
+import spock.lang.Specification
+
+class GeoJsonWriterPipelineSpec extends Specification {
+
+    def "only writers that override the handler of an event are called for that event"() {
+        given:
+        GeoJsonWriterSkeleton skeleton = new GeoJsonWriterSkeleton()
+        GeoJsonWriterProperties properties = new GeoJsonWriterProperties()
+
+        when:
+        FeatureWriterPipeline<EncodingAwareContextGeoJson, GeoJsonWriter> pipeline = FeatureWriterPipeline.of(ImmutableList.of(skeleton, properties))
+
+        then:
+        pipeline.getWriters(Event.START) == [skeleton]
+        pipeline.getWriters(Event.FEATURE_START) == [skeleton]
+        pipeline.getWriters(Event.FEATURE_END) == [skeleton, properties]
+        pipeline.getWriters(Event.OBJECT_START) == [skeleton, properties]
+        pipeline.getWriters(Event.PROPERTY) == [properties]
+        pipeline.getWriters(Event.GEOMETRY) == [properties]
+    }
+
+}
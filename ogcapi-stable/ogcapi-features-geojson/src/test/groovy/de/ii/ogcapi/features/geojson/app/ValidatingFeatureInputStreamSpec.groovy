@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.geojson.app
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.util.function.Function
+
+class ValidatingFeatureInputStreamSpec extends Specification {
+
+    static final Function<JsonNode, Optional<String>> VALIDATOR = { JsonNode feature ->
+        feature.path("type").asText() == "Feature"
+                ? Optional.empty()
+                : Optional.of("type must be 'Feature'".toString())
+    } as Function<JsonNode, Optional<String>>
+
+    // a source that returns a few bytes per read to exercise the incremental parsing
+    static InputStream trickle(String content) {
+        def bytes = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))
+        return new FilterInputStream(bytes) {
+            @Override
+            int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3))
+            }
+        }
+    }
+
+    static String readAll(String content, Function<JsonNode, Optional<String>> validator = VALIDATOR) {
+        def stream = new ValidatingFeatureInputStream(trickle(content), new ObjectMapper(), validator)
+        return new String(stream.readAllBytes(), StandardCharsets.UTF_8)
+    }
+
+    def "valid documents are passed through unchanged"() {
+        expect:
+        readAll(content) == content
+
+        where:
+        content << [
+                '{"type":"Feature","properties":{"name":"a"},"geometry":null}',
+                '{"type":"FeatureCollection","features":[{"type":"Feature","properties":{"list":[1,2,{"x":[]}]}},{"type":"Feature"}]}',
+                '{"features":[],"type":"FeatureCollection"}'
+        ]
+    }
+
+    def "the members of a feature collection are validated one by one"() {
+        given:
+        def validated = []
+        def validator = { JsonNode feature ->
+            validated << feature.path("id").asInt()
+            VALIDATOR.apply(feature)
+        } as Function<JsonNode, Optional<String>>
+
+        when:
+        readAll('{"type":"FeatureCollection","features":[{"type":"Feature","id":1},{"type":"Feature","id":2}]}', validator)
+
+        then:
+        validated == [1, 2]
+    }
+
+    def "the decoder only receives bytes of features that have been validated"() {
+        given:
+        def content = '{"type":"FeatureCollection","features":[{"type":"Feature","id":1},{"type":"Other","id":2}]}'
+        def stream = new ValidatingFeatureInputStream(trickle(content), new ObjectMapper(), VALIDATOR)
+        def received = new ByteArrayOutputStream()
+
+        when:
+        int b
+        while ((b = stream.read()) >= 0) {
+            received.write(b)
+        }
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("feature 1 (/features/1)")
+        e.message.contains("type must be 'Feature'")
+        received.toString(StandardCharsets.UTF_8) == '{"type":"FeatureCollection","features":[{"type":"Feature","id":1}'
+    }
+
+    def "an invalid single feature or invalid JSON is rejected"() {
+        when:
+        readAll(content)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.startsWith("Request body is invalid, feature mutation is rejected")
+
+        where:
+        content << [
+                '{"type":"FeatureCollection"}',
+                '{"type":"FeatureCollection","features":[{"type":"Feature"},]}',
+                '{"type":"Feature","properties":{'
+        ]
+    }
+
+    def "a document is only split into features, if it is a feature collection"() {
+        given:
+        def validator = { JsonNode feature ->
+            feature.path("properties").path("valid").asBoolean(true)
+                    ? VALIDATOR.apply(feature)
+                    : Optional.of("properties are invalid".toString())
+        } as Function<JsonNode, Optional<String>>
+
+        when:
+        readAll(content, validator)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains(message)
+
+        where:
+        content                                                                             || message
+        '{"type":"Feature","features":1,"properties":{"valid":false}}'                      || "Invalid feature: properties are invalid"
+        '{"type":"Feature","features":[{"type":"Feature"}],"properties":{"valid":false}}' || "Invalid feature: properties are invalid"
+        '{"type":"Other","features":[]}'                                                    || "Invalid feature: type must be 'Feature'"
+        '{"features":[],"type":"Other"}'                                                    || "must have the type 'FeatureCollection', found 'Other'"
+        '{"features":[]}'                                                                   || "The type of the feature collection is missing"
+        '{"type":"FeatureCollection","features":[1]}'                                       || "feature 0 (/features/0) is not an object"
+    }
+
+    def "a document is validated completely before it is passed on"() {
+        given:
+        def validated = []
+        def validator = { JsonNode feature ->
+            validated << feature.path("id").asInt()
+            VALIDATOR.apply(feature)
+        } as Function<JsonNode, Optional<String>>
+
+        when:
+        ValidatingFeatureInputStream.validateAll(trickle(content), new ObjectMapper(), validator)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("feature 2 (/features/2)")
+        validated == [1, 2, 3]
+
+        where:
+        content = '{"type":"FeatureCollection","features":[{"type":"Feature","id":1},{"type":"Feature","id":2},{"type":"Other","id":3}]}'
+    }
+
+    def "a validated document is passed on unchanged"() {
+        given:
+        def content = '{"type":"FeatureCollection","features":[{"type":"Feature","id":1},{"type":"Feature","id":2}]}'
+
+        when:
+        def stream = ValidatingFeatureInputStream.validateAll(trickle(content), new ObjectMapper(), VALIDATOR)
+        def result = new String(stream.readAllBytes(), StandardCharsets.UTF_8)
+        stream.close()
+
+        then:
+        result == content
+    }
+}
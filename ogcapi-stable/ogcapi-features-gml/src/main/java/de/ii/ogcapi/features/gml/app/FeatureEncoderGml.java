@@ -7,19 +7,16 @@
  */
 package de.ii.ogcapi.features.gml.app;
 
-import static de.ii.xtraplatform.base.domain.util.LambdaWithException.consumerMayThrow;
-
 import com.google.common.collect.ImmutableCollection;
 import de.ii.ogcapi.features.core.domain.FeatureTransformationContext.Event;
+import de.ii.ogcapi.features.core.domain.FeatureWriterPipeline;
 import de.ii.ogcapi.features.gml.domain.EncodingAwareContextGml;
 import de.ii.ogcapi.features.gml.domain.FeatureTransformationContextGml;
 import de.ii.ogcapi.features.gml.domain.GmlWriter;
 import de.ii.ogcapi.features.gml.domain.ModifiableEncodingAwareContextGml;
 import de.ii.xtraplatform.features.domain.FeatureTokenEncoderDefault;
 import de.ii.xtraplatform.streams.domain.OutputStreamToByteConsumer;
-import java.util.Iterator;
 import java.util.Optional;
-import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,7 +26,7 @@ import org.slf4j.LoggerFactory;
 public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareContextGml> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FeatureEncoderGml.class);
-  private final ImmutableCollection<GmlWriter> featureWriters;
+  private final FeatureWriterPipeline<EncodingAwareContextGml, GmlWriter> featureWriters;
   private final FeatureTransformationContextGml transformationContext;
 
   public FeatureEncoderGml(
@@ -37,19 +34,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
       ImmutableCollection<GmlWriter> featureWriters) {
     super();
     this.transformationContext = transformationContext;
-    this.featureWriters = featureWriters;
-  }
-
-  private Consumer<EncodingAwareContextGml> executePipeline(
-      final Iterator<GmlWriter> featureWriterIterator) {
-    return consumerMayThrow(
-        nextTransformationContext -> {
-          if (featureWriterIterator.hasNext()) {
-            featureWriterIterator
-                .next()
-                .onEvent(nextTransformationContext, this.executePipeline(featureWriterIterator));
-          }
-        });
+    this.featureWriters = FeatureWriterPipeline.of(featureWriters);
   }
 
   @Override
@@ -63,13 +48,13 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
     transformationContext.getState().setNumberMatched(context.metadata().getNumberMatched());
 
     transformationContext.getState().setEvent(Event.START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.START, context);
   }
 
   @Override
   public void onEnd(EncodingAwareContextGml context) {
     transformationContext.getState().setEvent(Event.END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.END, context);
   }
 
   @Override
@@ -84,7 +69,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
         .setCurrentCollectionId(
             Optional.ofNullable(transformationContext.getCollectionIdForType(context.type())));
     transformationContext.getState().setEvent(Event.FEATURE_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.FEATURE_START, context);
   }
 
   @Override
@@ -93,7 +78,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
       LOGGER.trace("GML - Feature End: {}", context.schema().orElseThrow().getName());
     }
     transformationContext.getState().setEvent(Event.FEATURE_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.FEATURE_END, context);
   }
 
   @Override
@@ -102,7 +87,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
       LOGGER.trace("GML - Object Start: {}", context.schema().orElseThrow().getName());
     }
     transformationContext.getState().setEvent(Event.OBJECT_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.OBJECT_START, context);
   }
 
   @Override
@@ -111,7 +96,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
       LOGGER.trace("GML - Object End: {}", context.schema().orElseThrow().getName());
     }
     transformationContext.getState().setEvent(Event.OBJECT_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.OBJECT_END, context);
   }
 
   @Override
@@ -120,7 +105,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
       LOGGER.trace("GML - Array Start: {}", context.schema().orElseThrow().getName());
     }
     transformationContext.getState().setEvent(Event.ARRAY_START);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.ARRAY_START, context);
   }
 
   @Override
@@ -129,7 +114,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
       LOGGER.trace("GML - Array End: {}", context.schema().orElseThrow().getName());
     }
     transformationContext.getState().setEvent(Event.ARRAY_END);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.ARRAY_END, context);
   }
 
   @Override
@@ -139,7 +124,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
           "GML - Geometry: {} {}", context.schema().orElseThrow().getName(), context.geometry());
     }
     transformationContext.getState().setEvent(Event.GEOMETRY);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.GEOMETRY, context);
   }
 
   @Override
@@ -148,7 +133,7 @@ public class FeatureEncoderGml extends FeatureTokenEncoderDefault<EncodingAwareC
       LOGGER.trace("GML - Value: {} {}", context.schema().orElseThrow().getName(), context.value());
     }
     transformationContext.getState().setEvent(Event.PROPERTY);
-    executePipeline(featureWriters.iterator()).accept(context);
+    featureWriters.execute(Event.PROPERTY, context);
   }
 
   @Override
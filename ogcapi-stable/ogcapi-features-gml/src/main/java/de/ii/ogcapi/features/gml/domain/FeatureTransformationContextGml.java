@@ -17,12 +17,18 @@ import de.ii.xtraplatform.features.domain.FeatureSchema;
 import de.ii.xtraplatform.features.gml.domain.GmlVersion;
 import de.ii.xtraplatform.geometries.domain.GeometryType;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.IntStream;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
@@ -49,6 +55,13 @@ public abstract class FeatureTransformationContextGml implements FeatureTransfor
   private static final String SURFACE_MEMBER_PLACEHOLDER = "_zz_SURFACE_MEMBER_i_zz_";
   private static final String PROPERTY_LINKS_PLACEHOLDER = "_zz_PROPERTY_LINKS_i_zz_";
   private static final String REF_SUFFIX_PLACEHOLDER = "_zz_REF_SUFFIX_i_zz_";
+  private static final String PLACEHOLDER_DELIMITER = "_zz_";
+  private static final String XML_ATTRIBUTE_PREFIX = "_zz_XML_ATTRIBUTE_";
+  private static final String PROPERTY_LINKS_PREFIX = "_zz_PROPERTY_LINKS_";
+  private static final String REF_SUFFIX_PREFIX = "_zz_REF_SUFFIX_";
+  private static final String COMMENT_START = "<!-- ";
+  private static final String COMMENT_END = " -->";
+  private static final int CHUNK_SIZE = 16 * 1024;
 
   /**
    * Internal string buffer to buffer information. The buffer is flushed for every feature. Also
@@ -61,6 +74,14 @@ public abstract class FeatureTransformationContextGml implements FeatureTransfor
 
   private final XMLStreamWriter xmlWriter;
 
+  // the buffer is encoded to UTF-8 in chunks, without creating an intermediate string
+  private final CharsetEncoder utf8 =
+      StandardCharsets.UTF_8
+          .newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+
   // Tracks whether any start element has been written. Used by endDocument() to skip
   // writeEndDocument() on an empty stream: a single-feature item request whose query
   // returns no rows produces no root element (the root is written inside onFeatureStart),
@@ -576,6 +597,9 @@ public abstract class FeatureTransformationContextGml implements FeatureTransfor
    * <p>3. If the tag of a GML object element is determined from a property, we only know the tag
    * once we have processed the properties.
    *
+   * <p>The placeholders are resolved in a single pass over the buffer, while the content is encoded
+   * as UTF-8 into a reused byte chunk that is written to the response stream.
+   *
    * @throws IOException the buffer could not be written to the stream
    */
   public void flush() throws IOException {
@@ -586,49 +610,11 @@ public abstract class FeatureTransformationContextGml implements FeatureTransfor
     }
 
     if (!buffer.isEmpty()) {
-      // replace placeholders
-      getState()
-          .getPlaceholders()
-          .forEach(
-              (key, value) -> {
-                // Most placeholders cannot be empty - if they are, there is an error that
-                // should be reported. XML_ATTRIBUTE placeholders are an exception: an empty
-                // value means "no XML attribute was added", and the placeholder is removed
-                // in place (inside attribute position).
-                // REF_SUFFIX placeholders are also allowed to be empty: an empty value means the
-                // feature reference has no resolvable object type, so the placeholder is removed in
-                // place (no suffix is appended to the property element name).
-                if (!key.startsWith("_zz_XML_ATTRIBUTE_")
-                    && !key.startsWith("_zz_PROPERTY_LINKS_")
-                    && !key.startsWith("_zz_REF_SUFFIX_")
-                    && value.isEmpty()) {
-                  return;
-                }
-                // PROPERTY_LINKS placeholders live inside an XML comment ("<!-- KEY -->").
-                // When empty, drop the entire comment from the buffer; otherwise the
-                // unwrapped key is replaced in place inside the comment.
-                if (key.startsWith("_zz_PROPERTY_LINKS_") && value.isEmpty()) {
-                  String wrapped = "<!-- " + key + " -->";
-                  int idx = buffer.lastIndexOf(wrapped);
-                  if (idx != -1) {
-                    buffer.delete(idx, idx + wrapped.length());
-                  }
-                  return;
-                }
-                // variable object elements appear twice - opening and closing tag
-                IntStream.rangeClosed(1, 2)
-                    .forEach(
-                        i -> {
-                          int idx = buffer.lastIndexOf(key);
-                          if (idx != -1) {
-                            buffer.replace(idx, idx + key.length(), value);
-                          }
-                        });
-              });
-
-      int unresolvedPos = buffer.indexOf("_zz_");
+      Map<String, String> placeholders = getState().getPlaceholders();
+
+      int unresolvedPos = findUnresolvedPlaceholder(buffer, placeholders);
       if (unresolvedPos == -1) {
-        getOutputStream().write(buffer.toString().getBytes());
+        writeResolved(buffer, placeholders, utf8, chunk, getOutputStream());
       } else {
         if (LOGGER.isErrorEnabled()) {
           LOGGER.error(
@@ -643,6 +629,119 @@ public abstract class FeatureTransformationContextGml implements FeatureTransfor
     }
   }
 
+  /**
+   * Package-private and static for unit testing.
+   *
+   * @return the position of the first placeholder in the buffer that cannot be resolved, or -1
+   */
+  static int findUnresolvedPlaceholder(StringBuilder buffer, Map<String, String> placeholders) {
+    int pos = buffer.indexOf(PLACEHOLDER_DELIMITER);
+    while (pos != -1) {
+      int end = buffer.indexOf(PLACEHOLDER_DELIMITER, pos + PLACEHOLDER_DELIMITER.length());
+      if (end == -1) {
+        return pos;
+      }
+      end += PLACEHOLDER_DELIMITER.length();
+
+      String key = buffer.substring(pos, end);
+      String value = placeholders.get(key);
+      // Most placeholders cannot be empty - if they are, there is an error that should be
+      // reported. XML_ATTRIBUTE placeholders are an exception: an empty value means "no XML
+      // attribute was added", and the placeholder is removed in place (inside attribute position).
+      // REF_SUFFIX placeholders are also allowed to be empty: an empty value means the feature
+      // reference has no resolvable object type, so no suffix is appended to the property element
+      // name. Empty PROPERTY_LINKS placeholders are removed together with the enclosing comment.
+      if (Objects.isNull(value)
+          || (value.isEmpty()
+              && !key.startsWith(XML_ATTRIBUTE_PREFIX)
+              && !key.startsWith(PROPERTY_LINKS_PREFIX)
+              && !key.startsWith(REF_SUFFIX_PREFIX))) {
+        return pos;
+      }
+
+      pos = buffer.indexOf(PLACEHOLDER_DELIMITER, end);
+    }
+    return -1;
+  }
+
+  /**
+   * Writes the buffer with resolved placeholders as UTF-8 to the output stream. All placeholders
+   * must be resolvable, see {@link #findUnresolvedPlaceholder(StringBuilder, Map)}. Package-private
+   * and static for unit testing.
+   */
+  static void writeResolved(
+      StringBuilder buffer,
+      Map<String, String> placeholders,
+      CharsetEncoder utf8,
+      ByteBuffer chunk,
+      OutputStream outputStream)
+      throws IOException {
+    utf8.reset();
+
+    int start = 0;
+    int pos = buffer.indexOf(PLACEHOLDER_DELIMITER);
+    while (pos != -1) {
+      int end =
+          buffer.indexOf(PLACEHOLDER_DELIMITER, pos + PLACEHOLDER_DELIMITER.length())
+              + PLACEHOLDER_DELIMITER.length();
+      String key = buffer.substring(pos, end);
+      String value = placeholders.get(key);
+
+      // PROPERTY_LINKS placeholders live inside an XML comment ("<!-- KEY -->"). When empty, the
+      // entire comment is dropped; otherwise the key is replaced in place inside the comment.
+      if (value.isEmpty()
+          && key.startsWith(PROPERTY_LINKS_PREFIX)
+          && pos - COMMENT_START.length() >= start
+          && end + COMMENT_END.length() <= buffer.length()
+          && COMMENT_START.contentEquals(buffer.subSequence(pos - COMMENT_START.length(), pos))
+          && COMMENT_END.contentEquals(buffer.subSequence(end, end + COMMENT_END.length()))) {
+        encode(buffer, start, pos - COMMENT_START.length(), utf8, chunk, outputStream);
+        start = end + COMMENT_END.length();
+      } else {
+        encode(buffer, start, pos, utf8, chunk, outputStream);
+        encode(value, 0, value.length(), utf8, chunk, outputStream);
+        start = end;
+      }
+
+      pos = buffer.indexOf(PLACEHOLDER_DELIMITER, start);
+    }
+    encode(buffer, start, buffer.length(), utf8, chunk, outputStream);
+
+    writeChunk(chunk, outputStream);
+  }
+
+  private static void encode(
+      CharSequence chars,
+      int start,
+      int end,
+      CharsetEncoder utf8,
+      ByteBuffer chunk,
+      OutputStream outputStream)
+      throws IOException {
+    if (start >= end) {
+      return;
+    }
+    CharBuffer in = CharBuffer.wrap(chars, start, end);
+    while (true) {
+      CoderResult result = utf8.encode(in, chunk, false);
+      if (result.isOverflow()) {
+        writeChunk(chunk, outputStream);
+      } else if (result.isUnderflow()) {
+        return;
+      } else {
+        result.throwException();
+      }
+    }
+  }
+
+  private static void writeChunk(ByteBuffer chunk, OutputStream outputStream)
+      throws IOException {
+    if (chunk.position() > 0) {
+      outputStream.write(chunk.array(), 0, chunk.position());
+      chunk.clear();
+    }
+  }
+
   // -------------------------------------------------------------------------
   // GML object / element management
   // -------------------------------------------------------------------------
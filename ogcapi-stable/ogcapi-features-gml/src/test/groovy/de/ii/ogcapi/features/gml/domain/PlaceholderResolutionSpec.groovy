@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.gml.domain
+
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+
+// The feature buffer is written in a single pass: placeholders are replaced while the content is
+// encoded as UTF-8 into a small byte chunk, so the chunk has to be written several times.
+class PlaceholderResolutionSpec extends Specification {
+
+    def utf8 = StandardCharsets.UTF_8.newEncoder()
+    def chunk = ByteBuffer.allocate(8)
+    def out = new ByteArrayOutputStream()
+
+    String resolve(String buffer, Map<String, String> placeholders) {
+        FeatureTransformationContextGml.writeResolved(new StringBuilder(buffer), placeholders, utf8, chunk, out)
+        return out.toString(StandardCharsets.UTF_8)
+    }
+
+    def 'all placeholders are replaced, also if they appear twice'() {
+        given:
+        def buffer = '<_zz_OBJECT_ELEMENT_1_zz_ gml:id="_zz_GML_ID_1_zz_"_zz_XML_ATTRIBUTE_1_zz_>Straße</_zz_OBJECT_ELEMENT_1_zz_>'
+        def placeholders = [
+                '_zz_OBJECT_ELEMENT_1_zz_': 'ns:Gebäude',
+                '_zz_GML_ID_1_zz_'        : 'id.1',
+                '_zz_XML_ATTRIBUTE_1_zz_' : ''
+        ]
+
+        expect:
+        FeatureTransformationContextGml.findUnresolvedPlaceholder(new StringBuilder(buffer), placeholders) == -1
+        resolve(buffer, placeholders) == '<ns:Gebäude gml:id="id.1">Straße</ns:Gebäude>'
+    }
+
+    // a non-empty value is kept inside the comment; property links embed '--><!--' to emit one
+    // comment per link, so the second row checks that the value is inserted verbatim
+    def 'an empty property links placeholder is removed together with its comment'() {
+        expect:
+        resolve('<a><!-- _zz_PROPERTY_LINKS_1_zz_ --><b/></a>', ['_zz_PROPERTY_LINKS_1_zz_': value]) == result
+
+        where:
+        value                   || result
+        ''                      || '<a><b/></a>'
+        ' x --><!-- y '         || '<a><!--  x --><!-- y  --><b/></a>'
+    }
+
+    def 'missing or empty required placeholders are reported'() {
+        expect:
+        FeatureTransformationContextGml.findUnresolvedPlaceholder(new StringBuilder(buffer), placeholders) == position
+
+        where:
+        buffer                           | placeholders                      || position
+        '<a id="_zz_GML_ID_1_zz_"/>'     | [:]                               || 7
+        '<a id="_zz_GML_ID_1_zz_"/>'     | ['_zz_GML_ID_1_zz_': '']          || 7
+        '<a_zz_REF_SUFFIX_2_zz_/>'       | ['_zz_REF_SUFFIX_2_zz_': '']      || -1
+        '<a>_zz_</a>'                    | [:]                               || 3
+    }
+}
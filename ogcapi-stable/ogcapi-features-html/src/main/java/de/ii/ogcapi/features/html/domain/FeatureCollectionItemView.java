@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.html.domain;
+
+import de.ii.ogcapi.features.html.app.FeatureHtml;
+import io.dropwizard.views.common.View;
+import java.util.List;
+
+/**
+ * A single feature of a streamed feature collection page. The feature is rendered with the same
+ * list item template as in {@link FeatureCollectionView} and in the context of the page, so the
+ * markup is identical to a page that is not streamed.
+ */
+public final class FeatureCollectionItemView extends View {
+
+  private final FeatureCollectionView collection;
+  private final List<FeatureHtml> listItems;
+
+  FeatureCollectionItemView(FeatureCollectionView collection, FeatureHtml feature) {
+    super("featureCollectionItem.mustache");
+    this.collection = collection;
+    this.listItems = List.of(feature);
+  }
+
+  public FeatureCollectionView collection() {
+    return collection;
+  }
+
+  public List<FeatureHtml> listItems() {
+    return listItems;
+  }
+}
@@ -36,4 +36,22 @@ public abstract class FeatureCollectionView extends FeaturesView {
   }
 
   public abstract List<Map.Entry<String, String>> jsTranslations();
+
+  // when the page is streamed, the page start, the features and the page end are rendered
+  // separately
+
+  @Value.Default
+  public boolean renderPageStart() {
+    return true;
+  }
+
+  @Value.Default
+  public boolean renderFeatureList() {
+    return true;
+  }
+
+  @Value.Default
+  public boolean renderPageEnd() {
+    return true;
+  }
 }
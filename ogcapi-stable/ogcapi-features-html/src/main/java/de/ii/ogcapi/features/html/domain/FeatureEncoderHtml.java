@@ -14,6 +14,7 @@ import de.ii.ogcapi.features.html.app.ImmutableFeatureCollectionDetailsView;
 import de.ii.ogcapi.features.html.app.ModifiableFeatureHtml;
 import de.ii.ogcapi.features.html.app.ModifiablePropertyHtml;
 import de.ii.ogcapi.features.html.app.PropertyHtml;
+import de.ii.ogcapi.features.html.domain.FeaturesHtmlConfiguration.POSITION;
 import de.ii.ogcapi.foundation.domain.I18n;
 import de.ii.ogcapi.html.domain.NavigationDTO;
 import de.ii.xtraplatform.features.domain.FeatureObjectEncoder;
@@ -26,10 +27,13 @@ import de.ii.xtraplatform.web.domain.MustacheRenderer;
 import io.dropwizard.views.common.View;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,10 +43,17 @@ public class FeatureEncoderHtml extends FeatureObjectEncoder<PropertyHtml, Featu
   private static final Logger LOGGER = LoggerFactory.getLogger(FeatureEncoderHtml.class);
 
   private final FeatureTransformationContextHtml transformationContext;
+  private final Set<Map.Entry<String, String>> featureTitles;
+  private final OutputStreamWriter writer;
   private String currentFeatureId;
+  // the page that is streamed, built once, the features are rendered in its context
+  private FeatureCollectionView streamedPage;
 
   public FeatureEncoderHtml(FeatureTransformationContextHtml transformationContext) {
     this.transformationContext = transformationContext;
+    this.featureTitles = new LinkedHashSet<>();
+    // TODO: FeatureTokenEncoderBytes.getOutputStream
+    this.writer = new OutputStreamWriter(new OutputStreamToByteConsumer(this::push));
   }
 
   @Override
@@ -57,6 +68,18 @@ public class FeatureEncoderHtml extends FeatureObjectEncoder<PropertyHtml, Featu
 
   @Override
   public void onStart(ModifiableContext context) {
+    setPagination(context);
+
+    if (transformationContext.isStreaming()) {
+      // the features are not known yet, so the map position cannot depend on them
+      if (transformationContext.collectionView().mapPosition() == POSITION.AUTO) {
+        transformationContext.collectionView().setMapPosition(POSITION.TOP);
+      }
+      this.streamedPage = renderPart(true, false);
+    }
+  }
+
+  private void setPagination(ModifiableContext context) {
     // Single-shot responses (ad-hoc queries, and stored queries with supportPaging=false) are not
     // paged, so no pagination controls are generated. Paged stored queries fall through and page by
     // offset only (there is no 'limit' query parameter for stored queries).
@@ -247,12 +270,22 @@ public class FeatureEncoderHtml extends FeatureObjectEncoder<PropertyHtml, Featu
       feature.itemType("http://schema.org/Place");
     }
 
-    transformationContext.collectionView().addFeatures(feature);
+    if (transformationContext.isStreaming()) {
+      // only the id and the title of the feature are retained for the map client
+      featureTitles.add(Map.entry(feature.getIdValue(), feature.getName()));
+      renderView(new FeatureCollectionItemView(streamedPage, feature));
+    } else {
+      transformationContext.collectionView().addFeatures(feature);
+    }
   }
 
   @Override
   public void onEnd(ModifiableContext context) {
-    if (transformationContext.isFeatureCollection()) {
+    if (transformationContext.isStreaming()) {
+      transformationContext.collectionView().setFeatureTitles(featureTitles);
+      renderPart(false, true);
+
+    } else if (transformationContext.isFeatureCollection()) {
       renderView(
           new ImmutableFeatureCollectionView.Builder()
               .from(transformationContext.collectionView())
@@ -324,9 +357,19 @@ public class FeatureEncoderHtml extends FeatureObjectEncoder<PropertyHtml, Featu
         .map(link -> PropertyLinkResolver.resolve(link, apiUri, collectionUri, featureUri));
   }
 
+  private FeatureCollectionView renderPart(boolean pageStart, boolean pageEnd) {
+    FeatureCollectionView page =
+        new ImmutableFeatureCollectionView.Builder()
+            .from(transformationContext.collectionView())
+            .renderPageStart(pageStart)
+            .renderFeatureList(false)
+            .renderPageEnd(pageEnd)
+            .build();
+    renderView(page);
+    return page;
+  }
+
   private void renderView(View view) {
-    // TODO: FeatureTokenEncoderBytes.getOutputStream
-    OutputStreamWriter writer = new OutputStreamWriter(new OutputStreamToByteConsumer(this::push));
     try {
       ((MustacheRenderer) transformationContext.mustacheRenderer()).render(view, writer);
       writer.flush();
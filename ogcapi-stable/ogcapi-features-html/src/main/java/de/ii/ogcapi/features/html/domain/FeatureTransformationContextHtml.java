@@ -9,6 +9,7 @@ package de.ii.ogcapi.features.html.domain;
 
 import de.ii.ogcapi.features.core.domain.FeatureTransformationContext;
 import de.ii.ogcapi.html.domain.HtmlConfiguration;
+import de.ii.ogcapi.html.domain.MapClient;
 import de.ii.xtraplatform.web.domain.MustacheRenderer;
 import java.util.Objects;
 import org.immutables.value.Value;
@@ -29,6 +30,13 @@ public interface FeatureTransformationContextHtml extends FeatureTransformationC
     return Objects.equals(htmlConfiguration().getSchemaOrgEnabled(), true) && !isQueryExpression();
   }
 
+  @Value.Derived
+  default boolean isStreaming() {
+    return isFeatureCollection()
+        && Objects.equals(featuresHtmlConfiguration().getStreaming(), true)
+        && collectionView().mapClientType() != MapClient.Type.CESIUM;
+  }
+
   @Value.Derived
   default FeaturesHtmlConfiguration featuresHtmlConfiguration() {
     return getConfiguration(FeaturesHtmlConfiguration.class);
@@ -288,6 +288,23 @@ public interface FeaturesHtmlConfiguration
   @Nullable
   List<Integer> getLimitSelector();
 
+  /**
+   * @langEn If `true`, feature collection pages are streamed: the start of the page including the
+   *     pagination and the map is sent first, each feature is sent as soon as it is available, and
+   *     the end of the page is sent last. With `mapPosition` set to `AUTO` the map is placed at the
+   *     top, since the features are not known in advance. Not supported with the `CESIUM` map
+   *     client.
+   * @langDe Bei `true` werden Seiten mit Feature Collections gestreamt: Der Anfang der Seite
+   *     einschließlich der Seitennavigation und der Karte wird zuerst gesendet, jedes Feature wird
+   *     gesendet, sobald es verfügbar ist, und das Ende der Seite zuletzt. Bei `mapPosition` mit
+   *     dem Wert `AUTO` wird die Karte oben platziert, da die Features vorab nicht bekannt sind.
+   *     Mit dem Kartenclient `CESIUM` wird dies nicht unterstützt.
+   * @since v4.9
+   * @default false
+   */
+  @Nullable
+  Boolean getStreaming();
+
   /**
    * @langEn Change the default value of the [profile parameter](features.md#query-parameters) for
    *     this feature format. The value is an object where the key is the id of a profile set, such
@@ -150,6 +150,14 @@ public abstract class FeaturesView extends OgcApiDatasetView {
     return new ArrayList<>();
   }
 
+  /** The titles of the features by id, set explicitly, if the features are not retained. */
+  @Value.Default
+  public Set<Entry<String, String>> featureTitles() {
+    return features().stream()
+        .map(f -> Map.entry(f.getIdValue(), f.getName()))
+        .collect(Collectors.toSet());
+  }
+
   @Value.Default
   public boolean hideMap() {
     return false;
@@ -213,10 +221,7 @@ public abstract class FeaturesView extends OgcApiDatasetView {
                               .toString())
                   .build())
           .popup(Popup.HOVER_ID)
-          .featureTitles(
-              features().stream()
-                  .map(f -> Map.entry(f.getIdValue(), f.getName()))
-                  .collect(Collectors.toSet()))
+          .featureTitles(featureTitles())
           .styleUrl(Optional.ofNullable(styleUrl()))
           .removeZoomLevelConstraints(removeZoomLevelConstraints())
           .useBounds(true)
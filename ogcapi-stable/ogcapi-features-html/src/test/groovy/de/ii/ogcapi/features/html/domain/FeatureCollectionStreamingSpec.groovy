@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.features.html.domain
+
+import com.github.mustachejava.DefaultMustacheFactory
+import com.github.mustachejava.MustacheResolver
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class FeatureCollectionStreamingSpec extends Specification {
+
+    static final String TEMPLATES = "/de/ii/ogcapi/html/templates/"
+
+    // the templates of the HTML building block, partials that are provided by other modules, e.g.
+    // the web app, are rendered empty
+    @Shared
+    def factory = new DefaultMustacheFactory({ String name ->
+        def stream = FeatureCollectionStreamingSpec.getResourceAsStream(TEMPLATES + name.substring(name.lastIndexOf('/') + 1))
+        Objects.nonNull(stream) ? new InputStreamReader(stream, StandardCharsets.UTF_8) : new StringReader("")
+    } as MustacheResolver)
+
+    static def feature(String id, String height) {
+        [idValue         : id,
+         name            : "Feature " + id,
+         inCollection    : true,
+         isQueryExpression: true,
+         properties      : [[hasValues: true, name: "height", originalName: "height", values: [[value: height]]]]]
+    }
+
+    static def page(List features, boolean pageStart, boolean featureList, boolean pageEnd) {
+        [title            : "Buildings",
+         isMapRight       : true,
+         hideMap          : true,
+         features         : features,
+         renderPageStart  : pageStart,
+         renderFeatureList: featureList,
+         renderPageEnd    : pageEnd]
+    }
+
+    String render(String template, Object scope) {
+        def writer = new StringWriter()
+        factory.compile(template).execute(writer, scope).flush()
+        return writer.toString()
+    }
+
+    def 'A streamed page is identical to a page that is rendered at once'() {
+
+        given:
+
+        def features = [feature("1", "12"), feature("2", "7.5"), feature("3", "")]
+
+        when:
+
+        def page = render("featureCollection.mustache", page(features, true, true, true))
+        def streamedPage = new StringBuilder()
+        streamedPage << render("featureCollection.mustache", page([], true, false, false))
+        features.each {
+            streamedPage << render("featureCollectionItem.mustache", [collection: page([], true, false, false), listItems: [it]])
+        }
+        streamedPage << render("featureCollection.mustache", page([], false, false, true))
+
+        then:
+
+        page.contains("Feature 3")
+        page.contains(">12<")
+        streamedPage.toString() == page
+    }
+
+    def 'A streamed feature is rendered in the context of the page'() {
+
+        when:
+
+        def mapRight = render("featureCollectionItem.mustache", [collection: page([], true, false, false), listItems: [feature("1", "12")]])
+        def mapTop = render("featureCollectionItem.mustache", [collection: page([], true, false, false) + [isMapRight: false], listItems: [feature("1", "12")]])
+
+        then:
+
+        mapRight.contains('class="col-md-6 ')
+        mapTop.contains('class="col-md-4 ')
+    }
+}
@@ -14,10 +14,8 @@ import de.ii.ogcapi.features.core.domain.FeatureTransformationContext;
 import de.ii.ogcapi.features.geojson.domain.EncodingAwareContextGeoJson;
 import de.ii.ogcapi.features.geojson.domain.FeatureTransformationContextGeoJson.GeometryState;
 import de.ii.ogcapi.features.geojson.domain.GeoJsonWriterGeometryBase;
-import de.ii.xtraplatform.crs.domain.OgcCrs;
 import de.ii.xtraplatform.features.domain.CrsVariants;
 import de.ii.xtraplatform.features.domain.FeatureSchema;
-import de.ii.xtraplatform.features.domain.SchemaBase;
 import de.ii.xtraplatform.geometries.domain.Geometry;
 import de.ii.xtraplatform.geometries.domain.GeometryType;
 import de.ii.xtraplatform.geometries.domain.PolyhedralSurface;
@@ -35,7 +33,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -172,14 +169,11 @@ public class JsonFgWriterPlace extends GeoJsonWriterGeometryBase {
     if (geometry.getType().isSimpleFeature()
         && (geometry.getType() != GeometryType.POLYHEDRAL_SURFACE
             || !((PolyhedralSurface) geometry).isClosed())
-        && (OgcCrs.CRS84.equals(transformationContext.getTargetCrs())
-            || transformationContext.getTargetCrs().equals(OgcCrs.CRS84h))) {
+        && targetCrsIsCrs84) {
       return Set.of();
     }
 
-    return schema.getAllNestedProperties().stream()
-        .filter(SchemaBase::isPrimaryGeometry)
-        .collect(Collectors.toSet());
+    return getGeometryRoles(schema).primary;
   }
 
   @Override
@@ -194,14 +188,11 @@ public class JsonFgWriterPlace extends GeoJsonWriterGeometryBase {
     if (geometry.getType().isSimpleFeature()
         && (geometry.getType() != GeometryType.POLYHEDRAL_SURFACE
             || !((PolyhedralSurface) geometry).isClosed())
-        && (OgcCrs.CRS84.equals(transformationContext.getTargetCrs())
-            || transformationContext.getTargetCrs().equals(OgcCrs.CRS84h))) {
+        && targetCrsIsCrs84) {
       return Set.of();
     }
 
-    return schema.getAllNestedProperties().stream()
-        .filter(SchemaBase::isEmbeddedPrimaryGeometry)
-        .collect(Collectors.toSet());
+    return getGeometryRoles(schema).embeddedPrimary;
   }
 
   @Override
@@ -256,7 +247,6 @@ public class JsonFgWriterPlace extends GeoJsonWriterGeometryBase {
     }
     geometry.accept(new GeometryEncoderJson(new GeometryMembersGenerator(json), false, List.of()));
     json.writeEndObject();
-    json.flush();
     context.encoding().continueBuffering();
     this.placeWrittenFromVariant = true;
   }
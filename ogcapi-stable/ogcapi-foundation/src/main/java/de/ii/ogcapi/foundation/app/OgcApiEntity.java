@@ -8,6 +8,8 @@
 package de.ii.ogcapi.foundation.app;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import dagger.assisted.Assisted;
 import dagger.assisted.AssistedInject;
 import de.ii.ogcapi.foundation.domain.ApiBuildingBlock;
@@ -42,11 +44,13 @@ import de.ii.xtraplatform.services.domain.Service;
 import de.ii.xtraplatform.services.domain.ServicesContext;
 import jakarta.ws.rs.core.MediaType;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -272,8 +276,10 @@ public class OgcApiEntity extends AbstractService<OgcApiDataV2> implements OgcAp
 
   @Override
   public boolean updateSpatialExtent(String collectionId, BoundingBox bbox) {
-    return getChangingData()
-        .update(ChangingSpatialExtent.class, collectionId, ChangingSpatialExtent.of(bbox));
+    boolean updated =
+        getChangingData()
+            .update(ChangingSpatialExtent.class, collectionId, ChangingSpatialExtent.of(bbox));
+    return updated;
   }
 
   @Override
@@ -296,9 +302,13 @@ public class OgcApiEntity extends AbstractService<OgcApiDataV2> implements OgcAp
 
   @Override
   public boolean updateTemporalExtent(String collectionId, TemporalExtent temporalExtent) {
-    return getChangingData()
-        .update(
-            ChangingTemporalExtent.class, collectionId, ChangingTemporalExtent.of(temporalExtent));
+    boolean updated =
+        getChangingData()
+            .update(
+                ChangingTemporalExtent.class,
+                collectionId,
+                ChangingTemporalExtent.of(temporalExtent));
+    return updated;
   }
 
   @Override
@@ -315,8 +325,11 @@ public class OgcApiEntity extends AbstractService<OgcApiDataV2> implements OgcAp
 
   @Override
   public boolean updateLastModified(String collectionId, Instant lastModified) {
-    return getChangingData()
-        .update(ChangingLastModified.class, collectionId, ChangingLastModified.of(lastModified));
+    boolean updated =
+        getChangingData()
+            .update(
+                ChangingLastModified.class, collectionId, ChangingLastModified.of(lastModified));
+    return updated;
   }
 
   @Override
@@ -338,8 +351,10 @@ public class OgcApiEntity extends AbstractService<OgcApiDataV2> implements OgcAp
 
   @Override
   public boolean updateItemCount(String collectionId, Long itemCount) {
-    return getChangingData()
-        .update(ChangingItemCount.class, collectionId, ChangingItemCount.of(itemCount));
+    boolean updated =
+        getChangingData()
+            .update(ChangingItemCount.class, collectionId, ChangingItemCount.of(itemCount));
+    return updated;
   }
 
   @Override
@@ -357,6 +372,33 @@ public class OgcApiEntity extends AbstractService<OgcApiDataV2> implements OgcAp
     return cache;
   }
 
+  // derived from the values, so that the revision is the same after a restart and for all
+  // instances of the API with the same changing data
+  @Override
+  public long getRevision() {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    putChangingValue(hasher, "", getSpatialExtent());
+    putChangingValue(hasher, "", getTemporalExtent());
+    putChangingValue(hasher, "", getLastModified());
+    putChangingValue(hasher, "", getItemCount());
+    for (String collectionId : new TreeSet<>(getData().getCollections().keySet())) {
+      putChangingValue(hasher, collectionId, getSpatialExtent(collectionId));
+      putChangingValue(hasher, collectionId, getTemporalExtent(collectionId));
+      putChangingValue(hasher, collectionId, getLastModified(collectionId));
+      putChangingValue(hasher, collectionId, getItemCount(collectionId));
+    }
+
+    return hasher.hash().asLong();
+  }
+
+  private static void putChangingValue(Hasher hasher, String collectionId, Optional<?> value) {
+    hasher
+        .putString(collectionId, StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(value.map(Object::toString).orElse(""), StandardCharsets.UTF_8)
+        .putByte((byte) 0);
+  }
+
   private Optional<BoundingBox> transformSpatialExtent(
       BoundingBox spatialExtent, EpsgCrs targetCrs) {
     if (Objects.nonNull(spatialExtent)) {
@@ -170,15 +170,19 @@ public abstract class ApiEndpointDefinition {
   public Optional<OgcApiResource> getResource(String requestPath) {
     OgcApiResource resource = getResources().get(requestPath);
     if (resource == null) {
-      // if nothing was found, replace path parameters with their pattern
-      resource =
-          getResources().values().stream()
-              .filter(r -> r.getPathPatternCompiled().matcher(requestPath).matches())
-              .findAny()
-              .orElse(null);
+      // if nothing was found, match the path against the path patterns of the candidate resources
+      return getResourcePathIndex().find(requestPath);
     }
 
-    return Optional.ofNullable(resource);
+    return Optional.of(resource);
+  }
+
+  /**
+   * @return the resources indexed by their path, with precompiled path patterns
+   */
+  @Value.Lazy
+  public ResourcePathIndex<OgcApiResource> getResourcePathIndex() {
+    return ResourcePathIndex.of(getResources().values());
   }
 
   /**
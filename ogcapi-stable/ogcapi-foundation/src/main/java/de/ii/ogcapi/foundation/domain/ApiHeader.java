@@ -10,7 +10,6 @@ package de.ii.ogcapi.foundation.domain;
 import com.github.azahnen.dagger.annotations.AutoMultiBind;
 import com.google.common.collect.ImmutableMap;
 import de.ii.xtraplatform.base.domain.LogContext;
-import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.headers.Header;
@@ -56,8 +55,8 @@ public interface ApiHeader extends ApiExtension {
 
   default Optional<String> validateSchema(OgcApiDataV2 apiData, String value) {
     try {
-      String schemaContent = Json.mapper().writeValueAsString(getSchema(apiData));
-      Optional<String> result = getSchemaValidator().validate(schemaContent, "\"" + value + "\"");
+      Optional<String> result =
+          getSchemaValidator().compileParameterSchema(getSchema(apiData)).validateString(value);
       return result.map(
           s -> String.format("Value '%s' is invalid for header '%s': %s", value, getName(), s));
     } catch (Exception e) {
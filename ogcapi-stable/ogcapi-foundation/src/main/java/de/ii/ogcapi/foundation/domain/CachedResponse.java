@@ -0,0 +1,28 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.domain;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/** A serialized response in the server-side response cache, see {@link ResponseCache}. */
+@Value.Immutable
+@JsonDeserialize(builder = ImmutableCachedResponse.Builder.class)
+public interface CachedResponse {
+
+  Map<String, List<String>> getHeaders();
+
+  Optional<String> getEntityTag();
+
+  Optional<Long> getLastModified();
+
+  byte[] getContent();
+}
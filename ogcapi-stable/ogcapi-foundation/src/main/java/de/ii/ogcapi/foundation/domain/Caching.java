@@ -62,4 +62,21 @@ public interface Caching {
    */
   @Nullable
   String getCacheControlItems();
+
+  /**
+   * @langEn Set this to `true` to cache responses for the resources in the building block on the
+   *     server. Cached responses are used until the configuration of the API or the extents, item
+   *     counts or modification dates of the data change. Only responses that do not depend on the
+   *     user are cached. The option has no effect for *Features*, *Feature* and *Tile* resources.
+   * @langDe Setzen Sie dies auf `true`, um Antworten für die Ressourcen in dem Baustein auf dem
+   *     Server zwischenzuspeichern. Zwischengespeicherte Antworten werden verwendet, bis sich die
+   *     Konfiguration der API oder die Ausdehnungen, Anzahl der Features oder Änderungszeitpunkte
+   *     der Daten ändern. Nur Antworten, die nicht vom Benutzer abhängen, werden
+   *     zwischengespeichert. Die Option hat keine Auswirkung für *Features*, *Feature* und *Tile*
+   *     Ressourcen.
+   * @default false
+   * @since v4.9
+   */
+  @Nullable
+  Boolean getResponseCache();
 }
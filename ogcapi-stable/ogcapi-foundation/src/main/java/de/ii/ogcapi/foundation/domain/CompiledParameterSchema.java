@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.domain;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Thread-safe validator for the values of a parameter or header that has been derived once from
+ * the OpenAPI schema of the parameter or header.
+ */
+public interface CompiledParameterSchema {
+
+  /**
+   * Validates the values of a parameter. For an array schema, a single value is split at commas,
+   * unless the parameter is exploded.
+   *
+   * @param values the values of the parameter, at least one
+   * @param explode {@code true}, if the parameter is exploded
+   * @return the validation error, if the values are invalid
+   * @throws IOException if the schema cannot be processed
+   */
+  Optional<String> validate(List<String> values, boolean explode) throws IOException;
+
+  /**
+   * Validates the value of a header, which is always treated as a string.
+   *
+   * @param value the value of the header
+   * @return the validation error, if the value is invalid
+   * @throws IOException if the schema cannot be processed
+   */
+  Optional<String> validateString(String value) throws IOException;
+}
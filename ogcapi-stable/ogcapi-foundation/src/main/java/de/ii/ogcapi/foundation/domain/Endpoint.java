@@ -183,6 +183,10 @@ public abstract class Endpoint implements EndpointExtension {
                   .map(Caching::getCacheControl)
                   .or(() -> defaultCaching.map(Caching::getCacheControl))
                   .ifPresent(queryInputBuilder::cacheControl);
+              caching
+                  .map(Caching::getResponseCache)
+                  .or(() -> defaultCaching.map(Caching::getResponseCache))
+                  .ifPresent(queryInputBuilder::responseCache);
             });
 
     return queryInputBuilder.build();
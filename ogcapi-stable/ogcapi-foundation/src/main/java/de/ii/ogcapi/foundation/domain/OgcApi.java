@@ -202,4 +202,13 @@ public interface OgcApi extends Service {
   boolean isAsyncStartup();
 
   Cache getCache();
+
+  /**
+   * The revision of the changing data of the API, i.e. the extents, item counts and last
+   * modification dates. The revision is derived from these values, so it only changes when one of
+   * the values changes and it is the same after a restart or on another instance of the API.
+   *
+   * @return the current revision
+   */
+  long getRevision();
 }
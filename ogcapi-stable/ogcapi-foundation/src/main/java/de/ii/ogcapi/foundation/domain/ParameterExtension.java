@@ -8,10 +8,8 @@
 package de.ii.ogcapi.foundation.domain;
 
 import com.github.azahnen.dagger.annotations.AutoMultiBind;
-import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
 import de.ii.xtraplatform.base.domain.LogContext;
-import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.models.media.Schema;
 import io.swagger.v3.oas.models.media.StringSchema;
 import io.swagger.v3.oas.models.parameters.Parameter;
@@ -19,7 +17,6 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -98,30 +95,9 @@ public interface ParameterExtension extends ApiExtension {
   default Optional<String> validateSchema(
       OgcApiDataV2 apiData, Optional<String> collectionId, List<String> values) {
     try {
-      Schema<?> schema = getSchema(apiData, collectionId);
-      String type = schema.getType();
-      String schemaContent = Json.mapper().writeValueAsString(schema);
-      String valueContent = getJsonContent(values.get(0), schema);
-      if (Objects.nonNull(type) && "array".equals(type)) {
-        if (getExplode()) {
-          // each value is an item
-          schemaContent = Json.mapper().writeValueAsString(schema.getItems());
-        } else {
-          if (values.size() == 1) {
-            valueContent =
-                Splitter.on(",")
-                    .trimResults()
-                    .omitEmptyStrings()
-                    .splitToList(values.get(0))
-                    .stream()
-                    .map(v -> getJsonContent(v, schema.getItems()))
-                    .collect(Collectors.joining(",", "[", "]"));
-          }
-        }
-      }
-
       return getSchemaValidator()
-          .validate(schemaContent, valueContent)
+          .compileParameterSchema(getSchema(apiData, collectionId))
+          .validate(values, getExplode())
           .map(
               s ->
                   String.format(
@@ -139,19 +115,6 @@ public interface ParameterExtension extends ApiExtension {
     }
   }
 
-  private String getJsonContent(String value, Schema<?> schema) {
-    if (("object".equals(schema.getType()) && value.trim().startsWith("{"))
-        || ("array".equals(schema.getType()) && value.trim().startsWith("["))
-        || "number".equals(schema.getType())
-        || "integer".equals(schema.getType())
-        || "boolean".equals(schema.getType())
-        || "null".equals(schema.getType())) {
-      return value;
-    }
-
-    return "\"" + value + "\"";
-  }
-
   default void setOpenApiDescription(OgcApiDataV2 apiData, Parameter param) {
     if (apiData
         .getExtension(FoundationConfiguration.class)
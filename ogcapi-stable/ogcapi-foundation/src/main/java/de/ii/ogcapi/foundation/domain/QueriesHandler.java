@@ -9,7 +9,10 @@ package de.ii.ogcapi.foundation.domain;
 
 import com.github.azahnen.dagger.annotations.AutoMultiBind;
 import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import de.ii.ogcapi.foundation.domain.ProfileExtension.ResourceType;
+import de.ii.xtraplatform.base.domain.ETag;
 import de.ii.xtraplatform.crs.domain.EpsgCrs;
 import de.ii.xtraplatform.features.domain.CollectionMetadata;
 import de.ii.xtraplatform.features.domain.FeatureProvider;
@@ -20,6 +23,7 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Variant;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Date;
@@ -60,6 +64,32 @@ public interface QueriesHandler<T extends QueryIdentifier> {
     return true;
   }
 
+  /**
+   * Responses to a query can be stored in the server-side response cache, if the response depends
+   * only on the API configuration, the changing data of the API (extents, item counts, last
+   * modification dates), the request URI, media type and language and the inputs that are added by
+   * {@link #putResponseCacheInputs}.
+   *
+   * @param queryIdentifier the query
+   * @return {@code true}, if responses to the query can be cached
+   */
+  default boolean canCacheResponse(T queryIdentifier) {
+    return false;
+  }
+
+  /**
+   * Adds the other inputs of a cacheable response, e.g. the provider schema, codelists, tileset
+   * metadata or tile matrix sets, to the validator of the server-side response cache. A cached
+   * response is only returned, if these inputs are unchanged.
+   *
+   * @param queryIdentifier the query
+   * @param queryInput the query input
+   * @param requestContext the request
+   * @param hasher the validator
+   */
+  default void putResponseCacheInputs(
+      T queryIdentifier, QueryInput queryInput, ApiRequestContext requestContext, Hasher hasher) {}
+
   default Response handle(
       T queryIdentifier, QueryInput queryInput, ApiRequestContext requestContext) {
 
@@ -76,6 +106,15 @@ public interface QueriesHandler<T extends QueryIdentifier> {
               queryHandler.getClass().getSimpleName(), queryInput.getClass().getSimpleName()));
     }
 
+    if (queryInput.getResponseCache() && canCacheResponse(queryIdentifier)) {
+      return ResponseCache.handle(
+          queryIdentifier,
+          requestContext,
+          hasher -> putResponseCacheInputs(queryIdentifier, queryInput, requestContext, hasher),
+          queryInput.getExpires(),
+          () -> queryHandler.handle(queryInput, requestContext));
+    }
+
     return queryHandler.handle(queryInput, requestContext);
   }
 
@@ -310,6 +349,28 @@ public interface QueriesHandler<T extends QueryIdentifier> {
         .collect(Collectors.toUnmodifiableList());
   }
 
+  /**
+   * An entity tag for a resource that is determined by the API configuration, the changing data of
+   * the API (extents, item counts, last modification dates) and the request URI, media type and
+   * language. Unlike an entity tag that is derived from the resource, it can be evaluated before
+   * the resource is built. Resources that also depend on other inputs, e.g. the provider schema,
+   * codelists, tile providers or tile matrix sets, must not use it.
+   *
+   * @param requestContext the request
+   * @return the entity tag
+   */
+  default EntityTag getRevisionEntityTag(ApiRequestContext requestContext) {
+    OgcApi api = requestContext.getApi();
+    Hasher hasher =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString(api.getData().getStableHash(), StandardCharsets.UTF_8)
+            .putLong(api.getRevision());
+    ResponseCache.putRequest(hasher, requestContext);
+
+    return ETag.from(hasher.hash().asBytes());
+  }
+
   default Date getLastModified(QueryInput queryInput, PageRepresentation resource) {
     return queryInput.getLastModified().or(resource::getLastModified).orElse(null);
   }
@@ -24,4 +24,9 @@ public interface QueryInput {
   Optional<Date> getExpires();
 
   Optional<String> getCacheControl();
+
+  @Value.Default
+  default boolean getResponseCache() {
+    return false;
+  }
 }
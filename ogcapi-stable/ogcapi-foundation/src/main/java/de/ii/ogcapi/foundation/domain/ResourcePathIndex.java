@@ -0,0 +1,178 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.domain;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * A lookup structure for the resources of an API, keyed by the path of the resource.
+ *
+ * <p>Every resource is stored in a segment trie under the literal segments of its path that precede
+ * the first path parameter, together with its precompiled path pattern. A lookup walks the literal
+ * segments of the request path and only tests the patterns of the resources found along the way,
+ * instead of testing the patterns of all resources. Since the final decision is always made by the
+ * path pattern of the resource, the result is the same as for a linear scan.
+ *
+ * @param <T> the type of the values associated with the resources
+ */
+public final class ResourcePathIndex<T> {
+
+  private static final Splitter PATH_SPLITTER = Splitter.on('/').omitEmptyStrings();
+
+  private static final class Entry<T> {
+    private final int order;
+    private final String path;
+    private final Pattern pattern;
+    private final T value;
+
+    private Entry(int order, String path, Pattern pattern, T value) {
+      this.order = order;
+      this.path = path;
+      this.pattern = pattern;
+      this.value = value;
+    }
+  }
+
+  private static final class Node<T> {
+    private final Map<String, Node<T>> children = new HashMap<>();
+    private final List<Entry<T>> entries = new ArrayList<>();
+  }
+
+  private final Map<String, List<Entry<T>>> exact;
+  private final Node<T> root;
+  private final int size;
+
+  private ResourcePathIndex(Map<String, List<Entry<T>>> exact, Node<T> root, int size) {
+    this.exact = exact;
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * @param resources the resources
+   * @return an index of the resources, the value of each entry is the resource itself
+   */
+  public static ResourcePathIndex<OgcApiResource> of(Collection<OgcApiResource> resources) {
+    Builder<OgcApiResource> builder = new Builder<>();
+    resources.forEach(resource -> builder.add(resource, resource));
+    return builder.build();
+  }
+
+  public static <T> Builder<T> builder() {
+    return new Builder<>();
+  }
+
+  public static final class Builder<T> {
+    private final Map<String, List<Entry<T>>> exact = new HashMap<>();
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    private Builder() {}
+
+    /**
+     * Adds a resource to the index. Values that are added earlier take precedence over values
+     * that are added later, if more than one resource matches a path.
+     *
+     * @param resource the resource
+     * @param value the value to return for a path that matches the resource
+     * @return this builder
+     */
+    public Builder<T> add(OgcApiResource resource, T value) {
+      Entry<T> entry =
+          new Entry<>(
+              size++, resource.getPath(), Pattern.compile(resource.getPathPattern()), value);
+
+      exact.computeIfAbsent(resource.getPath(), ignore -> new ArrayList<>()).add(entry);
+
+      Node<T> node = root;
+      for (String segment : PATH_SPLITTER.split(resource.getPath())) {
+        if (segment.contains("{")) {
+          break;
+        }
+        node = node.children.computeIfAbsent(segment, ignore -> new Node<>());
+      }
+      node.entries.add(entry);
+
+      return this;
+    }
+
+    public ResourcePathIndex<T> build() {
+      return new ResourcePathIndex<>(exact, root, size);
+    }
+  }
+
+  /**
+   * Finds the resource for a path. A resource with exactly the requested path takes precedence,
+   * otherwise the first resource whose path pattern matches is returned.
+   *
+   * @param requestPath the path
+   * @return the value of the resource, if any
+   */
+  public Optional<T> find(String requestPath) {
+    List<Entry<T>> exactEntries = exact.get(requestPath);
+    if (Objects.nonNull(exactEntries)) {
+      return Optional.of(exactEntries.get(0).value);
+    }
+
+    Entry<T> best = null;
+    Node<T> node = root;
+    Iterator<String> segments = PATH_SPLITTER.split(requestPath).iterator();
+    while (Objects.nonNull(node)) {
+      for (Entry<T> entry : node.entries) {
+        if ((Objects.isNull(best) || entry.order < best.order)
+            && entry.pattern.matcher(requestPath).matches()) {
+          best = entry;
+        }
+      }
+      node = segments.hasNext() ? node.children.get(segments.next()) : null;
+    }
+
+    return Optional.ofNullable(best).map(entry -> entry.value);
+  }
+
+  /**
+   * Finds the values of all resources that match a path, in the order in which they were added.
+   *
+   * @param requestPath the path
+   * @return the values of the matching resources
+   */
+  public List<T> findAll(String requestPath) {
+    List<Entry<T>> matches = new ArrayList<>();
+    Node<T> node = root;
+    Iterator<String> segments = PATH_SPLITTER.split(requestPath).iterator();
+    while (Objects.nonNull(node)) {
+      for (Entry<T> entry : node.entries) {
+        if (entry.path.equals(requestPath) || entry.pattern.matcher(requestPath).matches()) {
+          matches.add(entry);
+        }
+      }
+      node = segments.hasNext() ? node.children.get(segments.next()) : null;
+    }
+
+    matches.sort((a, b) -> Integer.compare(a.order, b.order));
+
+    return matches.stream().map(entry -> entry.value).collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * @return the number of resources in the index
+   */
+  public int size() {
+    return size;
+  }
+}
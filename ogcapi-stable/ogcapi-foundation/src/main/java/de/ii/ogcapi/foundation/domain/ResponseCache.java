@@ -0,0 +1,344 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.domain;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import de.ii.xtraplatform.base.domain.LogContext.MARKER;
+import de.ii.xtraplatform.cache.domain.Cache;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server-side cache for responses to queries, stored in the cache of the API. A cached response
+ * is identified by the query, the request URI including the normalized query parameters, the
+ * media type and the language. It is valid as long as the configuration of the API, the revision
+ * of the changing data of the API, see {@link OgcApi#getRevision()}, and the other inputs of the
+ * response, see {@link QueriesHandler#putResponseCacheInputs}, are unchanged.
+ *
+ * <p>Headers that depend on the time of the request are not cached. The {@code Date} header is
+ * set by the server for each response, the {@code Expires} header is set from the current query
+ * input when a cached response is returned.
+ *
+ * <p>On a cache miss, the response is computed as usual. The serialized response is added to the
+ * cache, when it is written, by a response filter that uses the request property {@link
+ * #PENDING_PROPERTY}.
+ *
+ * <p>Requests with query parameters that are not declared by the endpoint are not cached, so that
+ * clients cannot fill the cache with arbitrary keys. The responses that have been added to the
+ * cache since the start are tracked and the least recently used ones are removed, when their total
+ * size exceeds {@link #MAX_TOTAL_SIZE}.
+ */
+public final class ResponseCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResponseCache.class);
+
+  public static final String PENDING_PROPERTY = "OGCAPI_RESPONSE_CACHE";
+  public static final int MAX_SIZE = 8 * 1024 * 1024;
+  public static final long MAX_TOTAL_SIZE = 256 * 1024 * 1024;
+  // the minimum size of a response in the statistics of the cache, limits the number of responses
+  private static final int MIN_ENTRY_SIZE = 16 * 1024;
+  private static final String KEY_PREFIX = "responses";
+  private static final long STATISTICS_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+  private static final AtomicLong HITS = new AtomicLong();
+  private static final AtomicLong MISSES = new AtomicLong();
+  private static final AtomicLong STORED = new AtomicLong();
+  private static final AtomicLong LAST_STATISTICS = new AtomicLong(System.currentTimeMillis());
+  private static final AtomicLong EVICTED = new AtomicLong();
+
+  // API id and key -> stored response
+  private static final com.google.common.cache.Cache<String, Stored> STORED_RESPONSES =
+      CacheBuilder.newBuilder()
+          .maximumWeight(MAX_TOTAL_SIZE)
+          .weigher((String ignore, Stored stored) -> Math.max(stored.size, MIN_ENTRY_SIZE))
+          .removalListener(ResponseCache::onRemoval)
+          .build();
+
+  private ResponseCache() {}
+
+  /** A response in the cache of an API. */
+  private static final class Stored {
+    private final Cache cache;
+    private final String key;
+    private final int size;
+
+    private Stored(Cache cache, String key, int size) {
+      this.cache = cache;
+      this.key = key;
+      this.size = size;
+    }
+  }
+
+  /** A response that should be added to the cache, once it has been serialized. */
+  public static final class Pending {
+    private final Cache cache;
+    private final String apiId;
+    private final String validator;
+    private final String key;
+
+    private Pending(Cache cache, String apiId, String validator, String key) {
+      this.cache = cache;
+      this.apiId = apiId;
+      this.validator = validator;
+      this.key = key;
+    }
+
+    public void store(
+        Map<String, List<String>> headers, EntityTag entityTag, Date lastModified, byte[] content) {
+      try {
+        cache.put(
+            validator,
+            ImmutableCachedResponse.builder()
+                .headers(headers)
+                .entityTag(Optional.ofNullable(entityTag).map(EntityTag::toString))
+                .lastModified(Optional.ofNullable(lastModified).map(Date::getTime))
+                .content(content)
+                .build(),
+            KEY_PREFIX,
+            key);
+        STORED_RESPONSES.put(apiId + "/" + key, new Stored(cache, key, content.length));
+        STORED.incrementAndGet();
+      } catch (Throwable e) {
+        LOGGER.debug("Could not add response to the response cache: {}", e.getMessage());
+        if (LOGGER.isDebugEnabled(MARKER.STACKTRACE)) {
+          LOGGER.debug(MARKER.STACKTRACE, "Stacktrace: ", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the cached response for the request, if available. Otherwise the response is computed
+   * and, if successful, registered to be added to the cache.
+   *
+   * @param queryIdentifier the query
+   * @param requestContext the request
+   * @param inputs adds the other inputs of the response to the validator
+   * @param expires the value of the {@code Expires} header, if any
+   * @param handler computes the response
+   * @return the response
+   */
+  public static Response handle(
+      QueryIdentifier queryIdentifier,
+      ApiRequestContext requestContext,
+      Consumer<Hasher> inputs,
+      Optional<Date> expires,
+      Supplier<Response> handler) {
+    if (!isCacheable(requestContext)) {
+      return handler.get();
+    }
+
+    OgcApi api = requestContext.getApi();
+    String key = getKey(queryIdentifier, requestContext);
+    Hasher inputsHasher = Hashing.murmur3_128().newHasher();
+    inputs.accept(inputsHasher);
+    String validator =
+        api.getData().getStableHash() + "." + api.getRevision() + "." + inputsHasher.hash();
+
+    Optional<CachedResponse> cachedResponse = Optional.empty();
+    try {
+      cachedResponse = api.getCache().get(validator, CachedResponse.class, KEY_PREFIX, key);
+    } catch (Throwable e) {
+      LOGGER.debug("Could not read from the response cache: {}", e.getMessage());
+      if (LOGGER.isDebugEnabled(MARKER.STACKTRACE)) {
+        LOGGER.debug(MARKER.STACKTRACE, "Stacktrace: ", e);
+      }
+    }
+
+    Response response;
+    if (cachedResponse.isPresent()) {
+      HITS.incrementAndGet();
+      track(api, key, cachedResponse.get());
+      response = toResponse(cachedResponse.get(), requestContext.getRequest().get(), expires);
+    } else {
+      MISSES.incrementAndGet();
+      response = handler.get();
+      if (response.getStatus() == Response.Status.OK.getStatusCode() && response.hasEntity()) {
+        ((ContainerRequestContext) requestContext.getRequest().get())
+            .setProperty(PENDING_PROPERTY, new Pending(api.getCache(), api.getId(), validator, key));
+      }
+    }
+
+    logStatistics();
+
+    return response;
+  }
+
+  // responses that depend on the user and requests with undeclared query parameters are not cached
+  private static boolean isCacheable(ApiRequestContext requestContext) {
+    return requestContext.getUser().isEmpty()
+        && requestContext.getRequest().filter(ContainerRequestContext.class::isInstance).isPresent()
+        && HttpMethod.GET.equals(requestContext.getMethod())
+        && getDeclaredParameters(requestContext).size() == requestContext.getParameters().size();
+  }
+
+  private static Map<String, String> getDeclaredParameters(ApiRequestContext requestContext) {
+    Set<String> declared =
+        requestContext.getQueryParameterSet().getDefinitions().stream()
+            .map(OgcApiQueryParameter::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    return Maps.filterKeys(requestContext.getParameters(), declared::contains);
+  }
+
+  // responses that are already in the cache after a restart are tracked, when they are used
+  private static void track(OgcApi api, String key, CachedResponse cachedResponse) {
+    String id = api.getId() + "/" + key;
+    if (Objects.isNull(STORED_RESPONSES.getIfPresent(id))) {
+      STORED_RESPONSES.put(id, new Stored(api.getCache(), key, cachedResponse.getContent().length));
+    }
+  }
+
+  private static void onRemoval(RemovalNotification<String, Stored> notification) {
+    Stored stored = notification.getValue();
+    if (notification.getCause() != RemovalCause.SIZE || Objects.isNull(stored)) {
+      return;
+    }
+    try {
+      stored.cache.del(KEY_PREFIX, stored.key);
+      EVICTED.incrementAndGet();
+    } catch (Throwable e) {
+      LOGGER.debug("Could not remove response from the response cache: {}", e.getMessage());
+    }
+  }
+
+  private static String getKey(QueryIdentifier queryIdentifier, ApiRequestContext requestContext) {
+    Hasher hasher =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString(queryIdentifier.getClass().getName(), StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(queryIdentifier.toString(), StandardCharsets.UTF_8);
+    putRequest(hasher, requestContext, getDeclaredParameters(requestContext));
+
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Adds the parts of the request that determine a response to the hash: the API URI, the path,
+   * the normalized query parameters, the media type and the language.
+   */
+  static void putRequest(Hasher hasher, ApiRequestContext requestContext) {
+    putRequest(hasher, requestContext, requestContext.getParameters());
+  }
+
+  private static void putRequest(
+      Hasher hasher, ApiRequestContext requestContext, Map<String, String> parameters) {
+    hasher
+        .putByte((byte) 0)
+        .putString(requestContext.getApiUri(), StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(
+            Objects.requireNonNullElse(requestContext.getUriCustomizer().getPath(), ""),
+            StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(requestContext.getMediaType().type().toString(), StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(
+            requestContext.getLanguage().map(Locale::toLanguageTag).orElse(""),
+            StandardCharsets.UTF_8);
+
+    // the order of the query parameters is not relevant
+    new TreeMap<>(parameters)
+        .forEach(
+            (name, value) ->
+                hasher
+                    .putByte((byte) 0)
+                    .putString(name, StandardCharsets.UTF_8)
+                    .putByte((byte) 0)
+                    .putString(value, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Adds values, e.g. codelists or tile matrix sets, in the order of their ids to the hash. The
+   * hash codes of the values are only stable within the process, so after a restart cached
+   * responses are usually computed again.
+   */
+  public static void putValues(Hasher hasher, Map<String, ?> values) {
+    new TreeMap<>(values)
+        .forEach(
+            (id, value) ->
+                hasher
+                    .putByte((byte) 0)
+                    .putString(id, StandardCharsets.UTF_8)
+                    .putInt(Objects.hashCode(value)));
+  }
+
+  private static Response toResponse(
+      CachedResponse cachedResponse, Request request, Optional<Date> expires) {
+    EntityTag entityTag = cachedResponse.getEntityTag().map(EntityTag::valueOf).orElse(null);
+    Date lastModified = cachedResponse.getLastModified().map(Date::new).orElse(null);
+
+    try {
+      Response.ResponseBuilder notModified =
+          Objects.nonNull(entityTag) && Objects.nonNull(lastModified)
+              ? request.evaluatePreconditions(lastModified, entityTag)
+              : Objects.nonNull(entityTag)
+                  ? request.evaluatePreconditions(entityTag)
+                  : Objects.nonNull(lastModified)
+                      ? request.evaluatePreconditions(lastModified)
+                      : null;
+      if (Objects.nonNull(notModified)) {
+        return notModified.build();
+      }
+    } catch (Exception e) {
+      // could not parse headers, so silently ignore them and return the regular response
+      LOGGER.debug("Ignoring invalid conditional request headers: {}", e.getMessage());
+    }
+
+    Response.ResponseBuilder response = Response.ok(cachedResponse.getContent());
+    cachedResponse
+        .getHeaders()
+        .forEach((name, values) -> values.forEach(value -> response.header(name, value)));
+    expires.ifPresent(response::expires);
+
+    return response.build();
+  }
+
+  private static void logStatistics() {
+    long last = LAST_STATISTICS.get();
+    long now = System.currentTimeMillis();
+    if (LOGGER.isDebugEnabled()
+        && now - last > STATISTICS_INTERVAL
+        && LAST_STATISTICS.compareAndSet(last, now)) {
+      long hits = HITS.get();
+      long misses = MISSES.get();
+      LOGGER.debug(
+          "Response cache: {} hits, {} misses ({}% hit rate), {} responses stored, {} evicted",
+          hits,
+          misses,
+          hits + misses > 0 ? hits * 100 / (hits + misses) : 0,
+          STORED.get(),
+          EVICTED.get());
+    }
+  }
+}
@@ -7,6 +7,8 @@
  */
 package de.ii.ogcapi.foundation.domain;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.models.media.Schema;
 import java.io.IOException;
 import java.util.Optional;
 
@@ -16,4 +18,14 @@ public interface SchemaValidator {
   CompiledJsonSchema compile(String schemaContent) throws IOException;
 
   Optional<String> validate(CompiledJsonSchema schema, String jsonContent) throws IOException;
+
+  /** Validates JSON content that has already been parsed, e.g. a single feature of a stream. */
+  Optional<String> validate(CompiledJsonSchema schema, JsonNode jsonNode);
+
+  /**
+   * The validator for the values of a parameter or header with the given schema. Validators are
+   * cached per schema instance and per schema content, so a parameter that creates a new schema
+   * instance for each request does not compile a new validator.
+   */
+  CompiledParameterSchema compileParameterSchema(Schema<?> schema) throws IOException;
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.infra.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import de.ii.ogcapi.foundation.domain.CompiledJsonSchema;
+import de.ii.ogcapi.foundation.domain.CompiledParameterSchema;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * The values are first checked with the fast path of the schema, if there is one. Only values that
+ * are not accepted there are validated against the JSON Schema, which is compiled on first use.
+ */
+final class CompiledParameterSchemaImpl implements CompiledParameterSchema {
+
+  private static final Splitter SPLITTER = Splitter.on(",").trimResults().omitEmptyStrings();
+
+  private final SchemaValidatorImpl schemaValidator;
+  private final String type;
+  private final String itemsType;
+  private final Optional<ParameterValueCheck> check;
+  private final Optional<ParameterValueCheck> itemsCheck;
+  private final int minItems;
+  private final int maxItems;
+  private final Supplier<CompiledJsonSchema> schema;
+  private final Supplier<CompiledJsonSchema> itemsSchema;
+
+  CompiledParameterSchemaImpl(SchemaValidatorImpl schemaValidator, JsonNode schemaNode) {
+    this.schemaValidator = schemaValidator;
+    this.type = schemaNode.path("type").asText(null);
+    JsonNode itemsNode = schemaNode.path("items");
+    this.itemsType = itemsNode.path("type").asText(null);
+    this.check = ParameterValueCheck.of(schemaNode);
+    this.itemsCheck =
+        "array".equals(type)
+                && ParameterValueCheck.hasOnly(schemaNode, ParameterValueCheck.ARRAY_KEYWORDS)
+            ? ParameterValueCheck.of(itemsNode)
+            : Optional.empty();
+    this.minItems = schemaNode.path("minItems").asInt(0);
+    this.maxItems = schemaNode.path("maxItems").asInt(Integer.MAX_VALUE);
+    this.schema = Suppliers.memoize(() -> schemaValidator.compile(schemaNode));
+    this.itemsSchema = Suppliers.memoize(() -> schemaValidator.compile(itemsNode));
+  }
+
+  @Override
+  public Optional<String> validate(List<String> values, boolean explode) throws IOException {
+    String value = values.get(0);
+
+    if ("array".equals(type)) {
+      if (explode) {
+        // each value is an item
+        return schemaValidator.validate(itemsSchema.get(), getJsonContent(value, type));
+      }
+      if (values.size() == 1) {
+        List<String> items = SPLITTER.splitToList(value);
+        if (itemsCheck.isPresent() && acceptsAll(items, itemsCheck.get())) {
+          return Optional.empty();
+        }
+        return schemaValidator.validate(
+            schema.get(),
+            items.stream()
+                .map(item -> getJsonContent(item, itemsType))
+                .collect(Collectors.joining(",", "[", "]")));
+      }
+    } else if (check.isPresent() && check.get().accepts(value)) {
+      return Optional.empty();
+    }
+
+    return schemaValidator.validate(schema.get(), getJsonContent(value, type));
+  }
+
+  @Override
+  public Optional<String> validateString(String value) throws IOException {
+    if ("string".equals(type) && check.isPresent() && check.get().accepts(value)) {
+      return Optional.empty();
+    }
+
+    return schemaValidator.validate(schema.get(), "\"" + value + "\"");
+  }
+
+  private boolean acceptsAll(List<String> items, ParameterValueCheck itemCheck) {
+    if (items.size() < minItems || items.size() > maxItems) {
+      return false;
+    }
+    for (String item : items) {
+      if (!itemCheck.accepts(item)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String getJsonContent(String value, String type) {
+    if (("object".equals(type) && value.trim().startsWith("{"))
+        || ("array".equals(type) && value.trim().startsWith("["))
+        || "number".equals(type)
+        || "integer".equals(type)
+        || "boolean".equals(type)
+        || "null".equals(type)) {
+      return value;
+    }
+
+    return "\"" + value + "\"";
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.infra.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableSet;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Fast path for the validation of a single parameter value against a simple scalar schema without
+ * parsing the value as JSON. A check only accepts values that are certainly valid, every other
+ * value has to be validated against the full JSON Schema, which also provides the error message.
+ * Schemas with keywords that are not supported here have no fast path.
+ */
+@FunctionalInterface
+interface ParameterValueCheck {
+
+  Set<String> ANNOTATIONS =
+      ImmutableSet.of(
+          "title",
+          "description",
+          "default",
+          "example",
+          "examples",
+          "deprecated",
+          "readOnly",
+          "writeOnly",
+          "nullable",
+          "$comment");
+  Set<String> STRING_KEYWORDS = ImmutableSet.of("type", "enum", "pattern", "minLength", "maxLength");
+  Set<String> NUMBER_KEYWORDS = ImmutableSet.of("type", "format", "enum", "minimum", "maximum");
+  Set<String> BOOLEAN_KEYWORDS = ImmutableSet.of("type");
+  Set<String> ARRAY_KEYWORDS = ImmutableSet.of("type", "items", "minItems", "maxItems");
+
+  Pattern INTEGER = Pattern.compile("-?(?:0|[1-9][0-9]{0,17})");
+  Pattern NUMBER = Pattern.compile("-?(?:0|[1-9][0-9]*)(?:\\.[0-9]+)?(?:[eE][+-]?[0-9]{1,3})?");
+
+  boolean accepts(String value);
+
+  /**
+   * @param schema the JSON Schema of the value
+   * @return the check, if the schema is simple enough for a fast path
+   */
+  static Optional<ParameterValueCheck> of(JsonNode schema) {
+    if (Objects.isNull(schema) || !schema.isObject() || !schema.path("type").isTextual()) {
+      return Optional.empty();
+    }
+
+    switch (schema.get("type").asText()) {
+      case "string":
+        return hasOnly(schema, STRING_KEYWORDS) ? ofString(schema) : Optional.empty();
+      case "integer":
+        return hasOnly(schema, NUMBER_KEYWORDS) ? ofInteger(schema) : Optional.empty();
+      case "number":
+        return hasOnly(schema, NUMBER_KEYWORDS) && !schema.has("enum")
+            ? ofNumber(schema)
+            : Optional.empty();
+      case "boolean":
+        return hasOnly(schema, BOOLEAN_KEYWORDS)
+            ? Optional.of(value -> "true".equals(value) || "false".equals(value))
+            : Optional.empty();
+      default:
+        return Optional.empty();
+    }
+  }
+
+  static boolean hasOnly(JsonNode schema, Set<String> keywords) {
+    Iterator<String> fields = schema.fieldNames();
+    while (fields.hasNext()) {
+      String field = fields.next();
+      if (!keywords.contains(field) && !ANNOTATIONS.contains(field) && !field.startsWith("x-")) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Optional<ParameterValueCheck> ofString(JsonNode schema) {
+    Predicate<String> check = ParameterValueCheck::isPlainString;
+
+    if (schema.has("enum")) {
+      if (!schema.get("enum").isArray()) {
+        return Optional.empty();
+      }
+      ImmutableSet.Builder<String> values = ImmutableSet.builder();
+      for (JsonNode value : schema.get("enum")) {
+        if (value.isTextual()) {
+          values.add(value.asText());
+        }
+      }
+      Set<String> enumValues = values.build();
+      check = check.and(enumValues::contains);
+    }
+    if (schema.has("pattern")) {
+      if (!schema.get("pattern").isTextual()) {
+        return Optional.empty();
+      }
+      Pattern pattern;
+      try {
+        pattern = Pattern.compile(schema.get("pattern").asText());
+      } catch (PatternSyntaxException e) {
+        return Optional.empty();
+      }
+      check = check.and(value -> pattern.matcher(value).find());
+    }
+    if (schema.has("minLength")) {
+      if (!schema.get("minLength").canConvertToInt()) {
+        return Optional.empty();
+      }
+      int minLength = schema.get("minLength").intValue();
+      check = check.and(value -> value.codePointCount(0, value.length()) >= minLength);
+    }
+    if (schema.has("maxLength")) {
+      if (!schema.get("maxLength").canConvertToInt()) {
+        return Optional.empty();
+      }
+      int maxLength = schema.get("maxLength").intValue();
+      check = check.and(value -> value.codePointCount(0, value.length()) <= maxLength);
+    }
+
+    return Optional.of(check::test);
+  }
+
+  private static Optional<ParameterValueCheck> ofInteger(JsonNode schema) {
+    Optional<Predicate<BigDecimal>> range = range(schema);
+    if (range.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Predicate<BigDecimal> check = range.get();
+    String format = schema.path("format").asText(null);
+    if ("int32".equals(format)) {
+      BigDecimal min = BigDecimal.valueOf(Integer.MIN_VALUE);
+      BigDecimal max = BigDecimal.valueOf(Integer.MAX_VALUE);
+      check = check.and(value -> value.compareTo(min) >= 0 && value.compareTo(max) <= 0);
+    } else if (Objects.nonNull(format) && !"int64".equals(format)) {
+      return Optional.empty();
+    }
+    if (schema.has("enum")) {
+      if (!schema.get("enum").isArray()) {
+        return Optional.empty();
+      }
+      ImmutableSet.Builder<BigDecimal> values = ImmutableSet.builder();
+      for (JsonNode value : schema.get("enum")) {
+        if (value.isIntegralNumber() && value.canConvertToLong()) {
+          values.add(BigDecimal.valueOf(value.longValue()));
+        }
+      }
+      Set<BigDecimal> enumValues = values.build();
+      check = check.and(enumValues::contains);
+    }
+
+    Predicate<BigDecimal> valueCheck = check;
+    return Optional.of(
+        value ->
+            INTEGER.matcher(value).matches()
+                && valueCheck.test(BigDecimal.valueOf(Long.parseLong(value))));
+  }
+
+  private static Optional<ParameterValueCheck> ofNumber(JsonNode schema) {
+    Optional<Predicate<BigDecimal>> range = range(schema);
+    if (range.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Predicate<BigDecimal> check = range.get();
+    String format = schema.path("format").asText(null);
+    if ("float".equals(format) || "double".equals(format)) {
+      BigDecimal max =
+          new BigDecimal("float".equals(format) ? Float.MAX_VALUE : Double.MAX_VALUE);
+      check = check.and(value -> value.abs().compareTo(max) <= 0);
+    } else if (Objects.nonNull(format)) {
+      return Optional.empty();
+    }
+
+    Predicate<BigDecimal> valueCheck = check;
+    return Optional.of(
+        value -> NUMBER.matcher(value).matches() && valueCheck.test(new BigDecimal(value)));
+  }
+
+  private static Optional<Predicate<BigDecimal>> range(JsonNode schema) {
+    Predicate<BigDecimal> check = value -> true;
+    if (schema.has("minimum")) {
+      if (!schema.get("minimum").isNumber()) {
+        return Optional.empty();
+      }
+      BigDecimal minimum = schema.get("minimum").decimalValue();
+      check = check.and(value -> value.compareTo(minimum) >= 0);
+    }
+    if (schema.has("maximum")) {
+      if (!schema.get("maximum").isNumber()) {
+        return Optional.empty();
+      }
+      BigDecimal maximum = schema.get("maximum").decimalValue();
+      check = check.and(value -> value.compareTo(maximum) <= 0);
+    }
+    return Optional.of(check);
+  }
+
+  // the value is embedded in a JSON string as is, so it is only accepted without characters that
+  // would have to be escaped
+  private static boolean isPlainString(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\' || c < 0x20) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
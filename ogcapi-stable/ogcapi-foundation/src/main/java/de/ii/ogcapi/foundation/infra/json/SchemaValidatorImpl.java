@@ -11,6 +11,8 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.networknt.schema.Error;
 import com.networknt.schema.Schema;
 import com.networknt.schema.SchemaRegistry;
@@ -19,18 +21,28 @@ import com.networknt.schema.SpecificationVersion;
 import com.networknt.schema.resource.IriResourceLoader;
 import com.networknt.schema.serialization.JsonMapperFactory;
 import de.ii.ogcapi.foundation.domain.CompiledJsonSchema;
+import de.ii.ogcapi.foundation.domain.CompiledParameterSchema;
 import de.ii.ogcapi.foundation.domain.SchemaValidator;
+import io.swagger.v3.core.util.Json;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.io.IOException;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 @Singleton
 @AutoBind
 public class SchemaValidatorImpl implements SchemaValidator {
 
   private final SchemaRegistry schemaRegistry;
+  // weak keys, so the schemas are compared by identity and validators of parameter schemas from
+  // previous versions of an API are dropped
+  private final Cache<io.swagger.v3.oas.models.media.Schema<?>, CompiledParameterSchema>
+      parameterSchemas;
+  // many parameters create a new schema instance for every request, these are found by content
+  private final Cache<String, CompiledParameterSchema> parameterSchemasByContent;
 
   private static final ObjectMapper MAPPER = JsonMapperFactory.getInstance();
 
@@ -44,6 +56,8 @@ public class SchemaValidatorImpl implements SchemaValidator {
                 builder
                     .schemaRegistryConfig(config)
                     .resourceLoaders(loaders -> loaders.add(IriResourceLoader.getInstance())));
+    this.parameterSchemas = CacheBuilder.newBuilder().weakKeys().maximumSize(10_000).build();
+    this.parameterSchemasByContent = CacheBuilder.newBuilder().maximumSize(10_000).build();
   }
 
   @Override
@@ -66,6 +80,11 @@ public class SchemaValidatorImpl implements SchemaValidator {
       return Optional.of(e.getMessage());
     }
 
+    return validate(schema, jsonNode);
+  }
+
+  @Override
+  public Optional<String> validate(CompiledJsonSchema schema, JsonNode jsonNode) {
     List<Error> result = ((CompiledJsonSchemaImpl) schema).schema.validate(jsonNode);
     if (result.isEmpty()) {
       return Optional.empty();
@@ -74,8 +93,35 @@ public class SchemaValidatorImpl implements SchemaValidator {
     return Optional.of(result.toString());
   }
 
+  @Override
+  public CompiledParameterSchema compileParameterSchema(
+      io.swagger.v3.oas.models.media.Schema<?> schema) throws IOException {
+    CompiledParameterSchema compiled = parameterSchemas.getIfPresent(schema);
+    if (Objects.nonNull(compiled)) {
+      return compiled;
+    }
+
+    String content = Json.mapper().writeValueAsString(schema);
+    try {
+      compiled =
+          parameterSchemasByContent.get(
+              content, () -> new CompiledParameterSchemaImpl(this, MAPPER.readTree(content)));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+    parameterSchemas.put(schema, compiled);
+
+    return compiled;
+  }
+
   private CompiledJsonSchemaImpl compileInternal(String schemaContent) throws IOException {
-    JsonNode schemaNode = MAPPER.readTree(schemaContent);
+    return compile(MAPPER.readTree(schemaContent));
+  }
+
+  CompiledJsonSchemaImpl compile(JsonNode schemaNode) {
     Schema schema = schemaRegistry.getSchema(schemaNode);
     schema.initializeValidators();
     return new CompiledJsonSchemaImpl(schema);
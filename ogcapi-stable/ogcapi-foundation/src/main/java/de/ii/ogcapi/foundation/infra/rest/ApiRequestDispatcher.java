@@ -7,8 +7,6 @@
  */
 package de.ii.ogcapi.foundation.infra.rest;
 
-import static de.ii.ogcapi.foundation.domain.ApiEndpointDefinition.SORT_PRIORITY_DUMMY;
-
 import com.github.azahnen.dagger.annotations.AutoBind;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -28,6 +26,8 @@ import de.ii.ogcapi.foundation.domain.OgcApiResource;
 import de.ii.ogcapi.foundation.domain.ParameterExtension;
 import de.ii.ogcapi.foundation.domain.QueryParameterSet;
 import de.ii.ogcapi.foundation.domain.RequestInjectableContext;
+import de.ii.ogcapi.foundation.infra.rest.ApiRouter.Route;
+import de.ii.ogcapi.foundation.infra.rest.ApiRouter.Routes;
 import de.ii.xtraplatform.auth.domain.User;
 import de.ii.xtraplatform.base.domain.AppContext;
 import de.ii.xtraplatform.services.domain.AuditLog;
@@ -78,6 +78,7 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
   private final ContentNegotiationMediaType contentNegotiationMediaType;
   private final ContentNegotiationLanguage contentNegotiationLanguage;
   private final ApiRequestAuthorizer apiRequestAuthorizer;
+  private final ApiRouter apiRouter;
   private final int maxResponseLinkHeaderSize;
 
   private final AuditLog auditLog;
@@ -90,6 +91,7 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
       ContentNegotiationMediaType contentNegotiationMediaType,
       ContentNegotiationLanguage contentNegotiationLanguage,
       ApiRequestAuthorizer apiRequestAuthorizer,
+      ApiRouter apiRouter,
       AuditLog auditLog) {
     this.appContext = appContext;
     this.extensionRegistry = extensionRegistry;
@@ -97,6 +99,7 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
     this.contentNegotiationMediaType = contentNegotiationMediaType;
     this.contentNegotiationLanguage = contentNegotiationLanguage;
     this.apiRequestAuthorizer = apiRequestAuthorizer;
+    this.apiRouter = apiRouter;
     this.maxResponseLinkHeaderSize = getMaxResponseHeaderSize(appContext) / 4;
     this.auditLog = auditLog;
   }
@@ -128,7 +131,8 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
     String method = requestContext.getMethod();
 
     OgcApiDataV2 apiData = api.getData();
-    EndpointExtension ogcApiEndpoint = findEndpoint(apiData, entrypoint, subPath, method);
+    Routes routes = apiRouter.resolve(apiData, "/" + entrypoint + subPath);
+    EndpointExtension ogcApiEndpoint = findEndpoint(routes, method);
 
     if (!api.isAvailable(ogcApiEndpoint, true)) {
       throw new ServiceUnavailableException(
@@ -137,7 +141,7 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
 
     // determine the feature collection, if this is a collection resource or sub-resource
     Optional<FeatureTypeConfigurationOgcApi> optionalCollectionData =
-        getCollectionData(apiData, entrypoint, subPath);
+        routes.getCollectionId().flatMap(apiData::getCollectionData);
 
     // read body for authorization and for form requests
     Optional<byte[]> body = Optional.empty();
@@ -172,7 +176,7 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
             ogcApiEndpoint,
             knownParameters,
             actualParameters,
-            entrypoint,
+            routes,
             subPath,
             method);
 
@@ -281,24 +285,12 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
     return ogcApiEndpoint.getParameters(apiData, subPath, method);
   }
 
-  private static Optional<FeatureTypeConfigurationOgcApi> getCollectionData(
-      OgcApiDataV2 apiData, String entrypoint, String subPath) {
-    Optional<FeatureTypeConfigurationOgcApi> optionalCollectionData = Optional.empty();
-    if ("collections".equals(entrypoint) && subPath.length() > 1) {
-      int idx = subPath.substring(1).indexOf('/');
-      String collectionId = idx != -1 ? subPath.substring(1, idx + 1) : subPath.substring(1);
-      optionalCollectionData = apiData.getCollectionData(collectionId);
-    }
-    return optionalCollectionData;
-  }
-
   private void checkParameterNames(
       ContainerRequestContext requestContext,
       OgcApiDataV2 apiData,
       EndpointExtension ogcApiEndpoint,
       List<OgcApiQueryParameter> knownParameters,
       Set<String> parameters,
-      @SuppressWarnings("unused") String entrypoint,
       String subPath,
       String method) {
     if ("OPTIONS".equals(method)) {
@@ -331,7 +323,7 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
       EndpointExtension ogcApiEndpoint,
       List<OgcApiQueryParameter> knownParameters,
       MultivaluedMap<String, String> actualParameters,
-      String entrypoint,
+      Routes routes,
       String subPath,
       String method) {
     checkParameterNames(
@@ -340,14 +332,18 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
         ogcApiEndpoint,
         knownParameters,
         actualParameters.keySet(),
-        entrypoint,
         subPath,
         method);
 
     ApiEndpointDefinition apiDef = ogcApiEndpoint.getDefinition(apiData);
     if (!apiDef.getResources().isEmpty()) {
       // check that the subPath is valid
-      OgcApiResource resource = apiDef.getResource("/" + entrypoint + subPath).orElse(null);
+      OgcApiResource resource =
+          routes.getRoutes().stream()
+              .filter(route -> route.getEndpoint() == ogcApiEndpoint)
+              .map(Route::getResource)
+              .findFirst()
+              .orElse(null);
       if (resource == null) {
         throw new NotFoundException("The requested path is not a resource in this API.");
       }
@@ -357,7 +353,7 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
       // path parameters in the sub-path have to be checked later
       ApiOperation operation = apiDef.getOperation(resource, method).orElse(null);
       if (operation == null) {
-        throw notAllowedOrNotFound(getMethods(apiData, entrypoint, subPath));
+        throw notAllowedOrNotFound(routes.getMethods());
       }
 
       Optional<String> collectionId = resource.getCollectionId(apiData);
@@ -419,67 +415,25 @@ public class ApiRequestDispatcher implements ServiceEndpoint {
         .collect(ImmutableSet.toImmutableSet());
   }
 
-  private EndpointExtension findEndpoint(
-      OgcApiDataV2 dataset,
-      @PathParam("entrypoint") String entrypoint,
-      String subPath,
-      String method) {
+  private EndpointExtension findEndpoint(Routes routes, String method) {
     if ("OPTIONS".equals(method)) {
       // special treatment for OPTIONS
       // check that the resource exists and in that case use the general endpoint for all OPTIONS
       // requests
-      boolean resourceExists =
-          getEndpoints().stream()
-              .filter(endpoint -> endpoint.isEnabledForApi(dataset))
-              .anyMatch(
-                  endpoint -> {
-                    ApiEndpointDefinition apiDef = endpoint.getDefinition(dataset);
-                    if (apiDef.getSortPriority() != SORT_PRIORITY_DUMMY) {
-                      return apiDef.matches("/" + entrypoint + subPath, null);
-                    }
-                    return false;
-                  });
-      if (!resourceExists) {
+      if (routes.getRoute(null).isEmpty()) {
         throw new NotFoundException("The requested path is not a resource in this API.");
       }
 
       return getEndpoints().stream()
           .filter(endpoint -> endpoint.getClass() == OptionsEndpoint.class)
           .findAny()
-          .orElseThrow(() -> notAllowedOrNotFound(getMethods(dataset, entrypoint, subPath)));
+          .orElseThrow(() -> notAllowedOrNotFound(routes.getMethods()));
     }
 
-    return getEndpoints().stream()
-        .filter(endpoint -> endpoint.isEnabledForApi(dataset))
-        .filter(
-            endpoint -> {
-              ApiEndpointDefinition apiDef = endpoint.getDefinition(dataset);
-              if (apiDef != null && apiDef.getSortPriority() != SORT_PRIORITY_DUMMY) {
-                return apiDef.matches("/" + entrypoint + subPath, method);
-              }
-              return false;
-            })
-        .findFirst()
-        .orElseThrow(() -> notAllowedOrNotFound(getMethods(dataset, entrypoint, subPath)));
-  }
-
-  private Set<String> getMethods(
-      OgcApiDataV2 dataset, @PathParam("entrypoint") String entrypoint, String subPath) {
-    return getEndpoints().stream()
-        .map(
-            endpoint -> {
-              ApiEndpointDefinition apiDef = endpoint.getDefinition(dataset);
-              if (!apiDef.getResources().isEmpty()) {
-                Optional<OgcApiResource> resource = apiDef.getResource("/" + entrypoint + subPath);
-                return resource
-                    .map(ogcApiResource -> ogcApiResource.getOperations().keySet())
-                    .orElse(null);
-              }
-              return null;
-            })
-        .filter(Objects::nonNull)
-        .flatMap(Set::stream)
-        .collect(Collectors.toSet());
+    return routes
+        .getRoute(method)
+        .map(Route::getEndpoint)
+        .orElseThrow(() -> notAllowedOrNotFound(routes.getMethods()));
   }
 
   private List<EndpointExtension> getEndpoints() {
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.infra.rest;
+
+import com.google.common.collect.ImmutableSet;
+import de.ii.ogcapi.foundation.domain.ApiEndpointDefinition;
+import de.ii.ogcapi.foundation.domain.EndpointExtension;
+import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
+import de.ii.ogcapi.foundation.domain.OgcApiResource;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves request paths to the endpoints and resources of an API. The routing table of an API is
+ * built when the API starts and rebuilt when the API definition changes.
+ */
+public interface ApiRouter {
+
+  /** A resource of an endpoint that matches a request path. */
+  final class Route {
+    private final EndpointExtension endpoint;
+    private final ApiEndpointDefinition definition;
+    private final OgcApiResource resource;
+
+    Route(EndpointExtension endpoint, ApiEndpointDefinition definition, OgcApiResource resource) {
+      this.endpoint = endpoint;
+      this.definition = definition;
+      this.resource = resource;
+    }
+
+    public EndpointExtension getEndpoint() {
+      return endpoint;
+    }
+
+    public ApiEndpointDefinition getDefinition() {
+      return definition;
+    }
+
+    public OgcApiResource getResource() {
+      return resource;
+    }
+  }
+
+  /** The result of resolving a request path. */
+  final class Routes {
+    private final List<Route> routes;
+    private final Optional<String> collectionId;
+
+    Routes(List<Route> routes, Optional<String> collectionId) {
+      this.routes = routes;
+      this.collectionId = collectionId;
+    }
+
+    /**
+     * @return the matching resources, in the order of the endpoints
+     */
+    public List<Route> getRoutes() {
+      return routes;
+    }
+
+    /**
+     * @return the collection id, if the path is a collection resource or sub-resource
+     */
+    public Optional<String> getCollectionId() {
+      return collectionId;
+    }
+
+    /**
+     * @param method the HTTP method, {@code null} for any method
+     * @return the first route that supports the method
+     */
+    public Optional<Route> getRoute(String method) {
+      return routes.stream()
+          .filter(
+              route ->
+                  route.getDefinition().getSortPriority()
+                      != ApiEndpointDefinition.SORT_PRIORITY_DUMMY)
+          .filter(
+              route ->
+                  route.getDefinition().getOperation(route.getResource(), method).isPresent())
+          .findFirst();
+    }
+
+    /**
+     * @return the HTTP methods that are supported for the path
+     */
+    public Set<String> getMethods() {
+      return routes.stream()
+          .map(route -> route.getResource().getOperations().keySet())
+          .flatMap(Set::stream)
+          .collect(ImmutableSet.toImmutableSet());
+    }
+  }
+
+  /**
+   * @param apiData the API
+   * @param path the request path relative to the API landing page, starting with "/"
+   * @return the routes for the path
+   */
+  Routes resolve(OgcApiDataV2 apiData, String path);
+
+  /**
+   * @param apiData the API
+   * @return a description of the routing table, one line per resource
+   */
+  List<String> describe(OgcApiDataV2 apiData);
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.infra.rest;
+
+import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.collect.ImmutableList;
+import de.ii.ogcapi.foundation.domain.ApiEndpointDefinition;
+import de.ii.ogcapi.foundation.domain.ApiExtension;
+import de.ii.ogcapi.foundation.domain.ApiExtensionHealth;
+import de.ii.ogcapi.foundation.domain.EndpointExtension;
+import de.ii.ogcapi.foundation.domain.ExtensionRegistry;
+import de.ii.ogcapi.foundation.domain.OgcApi;
+import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
+import de.ii.ogcapi.foundation.domain.OgcApiResource;
+import de.ii.ogcapi.foundation.domain.ResourcePathIndex;
+import de.ii.xtraplatform.entities.domain.ValidationResult;
+import de.ii.xtraplatform.entities.domain.ValidationResult.MODE;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Singleton
+@AutoBind
+public class ApiRouterImpl implements ApiRouter, ApiExtension {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ApiRouterImpl.class);
+
+  private final ExtensionRegistry extensionRegistry;
+  private final Map<String, RoutingTable> routingTables;
+
+  /**
+   * The routing table of an API. All resources of all endpoints are in a single index, the value
+   * of each entry is the position of the endpoint in the list of endpoints.
+   */
+  private static final class RoutingTable {
+    private final int apiHash;
+    private final List<EndpointExtension> endpoints;
+    private final List<ApiEndpointDefinition> definitions;
+    private final List<Integer> volatileEndpoints;
+    private final ResourcePathIndex<Integer> index;
+
+    private RoutingTable(
+        int apiHash,
+        List<EndpointExtension> endpoints,
+        List<ApiEndpointDefinition> definitions,
+        List<Integer> volatileEndpoints,
+        ResourcePathIndex<Integer> index) {
+      this.apiHash = apiHash;
+      this.endpoints = endpoints;
+      this.definitions = definitions;
+      this.volatileEndpoints = volatileEndpoints;
+      this.index = index;
+    }
+  }
+
+  @Inject
+  ApiRouterImpl(ExtensionRegistry extensionRegistry) {
+    this.extensionRegistry = extensionRegistry;
+    this.routingTables = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public int getStartupPriority() {
+    // after all endpoints have compiled their definitions
+    return 10000;
+  }
+
+  @Override
+  public ValidationResult onStartup(OgcApi api, MODE apiValidation) {
+    routingTables.put(api.getId(), build(api.getData()));
+
+    return ValidationResult.of();
+  }
+
+  @Override
+  public void onShutdown(OgcApi api) {
+    routingTables.remove(api.getId());
+  }
+
+  @Override
+  public Routes resolve(OgcApiDataV2 apiData, String path) {
+    RoutingTable table = getRoutingTable(apiData);
+
+    List<Route> routes = new ArrayList<>();
+    int previous = -1;
+    for (int i : table.index.findAll(path)) {
+      if (i == previous) {
+        continue;
+      }
+      previous = i;
+      ApiEndpointDefinition definition = table.definitions.get(i);
+      definition
+          .getResource(path)
+          .ifPresent(
+              resource -> routes.add(new Route(table.endpoints.get(i), definition, resource)));
+    }
+
+    return new Routes(routes, getCollectionId(path));
+  }
+
+  @Override
+  public List<String> describe(OgcApiDataV2 apiData) {
+    RoutingTable table = getRoutingTable(apiData);
+    List<String> lines = new ArrayList<>();
+
+    for (int i = 0; i < table.endpoints.size(); i++) {
+      String endpoint = table.endpoints.get(i).getClass().getSimpleName();
+      table.definitions.get(i).getResources().values().stream()
+          .sorted(Comparator.comparing(OgcApiResource::getPath))
+          .forEach(
+              resource ->
+                  lines.add(
+                      String.format(
+                          "%s %s -> %s (%s)",
+                          String.join(",", resource.getOperations().keySet()),
+                          resource.getPath(),
+                          endpoint,
+                          resource.getPathPattern())));
+    }
+
+    return lines;
+  }
+
+  private RoutingTable getRoutingTable(OgcApiDataV2 apiData) {
+    RoutingTable table = routingTables.get(apiData.getId());
+
+    if (Objects.isNull(table) || !isCurrent(table, apiData)) {
+      table = build(apiData);
+      routingTables.put(apiData.getId(), table);
+    }
+
+    return table;
+  }
+
+  // the definitions are cached by the endpoints per API hash, a different definition means that
+  // either the API has been reloaded or the availability of a volatile endpoint has changed
+  private boolean isCurrent(RoutingTable table, OgcApiDataV2 apiData) {
+    if (table.apiHash != apiData.hashCode()) {
+      return false;
+    }
+    for (int i : table.volatileEndpoints) {
+      if (table.endpoints.get(i).getDefinition(apiData) != table.definitions.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private RoutingTable build(OgcApiDataV2 apiData) {
+    List<EndpointExtension> endpoints = new ArrayList<>();
+    List<ApiEndpointDefinition> definitions = new ArrayList<>();
+    List<Integer> volatileEndpoints = new ArrayList<>();
+    ResourcePathIndex.Builder<Integer> index = ResourcePathIndex.builder();
+
+    for (EndpointExtension endpoint :
+        extensionRegistry.getExtensionsForType(EndpointExtension.class)) {
+      if (!endpoint.isEnabledForApi(apiData)) {
+        continue;
+      }
+      ApiEndpointDefinition definition = endpoint.getDefinition(apiData);
+      if (Objects.isNull(definition)) {
+        continue;
+      }
+      int i = endpoints.size();
+      endpoints.add(endpoint);
+      definitions.add(definition);
+      if (endpoint instanceof ApiExtensionHealth) {
+        volatileEndpoints.add(i);
+      }
+      definition.getResources().values().forEach(resource -> index.add(resource, i));
+    }
+
+    RoutingTable table =
+        new RoutingTable(
+            apiData.hashCode(),
+            ImmutableList.copyOf(endpoints),
+            ImmutableList.copyOf(definitions),
+            ImmutableList.copyOf(volatileEndpoints),
+            index.build());
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(
+          "Built routing table for API '{}' with {} resources of {} endpoints.",
+          apiData.getId(),
+          table.index.size(),
+          endpoints.size());
+    }
+
+    return table;
+  }
+
+  private static Optional<String> getCollectionId(String path) {
+    if (path.startsWith("/collections/") && path.length() > "/collections/".length()) {
+      String subPath = path.substring("/collections/".length());
+      int idx = subPath.indexOf('/');
+      return Optional.of(idx != -1 ? subPath.substring(0, idx) : subPath);
+    }
+    return Optional.empty();
+  }
+}
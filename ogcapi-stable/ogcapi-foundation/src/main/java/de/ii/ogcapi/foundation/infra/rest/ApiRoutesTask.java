@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.infra.rest;
+
+import com.github.azahnen.dagger.annotations.AutoBind;
+import de.ii.ogcapi.foundation.domain.OgcApi;
+import de.ii.xtraplatform.base.domain.AppConfiguration;
+import de.ii.xtraplatform.entities.domain.EntityRegistry;
+import de.ii.xtraplatform.web.domain.DropwizardPlugin;
+import io.dropwizard.core.setup.Environment;
+import io.dropwizard.servlets.tasks.Task;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Prints the routing table of an API, i.e. all resources with their methods, the endpoint that
+ * handles them and the path pattern. Usage: {@code POST /tasks/api-routes?api={apiId}}.
+ */
+@Singleton
+@AutoBind
+public class ApiRoutesTask extends Task implements DropwizardPlugin {
+
+  private final EntityRegistry entityRegistry;
+  private final ApiRouter apiRouter;
+
+  @Inject
+  protected ApiRoutesTask(EntityRegistry entityRegistry, ApiRouter apiRouter) {
+    super("api-routes");
+    this.entityRegistry = entityRegistry;
+    this.apiRouter = apiRouter;
+  }
+
+  @Override
+  public void init(AppConfiguration configuration, Environment environment) {
+    environment.admin().addTask(this);
+  }
+
+  @Override
+  public void execute(Map<String, List<String>> parameters, PrintWriter output) throws Exception {
+    Optional<String> apiId =
+        Optional.ofNullable(parameters.get("api")).flatMap(values -> values.stream().findFirst());
+
+    if (apiId.isEmpty()) {
+      output.println("No api id given");
+      output.flush();
+      return;
+    }
+
+    Optional<OgcApi> ogcApi = entityRegistry.getEntity(OgcApi.class, apiId.get());
+
+    if (ogcApi.isEmpty() || Objects.isNull(ogcApi.get().getData())) {
+      output.println("No api with the given id found");
+      output.flush();
+      return;
+    }
+
+    apiRouter.describe(ogcApi.get().getData()).forEach(output::println);
+    output.flush();
+  }
+}
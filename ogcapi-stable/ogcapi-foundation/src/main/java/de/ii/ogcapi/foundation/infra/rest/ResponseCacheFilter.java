@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.infra.rest;
+
+import com.github.azahnen.dagger.annotations.AutoBind;
+import de.ii.ogcapi.foundation.domain.ResponseCache;
+import de.ii.ogcapi.foundation.domain.ResponseCache.Pending;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Adds serialized responses to the server-side response cache. The response entity is copied
+ * while it is written to the client and stored, when it has been written completely.
+ */
+@Singleton
+@AutoBind
+public class ResponseCacheFilter implements ContainerResponseFilter {
+
+  // headers that depend on the request, the connection or the time of the request; Date is set by
+  // the server and Expires by the response cache for each response
+  private static final Set<String> SKIPPED_HEADERS =
+      Set.of(
+          HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+          "transfer-encoding",
+          HttpHeaders.DATE.toLowerCase(Locale.ROOT),
+          HttpHeaders.EXPIRES.toLowerCase(Locale.ROOT),
+          HttpHeaders.SET_COOKIE.toLowerCase(Locale.ROOT));
+
+  @Inject
+  public ResponseCacheFilter() {}
+
+  @Override
+  public void filter(
+      ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+      throws IOException {
+    Object pending = requestContext.getProperty(ResponseCache.PENDING_PROPERTY);
+
+    if (!(pending instanceof Pending)) {
+      return;
+    }
+
+    requestContext.removeProperty(ResponseCache.PENDING_PROPERTY);
+
+    if (responseContext.getStatus() != 200 || !responseContext.hasEntity()) {
+      return;
+    }
+
+    Map<String, List<String>> headers = new LinkedHashMap<>();
+    responseContext
+        .getStringHeaders()
+        .forEach(
+            (name, values) -> {
+              String lowerCaseName = name.toLowerCase(Locale.ROOT);
+              if (!SKIPPED_HEADERS.contains(lowerCaseName)
+                  && !lowerCaseName.startsWith("access-control-")) {
+                headers.put(name, List.copyOf(values));
+              }
+            });
+    EntityTag entityTag = responseContext.getEntityTag();
+    Date lastModified = responseContext.getLastModified();
+
+    responseContext.setEntityStream(
+        new CopyingOutputStream(
+            responseContext.getEntityStream(),
+            ResponseCache.MAX_SIZE,
+            content -> ((Pending) pending).store(headers, entityTag, lastModified, content)));
+  }
+
+  private static class CopyingOutputStream extends FilterOutputStream {
+
+    private final int maxSize;
+    private final Consumer<byte[]> onComplete;
+    private ByteArrayOutputStream copy;
+    private boolean closed;
+
+    CopyingOutputStream(OutputStream out, int maxSize, Consumer<byte[]> onComplete) {
+      super(out);
+      this.maxSize = maxSize;
+      this.onComplete = onComplete;
+      this.copy = new ByteArrayOutputStream();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      try {
+        out.write(b);
+      } catch (IOException e) {
+        copy = null;
+        throw e;
+      }
+      if (copy != null) {
+        copy.write(b);
+        checkSize();
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      try {
+        out.write(b, off, len);
+      } catch (IOException e) {
+        copy = null;
+        throw e;
+      }
+      if (copy != null) {
+        copy.write(b, off, len);
+        checkSize();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      super.close();
+
+      // incomplete or too large responses are not cached
+      if (copy != null) {
+        onComplete.accept(copy.toByteArray());
+        copy = null;
+      }
+    }
+
+    private void checkSize() {
+      if (copy.size() > maxSize) {
+        copy = null;
+      }
+    }
+  }
+}
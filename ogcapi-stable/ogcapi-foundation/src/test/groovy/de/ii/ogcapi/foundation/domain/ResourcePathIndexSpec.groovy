@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.domain
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class ResourcePathIndexSpec extends Specification {
+
+    @Shared
+    OgcApiResource collections = resource("/collections")
+    @Shared
+    OgcApiResource collection = resource("/collections/{collectionId}", param("collectionId", "[^/]+"))
+    @Shared
+    OgcApiResource items = resource("/collections/{collectionId}/items", param("collectionId", "[^/]+"))
+    @Shared
+    OgcApiResource buildings = resource("/collections/buildings/items")
+    @Shared
+    OgcApiResource file = resource("/3dtiles/{file}", param("file", ".*"))
+
+    @Shared
+    ResourcePathIndex<OgcApiResource> index = ResourcePathIndex.of([collections, collection, items, buildings, file])
+
+    def "find returns the matching resource for '#path'"() {
+        expect:
+        index.find(path) == Optional.ofNullable(expected)
+
+        where:
+        path                             || expected
+        "/collections"                   || collections
+        "/collections/"                  || collections
+        "/collections/rivers"            || collection
+        "/collections/rivers/items"      || items
+        "/collections/buildings/items"   || buildings
+        "/collections/rivers/items/1"    || null
+        "/3dtiles/content/1/2/3.glb"     || file
+        "/unknown"                       || null
+    }
+
+    def "findAll returns all matching resources in order"() {
+        expect:
+        index.findAll("/collections/buildings/items") == [items, buildings]
+    }
+
+    def "values can be associated with resources"() {
+        given:
+        ResourcePathIndex<Integer> endpoints = ResourcePathIndex.<Integer> builder()
+                .add(collections, 0)
+                .add(items, 1)
+                .add(buildings, 2)
+                .build()
+
+        expect:
+        endpoints.findAll("/collections/buildings/items") == [1, 2]
+        endpoints.findAll("/collections") == [0]
+        endpoints.size() == 3
+    }
+
+    private OgcApiResource resource(String path, OgcApiPathParameter... parameters) {
+        return new ImmutableOgcApiResourceAuxiliary.Builder()
+                .path(path)
+                .pathParameters(parameters.toList())
+                .build()
+    }
+
+    private OgcApiPathParameter param(String name, String pattern) {
+        OgcApiPathParameter parameter = Stub()
+        parameter.getName() >> name
+        parameter.getPattern() >> pattern
+        return parameter
+    }
+}
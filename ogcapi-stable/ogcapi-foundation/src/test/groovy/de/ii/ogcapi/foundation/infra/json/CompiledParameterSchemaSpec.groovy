@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.foundation.infra.json
+
+import io.swagger.v3.oas.models.media.ArraySchema
+import io.swagger.v3.oas.models.media.BooleanSchema
+import io.swagger.v3.oas.models.media.IntegerSchema
+import io.swagger.v3.oas.models.media.NumberSchema
+import io.swagger.v3.oas.models.media.StringSchema
+import spock.lang.Shared
+import spock.lang.Specification
+
+class CompiledParameterSchemaSpec extends Specification {
+
+    @Shared SchemaValidatorImpl schemaValidator
+
+    def setupSpec() {
+        schemaValidator = new SchemaValidatorImpl()
+    }
+
+    def "Parameter values are validated with the same result as the full JSON schema"() {
+        when:
+        def compiled = schemaValidator.compileParameterSchema(schema)
+
+        then:
+        compiled.validate([value], false).isPresent() == invalid
+
+        where:
+        schema                                                                   | value         || invalid
+        new IntegerSchema().minimum(1.0).maximum(10.0)                           | "5"           || false
+        new IntegerSchema().minimum(1.0).maximum(10.0)                           | "0"           || true
+        new IntegerSchema().minimum(1.0).maximum(10.0)                           | "11"          || true
+        new IntegerSchema().minimum(1.0).maximum(10.0)                           | "abc"         || true
+        new NumberSchema().minimum(-180.0).maximum(180.0)                        | "-12.5"       || false
+        new NumberSchema().minimum(-180.0).maximum(180.0)                        | "180.1"       || true
+        new BooleanSchema()                                                      | "true"        || false
+        new BooleanSchema()                                                      | "yes"         || true
+        new StringSchema()._enum(["json", "html"])                               | "html"        || false
+        new StringSchema()._enum(["json", "html"])                               | "xml"         || true
+        new StringSchema().pattern("^[a-z]+\$")                                  | "abc"         || false
+        new StringSchema().pattern("^[a-z]+\$")                                  | "ab1"         || true
+        new StringSchema().minLength(2).maxLength(3)                             | "ä"           || true
+        new ArraySchema().items(new NumberSchema()).minItems(4).maxItems(4)      | "1,2,3,4"     || false
+        new ArraySchema().items(new NumberSchema()).minItems(4).maxItems(4)      | "1,2,3"       || true
+        new ArraySchema().items(new NumberSchema()).minItems(4).maxItems(4)      | "1,2,x,4"     || true
+        new ArraySchema().items(new StringSchema()._enum(["a", "b"]))            | "a, b"        || false
+        new ArraySchema().items(new StringSchema()._enum(["a", "b"]))            | "a,c"         || true
+    }
+
+    def "Header values are always validated as strings"() {
+        when:
+        def compiled = schemaValidator.compileParameterSchema(schema)
+
+        then:
+        compiled.validateString(value).isPresent() == invalid
+
+        where:
+        schema                                                  | value      || invalid
+        new StringSchema()._enum(["respond-async", "return"])   | "return"   || false
+        new StringSchema()._enum(["respond-async", "return"])   | "wait"     || true
+        new IntegerSchema()                                     | "5"        || true
+    }
+
+    def "Compiled parameter schemas are cached per schema instance and per schema content"() {
+        given:
+        def schema = new IntegerSchema().minimum(1.0)
+        def equalSchema = new IntegerSchema().minimum(1.0)
+        def otherSchema = new IntegerSchema().minimum(2.0)
+
+        expect:
+        schemaValidator.compileParameterSchema(schema).is(schemaValidator.compileParameterSchema(schema))
+        schemaValidator.compileParameterSchema(schema).is(schemaValidator.compileParameterSchema(equalSchema))
+        !schemaValidator.compileParameterSchema(schema).is(schemaValidator.compileParameterSchema(otherSchema))
+    }
+
+    def "A new schema instance per request does not compile a new validator"() {
+        expect:
+        schemaValidator.compileParameterSchema(new StringSchema().pattern("[\\w\\-]+"))
+                .is(schemaValidator.compileParameterSchema(new StringSchema().pattern("[\\w\\-]+")))
+    }
+}
@@ -8,6 +8,8 @@
 package de.ii.ogcapi.html.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.ii.xtraplatform.blobs.domain.ResourceStore;
 import de.ii.xtraplatform.web.domain.StaticResourceReader;
 import de.ii.xtraplatform.web.domain.StaticResourceReader.CachedResource;
@@ -15,18 +17,29 @@ import de.ii.xtraplatform.web.domain.StaticResources;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.Objects;
 import java.util.Optional;
 
 @Singleton
 @AutoBind
 public class StaticResourcesCustom implements StaticResources {
 
+  private static final long MAX_CACHED_BYTES = 64L * 1024 * 1024;
+
   private final ResourceStore assetStore;
+  // the content of an asset is only read again from the store, if the asset has changed
+  private final Cache<Path, CachedAsset> assets;
 
   @Inject
   StaticResourcesCustom(ResourceStore blobStore) {
     this.assetStore = blobStore.with("html", "assets");
+    this.assets =
+        CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHED_BYTES)
+            .<Path, CachedAsset>weigher((path, asset) -> asset.size)
+            .build();
   }
 
   @Override
@@ -46,18 +59,12 @@ public class StaticResourcesCustom implements StaticResources {
           Path assetPath = Path.of("/").relativize(Path.of(path));
           try {
             if (assetStore.has(assetPath)) {
-              return Optional.of(
-                  CachedResource.of(
-                      assetStore.content(assetPath).get().readAllBytes(),
-                      assetStore.lastModified(assetPath)));
+              return Optional.of(getAsset(assetPath));
             }
             if (defaultPage.isPresent()) {
               Path defaultPath = assetPath.resolve(defaultPage.get());
               if (assetStore.has(defaultPath)) {
-                return Optional.of(
-                    CachedResource.of(
-                        assetStore.content(defaultPath).get().readAllBytes(),
-                        assetStore.lastModified(defaultPath)));
+                return Optional.of(getAsset(defaultPath));
               }
             }
           } catch (IOException e) {
@@ -66,4 +73,33 @@ public class StaticResourcesCustom implements StaticResources {
           return Optional.empty();
         });
   }
+
+  private CachedResource getAsset(Path assetPath) throws IOException {
+    long lastModified = assetStore.lastModified(assetPath);
+    CachedAsset asset = assets.getIfPresent(assetPath);
+
+    if (Objects.isNull(asset) || asset.lastModified != lastModified) {
+      byte[] content;
+      try (InputStream inputStream = assetStore.content(assetPath).get()) {
+        content = inputStream.readAllBytes();
+      }
+      asset =
+          new CachedAsset(CachedResource.of(content, lastModified), lastModified, content.length);
+      assets.put(assetPath, asset);
+    }
+
+    return asset.resource;
+  }
+
+  private static final class CachedAsset {
+    private final CachedResource resource;
+    private final long lastModified;
+    private final int size;
+
+    private CachedAsset(CachedResource resource, long lastModified, int size) {
+      this.resource = resource;
+      this.lastModified = lastModified;
+      this.size = size;
+    }
+  }
 }
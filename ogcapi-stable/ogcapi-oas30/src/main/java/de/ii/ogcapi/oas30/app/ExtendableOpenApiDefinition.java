@@ -7,10 +7,10 @@
  */
 package de.ii.ogcapi.oas30.app;
 
+import de.ii.ogcapi.foundation.domain.ApiRequestContext;
 import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
-import de.ii.xtraplatform.web.domain.URICustomizer;
 import jakarta.ws.rs.core.Response;
 
 public interface ExtendableOpenApiDefinition {
-  Response getOpenApi(String type, URICustomizer requestUriCustomizer, OgcApiDataV2 apiData);
+  Response getOpenApi(String type, ApiRequestContext requestContext, OgcApiDataV2 apiData);
 }
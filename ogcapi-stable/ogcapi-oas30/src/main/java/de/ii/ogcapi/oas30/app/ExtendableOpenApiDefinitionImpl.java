@@ -8,20 +8,34 @@
 package de.ii.ogcapi.oas30.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.ii.ogcapi.foundation.domain.ApiExtension;
+import de.ii.ogcapi.foundation.domain.ApiExtensionHealth;
 import de.ii.ogcapi.foundation.domain.ApiMetadata;
+import de.ii.ogcapi.foundation.domain.ApiRequestContext;
 import de.ii.ogcapi.foundation.domain.ApiSecurity;
 import de.ii.ogcapi.foundation.domain.ApiSecurityInfo;
+import de.ii.ogcapi.foundation.domain.EndpointExtension;
+import de.ii.ogcapi.foundation.domain.ExtensionConfiguration;
 import de.ii.ogcapi.foundation.domain.ExtensionRegistry;
 import de.ii.ogcapi.foundation.domain.ExternalDocumentation;
 import de.ii.ogcapi.foundation.domain.FoundationConfiguration;
+import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
+import de.ii.ogcapi.oas30.domain.Oas30Configuration;
 import de.ii.ogcapi.oas30.domain.OpenApiExtension;
 import de.ii.xtraplatform.auth.domain.Oidc;
 import de.ii.xtraplatform.base.domain.AppContext;
 import de.ii.xtraplatform.base.domain.AuthConfiguration;
-import de.ii.xtraplatform.web.domain.URICustomizer;
+import de.ii.xtraplatform.base.domain.ETag;
+import de.ii.xtraplatform.base.domain.LogContext;
+import de.ii.xtraplatform.entities.domain.ValidationResult;
+import de.ii.xtraplatform.entities.domain.ValidationResult.MODE;
 import io.swagger.v3.core.util.Json;
 import io.swagger.v3.core.util.Yaml;
 import io.swagger.v3.oas.models.OpenAPI;
@@ -33,24 +47,52 @@ import io.swagger.v3.oas.models.security.SecurityScheme.Type;
 import io.swagger.v3.oas.models.servers.Server;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Creates the OpenAPI definition of an API. Creating the definition is expensive, so the
+ * serialized JSON and YAML documents are cached per API. A cached document is reused as long as
+ * the API data, the availability of the endpoints, the security settings and the server URL are
+ * unchanged. Compression of the documents is left to the server, like for all other responses.
+ */
 @Singleton
 @AutoBind
-public class ExtendableOpenApiDefinitionImpl implements ExtendableOpenApiDefinition {
+public class ExtendableOpenApiDefinitionImpl implements ExtendableOpenApiDefinition, ApiExtension {
 
   private static Logger LOGGER = LoggerFactory.getLogger(ExtendableOpenApiDefinitionImpl.class);
 
+  // a document is cached per server URL, which usually only differs for requests via different
+  // proxies, so a small number of entries per API is sufficient
+  private static final int MAX_DOCUMENTS_PER_API = 8;
+
   private final AuthConfiguration authConfig;
   private final ExtensionRegistry extensionRegistry;
   private final Oidc oidc;
   private final ApiSecurityInfo apiSecurityInfo;
+  private final Map<String, Cache<DocumentKey, OpenApiDocument>> documents;
+  // the server URLs of recent requests per API, they are kept when the API is reloaded, so that
+  // the documents are built on startup for the URLs that are actually used, e.g. behind a proxy
+  private final Map<String, Map<String, Boolean>> serverUrls;
+  // builds the documents on startup, so that the startup of other APIs is not delayed
+  private final ExecutorService executor;
 
   @Inject
   public ExtendableOpenApiDefinitionImpl(
@@ -62,135 +104,364 @@ public class ExtendableOpenApiDefinitionImpl implements ExtendableOpenApiDefinit
     this.extensionRegistry = extensionRegistry;
     this.oidc = oidc;
     this.apiSecurityInfo = apiSecurityInfo;
+    this.documents = new ConcurrentHashMap<>();
+    this.serverUrls = new ConcurrentHashMap<>();
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("openapi-%d").setDaemon(true).build());
+  }
+
+  @Override
+  public Class<? extends ExtensionConfiguration> getBuildingBlockConfigurationType() {
+    return Oas30Configuration.class;
+  }
+
+  @Override
+  public int getStartupPriority() {
+    // after all other extensions have been started
+    return 10000;
+  }
+
+  @Override
+  public ValidationResult onStartup(OgcApi api, MODE apiValidation) {
+    documents.remove(api.getId());
+
+    if (api.getData()
+        .getExtension(Oas30Configuration.class)
+        .filter(Oas30Configuration::isBuildOnStartup)
+        .isPresent()) {
+      OgcApiDataV2 apiData = api.getData();
+      List<String> urls = getServerUrls(api);
+
+      CompletableFuture.runAsync(
+              () -> urls.forEach(serverUrl -> getDocument(apiData, serverUrl)), executor)
+          .exceptionally(
+              e -> {
+                LogContext.error(
+                    LOGGER, e, "Could not create the OpenAPI definition of API '{}'", api.getId());
+                return null;
+              });
+    }
+
+    return ValidationResult.of();
+  }
+
+  @Override
+  public void onShutdown(OgcApi api) {
+    documents.remove(api.getId());
   }
 
   @Override
   public Response getOpenApi(
-      String type, URICustomizer requestUriCustomizer, OgcApiDataV2 apiData) {
+      String type, ApiRequestContext requestContext, OgcApiDataV2 apiData) {
+    String serverUrl =
+        requestContext
+            .getUriCustomizer()
+            .copy()
+            .clearParameters()
+            .ensureNoTrailingSlash()
+            .removeLastPathSegment("api")
+            .toString();
+    rememberServerUrl(apiData.getId(), serverUrl);
+    OpenApiDocument document = getDocument(apiData, serverUrl);
 
-    boolean pretty = true;
+    boolean yaml = StringUtils.isNotBlank(type) && "yaml".equalsIgnoreCase(type.trim());
+    Representation representation = yaml ? document.yaml : document.json;
 
-    try {
-      OpenAPI openAPI =
-          Json.mapper()
-              .readerFor(OpenAPI.class)
-              .readValue(
-                  Resources.asByteSource(
-                          Resources.getResource(
-                              ExtendableOpenApiDefinitionImpl.class, "/openapi.json"))
-                      .openBufferedStream());
-
-      if (apiData.getAccessControl().filter(ApiSecurity::isEnabled).isPresent()) {
-        if (oidc.isEnabled()) {
-          Scopes scopes = new Scopes();
-
-          if (!apiData.getAccessControl().get().getScopes().isEmpty()) {
-            Map<String, String> activeScopes = apiSecurityInfo.getActiveScopes(apiData);
-
-            activeScopes.forEach(scopes::addString);
-          }
-
-          openAPI
-              .getComponents()
-              .addSecuritySchemes(
-                  "Default",
-                  new SecurityScheme()
-                      .type(Type.OPENIDCONNECT)
-                      .openIdConnectUrl(oidc.getConfigurationUri()));
-        } else {
-          openAPI
-              .getComponents()
-              .addSecuritySchemes(
-                  "Default",
-                  new SecurityScheme()
-                      .type(SecurityScheme.Type.HTTP)
-                      .scheme("bearer")
-                      .bearerFormat("JWT"));
+    Optional<Response.ResponseBuilder> notModified =
+        evaluatePreconditions(requestContext, representation.etag);
+    if (notModified.isPresent()) {
+      return notModified.get().build();
+    }
+
+    return Response.ok()
+        .entity(representation.content)
+        .type(yaml ? OpenApiYaml.MEDIA_TYPE.type() : OpenApiJson.MEDIA_TYPE.type())
+        .tag(representation.etag)
+        .build();
+  }
+
+  // before the first request, the URL of the API is the best guess for the server URL
+  private List<String> getServerUrls(OgcApi api) {
+    Map<String, Boolean> urls = serverUrls.get(api.getId());
+    if (Objects.nonNull(urls)) {
+      synchronized (urls) {
+        if (!urls.isEmpty()) {
+          return ImmutableList.copyOf(urls.keySet());
         }
       }
+    }
+    return ImmutableList.of(api.getUri().toString());
+  }
 
-      openAPI.servers(
-          ImmutableList.of(
-              new Server()
-                  .url(
-                      requestUriCustomizer
-                          .copy()
-                          .clearParameters()
-                          .ensureNoTrailingSlash()
-                          .removeLastPathSegment("api")
-                          .toString())));
-
-      if (apiData != null) {
-
-        openAPI.getInfo().title(apiData.getLabel());
-        if (apiData
-            .getExtension(FoundationConfiguration.class)
-            .map(FoundationConfiguration::includesSpecificationInformation)
-            .orElse(true)) {
-          String note =
-              "Note: This API is based on API building blocks (e.g., operations, query parameters, or headers) specified in OGC API Standards or drafts of those standards. For more information about OGC API Standards, see [https://ogcapi.ogc.org](https://ogcapi.ogc.org/). Some building blocks of this API can be preliminary and may change in this API, because they are not yet based on a stable specification. The maturity is stated for each building block.";
-          openAPI.getInfo().description(apiData.getDescription().orElse(""));
-          apiData
-              .getDescription()
-              .ifPresentOrElse(
-                  desc -> openAPI.getInfo().description(String.format("%s\n\n_%s_", desc, note)),
-                  () -> openAPI.getInfo().description(note));
-        } else {
-          apiData.getDescription().ifPresent(desc -> openAPI.getInfo().description(desc));
-        }
+  private void rememberServerUrl(String apiId, String serverUrl) {
+    Map<String, Boolean> urls = serverUrls.computeIfAbsent(apiId, ignore -> createLruCache());
+    synchronized (urls) {
+      urls.put(serverUrl, true);
+    }
+  }
 
-        if (apiData.getMetadata().isPresent()) {
-          ApiMetadata md = apiData.getMetadata().get();
-          openAPI.getInfo().version(md.getVersion().orElse("1.0.0"));
-          if (md.getContactName().isPresent()
-              || md.getContactUrl().isPresent()
-              || md.getContactEmail().isPresent()) {
-            Contact contact = new Contact();
-            md.getContactName().ifPresent(contact::name);
-            md.getContactUrl().ifPresent(contact::url);
-            md.getContactEmail().ifPresent(contact::email);
-            openAPI.getInfo().contact(contact);
-          }
-          if (md.getLicenseName().isPresent()) {
-            // license name is required
-            License license = new License().name(md.getLicenseName().get());
-            md.getLicenseUrl().ifPresent(license::url);
-            openAPI.getInfo().license(license);
-          }
-        } else {
-          // version is required
-          openAPI.getInfo().version("1.0.0");
-        }
+  private OpenApiDocument getDocument(OgcApiDataV2 apiData, String serverUrl) {
+    DocumentKey key = getDocumentKey(apiData, serverUrl);
+    Cache<DocumentKey, OpenApiDocument> apiDocuments =
+        documents.computeIfAbsent(
+            apiData.getId(),
+            ignore -> CacheBuilder.newBuilder().maximumSize(MAX_DOCUMENTS_PER_API).build());
 
-        if (apiData.getExternalDocs().isPresent()) {
-          ExternalDocumentation externalDocs = apiData.getExternalDocs().get();
-          io.swagger.v3.oas.models.ExternalDocumentation docs =
-              new io.swagger.v3.oas.models.ExternalDocumentation().url(externalDocs.getUrl());
-          if (externalDocs.getDescription().isPresent())
-            docs.description(externalDocs.getDescription().get());
-          openAPI.externalDocs(docs);
-        }
+    // entries for an outdated version of the API will not be requested again
+    apiDocuments.asMap().keySet().removeIf(other -> !other.isSameVersion(key));
+
+    OpenApiDocument document = apiDocuments.getIfPresent(key);
+    if (Objects.nonNull(document)) {
+      return document;
+    }
+
+    // the document is created without a lock, if it is created concurrently for the same key, the
+    // first published document is used
+    OpenApiDocument created = createDocument(apiData, serverUrl);
+    OpenApiDocument previous = apiDocuments.asMap().putIfAbsent(key, created);
+
+    return Objects.nonNull(previous) ? previous : created;
+  }
+
+  private DocumentKey getDocumentKey(OgcApiDataV2 apiData, String serverUrl) {
+    // the definitions of endpoints that are currently unavailable are not included in the document
+    StringBuilder availability = new StringBuilder();
+    for (EndpointExtension endpoint :
+        extensionRegistry.getExtensionsForType(EndpointExtension.class)) {
+      if (endpoint instanceof ApiExtensionHealth && endpoint.isEnabledForApi(apiData)) {
+        availability.append(
+            ((ApiExtensionHealth) endpoint).getComposedVolatile(apiData).isAvailable() ? '1' : '0');
       }
+    }
 
-      // TODO update with examples and details (f enums, lang enums, etc.)
+    boolean secured = apiData.getAccessControl().filter(ApiSecurity::isEnabled).isPresent();
+    Set<String> scopes =
+        secured && oidc.isEnabled() && !apiData.getAccessControl().get().getScopes().isEmpty()
+            ? ImmutableSet.copyOf(apiSecurityInfo.getActiveScopes(apiData).keySet())
+            : ImmutableSet.of();
 
-      extensionRegistry.getExtensionsForType(OpenApiExtension.class).stream()
-          .sorted(Comparator.comparing(OpenApiExtension::getSortPriority))
-          .forEachOrdered(openApiExtension -> openApiExtension.process(openAPI, apiData));
+    return new DocumentKey(
+        apiData.hashCode(),
+        availability.toString(),
+        secured ? (oidc.isEnabled() ? oidc.getConfigurationUri() : "bearer") : "",
+        scopes,
+        serverUrl);
+  }
 
-      if (StringUtils.isNotBlank(type) && "yaml".equalsIgnoreCase(type.trim())) {
-        return Response.ok()
-            .entity(pretty ? Yaml.pretty(openAPI) : Yaml.mapper().writeValueAsString(openAPI))
-            .type(OpenApiYaml.MEDIA_TYPE.type())
-            .build();
-      } else {
-        return Response.ok()
-            .entity(pretty ? Json.pretty(openAPI) : Json.mapper().writeValueAsString(openAPI))
-            .type(OpenApiJson.MEDIA_TYPE.type())
-            .build();
+  private OpenApiDocument createDocument(OgcApiDataV2 apiData, String serverUrl) {
+    long start = System.nanoTime();
+
+    try {
+      OpenAPI openAPI = createOpenApi(apiData, serverUrl);
+      OpenApiDocument document =
+          new OpenApiDocument(
+              new Representation(Json.pretty(openAPI).getBytes(StandardCharsets.UTF_8)),
+              new Representation(Yaml.pretty(openAPI).getBytes(StandardCharsets.UTF_8)));
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug(
+            "Created OpenAPI definition of API '{}' for '{}' in {}ms.",
+            apiData.getId(),
+            serverUrl,
+            (System.nanoTime() - start) / 1_000_000);
       }
+
+      return document;
     } catch (IOException e) {
       throw new RuntimeException("OpenAPI document could not be created", e);
     }
   }
+
+  private OpenAPI createOpenApi(OgcApiDataV2 apiData, String serverUrl) throws IOException {
+    OpenAPI openAPI =
+        Json.mapper()
+            .readerFor(OpenAPI.class)
+            .readValue(
+                Resources.asByteSource(
+                        Resources.getResource(
+                            ExtendableOpenApiDefinitionImpl.class, "/openapi.json"))
+                    .openBufferedStream());
+
+    if (apiData.getAccessControl().filter(ApiSecurity::isEnabled).isPresent()) {
+      if (oidc.isEnabled()) {
+        Scopes scopes = new Scopes();
+
+        if (!apiData.getAccessControl().get().getScopes().isEmpty()) {
+          Map<String, String> activeScopes = apiSecurityInfo.getActiveScopes(apiData);
+
+          activeScopes.forEach(scopes::addString);
+        }
+
+        openAPI
+            .getComponents()
+            .addSecuritySchemes(
+                "Default",
+                new SecurityScheme()
+                    .type(Type.OPENIDCONNECT)
+                    .openIdConnectUrl(oidc.getConfigurationUri()));
+      } else {
+        openAPI
+            .getComponents()
+            .addSecuritySchemes(
+                "Default",
+                new SecurityScheme()
+                    .type(SecurityScheme.Type.HTTP)
+                    .scheme("bearer")
+                    .bearerFormat("JWT"));
+      }
+    }
+
+    openAPI.servers(ImmutableList.of(new Server().url(serverUrl)));
+
+    if (apiData != null) {
+
+      openAPI.getInfo().title(apiData.getLabel());
+      if (apiData
+          .getExtension(FoundationConfiguration.class)
+          .map(FoundationConfiguration::includesSpecificationInformation)
+          .orElse(true)) {
+        String note =
+            "Note: This API is based on API building blocks (e.g., operations, query parameters, or headers) specified in OGC API Standards or drafts of those standards. For more information about OGC API Standards, see [https://ogcapi.ogc.org](https://ogcapi.ogc.org/). Some building blocks of this API can be preliminary and may change in this API, because they are not yet based on a stable specification. The maturity is stated for each building block.";
+        openAPI.getInfo().description(apiData.getDescription().orElse(""));
+        apiData
+            .getDescription()
+            .ifPresentOrElse(
+                desc -> openAPI.getInfo().description(String.format("%s\n\n_%s_", desc, note)),
+                () -> openAPI.getInfo().description(note));
+      } else {
+        apiData.getDescription().ifPresent(desc -> openAPI.getInfo().description(desc));
+      }
+
+      if (apiData.getMetadata().isPresent()) {
+        ApiMetadata md = apiData.getMetadata().get();
+        openAPI.getInfo().version(md.getVersion().orElse("1.0.0"));
+        if (md.getContactName().isPresent()
+            || md.getContactUrl().isPresent()
+            || md.getContactEmail().isPresent()) {
+          Contact contact = new Contact();
+          md.getContactName().ifPresent(contact::name);
+          md.getContactUrl().ifPresent(contact::url);
+          md.getContactEmail().ifPresent(contact::email);
+          openAPI.getInfo().contact(contact);
+        }
+        if (md.getLicenseName().isPresent()) {
+          // license name is required
+          License license = new License().name(md.getLicenseName().get());
+          md.getLicenseUrl().ifPresent(license::url);
+          openAPI.getInfo().license(license);
+        }
+      } else {
+        // version is required
+        openAPI.getInfo().version("1.0.0");
+      }
+
+      if (apiData.getExternalDocs().isPresent()) {
+        ExternalDocumentation externalDocs = apiData.getExternalDocs().get();
+        io.swagger.v3.oas.models.ExternalDocumentation docs =
+            new io.swagger.v3.oas.models.ExternalDocumentation().url(externalDocs.getUrl());
+        if (externalDocs.getDescription().isPresent())
+          docs.description(externalDocs.getDescription().get());
+        openAPI.externalDocs(docs);
+      }
+    }
+
+    // TODO update with examples and details (f enums, lang enums, etc.)
+
+    extensionRegistry.getExtensionsForType(OpenApiExtension.class).stream()
+        .sorted(Comparator.comparing(OpenApiExtension::getSortPriority))
+        .forEachOrdered(openApiExtension -> openApiExtension.process(openAPI, apiData));
+
+    return openAPI;
+  }
+
+  private static Optional<Response.ResponseBuilder> evaluatePreconditions(
+      ApiRequestContext requestContext, EntityTag etag) {
+    if (requestContext.getRequest().isPresent()) {
+      Request request = requestContext.getRequest().get();
+      try {
+        return Optional.ofNullable(request.evaluatePreconditions(etag));
+      } catch (Exception e) {
+        // could not parse headers, so silently ignore them and return the regular response
+        LOGGER.debug("Ignoring invalid conditional request headers: {}", e.getMessage());
+      }
+    }
+
+    return Optional.empty();
+  }
+
+  private static <K, V> Map<K, V> createLruCache() {
+    return new LinkedHashMap<>(MAX_DOCUMENTS_PER_API + 1, 1.0f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > MAX_DOCUMENTS_PER_API;
+      }
+    };
+  }
+
+  private static final class DocumentKey {
+    private final int apiHash;
+    private final String availability;
+    private final String securityScheme;
+    private final Set<String> scopes;
+    private final String serverUrl;
+
+    private DocumentKey(
+        int apiHash,
+        String availability,
+        String securityScheme,
+        Set<String> scopes,
+        String serverUrl) {
+      this.apiHash = apiHash;
+      this.availability = availability;
+      this.securityScheme = securityScheme;
+      this.scopes = scopes;
+      this.serverUrl = serverUrl;
+    }
+
+    private boolean isSameVersion(DocumentKey other) {
+      return apiHash == other.apiHash && availability.equals(other.availability);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof DocumentKey)) {
+        return false;
+      }
+      DocumentKey that = (DocumentKey) o;
+      return apiHash == that.apiHash
+          && availability.equals(that.availability)
+          && securityScheme.equals(that.securityScheme)
+          && scopes.equals(that.scopes)
+          && serverUrl.equals(that.serverUrl);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(apiHash, availability, securityScheme, scopes, serverUrl);
+    }
+  }
+
+  private static final class OpenApiDocument {
+    private final Representation json;
+    private final Representation yaml;
+
+    private OpenApiDocument(Representation json, Representation yaml) {
+      this.json = json;
+      this.yaml = yaml;
+    }
+  }
+
+  private static final class Representation {
+    private final byte[] content;
+    private final EntityTag etag;
+
+    private Representation(byte[] content) {
+      this.content = content;
+      this.etag = ETag.from(content);
+    }
+  }
 }
@@ -70,8 +70,7 @@ public class OpenApiJson implements ApiDefinitionFormatExtension {
 
   @Override
   public Response getResponse(OgcApiDataV2 apiData, ApiRequestContext apiRequestContext) {
-    return openApiDefinition.getOpenApi(
-        "json", apiRequestContext.getUriCustomizer().copy(), apiData);
+    return openApiDefinition.getOpenApi("json", apiRequestContext, apiData);
   }
 
   @Override
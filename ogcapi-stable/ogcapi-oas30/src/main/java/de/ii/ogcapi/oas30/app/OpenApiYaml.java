@@ -68,8 +68,7 @@ public class OpenApiYaml implements ApiDefinitionFormatExtension {
 
   @Override
   public Response getResponse(OgcApiDataV2 apiData, ApiRequestContext apiRequestContext) {
-    return openApiDefinition.getOpenApi(
-        "yaml", apiRequestContext.getUriCustomizer().copy(), apiData);
+    return openApiDefinition.getOpenApi("yaml", apiRequestContext, apiData);
   }
 
   @Override
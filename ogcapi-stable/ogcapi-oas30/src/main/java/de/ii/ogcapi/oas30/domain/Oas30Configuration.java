@@ -55,6 +55,26 @@ public interface Oas30Configuration extends ExtensionConfiguration {
     return getShowSchemaConstraintsInHtml() != null && getShowSchemaConstraintsInHtml();
   }
 
+  /**
+   * @langEn The OpenAPI definition is created on the first request and then cached until the API
+   *     is reloaded. Set this to `true` to create the OpenAPI definition already in the background
+   *     when the API is started, so that also the first request is fast.
+   * @langDe Die OpenAPI-Definition wird bei der ersten Anfrage erzeugt und dann bis zum Neuladen
+   *     der API zwischengespeichert. Setzen Sie dies auf `true`, um die OpenAPI-Definition bereits
+   *     beim Start der API im Hintergrund zu erzeugen, damit auch die erste Anfrage schnell ist.
+   * @default false
+   * @since v4.9
+   */
+  @Nullable
+  Boolean getBuildOnStartup();
+
+  @Value.Derived
+  @Value.Auxiliary
+  @DocIgnore
+  default boolean isBuildOnStartup() {
+    return getBuildOnStartup() != null && getBuildOnStartup();
+  }
+
   abstract class Builder extends ExtensionConfiguration.Builder {}
 
   @Override
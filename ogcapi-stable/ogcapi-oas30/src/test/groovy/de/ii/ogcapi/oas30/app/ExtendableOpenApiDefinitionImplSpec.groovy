@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.oas30.app
+
+import de.ii.ogcapi.foundation.domain.ApiRequestContext
+import de.ii.ogcapi.foundation.domain.ApiSecurityInfo
+import de.ii.ogcapi.foundation.domain.AppContextTest
+import de.ii.ogcapi.foundation.domain.ExtensionRegistry
+import de.ii.ogcapi.foundation.domain.ImmutableOgcApiDataV2
+import de.ii.ogcapi.foundation.domain.OgcApi
+import de.ii.ogcapi.foundation.domain.OgcApiDataV2
+import de.ii.xtraplatform.auth.domain.Oidc
+import de.ii.xtraplatform.web.domain.URICustomizer
+import jakarta.ws.rs.core.HttpHeaders
+import jakarta.ws.rs.core.Request
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class ExtendableOpenApiDefinitionImplSpec extends Specification {
+
+    ExtendableOpenApiDefinitionImpl openApiDefinition
+
+    def setup() {
+        ExtensionRegistry extensionRegistry = Stub() {
+            getExtensionsForType(_) >> []
+        }
+        Oidc oidc = Stub() {
+            isEnabled() >> false
+        }
+        openApiDefinition = new ExtendableOpenApiDefinitionImpl(new AppContextTest(), extensionRegistry, oidc, Stub(ApiSecurityInfo))
+    }
+
+    static OgcApiDataV2 apiData(String label) {
+        new ImmutableOgcApiDataV2.Builder()
+                .id('test')
+                .serviceType('OGC_API')
+                .label(label)
+                .build()
+    }
+
+    ApiRequestContext requestContext(String uri, Optional<Request> request = Optional.empty()) {
+        Stub(ApiRequestContext) {
+            getUriCustomizer() >> new URICustomizer(new URI(uri))
+            getRequest() >> request
+        }
+    }
+
+    def 'The document is reused for the same API and server URL'() {
+
+        given:
+
+        def data = apiData('Test')
+
+        when:
+
+        def first = openApiDefinition.getOpenApi('json', requestContext('http://example.com/test/api'), data)
+        def second = openApiDefinition.getOpenApi('json', requestContext('http://example.com/test/api?f=json'), data)
+        def other = openApiDefinition.getOpenApi('json', requestContext('http://proxy.example.com/test/api'), data)
+
+        then:
+
+        second.entity.is(first.entity)
+        second.entityTag == first.entityTag
+        !other.entity.is(first.entity)
+        new String(other.entity as byte[], StandardCharsets.UTF_8).contains('http://proxy.example.com/test')
+    }
+
+    def 'JSON and YAML are separate representations'() {
+
+        given:
+
+        def data = apiData('Test')
+
+        when:
+
+        def json = openApiDefinition.getOpenApi('json', requestContext('http://example.com/test/api'), data)
+        def yaml = openApiDefinition.getOpenApi('yaml', requestContext('http://example.com/test/api'), data)
+
+        then:
+
+        json.mediaType.subtype.contains('json')
+        yaml.mediaType.subtype.contains('yaml')
+        json.entityTag != yaml.entityTag
+    }
+
+    def 'The document is created again, if the API changes or is restarted'() {
+
+        given:
+
+        def data = apiData('Test')
+        def first = openApiDefinition.getOpenApi('json', requestContext('http://example.com/test/api'), data)
+
+        when: "the API data changes"
+
+        def changed = openApiDefinition.getOpenApi('json', requestContext('http://example.com/test/api'), apiData('Changed'))
+
+        then:
+
+        changed.entityTag != first.entityTag
+        new String(changed.entity as byte[], StandardCharsets.UTF_8).contains('Changed')
+
+        when: "the API is stopped"
+
+        openApiDefinition.onShutdown(Stub(OgcApi) { getId() >> 'test' })
+        def restarted = openApiDefinition.getOpenApi('json', requestContext('http://example.com/test/api'), apiData('Changed'))
+
+        then: "the content is the same, but it was created again"
+
+        !restarted.entity.is(changed.entity)
+        restarted.entityTag == changed.entityTag
+    }
+
+    def 'Compression is left to the server'() {
+
+        given: "a request that accepts gzip"
+
+        Request request = Mock(Request, additionalInterfaces: [HttpHeaders]) {
+            getHeaderString(HttpHeaders.ACCEPT_ENCODING) >> 'gzip, deflate'
+        }
+
+        when:
+
+        def plain = openApiDefinition.getOpenApi('json', requestContext('http://example.com/test/api'), apiData('Test'))
+        def accepted = openApiDefinition.getOpenApi('json', requestContext('http://example.com/test/api', Optional.of(request)), apiData('Test'))
+
+        then:
+
+        accepted.getHeaderString(HttpHeaders.CONTENT_ENCODING) == null
+        accepted.entity.is(plain.entity)
+        accepted.entityTag == plain.entityTag
+    }
+}
@@ -8,6 +8,9 @@
 package de.ii.ogcapi.tilematrixsets.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.tilematrixsets.domain.TileMatrixSetLimitsGenerator;
 import de.ii.ogcapi.tilematrixsets.domain.TileMatrixSetLimitsOgcApi;
@@ -23,7 +26,7 @@ import jakarta.inject.Singleton;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,11 +40,19 @@ public class TileMatrixSetLimitsGeneratorImpl implements TileMatrixSetLimitsGene
 
   private static final Logger LOGGER =
       LoggerFactory.getLogger(TileMatrixSetLimitsGeneratorImpl.class);
+  private static final int MAX_CACHE_ENTRIES = 1_000;
+
   private final CrsTransformerFactory crsTransformerFactory;
+  // the limits only depend on the spatial extent, the tile matrix set and the zoom levels, but
+  // computing them requires coordinate transformations, so the results are cached
+  private final Cache<List<Object>, Optional<BoundingBox>> boundingBoxes;
+  private final Cache<List<Object>, List<TileMatrixSetLimitsOgcApi>> limits;
 
   @Inject
   public TileMatrixSetLimitsGeneratorImpl(CrsTransformerFactory crsTransformerFactory) {
     this.crsTransformerFactory = crsTransformerFactory;
+    this.boundingBoxes = CacheBuilder.newBuilder().maximumSize(MAX_CACHE_ENTRIES).build();
+    this.limits = CacheBuilder.newBuilder().maximumSize(MAX_CACHE_ENTRIES).build();
   }
 
   @Override
@@ -50,11 +61,8 @@ public class TileMatrixSetLimitsGeneratorImpl implements TileMatrixSetLimitsGene
       TileMatrixSet tileMatrixSet,
       MinMax tileMatrixRange,
       Optional<String> collectionId) {
-    return tileMatrixSet
-        .getLimitsList(tileMatrixRange, getBoundingBox(api, tileMatrixSet, collectionId))
-        .stream()
-        .map(TileMatrixSetLimitsOgcApi::of)
-        .collect(Collectors.toList());
+    return getLimitsList(
+        tileMatrixSet, tileMatrixRange, getBoundingBox(api, tileMatrixSet, collectionId));
   }
 
   @Override
@@ -85,17 +93,49 @@ public class TileMatrixSetLimitsGeneratorImpl implements TileMatrixSetLimitsGene
       bbox = Optional.of(tileMatrixSet.getBoundingBox());
     }
 
-    return tileMatrixSet.getLimitsList(tileMatrixRange, bbox.get()).stream()
-        .map(TileMatrixSetLimitsOgcApi::of)
-        .collect(Collectors.toList());
+    return getLimitsList(tileMatrixSet, tileMatrixRange, bbox.get());
+  }
+
+  @Override
+  public TileMatrixSetLimitsOgcApi getTileMatrixSetLimits(
+      BoundingBox boundingBox, TileMatrixSet tileMatrixSet, int tileMatrix) {
+    BoundingBox bbox =
+        getBoundingBoxInTargetCrs(boundingBox, tileMatrixSet.getCrs(), crsTransformerFactory)
+            .orElseGet(tileMatrixSet::getBoundingBox);
+
+    return TileMatrixSetLimitsOgcApi.of(tileMatrixSet.getLimits(tileMatrix, bbox));
+  }
+
+  private List<TileMatrixSetLimitsOgcApi> getLimitsList(
+      TileMatrixSet tileMatrixSet, MinMax tileMatrixRange, BoundingBox boundingBox) {
+    try {
+      return limits.get(
+          List.of(tileMatrixSet, tileMatrixRange, boundingBox),
+          () ->
+              tileMatrixSet.getLimitsList(tileMatrixRange, boundingBox).stream()
+                  .map(TileMatrixSetLimitsOgcApi::of)
+                  .collect(ImmutableList.toImmutableList()));
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
   }
 
-  private static BoundingBox getBoundingBox(
+  private BoundingBox getBoundingBox(
       OgcApi api, TileMatrixSet tileMatrixSet, Optional<String> collectionId) {
+    // the transformed extent is cached per extent in CRS84 and target CRS, so a changed extent
+    // is transformed again
     Optional<BoundingBox> boundingBox =
-        collectionId.isPresent()
-            ? api.getSpatialExtent(collectionId.get(), tileMatrixSet.getCrs())
-            : api.getSpatialExtent(tileMatrixSet.getCrs());
+        api.getSpatialExtent(collectionId)
+            .flatMap(
+                extent -> {
+                  try {
+                    return boundingBoxes.get(
+                        List.of(extent, tileMatrixSet.getCrs()),
+                        () -> api.getSpatialExtent(collectionId, tileMatrixSet.getCrs()));
+                  } catch (ExecutionException e) {
+                    return api.getSpatialExtent(collectionId, tileMatrixSet.getCrs());
+                  }
+                });
 
     if (boundingBox.isPresent()) {
       return boundingBox.get();
@@ -9,6 +9,8 @@ package de.ii.ogcapi.tilematrixsets.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
 import de.ii.ogcapi.foundation.domain.ApiRequestContext;
 import de.ii.ogcapi.foundation.domain.ExtensionRegistry;
 import de.ii.ogcapi.foundation.domain.HeaderCaching;
@@ -18,6 +20,7 @@ import de.ii.ogcapi.foundation.domain.Link;
 import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.foundation.domain.QueryHandler;
 import de.ii.ogcapi.foundation.domain.QueryInput;
+import de.ii.ogcapi.foundation.domain.ResponseCache;
 import de.ii.ogcapi.html.domain.HtmlConfiguration;
 import de.ii.ogcapi.tilematrixsets.domain.ImmutableTileMatrixSetLinks;
 import de.ii.ogcapi.tilematrixsets.domain.ImmutableTileMatrixSetOgcApi;
@@ -89,6 +92,20 @@ public class TileMatrixSetsQueriesHandlerImpl extends AbstractVolatileComposed
     return queryHandlers;
   }
 
+  @Override
+  public boolean canCacheResponse(Query query) {
+    return true;
+  }
+
+  @Override
+  public void putResponseCacheInputs(
+      Query query, QueryInput queryInput, ApiRequestContext requestContext, Hasher hasher) {
+    ResponseCache.putValues(
+        hasher,
+        Maps.transformValues(
+            tileMatrixSetRepository.getAll(), TileMatrixSet::getTileMatrixSetData));
+  }
+
   private Response getTileMatrixSetsResponse(
       QueryInputTileMatrixSets queryInput, ApiRequestContext requestContext) {
     OgcApi api = requestContext.getApi();
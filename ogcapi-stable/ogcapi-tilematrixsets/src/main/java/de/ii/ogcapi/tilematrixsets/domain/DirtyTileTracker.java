@@ -0,0 +1,299 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.tilematrixsets.domain;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import de.ii.xtraplatform.base.domain.LogContext;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSetLimits;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the tiles that are affected by feature changes per tileset and tile matrix set. The
+ * dirty tiles are merged and passed to the flush handler after the debounce window, so that many
+ * small changes, e.g. from a bulk transaction, result in a single seeding job set with few tile
+ * ranges instead of one job set per change. The window starts with the first change after a flush,
+ * a steady stream of changes does not postpone the seeding indefinitely.
+ *
+ * <p>Pending dirty tiles are written to a file, so they are not lost on a restart. A tracker that
+ * is created for an existing file flushes the dirty tiles from the file after the debounce window.
+ * The dirty tiles are removed from the file only after the flush handler has processed them, if
+ * the flush handler fails, they are flushed again after the next debounce window.
+ */
+public final class DirtyTileTracker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DirtyTileTracker.class);
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final TypeReference<Map<String, Map<String, List<int[]>>>> FILE_TYPE =
+      new TypeReference<>() {};
+  private static final Duration PERSIST_DELAY = Duration.ofSeconds(1);
+  private static final ScheduledExecutorService SCHEDULER =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("dirty-tiles-%d").setDaemon(true).build());
+
+  /**
+   * The maximum number of tile ranges per tileset, tile matrix set and tile matrix that is passed
+   * to the flush handler, if there are more ranges, nearby ranges are merged.
+   */
+  public static final int MAX_RANGES = 16;
+
+  /**
+   * The finest tile matrix that should be used to track dirty tiles. Finer tile matrices do not
+   * reduce the work of the seeding significantly, but increase the number of tile ranges.
+   */
+  public static final int MAX_TRACKING_LEVEL = 12;
+
+  private final Path file;
+  private final Duration debounce;
+  private final Consumer<Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>>> flushHandler;
+  // tileset -> tile matrix set -> dirty tiles
+  private final Map<String, Map<String, DirtyTiles>> dirtyTiles;
+  // the dirty tiles that are currently processed by the flush handler
+  private Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>> flushing;
+  private ScheduledFuture<?> flushTask;
+  private ScheduledFuture<?> persistTask;
+  private boolean closed;
+
+  /**
+   * @param file the file for pending dirty tiles
+   * @param debounce the time between the first change and the flush
+   * @param flushHandler receives the dirty tile ranges per tileset and tile matrix set
+   */
+  public DirtyTileTracker(
+      Path file,
+      Duration debounce,
+      Consumer<Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>>> flushHandler) {
+    this.file = file;
+    this.debounce = debounce;
+    this.flushHandler = flushHandler;
+    this.dirtyTiles = new LinkedHashMap<>();
+    this.flushing = Map.of();
+
+    load();
+  }
+
+  public synchronized void add(
+      String tileset, String tileMatrixSetId, TileMatrixSetLimits limits) {
+    if (closed) {
+      return;
+    }
+
+    getDirtyTiles(tileset, tileMatrixSetId).add(limits);
+
+    schedule();
+  }
+
+  /**
+   * Passes the dirty tiles to the flush handler immediately. The dirty tiles are kept in the file
+   * until the flush handler returns, if it fails, they are added to the pending dirty tiles again.
+   */
+  public void flush() {
+    Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>> ranges;
+
+    synchronized (this) {
+      if (closed || !flushing.isEmpty()) {
+        return;
+      }
+      cancel();
+      ranges = getRanges(MAX_RANGES);
+      dirtyTiles.clear();
+      flushing = ranges;
+    }
+
+    if (ranges.isEmpty()) {
+      return;
+    }
+
+    boolean success = false;
+    try {
+      flushHandler.accept(ranges);
+      success = true;
+    } catch (Throwable e) {
+      LogContext.error(LOGGER, e, "Could not process dirty tiles of '{}'", file.getFileName());
+    }
+
+    synchronized (this) {
+      flushing = Map.of();
+      if (!success) {
+        ranges.forEach(
+            (tileset, tileMatrixSets) ->
+                tileMatrixSets.forEach(
+                    (tileMatrixSet, limits) ->
+                        limits.forEach(getDirtyTiles(tileset, tileMatrixSet)::add)));
+      }
+      // the file still contains the flushed dirty tiles and possibly changes during the flush
+      cancel();
+      persist();
+      if (!closed && !dirtyTiles.isEmpty()) {
+        schedule();
+      }
+    }
+  }
+
+  /** Stops the tracker, pending dirty tiles are kept in the file. */
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    cancel();
+    persist();
+  }
+
+  private DirtyTiles getDirtyTiles(String tileset, String tileMatrixSetId) {
+    return dirtyTiles
+        .computeIfAbsent(tileset, ignore -> new LinkedHashMap<>())
+        .computeIfAbsent(tileMatrixSetId, ignore -> new DirtyTiles());
+  }
+
+  private void schedule() {
+    if (Objects.isNull(flushTask)) {
+      flushTask = SCHEDULER.schedule(this::flush, debounce.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    if (Objects.isNull(persistTask) && PERSIST_DELAY.compareTo(debounce) < 0) {
+      persistTask =
+          SCHEDULER.schedule(
+              this::persistScheduled, PERSIST_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void cancel() {
+    if (Objects.nonNull(flushTask)) {
+      flushTask.cancel(false);
+      flushTask = null;
+    }
+    if (Objects.nonNull(persistTask)) {
+      persistTask.cancel(false);
+      persistTask = null;
+    }
+  }
+
+  private synchronized void persistScheduled() {
+    persistTask = null;
+    persist();
+  }
+
+  private Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>> getRanges(int maxRanges) {
+    ImmutableMap.Builder<String, Map<String, List<TileMatrixSetLimitsOgcApi>>> ranges =
+        ImmutableMap.builder();
+
+    for (Entry<String, Map<String, DirtyTiles>> tileset : dirtyTiles.entrySet()) {
+      ImmutableMap.Builder<String, List<TileMatrixSetLimitsOgcApi>> tileMatrixSets =
+          ImmutableMap.builder();
+      for (Entry<String, DirtyTiles> tileMatrixSet : tileset.getValue().entrySet()) {
+        tileMatrixSets.put(
+            tileMatrixSet.getKey(),
+            ImmutableList.copyOf(tileMatrixSet.getValue().getRanges(maxRanges)));
+      }
+      ranges.put(tileset.getKey(), tileMatrixSets.build());
+    }
+
+    return ranges.build();
+  }
+
+  private void persist() {
+    if (dirtyTiles.isEmpty() && flushing.isEmpty()) {
+      delete();
+      return;
+    }
+
+    Map<String, Map<String, List<int[]>>> content = new LinkedHashMap<>();
+    for (Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>> ranges :
+        List.of(flushing, getRanges(Integer.MAX_VALUE))) {
+      ranges.forEach(
+          (tileset, tileMatrixSets) ->
+              tileMatrixSets.forEach(
+                  (tileMatrixSet, limits) ->
+                      content
+                          .computeIfAbsent(tileset, ignore -> new LinkedHashMap<>())
+                          .computeIfAbsent(tileMatrixSet, ignore -> new ArrayList<>())
+                          .addAll(
+                              limits.stream()
+                                  .map(DirtyTileTracker::toArray)
+                                  .collect(ImmutableList.toImmutableList()))));
+    }
+
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+      MAPPER.writeValue(tmp.toFile(), content);
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LogContext.error(LOGGER, e, "Could not write dirty tiles to '{}'", file);
+    }
+  }
+
+  // each tile range is stored as [tileMatrix, minRow, maxRow, minCol, maxCol]
+  private static int[] toArray(TileMatrixSetLimits range) {
+    return new int[] {
+      Integer.parseInt(range.getTileMatrix()),
+      range.getMinTileRow(),
+      range.getMaxTileRow(),
+      range.getMinTileCol(),
+      range.getMaxTileCol()
+    };
+  }
+
+  private void load() {
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+
+    try {
+      Map<String, Map<String, List<int[]>>> content = MAPPER.readValue(file.toFile(), FILE_TYPE);
+
+      synchronized (this) {
+        content.forEach(
+            (tileset, tileMatrixSets) ->
+                tileMatrixSets.forEach(
+                    (tileMatrixSet, ranges) -> {
+                      DirtyTiles tiles = getDirtyTiles(tileset, tileMatrixSet);
+                      ranges.forEach(r -> tiles.add(r[0], r[1], r[2], r[3], r[4]));
+                    }));
+
+        if (!dirtyTiles.isEmpty()) {
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Restored pending dirty tiles from '{}'", file);
+          }
+          schedule();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      LogContext.error(LOGGER, e, "Could not read dirty tiles from '{}', ignoring them", file);
+      delete();
+    }
+  }
+
+  private void delete() {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LogContext.error(LOGGER, e, "Could not delete dirty tiles file '{}'", file);
+    }
+  }
+}
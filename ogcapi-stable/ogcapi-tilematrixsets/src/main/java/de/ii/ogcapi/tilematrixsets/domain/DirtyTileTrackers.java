@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.tilematrixsets.domain;
+
+import de.ii.xtraplatform.crs.domain.BoundingBox;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSet;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSetLimits;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSetRepository;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The dirty tile trackers of the APIs for a kind of tiles, each API has its own file for pending
+ * dirty tiles in the directory.
+ */
+public final class DirtyTileTrackers {
+
+  private final Path directory;
+  private final Map<String, DirtyTileTracker> trackers;
+
+  /**
+   * @param directory the directory for the files with pending dirty tiles
+   */
+  public DirtyTileTrackers(Path directory) {
+    this.directory = directory;
+    this.trackers = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Creates a new tracker for the API, an existing tracker is closed first, so that its pending
+   * dirty tiles are restored by the new tracker.
+   *
+   * @param apiId the API
+   * @param debounce the time between the first change and the flush
+   * @param flushHandler receives the dirty tile ranges per tileset and tile matrix set
+   * @return the new tracker
+   */
+  public DirtyTileTracker replace(
+      String apiId,
+      Duration debounce,
+      Consumer<Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>>> flushHandler) {
+    return trackers.compute(
+        apiId,
+        (ignore, previous) -> {
+          // the previous tracker has to write its pending dirty tiles before they are read again
+          if (Objects.nonNull(previous)) {
+            previous.close();
+          }
+          return new DirtyTileTracker(directory.resolve(apiId + ".json"), debounce, flushHandler);
+        });
+  }
+
+  /** Closes the tracker of the API, pending dirty tiles are kept in the file. */
+  public void remove(String apiId) {
+    Optional.ofNullable(trackers.remove(apiId)).ifPresent(DirtyTileTracker::close);
+  }
+
+  /**
+   * Converts flushed dirty tiles to clip bounding boxes for the seeding. The n-th tile range of
+   * each tileset is converted to the clip bounding box of the tileset in the n-th map, so that each
+   * map can be seeded by a single job set. The tiles of a tileset are tracked in a single tile
+   * matrix set, if there are more, only the first one is used.
+   *
+   * @param dirtyTiles the dirty tile ranges per tileset and tile matrix set
+   * @param tileMatrixSetRepository the tile matrix sets
+   * @param tilesets the tilesets that are seeded
+   * @return the clip bounding boxes per tileset
+   */
+  public static List<Map<String, BoundingBox>> getClipBoundingBoxes(
+      Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>> dirtyTiles,
+      TileMatrixSetRepository tileMatrixSetRepository,
+      Predicate<String> tilesets) {
+    List<Map<String, BoundingBox>> clipBoundingBoxes = new ArrayList<>();
+
+    dirtyTiles.forEach(
+        (tileset, tileMatrixSets) -> {
+          if (!tilesets.test(tileset)) {
+            return;
+          }
+          tileMatrixSets.entrySet().stream()
+              .findFirst()
+              .ifPresent(
+                  ranges ->
+                      tileMatrixSetRepository
+                          .get(ranges.getKey())
+                          .ifPresent(
+                              tileMatrixSet -> {
+                                for (int i = 0; i < ranges.getValue().size(); i++) {
+                                  if (clipBoundingBoxes.size() <= i) {
+                                    clipBoundingBoxes.add(new LinkedHashMap<>());
+                                  }
+                                  clipBoundingBoxes
+                                      .get(i)
+                                      .put(
+                                          tileset,
+                                          getBoundingBox(tileMatrixSet, ranges.getValue().get(i)));
+                                }
+                              }));
+        });
+
+    return clipBoundingBoxes;
+  }
+
+  /**
+   * @return the bounding box of the tile range
+   */
+  public static BoundingBox getBoundingBox(
+      TileMatrixSet tileMatrixSet, TileMatrixSetLimits limits) {
+    int level = Integer.parseInt(limits.getTileMatrix());
+
+    return BoundingBox.merge(
+        tileMatrixSet.getTileBoundingBox(level, limits.getMinTileCol(), limits.getMinTileRow()),
+        tileMatrixSet.getTileBoundingBox(level, limits.getMaxTileCol(), limits.getMaxTileRow()));
+  }
+}
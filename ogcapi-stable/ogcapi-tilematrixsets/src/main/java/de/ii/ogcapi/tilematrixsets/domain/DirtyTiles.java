@@ -0,0 +1,206 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.tilematrixsets.domain;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSetLimits;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The tiles of a tile matrix set that have to be regenerated. For each tile matrix, the dirty
+ * columns of each row are kept as a set of intervals, so overlapping and adjacent tile ranges are
+ * merged when they are added. The dirty tiles are returned as a list of rectangular tile ranges.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public final class DirtyTiles {
+
+  // before the ranges are merged pairwise, nearby ranges are combined on a coarser grid until there
+  // are at most this factor times the maximum number of ranges
+  private static final int COARSENING_FACTOR = 4;
+
+  // tile matrix -> row -> columns
+  private final Map<Integer, TreeMap<Integer, RangeSet<Integer>>> tiles;
+
+  public DirtyTiles() {
+    this.tiles = new TreeMap<>();
+  }
+
+  public void add(TileMatrixSetLimits limits) {
+    add(
+        Integer.parseInt(limits.getTileMatrix()),
+        limits.getMinTileRow(),
+        limits.getMaxTileRow(),
+        limits.getMinTileCol(),
+        limits.getMaxTileCol());
+  }
+
+  public void add(int tileMatrix, int minRow, int maxRow, int minCol, int maxCol) {
+    TreeMap<Integer, RangeSet<Integer>> rows =
+        tiles.computeIfAbsent(tileMatrix, ignore -> new TreeMap<>());
+    // closed-open ranges, so that adjacent columns are coalesced
+    Range<Integer> cols = Range.closedOpen(minCol, maxCol + 1);
+    for (int row = minRow; row <= maxRow; row++) {
+      rows.computeIfAbsent(row, ignore -> TreeRangeSet.create()).add(cols);
+    }
+  }
+
+  public boolean isEmpty() {
+    return tiles.isEmpty();
+  }
+
+  /**
+   * @return the dirty tiles as rectangular tile ranges, each tile is contained in exactly one range
+   */
+  public List<TileMatrixSetLimitsOgcApi> getRanges() {
+    return getRanges(Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param maxRanges the maximum number of ranges per tile matrix, if there are more ranges,
+   *     nearby ranges are merged, always the two ranges whose common range adds the fewest tiles
+   * @return the dirty tiles as rectangular tile ranges, if ranges have been merged, the ranges
+   *     contain tiles that are not dirty and may overlap
+   */
+  public List<TileMatrixSetLimitsOgcApi> getRanges(int maxRanges) {
+    List<TileMatrixSetLimitsOgcApi> ranges = new ArrayList<>();
+
+    for (Entry<Integer, TreeMap<Integer, RangeSet<Integer>>> entry : tiles.entrySet()) {
+      List<TileMatrixSetLimitsOgcApi> rectangles = getRectangles(entry.getKey(), entry.getValue());
+
+      if (rectangles.size() > maxRanges) {
+        ranges.addAll(merge(entry.getKey(), rectangles, Math.max(1, maxRanges)));
+      } else {
+        ranges.addAll(rectangles);
+      }
+    }
+
+    return ranges;
+  }
+
+  // rows with the same column intervals are combined as long as the rows are consecutive
+  private static List<TileMatrixSetLimitsOgcApi> getRectangles(
+      int tileMatrix, TreeMap<Integer, RangeSet<Integer>> rows) {
+    List<TileMatrixSetLimitsOgcApi> rectangles = new ArrayList<>();
+    Map<Range<Integer>, Integer> open = new LinkedHashMap<>();
+    int previousRow = Integer.MIN_VALUE;
+
+    for (Entry<Integer, RangeSet<Integer>> entry : rows.entrySet()) {
+      int row = entry.getKey();
+      Set<Range<Integer>> cols = entry.getValue().asRanges();
+      boolean consecutive = row == previousRow + 1;
+      int lastRow = previousRow;
+
+      open.entrySet()
+          .removeIf(
+              rectangle -> {
+                if (consecutive && cols.contains(rectangle.getKey())) {
+                  return false;
+                }
+                rectangles.add(of(tileMatrix, rectangle.getValue(), lastRow, rectangle.getKey()));
+                return true;
+              });
+
+      for (Range<Integer> range : cols) {
+        open.putIfAbsent(range, row);
+      }
+      previousRow = row;
+    }
+
+    for (Entry<Range<Integer>, Integer> rectangle : open.entrySet()) {
+      rectangles.add(of(tileMatrix, rectangle.getValue(), previousRow, rectangle.getKey()));
+    }
+
+    return rectangles;
+  }
+
+  private static List<TileMatrixSetLimitsOgcApi> merge(
+      int tileMatrix, List<TileMatrixSetLimitsOgcApi> rectangles, int maxRanges) {
+    // each range is [minRow, maxRow, minCol, maxCol]
+    List<int[]> ranges = new ArrayList<>();
+    for (TileMatrixSetLimitsOgcApi rectangle : rectangles) {
+      ranges.add(
+          new int[] {
+            rectangle.getMinTileRow(),
+            rectangle.getMaxTileRow(),
+            rectangle.getMinTileCol(),
+            rectangle.getMaxTileCol()
+          });
+    }
+
+    // merging pairwise is quadratic in the number of ranges, so many scattered ranges are first
+    // combined per cell of a grid that gets coarser until the number of ranges is small enough
+    for (int shift = 1; ranges.size() > maxRanges * COARSENING_FACTOR && shift < 32; shift++) {
+      Map<Long, int[]> cells = new LinkedHashMap<>();
+      for (int[] range : ranges) {
+        long cell = ((long) (range[0] >> shift) << 32) | ((range[2] >> shift) & 0xFFFFFFFFL);
+        cells.merge(cell, range, DirtyTiles::envelope);
+      }
+      ranges = new ArrayList<>(cells.values());
+    }
+
+    while (ranges.size() > maxRanges) {
+      int first = 0;
+      int second = 1;
+      long minAddedTiles = Long.MAX_VALUE;
+      for (int i = 0; i < ranges.size(); i++) {
+        for (int j = i + 1; j < ranges.size(); j++) {
+          long addedTiles =
+              size(envelope(ranges.get(i), ranges.get(j)))
+                  - size(ranges.get(i))
+                  - size(ranges.get(j));
+          if (addedTiles < minAddedTiles) {
+            minAddedTiles = addedTiles;
+            first = i;
+            second = j;
+          }
+        }
+      }
+      ranges.set(first, envelope(ranges.get(first), ranges.get(second)));
+      ranges.remove(second);
+    }
+
+    List<TileMatrixSetLimitsOgcApi> merged = new ArrayList<>();
+    for (int[] range : ranges) {
+      merged.add(of(tileMatrix, range[0], range[1], Range.closedOpen(range[2], range[3] + 1)));
+    }
+    return merged;
+  }
+
+  private static int[] envelope(int[] range1, int[] range2) {
+    return new int[] {
+      Math.min(range1[0], range2[0]),
+      Math.max(range1[1], range2[1]),
+      Math.min(range1[2], range2[2]),
+      Math.max(range1[3], range2[3])
+    };
+  }
+
+  private static long size(int[] range) {
+    return (long) (range[1] - range[0] + 1) * (range[3] - range[2] + 1);
+  }
+
+  private static TileMatrixSetLimitsOgcApi of(
+      int tileMatrix, int minRow, int maxRow, Range<Integer> cols) {
+    return new ImmutableTileMatrixSetLimitsOgcApi.Builder()
+        .tileMatrix(String.valueOf(tileMatrix))
+        .minTileRow(minRow)
+        .maxTileRow(maxRow)
+        .minTileCol(cols.lowerEndpoint())
+        .maxTileCol(cols.upperEndpoint() - 1)
+        .build();
+  }
+}
@@ -27,4 +27,11 @@ public interface TileMatrixSetLimitsGenerator {
 
   List<TileMatrixSetLimitsOgcApi> getTileMatrixSetLimits(
       BoundingBox boundingBox, TileMatrixSet tileMatrixSet, MinMax tileMatrixRange);
+
+  /**
+   * The limits are not cached, use this for bounding boxes that are only used once, e.g. the
+   * bounding box of a changed feature.
+   */
+  TileMatrixSetLimitsOgcApi getTileMatrixSetLimits(
+      BoundingBox boundingBox, TileMatrixSet tileMatrixSet, int tileMatrix);
 }
@@ -19,16 +19,23 @@ import de.ii.xtraplatform.jsonschema.domain.JsonSchemaDocument.VERSION;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Supplier;
 
+/**
+ * Cache for the schemas of the vector layers of a tileset. The cache is created for a snapshot of
+ * the codelists, if the codelists change, the cache has to be replaced.
+ */
 class SchemaCacheTileSet extends JsonSchemaCache {
 
   private static final String DEFAULT_FLATTENING_SEPARATOR = ".";
 
-  private final Supplier<Map<String, Codelist>> codelistSupplier;
+  private final Map<String, Codelist> codelists;
+
+  SchemaCacheTileSet(Map<String, Codelist> codelists) {
+    this.codelists = codelists;
+  }
 
-  SchemaCacheTileSet(Supplier<Map<String, Codelist>> codelistSupplier) {
-    this.codelistSupplier = codelistSupplier;
+  boolean isCurrent(Map<String, Codelist> currentCodelists) {
+    return codelists.equals(currentCodelists);
   }
 
   @Override
@@ -46,7 +53,7 @@ class SchemaCacheTileSet extends JsonSchemaCache {
             schemaUri,
             collectionData.getLabel(),
             Optional.empty(),
-            codelistSupplier.get());
+            codelists);
 
     return (JsonSchemaDocument) schema.accept(schemaDeriverFeatures);
   }
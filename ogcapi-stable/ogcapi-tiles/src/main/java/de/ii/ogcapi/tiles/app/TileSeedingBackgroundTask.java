@@ -13,11 +13,17 @@ import de.ii.ogcapi.features.core.domain.FeaturesCoreConfiguration;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreProviders;
 import de.ii.ogcapi.features.core.domain.WithChangeListeners;
 import de.ii.ogcapi.foundation.domain.ExtensionConfiguration;
+import de.ii.ogcapi.foundation.domain.FeatureTypeConfigurationOgcApi;
 import de.ii.ogcapi.foundation.domain.OgcApi;
 import de.ii.ogcapi.foundation.domain.OgcApiBackgroundTask;
 import de.ii.ogcapi.foundation.domain.OgcApiDataV2;
+import de.ii.ogcapi.tilematrixsets.domain.DirtyTileTracker;
+import de.ii.ogcapi.tilematrixsets.domain.DirtyTileTrackers;
+import de.ii.ogcapi.tilematrixsets.domain.TileMatrixSetLimitsGenerator;
+import de.ii.ogcapi.tilematrixsets.domain.TileMatrixSetLimitsOgcApi;
 import de.ii.ogcapi.tiles.domain.TilesConfiguration;
 import de.ii.ogcapi.tiles.domain.TilesProviders;
+import de.ii.xtraplatform.base.domain.AppContext;
 import de.ii.xtraplatform.base.domain.LogContext;
 import de.ii.xtraplatform.base.domain.resiliency.OptionalCapability;
 import de.ii.xtraplatform.base.domain.resiliency.VolatileRegistry;
@@ -30,14 +36,19 @@ import de.ii.xtraplatform.jobs.domain.JobQueue;
 import de.ii.xtraplatform.jobs.domain.JobSet;
 import de.ii.xtraplatform.services.domain.TaskContext;
 import de.ii.xtraplatform.tiles.domain.ImmutableTileGenerationParameters;
+import de.ii.xtraplatform.tiles.domain.MinMax;
 import de.ii.xtraplatform.tiles.domain.SeedingOptions;
 import de.ii.xtraplatform.tiles.domain.TileGenerationParameters;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSet;
+import de.ii.xtraplatform.tiles.domain.TileMatrixSetRepository;
 import de.ii.xtraplatform.tiles.domain.TileProvider;
 import de.ii.xtraplatform.tiles.domain.TileProviderFeaturesData;
 import de.ii.xtraplatform.tiles.domain.TileSeedingJobSet;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -45,7 +56,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,22 +73,35 @@ import org.slf4j.LoggerFactory;
 public class TileSeedingBackgroundTask implements OgcApiBackgroundTask, WithChangeListeners {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TileSeedingBackgroundTask.class);
+  private static final int DEFAULT_SEEDING_DEBOUNCE = 10;
+  private static final Path DIRTY_TILES_DIR = Path.of("cache", "seeding", "tiles");
 
   private final FeaturesCoreProviders providers;
   private final TilesProviders tilesProviders;
   private final VolatileRegistry volatileRegistry;
   private final JobQueue jobQueue;
+  private final TileMatrixSetRepository tileMatrixSetRepository;
+  private final TileMatrixSetLimitsGenerator limitsGenerator;
+  // feature changes are collected per API and seeded together
+  private final DirtyTileTrackers dirtyTileTrackers;
 
   @Inject
   public TileSeedingBackgroundTask(
+      AppContext appContext,
       FeaturesCoreProviders providers,
       TilesProviders tilesProviders,
       VolatileRegistry volatileRegistry,
-      JobQueue jobQueue) {
+      JobQueue jobQueue,
+      TileMatrixSetRepository tileMatrixSetRepository,
+      TileMatrixSetLimitsGenerator limitsGenerator) {
     this.providers = providers;
     this.tilesProviders = tilesProviders;
     this.volatileRegistry = volatileRegistry;
     this.jobQueue = jobQueue;
+    this.tileMatrixSetRepository = tileMatrixSetRepository;
+    this.limitsGenerator = limitsGenerator;
+    this.dirtyTileTrackers =
+        new DirtyTileTrackers(appContext.getDataDir().resolve(DIRTY_TILES_DIR));
   }
 
   @Override
@@ -120,6 +147,9 @@ public class TileSeedingBackgroundTask implements OgcApiBackgroundTask, WithChan
         .getFeatureProvider(api.getData())
         .ifPresent(provider -> removeChangeListeners(provider.changes(), api));
 
+    // pending dirty tiles are kept and seeded after the next start
+    dirtyTileTrackers.remove(api.getData().getId());
+
     OgcApiBackgroundTask.super.onShutdown(api);
   }
 
@@ -264,6 +294,21 @@ public class TileSeedingBackgroundTask implements OgcApiBackgroundTask, WithChan
       boolean reseed,
       Optional<String> collectionId,
       Optional<BoundingBox> bbox) {
+    return getJobSet(api, tileProvider, reseed, collectionId, tileset -> true, tileset -> bbox);
+  }
+
+  /**
+   * @param tilesetFilter the tilesets that should be seeded
+   * @param clipBoundingBox the bounding box to seed for a tileset, if empty the spatial extent is
+   *     used
+   */
+  private JobSet getJobSet(
+      OgcApi api,
+      TileProvider tileProvider,
+      boolean reseed,
+      Optional<String> collectionId,
+      Predicate<String> tilesetFilter,
+      Function<String, Optional<BoundingBox>> clipBoundingBox) {
     OgcApiDataV2 apiData = api.getData();
     Map<String, TileGenerationParameters> tilesets = new LinkedHashMap<>();
     Map<String, TileGenerationParameters> combinedTilesets = new LinkedHashMap<>();
@@ -275,11 +320,13 @@ public class TileSeedingBackgroundTask implements OgcApiBackgroundTask, WithChan
       getTilesConfiguration(apiData, cid)
           .filter(cfg -> cfg.hasCollectionTiles(tilesProviders, apiData, cid))
           .map(cfg -> cfg.getCollectionTileset(cid))
+          .filter(tilesetFilter)
           .ifPresent(
               tileset -> {
                 TileGenerationParameters generationParameters =
                     new ImmutableTileGenerationParameters.Builder()
-                        .clipBoundingBox(bbox.or(() -> api.getSpatialExtent(cid)))
+                        .clipBoundingBox(
+                            clipBoundingBox.apply(tileset).or(() -> api.getSpatialExtent(cid)))
                         .substitutions(
                             FeaturesCoreProviders.DEFAULT_SUBSTITUTIONS.apply(
                                 api.getUri().toString()))
@@ -300,11 +347,13 @@ public class TileSeedingBackgroundTask implements OgcApiBackgroundTask, WithChan
         .getExtension(TilesConfiguration.class)
         .filter(cfg -> cfg.hasDatasetVectorTiles(tilesProviders, apiData))
         .map(TilesConfiguration::getDatasetTileset)
+        .filter(tilesetFilter)
         .ifPresent(
             tileset -> {
               TileGenerationParameters generationParameters =
                   new ImmutableTileGenerationParameters.Builder()
-                      .clipBoundingBox(bbox.or(() -> api.getSpatialExtent()))
+                      .clipBoundingBox(
+                          clipBoundingBox.apply(tileset).or(() -> api.getSpatialExtent()))
                       .substitutions(
                           FeaturesCoreProviders.DEFAULT_SUBSTITUTIONS.apply(
                               api.getUri().toString()))
@@ -433,6 +482,8 @@ public class TileSeedingBackgroundTask implements OgcApiBackgroundTask, WithChan
       return change -> {};
     }
 
+    DirtyTileTracker dirtyTileTracker = getDirtyTileTracker(api, tileProvider);
+
     return change -> {
       Optional<SeedingOptions> seeding =
           tilesProviders
@@ -482,14 +533,132 @@ public class TileSeedingBackgroundTask implements OgcApiBackgroundTask, WithChan
       }
 
       for (BoundingBox bbox : bboxes) {
-        JobSet jobSet =
-            getJobSet(api, tileProvider, true, Optional.of(collectionId), Optional.of(bbox));
+        if (!addDirtyTiles(apiData, dirtyTileTracker, collectionId, bbox)) {
+          JobSet jobSet =
+              getJobSet(api, tileProvider, true, Optional.of(collectionId), Optional.of(bbox));
 
-        jobQueue.push(jobSet);
+          jobQueue.push(jobSet);
+        }
       }
     };
   }
 
+  private DirtyTileTracker getDirtyTileTracker(OgcApi api, TileProvider tileProvider) {
+    int debounce =
+        api.getData()
+            .getExtension(TilesConfiguration.class)
+            .map(TilesConfiguration::getSeedingDebounce)
+            .orElse(DEFAULT_SEEDING_DEBOUNCE);
+
+    return dirtyTileTrackers.replace(
+        api.getData().getId(),
+        Duration.ofSeconds(debounce),
+        ranges -> seedDirtyTiles(api, tileProvider, ranges));
+  }
+
+  /**
+   * Marks the tiles of all tilesets that include the collection as dirty. The tiles are tracked in
+   * the first tile matrix set of a tileset, the seeding job applies the bounding box of the dirty
+   * tiles to all tile matrix sets.
+   *
+   * @return {@code false}, if the tiles cannot be tracked, e.g. because the tileset metadata is not
+   *     available
+   */
+  private boolean addDirtyTiles(
+      OgcApiDataV2 apiData, DirtyTileTracker tracker, String collectionId, BoundingBox bbox) {
+    Map<String, Entry<String, TileMatrixSetLimitsOgcApi>> dirtyTiles = new LinkedHashMap<>();
+
+    for (Entry<String, Optional<FeatureTypeConfigurationOgcApi>> tileset :
+        getTilesets(apiData, Optional.of(collectionId)).entrySet()) {
+      Optional<Entry<String, MinMax>> levels =
+          tilesProviders
+              .getTilesetMetadata(apiData, tileset.getValue())
+              .flatMap(metadata -> metadata.getLevels().entrySet().stream().findFirst());
+      Optional<TileMatrixSet> tileMatrixSet =
+          levels.flatMap(level -> tileMatrixSetRepository.get(level.getKey()));
+
+      if (tileMatrixSet.isEmpty()) {
+        return false;
+      }
+
+      MinMax minMax = levels.get().getValue();
+      int level =
+          Math.max(
+              minMax.getMin(), Math.min(minMax.getMax(), DirtyTileTracker.MAX_TRACKING_LEVEL));
+
+      dirtyTiles.put(
+          tileset.getKey(),
+          Map.entry(
+              tileMatrixSet.get().getId(),
+              limitsGenerator.getTileMatrixSetLimits(bbox, tileMatrixSet.get(), level)));
+    }
+
+    dirtyTiles.forEach(
+        (tileset, limits) -> tracker.add(tileset, limits.getKey(), limits.getValue()));
+
+    return true;
+  }
+
+  private void seedDirtyTiles(
+      OgcApi api,
+      TileProvider tileProvider,
+      Map<String, Map<String, List<TileMatrixSetLimitsOgcApi>>> dirtyTiles) {
+    Set<String> tilesets = getTilesets(api.getData(), Optional.empty()).keySet();
+    // the n-th tile range of each tileset is seeded by the n-th job set
+    List<Map<String, BoundingBox>> clipBoundingBoxes =
+        DirtyTileTrackers.getClipBoundingBoxes(
+            dirtyTiles, tileMatrixSetRepository, tilesets::contains);
+
+    JobSet jobSet = null;
+    for (Map<String, BoundingBox> clip : clipBoundingBoxes) {
+      JobSet next =
+          getJobSet(
+              api,
+              tileProvider,
+              true,
+              Optional.empty(),
+              clip::containsKey,
+              tileset -> Optional.ofNullable(clip.get(tileset)));
+      jobSet = Objects.isNull(jobSet) ? next : jobSet.with(next);
+    }
+
+    if (Objects.nonNull(jobSet)) {
+      jobQueue.push(jobSet);
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug(
+            "Added seeding job set for changed features to the queue ({}, {} tile ranges)",
+            jobSet.getId(),
+            clipBoundingBoxes.stream().mapToInt(Map::size).sum());
+      }
+    }
+  }
+
+
+  // the tilesets that are seeded for the collection, the value is the collection of the tileset
+  private Map<String, Optional<FeatureTypeConfigurationOgcApi>> getTilesets(
+      OgcApiDataV2 apiData, Optional<String> collectionId) {
+    Map<String, Optional<FeatureTypeConfigurationOgcApi>> tilesets = new LinkedHashMap<>();
+
+    for (String cid : apiData.getCollections().keySet()) {
+      if (collectionId.isPresent() && !collectionId.get().equals(cid)) {
+        continue;
+      }
+      getTilesConfiguration(apiData, cid)
+          .filter(cfg -> cfg.hasCollectionTiles(tilesProviders, apiData, cid))
+          .map(cfg -> cfg.getCollectionTileset(cid))
+          .ifPresent(tileset -> tilesets.putIfAbsent(tileset, apiData.getCollectionData(cid)));
+    }
+
+    apiData
+        .getExtension(TilesConfiguration.class)
+        .filter(cfg -> cfg.hasDatasetVectorTiles(tilesProviders, apiData))
+        .map(TilesConfiguration::getDatasetTileset)
+        .ifPresent(tileset -> tilesets.putIfAbsent(tileset, Optional.empty()));
+
+    return tilesets;
+  }
+
   private Optional<TilesConfiguration> getTilesConfiguration(
       OgcApiDataV2 apiData, String collectionId) {
     return Optional.ofNullable(apiData.getCollections().get(collectionId))
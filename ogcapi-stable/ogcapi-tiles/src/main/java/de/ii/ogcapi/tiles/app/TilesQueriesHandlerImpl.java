@@ -8,9 +8,13 @@
 package de.ii.ogcapi.tiles.app;
 
 import com.github.azahnen.dagger.annotations.AutoBind;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
+import com.google.common.hash.Hasher;
 import de.ii.ogcapi.features.core.domain.FeaturesCoreProviders;
 import de.ii.ogcapi.features.core.domain.JsonSchemaCache;
 import de.ii.ogcapi.features.core.domain.JsonSchemaExtension;
@@ -30,6 +34,7 @@ import de.ii.ogcapi.foundation.domain.ProfileExtension.ResourceType;
 import de.ii.ogcapi.foundation.domain.ProfileSet;
 import de.ii.ogcapi.foundation.domain.QueryHandler;
 import de.ii.ogcapi.foundation.domain.QueryInput;
+import de.ii.ogcapi.foundation.domain.ResponseCache;
 import de.ii.ogcapi.html.domain.HtmlConfiguration;
 import de.ii.ogcapi.tilematrixsets.domain.TileMatrixSetLimitsGenerator;
 import de.ii.ogcapi.tilematrixsets.domain.TileMatrixSetOgcApi;
@@ -133,6 +138,7 @@ public class TilesQueriesHandlerImpl extends AbstractVolatileComposed
   private final TileMatrixSetLimitsGenerator limitsGenerator;
   private final TilesProviders tilesProviders;
   private final TileMatrixSetRepository tileMatrixSetRepository;
+  private final Cache<TilesetMetadata, SchemaCacheTileSet> tilesetSchemaCaches;
 
   @Inject
   public TilesQueriesHandlerImpl(
@@ -152,6 +158,7 @@ public class TilesQueriesHandlerImpl extends AbstractVolatileComposed
     this.limitsGenerator = limitsGenerator;
     this.tilesProviders = tilesProviders;
     this.tileMatrixSetRepository = tileMatrixSetRepository;
+    this.tilesetSchemaCaches = CacheBuilder.newBuilder().weakKeys().maximumSize(1_000).build();
 
     this.queryHandlers =
         ImmutableMap.<Query, QueryHandler<? extends QueryInput>>builder()
@@ -179,6 +186,38 @@ public class TilesQueriesHandlerImpl extends AbstractVolatileComposed
     return queryHandlers;
   }
 
+  @Override
+  public boolean canCacheResponse(Query query) {
+    return query == Query.TILE_SETS || query == Query.TILE_SET;
+  }
+
+  // the tileset metadata is derived from the tileset metadata of the tile provider, the tile matrix
+  // sets and, for the schemas of the vector layers, the codelists
+  @Override
+  public void putResponseCacheInputs(
+      Query query, QueryInput queryInput, ApiRequestContext requestContext, Hasher hasher) {
+    OgcApiDataV2 apiData = requestContext.getApi().getData();
+    Optional<String> collectionId =
+        queryInput instanceof QueryInputTileSets tileSetsInput
+            ? tileSetsInput.getCollectionId()
+            : queryInput instanceof QueryInputTileSet tileSetInput
+                ? tileSetInput.getCollectionId()
+                : Optional.empty();
+    Optional<FeatureTypeConfigurationOgcApi> collectionData =
+        collectionId.flatMap(apiData::getCollectionData);
+
+    tilesProviders
+        .getTilesetMetadata(apiData, collectionData)
+        .ifPresent(tilesetMetadata -> hasher.putInt(tilesetMetadata.hashCode()));
+    ResponseCache.putValues(
+        hasher, tilesProviders.getRasterTilesetMetadata(apiData, collectionData));
+    ResponseCache.putValues(
+        hasher,
+        Maps.transformValues(
+            tileMatrixSetRepository.getAll(), TileMatrixSet::getTileMatrixSetData));
+    ResponseCache.putValues(hasher, codelistStore.asMap());
+  }
+
   private Response getTileSetsResponse(
       QueryInputTileSets queryInput, ApiRequestContext requestContext) {
     OgcApi api = requestContext.getApi();
@@ -457,10 +496,25 @@ public class TilesQueriesHandlerImpl extends AbstractVolatileComposed
                     tileQuery.getCol(),
                     queryInput.getOutputFormat().getMediaType().fileExtension())),
             i18n.getLanguages())
-        .entity(result.getContent().get())
+        .entity(content)
         .build();
   }
 
+  // the schemas of the vector layers are cached per tileset metadata object, which is replaced by
+  // the tile provider when the tileset changes; the schema cache itself is keyed by the API data
+  // version, the collection and the profiles, and is replaced when the codelists change
+  private JsonSchemaCache getSchemaCache(TilesetMetadata tilesetMetadata) {
+    Map<String, Codelist> codelists = codelistStore.asMap();
+    SchemaCacheTileSet schemaCache = tilesetSchemaCaches.getIfPresent(tilesetMetadata);
+
+    if (Objects.isNull(schemaCache) || !schemaCache.isCurrent(codelists)) {
+      schemaCache = new SchemaCacheTileSet(codelists);
+      tilesetSchemaCaches.put(tilesetMetadata, schemaCache);
+    }
+
+    return schemaCache;
+  }
+
   private Response getWmtsCapabilities(
       QueryInputWmts queryInput, ApiRequestContext requestContext) {
     OgcApi api = requestContext.getApi();
@@ -970,7 +1024,7 @@ public class TilesQueriesHandlerImpl extends AbstractVolatileComposed
     styleId.ifPresent(s -> builder.style(ImmutableStyleEntry.builder().id(s).build()));
 
     if (tilesetMetadata.isPresent() && dataType == DataType.vector) {
-      JsonSchemaCache schemaCache = new SchemaCacheTileSet(codelistStore::asMap);
+      JsonSchemaCache schemaCache = getSchemaCache(tilesetMetadata.get());
 
       List<ProfileSet> allProfileSets = extensionRegistry.getExtensionsForType(ProfileSet.class);
 
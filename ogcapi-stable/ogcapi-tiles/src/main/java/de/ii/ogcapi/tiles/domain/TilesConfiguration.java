@@ -568,6 +568,22 @@ public interface TilesConfiguration
   @Nullable
   WmtsScope getWmts();
 
+  /**
+   * @langEn If the tiles are seeded on feature changes (`runOnFeatureChange` in the seeding options
+   *     of the tile provider), the changes are collected for the given number of seconds and the
+   *     affected tiles are then seeded in a single job. Pending changes are kept in the data
+   *     directory and are seeded after a restart.
+   * @langDe Wenn die Kacheln bei Feature-Änderungen neu erzeugt werden (`runOnFeatureChange` in den
+   *     Seeding-Optionen des Tile-Providers), werden die Änderungen für die angegebene Anzahl von
+   *     Sekunden gesammelt und die betroffenen Kacheln anschließend in einem einzigen Job erzeugt.
+   *     Ausstehende Änderungen werden im Datenverzeichnis vorgehalten und nach einem Neustart
+   *     verarbeitet.
+   * @default 10
+   * @since v4.9
+   */
+  @Nullable
+  Integer getSeedingDebounce();
+
   // TODO cache values so these are only computed once
   default boolean hasCollectionTiles(
       TilesProviders providers, OgcApiDataV2 apiData, String collectionId) {
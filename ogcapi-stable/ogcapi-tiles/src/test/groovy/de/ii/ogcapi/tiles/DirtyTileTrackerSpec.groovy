@@ -0,0 +1,168 @@
+/*
+ * Copyright 2022 interactive instruments GmbH
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package de.ii.ogcapi.tiles
+
+import de.ii.ogcapi.tilematrixsets.domain.DirtyTileTracker
+import de.ii.ogcapi.tilematrixsets.domain.DirtyTiles
+import de.ii.ogcapi.tilematrixsets.domain.ImmutableTileMatrixSetLimitsOgcApi
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.time.Duration
+
+class DirtyTileTrackerSpec extends Specification {
+
+    static def limits(int level, int minRow, int maxRow, int minCol, int maxCol) {
+        new ImmutableTileMatrixSetLimitsOgcApi.Builder()
+                .tileMatrix(String.valueOf(level))
+                .minTileRow(minRow)
+                .maxTileRow(maxRow)
+                .minTileCol(minCol)
+                .maxTileCol(maxCol)
+                .build()
+    }
+
+    def 'Overlapping and adjacent tile ranges are merged'() {
+
+        given: "many small changes in the same area"
+
+        def dirtyTiles = new DirtyTiles()
+        (0..<1000).each { dirtyTiles.add(limits(12, 10 + it % 3, 10 + it % 3, 20 + it % 5, 20 + it % 5)) }
+
+        expect: 'a single tile range'
+
+        dirtyTiles.getRanges() == [limits(12, 10, 12, 20, 24)]
+    }
+
+    def 'Separate areas result in separate tile ranges'() {
+
+        given:
+
+        def dirtyTiles = new DirtyTiles()
+        dirtyTiles.add(limits(12, 0, 1, 0, 1))
+        dirtyTiles.add(limits(12, 0, 1, 5, 5))
+        dirtyTiles.add(limits(12, 4, 4, 0, 1))
+        dirtyTiles.add(limits(10, 3, 3, 3, 3))
+
+        expect:
+
+        dirtyTiles.getRanges() as Set == [
+                limits(10, 3, 3, 3, 3),
+                limits(12, 0, 1, 0, 1),
+                limits(12, 0, 1, 5, 5),
+                limits(12, 4, 4, 0, 1)] as Set
+        dirtyTiles.getRanges(2) as Set == [
+                limits(10, 3, 3, 3, 3),
+                limits(12, 0, 4, 0, 1),
+                limits(12, 0, 1, 5, 5)] as Set
+    }
+
+    def 'Scattered changes are merged into nearby tile ranges'() {
+
+        given: "two distant clusters of scattered tiles"
+
+        def dirtyTiles = new DirtyTiles()
+        (0..<20).each {
+            dirtyTiles.add(limits(12, 2 * it, 2 * it, 0, 0))
+            dirtyTiles.add(limits(12, 1000 + 2 * it, 1000 + 2 * it, 1000, 1000))
+        }
+
+        expect: 'one tile range per cluster instead of a single range that covers both'
+
+        dirtyTiles.getRanges(2) as Set == [limits(12, 0, 38, 0, 0), limits(12, 1000, 1038, 1000, 1000)] as Set
+    }
+
+    def 'Each dirty tile is contained in exactly one tile range'() {
+
+        given: "an L-shaped area"
+
+        def dirtyTiles = new DirtyTiles()
+        dirtyTiles.add(limits(5, 0, 3, 0, 0))
+        dirtyTiles.add(limits(5, 3, 3, 0, 4))
+
+        when:
+
+        def ranges = dirtyTiles.getRanges()
+        def tiles = ranges.collectMany { r ->
+            (r.minTileRow..r.maxTileRow).collectMany { row -> (r.minTileCol..r.maxTileCol).collect { col -> [row, col] } }
+        }
+
+        then:
+
+        tiles.size() == 8
+        tiles as Set == ((0..3).collect { [it, 0] } + (0..4).collect { [3, it] }) as Set
+    }
+
+    def 'Pending dirty tiles are restored after a restart'() {
+
+        given:
+
+        def file = Files.createTempDirectory("dirty-tiles").resolve("api.json")
+        def flushed = []
+        def tracker = new DirtyTileTracker(file, Duration.ofHours(1), { flushed << it })
+        tracker.add("buildings", "WebMercatorQuad", limits(12, 1, 2, 3, 4))
+        tracker.add("__all__", "WebMercatorQuad", limits(12, 1, 1, 3, 3))
+
+        when: "the tracker is closed and a new tracker is created for the same file"
+
+        tracker.close()
+        def restored = new DirtyTileTracker(file, Duration.ofHours(1), { flushed << it })
+        restored.flush()
+
+        then:
+
+        flushed == [[
+                            buildings: [WebMercatorQuad: [limits(12, 1, 2, 3, 4)]],
+                            __all__  : [WebMercatorQuad: [limits(12, 1, 1, 3, 3)]]]]
+        !Files.exists(file)
+
+        cleanup:
+
+        restored?.close()
+    }
+
+    def 'Dirty tiles are kept if the flush handler fails'() {
+
+        given:
+
+        def file = Files.createTempDirectory("dirty-tiles").resolve("api.json")
+        def failing = true
+        def flushed = []
+        def tracker = new DirtyTileTracker(file, Duration.ofHours(1), {
+            if (failing) {
+                throw new IllegalStateException("seeding not available")
+            }
+            flushed << it
+        })
+        tracker.add("buildings", "WebMercatorQuad", limits(12, 1, 2, 3, 4))
+
+        when: "the flush handler fails"
+
+        tracker.flush()
+
+        then: "the dirty tiles are still in the file"
+
+        Files.exists(file)
+        flushed.isEmpty()
+
+        when: "the next flush succeeds"
+
+        failing = false
+        tracker.add("buildings", "WebMercatorQuad", limits(12, 10, 10, 10, 10))
+        tracker.flush()
+
+        then: "the dirty tiles of both changes are flushed and the file is deleted"
+
+        flushed == [[buildings: [WebMercatorQuad: [limits(12, 1, 2, 3, 4), limits(12, 10, 10, 10, 10)]]]]
+        !Files.exists(file)
+
+        cleanup:
+
+        tracker?.close()
+    }
+}